@@ -1,14 +1,36 @@
 package com.baskaaleksander.nuvine;
 
 import com.baskaaleksander.nuvine.infrastructure.auth.KeycloakClientCredentialsProperties;
+import com.baskaaleksander.nuvine.infrastructure.config.AnswerCacheProperties;
+import com.baskaaleksander.nuvine.infrastructure.config.ChatMemoryProperties;
+import com.baskaaleksander.nuvine.infrastructure.config.ConversationArchiveProperties;
+import com.baskaaleksander.nuvine.infrastructure.config.ConversationPersistenceProperties;
+import com.baskaaleksander.nuvine.infrastructure.config.IdempotencyProperties;
+import com.baskaaleksander.nuvine.infrastructure.config.LlmRouterHttpClientProperties;
+import com.baskaaleksander.nuvine.infrastructure.config.RagContextProperties;
+import com.baskaaleksander.nuvine.infrastructure.config.StreamCoalescingProperties;
+import com.baskaaleksander.nuvine.infrastructure.config.WorkspaceContextProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties(KeycloakClientCredentialsProperties.class)
+@EnableConfigurationProperties({
+        KeycloakClientCredentialsProperties.class,
+        RagContextProperties.class,
+        ConversationPersistenceProperties.class,
+        ChatMemoryProperties.class,
+        AnswerCacheProperties.class,
+        StreamCoalescingProperties.class,
+        WorkspaceContextProperties.class,
+        LlmRouterHttpClientProperties.class,
+        ConversationArchiveProperties.class,
+        IdempotencyProperties.class
+})
 @EnableFeignClients
+@EnableScheduling
 public class ChatApplication {
 
     public static void main(String[] args) {
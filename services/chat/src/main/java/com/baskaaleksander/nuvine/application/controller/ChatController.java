@@ -5,16 +5,15 @@ import com.baskaaleksander.nuvine.domain.service.ChatService;
 import com.giffing.bucket4j.spring.boot.starter.context.RateLimiting;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -22,6 +21,8 @@ import java.util.UUID;
 @RequestMapping("/api/v1/chat")
 public class ChatController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final ChatService chatService;
 
     @PreAuthorize("@chatAccess.canCreateMessage(#request.conversationId, #jwt.getSubject(), #request.projectId, #request.workspaceId)")
@@ -33,9 +34,10 @@ public class ChatController {
     )
     public ResponseEntity<ConversationMessageResponse> completions(
             @RequestBody @Valid CompletionRequest request,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal Jwt jwt
     ) {
-        return ResponseEntity.ok(chatService.completion(request, jwt.getSubject()));
+        return ResponseEntity.ok(chatService.completion(request, jwt.getSubject(), idempotencyKey));
     }
 
     @PreAuthorize("@chatAccess.canCreateMessage(#request.conversationId, #jwt.getSubject(), #request.projectId, #request.workspaceId)")
@@ -48,33 +50,34 @@ public class ChatController {
             cacheKey = "#jwt.getSubject()",
             ratePerMethod = true
     )
-    public SseEmitter completionStream(
+    public Flux<ServerSentEvent<Object>> completionStream(
             @RequestBody CompletionRequest request,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal Jwt jwt
     ) {
         String userId = jwt.getSubject();
-        return chatService.completionStream(request, userId);
+        return chatService.completionStream(request, userId, idempotencyKey);
     }
 
     @GetMapping
-    public ResponseEntity<List<UserConversationResponse>> getUserConversations(
+    public ResponseEntity<CursorPage<UserConversationResponse>> getUserConversations(
             @AuthenticationPrincipal Jwt jwt,
-            @RequestParam UUID projectId
+            @RequestParam UUID projectId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit
     ) {
-        return ResponseEntity.ok(chatService.getUserConversations(jwt.getSubject(), projectId));
+        return ResponseEntity.ok(chatService.getUserConversations(jwt.getSubject(), projectId, cursor, limit));
     }
 
     @PreAuthorize("@chatAccess.canAccessChat(#conversationId, #jwt.getSubject())")
     @GetMapping("/{conversationId}")
-    public ResponseEntity<PagedResponse<ConversationMessageResponse>> getMessages(
+    public ResponseEntity<CursorPage<ConversationMessageResponse>> getMessages(
             @PathVariable UUID conversationId,
             @AuthenticationPrincipal Jwt jwt,
-            @RequestParam(defaultValue = "0") Integer page,
-            @RequestParam(defaultValue = "10") Integer size,
-            @RequestParam(defaultValue = "createdAt") String sortField,
-            @RequestParam(defaultValue = "ASC") Sort.Direction direction
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit
     ) {
-        PaginationRequest request = new PaginationRequest(page, size, sortField, direction);
-        return ResponseEntity.ok(chatService.getMessages(conversationId, jwt.getSubject(), request));
+        return ResponseEntity.ok(chatService.getMessages(conversationId, before, after, limit));
     }
 }
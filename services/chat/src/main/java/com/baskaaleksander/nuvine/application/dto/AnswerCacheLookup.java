@@ -0,0 +1,17 @@
+package com.baskaaleksander.nuvine.application.dto;
+
+/**
+ * Result of a semantic answer cache lookup. {@code hit} is null on a miss; the scope and
+ * quantized query embedding are kept so the fresh answer can be stored under the same key.
+ */
+public record AnswerCacheLookup(
+        String scope,
+        byte[] queryEmbedding,
+        CachedAnswer hit,
+        double similarity
+) {
+
+    public boolean isHit() {
+        return hit != null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.baskaaleksander.nuvine.application.dto;
+
+import java.math.BigDecimal;
+
+public record CachedAnswer(
+        String content,
+        BigDecimal estimatedCost
+) {
+}
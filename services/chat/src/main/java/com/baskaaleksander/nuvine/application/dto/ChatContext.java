@@ -10,6 +10,7 @@ public record ChatContext(
         UUID projectId,
         UUID workspaceId,
         List<CompletionLlmRouterRequest.Message> messages,
-        UUID ownerId
+        UUID ownerId,
+        AnswerCacheLookup answerCache
 ) {
 }
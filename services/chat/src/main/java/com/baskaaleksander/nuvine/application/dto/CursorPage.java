@@ -0,0 +1,10 @@
+package com.baskaaleksander.nuvine.application.dto;
+
+import java.util.List;
+
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext
+) {
+}
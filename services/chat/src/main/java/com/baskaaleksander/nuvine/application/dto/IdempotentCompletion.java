@@ -0,0 +1,26 @@
+package com.baskaaleksander.nuvine.application.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record IdempotentCompletion(
+        String fingerprint,
+        boolean completed,
+        UUID conversationId,
+        UUID messageId,
+        String content,
+        String modelUsed,
+        int tokensIn,
+        int tokensOut,
+        int tokensCost,
+        Instant createdAt,
+        UUID leaseId
+) {
+
+    /**
+     * The lease taken by one claim; {@code leaseId} tells it apart from another claim of the same request.
+     */
+    public static IdempotentCompletion inFlight(String fingerprint, UUID leaseId) {
+        return new IdempotentCompletion(fingerprint, false, null, null, null, null, 0, 0, 0, null, leaseId);
+    }
+}
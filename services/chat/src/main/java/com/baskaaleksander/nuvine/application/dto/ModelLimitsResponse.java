@@ -0,0 +1,9 @@
+package com.baskaaleksander.nuvine.application.dto;
+
+public record ModelLimitsResponse(
+        String provider,
+        String model,
+        Long contextWindowTokens,
+        long maxOutputTokens
+) {
+}
@@ -0,0 +1,17 @@
+package com.baskaaleksander.nuvine.application.dto;
+
+import java.util.List;
+
+public record PackedContext(
+        List<String> chunks,
+        int rawTokens,
+        int packedTokens,
+        int mergedChunks,
+        int droppedDuplicates,
+        int droppedOverBudget
+) {
+
+    public int tokensSaved() {
+        return rawTokens - packedTokens;
+    }
+}
@@ -0,0 +1,12 @@
+package com.baskaaleksander.nuvine.application.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ProjectChatContextResponse(
+        UUID workspaceId,
+        UUID projectId,
+        List<UUID> documentIds,
+        String version
+) {
+}
@@ -0,0 +1,6 @@
+package com.baskaaleksander.nuvine.application.dto;
+
+public enum SearchMode {
+    DENSE,
+    HYBRID
+}
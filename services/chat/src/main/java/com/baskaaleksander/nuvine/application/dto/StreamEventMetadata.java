@@ -3,6 +3,7 @@ package com.baskaaleksander.nuvine.application.dto;
 import java.util.UUID;
 
 public record StreamEventMetadata(
-        UUID conversationId
+        UUID conversationId,
+        UUID messageId
 ) {
 }
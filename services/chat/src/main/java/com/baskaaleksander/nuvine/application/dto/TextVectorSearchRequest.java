@@ -17,6 +17,7 @@ public record TextVectorSearchRequest(
         String query,
         @NotNull(message = "Top K cannot be null")
         int topK,
-        float threshold
+        float threshold,
+        SearchMode mode
 ) {
 }
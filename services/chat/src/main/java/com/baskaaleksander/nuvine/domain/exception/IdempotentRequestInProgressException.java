@@ -0,0 +1,7 @@
+package com.baskaaleksander.nuvine.domain.exception;
+
+public class IdempotentRequestInProgressException extends RuntimeException {
+    public IdempotentRequestInProgressException(String message) {
+        super(message);
+    }
+}
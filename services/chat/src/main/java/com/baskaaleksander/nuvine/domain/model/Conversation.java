@@ -0,0 +1,46 @@
+package com.baskaaleksander.nuvine.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@Entity
+@Table(
+        name = "conversation",
+        indexes = {
+                @Index(
+                        name = "idx_conversation_owner_project_activity",
+                        columnList = "owner_id, project_id, last_message_at DESC, id DESC"
+                )
+        }
+)
+public class Conversation {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "owner_id", nullable = false)
+    private UUID ownerId;
+
+    @Column(name = "project_id", nullable = false)
+    private UUID projectId;
+
+    @Column(name = "workspace_id", nullable = false)
+    private UUID workspaceId;
+
+    @Column(name = "last_message_preview", nullable = false, columnDefinition = "text")
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_at", nullable = false)
+    private Instant lastMessageAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
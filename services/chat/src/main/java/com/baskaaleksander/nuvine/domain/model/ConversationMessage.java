@@ -19,10 +19,6 @@ import java.util.UUID;
                 @Index(
                         name = "idx_conversation_message_conversation_created_at",
                         columnList = "conversation_id, created_at"
-                ),
-                @Index(
-                        name = "idx_conversation_message_created_at",
-                        columnList = "created_at"
                 )
         }
 )
@@ -48,6 +44,10 @@ public class ConversationMessage {
     @Column(name = "tokens_cost")
     private int tokensCost;
 
+    // Tokens in this message's content alone; null for messages written before it was recorded.
+    @Column(name = "content_tokens")
+    private Integer contentTokens;
+
     @Column(nullable = false)
     private UUID ownerId;
 
@@ -0,0 +1,41 @@
+package com.baskaaleksander.nuvine.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@Entity
+@Table(name = "conversation_summary")
+public class ConversationSummary {
+
+    @Id
+    @Column(name = "conversation_id")
+    private UUID conversationId;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String summary;
+
+    @Column(name = "summary_tokens", nullable = false)
+    private int summaryTokens;
+
+    @Column(name = "summarized_until", nullable = false)
+    private Instant summarizedUntil;
+
+    @Column(name = "summarized_message_count", nullable = false)
+    private int summarizedMessageCount;
+
+    @Version
+    private long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -1,9 +1,12 @@
 package com.baskaaleksander.nuvine.domain.security;
 
+import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
+import com.baskaaleksander.nuvine.domain.service.ConversationWriteBehindQueue;
 import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.UUID;
 
 @Component("chatAccess")
@@ -11,10 +14,11 @@ import java.util.UUID;
 public class ChatAccessEvaluation {
 
     private final ConversationMessageRepository conversationMessageRepository;
+    private final ConversationWriteBehindQueue conversationWriteBehindQueue;
 
     public boolean canAccessChat(UUID chatId, String userId) {
 
-        var message = conversationMessageRepository.findByConversationId(chatId, 1);
+        var message = findFirstMessage(chatId);
 
         if (message.isEmpty()) {
             return false;
@@ -28,7 +32,7 @@ public class ChatAccessEvaluation {
             return true;
         }
 
-        var message = conversationMessageRepository.findByConversationId(chatId, 1);
+        var message = findFirstMessage(chatId);
 
         if (message.isEmpty()) return true;
 
@@ -37,4 +41,17 @@ public class ChatAccessEvaluation {
 
         return message.getFirst().getOwnerId().equals(UUID.fromString(userId));
     }
+
+    private List<ConversationMessage> findFirstMessage(UUID chatId) {
+        var message = conversationMessageRepository.findByConversationId(chatId, 1);
+        if (!message.isEmpty()) {
+            return message;
+        }
+        message = conversationMessageRepository.findArchivedByConversationId(chatId, 1);
+        if (!message.isEmpty()) {
+            return message;
+        }
+        // A conversation answered moments ago may still be waiting in the write-behind queue.
+        return conversationWriteBehindQueue.unflushedMessages(chatId).stream().limit(1).toList();
+    }
 }
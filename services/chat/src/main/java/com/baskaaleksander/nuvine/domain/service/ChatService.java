@@ -2,35 +2,46 @@ package com.baskaaleksander.nuvine.domain.service;
 
 import com.baskaaleksander.nuvine.application.dto.*;
 import com.baskaaleksander.nuvine.application.mapper.ConversationMessageMapper;
+import com.baskaaleksander.nuvine.application.pagination.KeysetCursor;
 import com.baskaaleksander.nuvine.application.pagination.PaginationUtil;
 import com.baskaaleksander.nuvine.domain.exception.CheckLimitNotFoundException;
 import com.baskaaleksander.nuvine.domain.exception.ContextNotFoundException;
+import com.baskaaleksander.nuvine.domain.exception.InvalidCursorException;
 import com.baskaaleksander.nuvine.domain.exception.RequestLimitExceededException;
 import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
 import com.baskaaleksander.nuvine.infrastructure.client.LlmRouterServiceClient;
 import com.baskaaleksander.nuvine.infrastructure.client.SubscriptionServiceClient;
-import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
 import feign.FeignException;
+import io.micrometer.core.instrument.Tags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChatService {
 
+    private static final int CONVERSATION_PREVIEW_LENGTH = 100;
+
     private final LlmRouterServiceClient llmRouterServiceClient;
-    private final ConversationMessageRepository conversationMessageRepository;
     private final ConversationMessageMapper mapper;
     private final WebClient llmRouterWebClient;
     private final SubscriptionServiceClient subscriptionServiceClient;
@@ -40,8 +51,42 @@ public class ChatService {
     private final ConversationPersistenceService conversationPersistenceService;
     private final TokenCountingService tokenCountingService;
     private final ConversationCacheService conversationCacheService;
+    private final ConversationMemoryService conversationMemoryService;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final StreamDeltaCoalescer streamDeltaCoalescer;
+    private final CompletionIdempotencyService completionIdempotencyService;
+    private final ChatPipelineMetrics chatPipelineMetrics;
+    private final ExecutorService chatContextExecutor;
+
+    public ConversationMessageResponse completion(CompletionRequest request, String userId, String idempotencyKey) {
+        return completionIdempotencyService.completion(
+                userId,
+                idempotencyKey,
+                request,
+                () -> completion(request, userId)
+        );
+    }
 
     public ConversationMessageResponse completion(CompletionRequest request, String userId) {
+        ChatPipelineMetrics.CompletionTimer timer = chatPipelineMetrics.startCompletion(request, "sync");
+        try {
+            ConversationMessageResponse response = completion(request, userId, timer);
+            timer.finish("success", 0);
+            return response;
+        } catch (RequestLimitExceededException e) {
+            timer.finish("rejected", 0);
+            throw e;
+        } catch (RuntimeException e) {
+            timer.finish("error", 0);
+            throw e;
+        }
+    }
+
+    private ConversationMessageResponse completion(
+            CompletionRequest request,
+            String userId,
+            ChatPipelineMetrics.CompletionTimer timer
+    ) {
         UUID workspaceId = request.workspaceId();
         UUID projectId = request.projectId();
 
@@ -65,6 +110,10 @@ public class ChatService {
             return handleContextNotFoundStrictModeSync(request, userId);
         }
 
+        if (ctx.answerCache() != null && ctx.answerCache().isHit()) {
+            return serveCachedAnswerSync(ctx, request);
+        }
+
         CheckLimitResult checkLimitResult = checkLimit(request, ctx.prompt());
 
         if (!checkLimitResult.approved()) {
@@ -87,21 +136,31 @@ public class ChatService {
                 ctx.messages() != null && !ctx.messages().isEmpty()
         );
 
-        CompletionResponse completion = getCompletionResponse(
-                ctx.prompt(),
-                request.model(),
-                ctx.messages(),
-                ctx.conversationId()
+        timer.markGenerationStart();
+        CompletionResponse completion = chatPipelineMetrics.recordContextStage(
+                "llm_completion",
+                timer.tags(),
+                () -> getCompletionResponse(
+                        ctx.prompt(),
+                        request.model(),
+                        ctx.messages(),
+                        ctx.conversationId()
+                )
         );
 
-        ConversationMessage assistantMessage =
-                conversationPersistenceService.persistSyncCompletion(
+        ConversationMessage assistantMessage = chatPipelineMetrics.recordContextStage(
+                "persistence",
+                timer.tags(),
+                () -> conversationPersistenceService.persistSyncCompletion(
                         ctx.conversationId(),
                         request,
                         completion,
                         ctx.ownerId(),
                         checkLimitResult
-                );
+                )
+        );
+
+        semanticAnswerCache.store(ctx.answerCache(), completion.content(), checkLimitResult.estimatedCost());
 
         log.info(
                 "CHAT_COMPLETION END convoId={} workspaceId={} projectId={} model={} tokensIn={} tokensOut={}",
@@ -112,6 +171,7 @@ public class ChatService {
                 completion.tokensIn(),
                 completion.tokensOut()
         );
+        timer.finish("success", completion.tokensOut());
 
         return new ConversationMessageResponse(
                 assistantMessage.getId(),
@@ -125,6 +185,29 @@ public class ChatService {
         );
     }
 
+    private ConversationMessageResponse serveCachedAnswerSync(ChatContext ctx, CompletionRequest request) {
+        CachedAnswer cached = ctx.answerCache().hit();
+        chatPipelineMetrics.recordAnswerCacheCreditsSaved(cached.estimatedCost());
+
+        ConversationMessage assistantMessage = conversationPersistenceService.persistCachedAnswer(
+                ctx.conversationId(),
+                UUID.randomUUID(),
+                request,
+                cached.content(),
+                ctx.ownerId()
+        );
+
+        log.info(
+                "CHAT_COMPLETION CACHED_ANSWER convoId={} workspaceId={} projectId={} similarity={}",
+                ctx.conversationId(),
+                request.workspaceId(),
+                request.projectId(),
+                ctx.answerCache().similarity()
+        );
+
+        return mapper.toResponse(assistantMessage);
+    }
+
     private ConversationMessageResponse handleContextNotFoundStrictModeSync(
             CompletionRequest request,
             String userId
@@ -149,6 +232,7 @@ public class ChatService {
         ConversationMessage assistantMessage =
                 conversationPersistenceService.persistStrictModeNoContext(
                         conversationId,
+                        UUID.randomUUID(),
                         request,
                         assistantContent,
                         ownerId
@@ -167,12 +251,44 @@ public class ChatService {
     }
 
 
-    public SseEmitter completionStream(CompletionRequest request, String userId) {
-        SseEmitter emitter = new SseEmitter(0L);
-        StringBuilder answerBuilder = new StringBuilder();
+    public Flux<ServerSentEvent<Object>> completionStream(
+            CompletionRequest request,
+            String userId,
+            String idempotencyKey
+    ) {
+        return completionIdempotencyService.completionStream(
+                userId,
+                idempotencyKey,
+                request,
+                () -> completionStream(request, userId)
+        );
+    }
+
+    public Flux<ServerSentEvent<Object>> completionStream(CompletionRequest request, String userId) {
+        ChatPipelineMetrics.CompletionTimer timer = chatPipelineMetrics.startCompletion(request, "stream");
+        try {
+            return completionStream(request, userId, timer);
+        } catch (RequestLimitExceededException e) {
+            timer.finish("rejected", 0);
+            throw e;
+        } catch (RuntimeException e) {
+            timer.finish("error", 0);
+            throw e;
+        }
+    }
+
+    private Flux<ServerSentEvent<Object>> completionStream(
+            CompletionRequest request,
+            String userId,
+            ChatPipelineMetrics.CompletionTimer timer
+    ) {
+        StringBuffer answerBuffer = new StringBuffer();
+        // Chosen up front so the metadata event can name the answer before the exchange is written.
+        UUID assistantMessageId = UUID.randomUUID();
 
         AtomicInteger tokensIn = new AtomicInteger(0);
         AtomicInteger tokensOut = new AtomicInteger(0);
+        AtomicBoolean finalized = new AtomicBoolean(false);
 
         log.info(
                 "CHAT_COMPLETION_STREAM START workspaceId={} projectId={} freeMode={} strictMode={}",
@@ -191,9 +307,15 @@ public class ChatService {
                     request.workspaceId(),
                     request.projectId()
             );
-            handleContextNotFoundStrictMode(emitter, request, userId);
-            return emitter;
+            timer.finish("success", 0);
+            return handleContextNotFoundStrictMode(request, userId);
         }
+
+        if (ctx.answerCache() != null && ctx.answerCache().isHit()) {
+            timer.finish("success", 0);
+            return serveCachedAnswerStream(ctx, request);
+        }
+
         CheckLimitResult checkLimitResult = checkLimit(request, ctx.prompt());
 
         if (!checkLimitResult.approved()) {
@@ -217,36 +339,78 @@ public class ChatService {
         CompletionLlmRouterRequest routerRequest =
                 new CompletionLlmRouterRequest(ctx.prompt(), request.model(), ctx.messages());
 
-        llmRouterWebClient.post()
+        Mono<ServerSentEvent<Object>> completeStage = Mono.defer(() -> {
+            if (!finalized.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            timer.finish("success", tokensOut.get());
+            return Mono.<ServerSentEvent<Object>>fromRunnable(() -> handleStreamComplete(
+                    ctx,
+                    assistantMessageId,
+                    request,
+                    answerBuffer.toString(),
+                    tokensIn.get(),
+                    tokensOut.get(),
+                    checkLimitResult,
+                    timer.tags()
+            )).subscribeOn(Schedulers.boundedElastic());
+        });
+
+        return llmRouterWebClient.post()
                 .uri("/api/v1/internal/llm/completion/stream")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_NDJSON)
                 .bodyValue(routerRequest)
                 .retrieve()
                 .bodyToFlux(LlmChunk.class)
+                .transform(streamDeltaCoalescer::coalesce)
+                .doOnNext(chunk -> {
+                    if ("delta".equals(chunk.type())) {
+                        timer.markFirstToken();
+                    }
+                })
                 .doOnSubscribe(sub -> log.info(
                         "CHAT_COMPLETION_STREAM LLM_CALL_START convoId={} model={}",
                         ctx.conversationId(),
                         request.model()
                 ))
-                .doOnNext(chunk -> handleChunk(chunk, emitter, answerBuilder, tokensIn, tokensOut, ctx))
-                .doOnError(ex -> handleStreamError(ex, emitter, ctx))
-                .doOnComplete(() -> handleStreamComplete(
-                        emitter,
-                        ctx,
-                        request,
-                        answerBuilder.toString(),
-                        tokensIn.get(),
-                        tokensOut.get(),
-                        checkLimitResult
-                ))
-                .subscribe();
-
-        return emitter;
+                .concatMapIterable(chunk -> handleChunk(chunk, answerBuffer, tokensIn, tokensOut, ctx, assistantMessageId))
+                .doOnError(ex -> {
+                    log.error("CHAT_COMPLETION_STREAM FAILED convoId={}", ctx.conversationId(), ex);
+                    if (finalized.compareAndSet(false, true)) {
+                        timer.finish("error", tokensOut.get());
+                        Schedulers.boundedElastic().schedule(() -> handleStreamInterrupted(
+                                "FAILED",
+                                ctx,
+                                assistantMessageId,
+                                request,
+                                answerBuffer.toString(),
+                                tokensIn.get(),
+                                tokensOut.get(),
+                                checkLimitResult
+                        ));
+                    }
+                })
+                .concatWith(completeStage)
+                .doOnCancel(() -> {
+                    if (finalized.compareAndSet(false, true)) {
+                        timer.finish("cancelled", tokensOut.get());
+                        Schedulers.boundedElastic().schedule(() -> handleStreamInterrupted(
+                                "CANCELLED",
+                                ctx,
+                                assistantMessageId,
+                                request,
+                                answerBuffer.toString(),
+                                tokensIn.get(),
+                                tokensOut.get(),
+                                checkLimitResult
+                        ));
+                    }
+                });
     }
 
     private CheckLimitResult checkLimit(CompletionRequest request, String prompt) {
-        long inputTokens = tokenCountingService.count(prompt);
+        long inputTokens = tokenCountingService.estimate(prompt);
 
         String provider = request.model().split("/")[0];
         String model = request.model().split("/")[1];
@@ -269,7 +433,11 @@ public class ChatService {
                 );
         CheckLimitResult checkLimitResult;
         try {
-            checkLimitResult = subscriptionServiceClient.checkLimit(checkLimitRequest);
+            checkLimitResult = chatPipelineMetrics.recordContextStage(
+                    "check_limit",
+                    chatPipelineMetrics.pipelineTags(request),
+                    () -> subscriptionServiceClient.checkLimit(checkLimitRequest)
+            );
         } catch (FeignException e) {
             log.error("Check limit failed", e);
             int status = e.status();
@@ -278,90 +446,89 @@ public class ChatService {
             }
             throw new RuntimeException(e);
         }
+        // The subscription service only answers for models it prices, so the model is safe to use as a tag.
+        chatPipelineMetrics.registerKnownModel(request.model());
 
         return checkLimitResult;
     }
 
-    private void handleChunk(
+    private List<ServerSentEvent<Object>> handleChunk(
             LlmChunk chunk,
-            SseEmitter emitter,
-            StringBuilder answerBuilder,
+            StringBuffer answerBuffer,
             AtomicInteger tokensIn,
             AtomicInteger tokensOut,
-            ChatContext ctx
+            ChatContext ctx,
+            UUID assistantMessageId
     ) {
-        try {
-            switch (chunk.type()) {
-                case "delta" -> {
-                    answerBuilder.append(chunk.content());
-                    emitter.send(SseEmitter.event()
-                            .name("delta")
-                            .data(chunk.content()));
-                }
-                case "usage" -> {
-                    tokensIn.set(chunk.tokensIn());
-                    tokensOut.set(chunk.tokensOut());
+        return switch (chunk.type()) {
+            case "delta" -> {
+                answerBuffer.append(chunk.content());
+                yield List.of(sseEvent("delta", chunk.content()));
+            }
+            case "usage" -> {
+                tokensIn.set(chunk.tokensIn());
+                tokensOut.set(chunk.tokensOut());
 
-                    log.info(
-                            "CHAT_COMPLETION_STREAM USAGE convoId={} tokensIn={} tokensOut={}",
-                            ctx.conversationId(),
-                            chunk.tokensIn(),
-                            chunk.tokensOut()
-                    );
+                log.info(
+                        "CHAT_COMPLETION_STREAM USAGE convoId={} tokensIn={} tokensOut={}",
+                        ctx.conversationId(),
+                        chunk.tokensIn(),
+                        chunk.tokensOut()
+                );
 
-                    emitter.send(SseEmitter.event()
-                            .name("usage")
-                            .data(new TokenUsage(chunk.tokensIn(), chunk.tokensOut())));
-                }
-                case "info" -> emitter.send(SseEmitter.event()
-                        .name("info")
-                        .data(chunk.content()));
-                case "done" -> {
-                    log.info("CHAT_COMPLETION_STREAM LLM_CALL_DONE convoId={}", ctx.conversationId());
-                    emitter.send(SseEmitter.event()
-                            .name("metadata")
-                            .data(new StreamEventMetadata(ctx.conversationId())));
-                    emitter.send(SseEmitter.event()
-                            .name("done")
-                            .data("done"));
-                }
-                default -> log.warn("CHAT_COMPLETION_STREAM UNKNOWN_CHUNK_TYPE convoId={} type={}",
+                yield List.of(sseEvent("usage", new TokenUsage(chunk.tokensIn(), chunk.tokensOut())));
+            }
+            case "info" -> List.of(sseEvent("info", chunk.content()));
+            case "done" -> {
+                log.info("CHAT_COMPLETION_STREAM LLM_CALL_DONE convoId={}", ctx.conversationId());
+                yield List.of(
+                        sseEvent("metadata", new StreamEventMetadata(ctx.conversationId(), assistantMessageId)),
+                        sseEvent("done", "done")
+                );
+            }
+            default -> {
+                log.warn("CHAT_COMPLETION_STREAM UNKNOWN_CHUNK_TYPE convoId={} type={}",
                         ctx.conversationId(),
                         chunk.type()
                 );
+                yield List.of();
             }
-        } catch (Exception e) {
-            log.error("CHAT_COMPLETION_STREAM SSE_SEND_FAILED convoId={}", ctx.conversationId(), e);
-        }
+        };
     }
 
-    private void handleStreamError(Throwable ex, SseEmitter emitter, ChatContext ctx) {
-        log.error("CHAT_COMPLETION_STREAM FAILED convoId={}", ctx.conversationId(), ex);
-        try {
-            emitter.completeWithError(ex);
-        } catch (Exception ignored) {
-        }
+    private ServerSentEvent<Object> sseEvent(String name, Object data) {
+        return ServerSentEvent.<Object>builder(data)
+                .event(name)
+                .build();
     }
 
     private void handleStreamComplete(
-            SseEmitter emitter,
             ChatContext ctx,
+            UUID assistantMessageId,
             CompletionRequest request,
             String assistantContent,
             int tokensIn,
             int tokensOut,
-            CheckLimitResult checkLimitResult
+            CheckLimitResult checkLimitResult,
+            Tags tags
     ) {
         try {
-            conversationPersistenceService.persistStreamCompletion(
-                    ctx,
-                    request,
-                    assistantContent,
-                    tokensIn,
-                    tokensOut,
-                    checkLimitResult
+            chatPipelineMetrics.recordContextStageRun(
+                    "persistence",
+                    tags,
+                    () -> conversationPersistenceService.persistStreamCompletion(
+                            ctx,
+                            assistantMessageId,
+                            request,
+                            assistantContent,
+                            tokensIn,
+                            tokensOut,
+                            checkLimitResult
+                    )
             );
 
+            semanticAnswerCache.store(ctx.answerCache(), assistantContent, checkLimitResult.estimatedCost());
+
             log.info(
                     "CHAT_COMPLETION_STREAM END convoId={} workspaceId={} projectId={} model={} tokensIn={} tokensOut={}",
                     ctx.conversationId(),
@@ -373,41 +540,154 @@ public class ChatService {
             );
         } catch (Exception e) {
             log.error("CHAT_COMPLETION_STREAM PERSIST_FAILED convoId={}", ctx.conversationId(), e);
-        } finally {
-            emitter.complete();
+        }
+    }
+
+    // Cancelled or failed streams still bill what was generated and keep the partial answer in the history.
+    private void handleStreamInterrupted(
+            String outcome,
+            ChatContext ctx,
+            UUID assistantMessageId,
+            CompletionRequest request,
+            String partialContent,
+            int tokensIn,
+            int tokensOut,
+            CheckLimitResult checkLimitResult
+    ) {
+        int estimatedTokensIn = tokensIn > 0 ? tokensIn : tokenCountingService.estimate(ctx.prompt());
+        int estimatedTokensOut = tokensOut > 0 ? tokensOut : tokenCountingService.count(partialContent);
+
+        log.info(
+                "CHAT_COMPLETION_STREAM {} convoId={} partialLength={} tokensIn={} tokensOut={}",
+                outcome,
+                ctx.conversationId(),
+                partialContent.length(),
+                estimatedTokensIn,
+                estimatedTokensOut
+        );
+
+        try {
+            conversationPersistenceService.persistStreamCompletion(
+                    ctx,
+                    assistantMessageId,
+                    request,
+                    partialContent,
+                    estimatedTokensIn,
+                    estimatedTokensOut,
+                    checkLimitResult
+            );
+        } catch (Exception e) {
+            log.error("CHAT_COMPLETION_STREAM PARTIAL_PERSIST_FAILED convoId={}", ctx.conversationId(), e);
+            releaseReservation(ctx, request, checkLimitResult);
+        }
+    }
+
+    // The exchange never reached the write-behind queue, so its after-commit release won't run either.
+    private void releaseReservation(ChatContext ctx, CompletionRequest request, CheckLimitResult checkLimitResult) {
+        try {
+            subscriptionServiceClient.releaseReservation(
+                    new ReleaseReservationRequest(request.workspaceId(), checkLimitResult.estimatedCost())
+            );
+        } catch (Exception e) {
+            log.error("CHAT_COMPLETION_STREAM RELEASE_RESERVATION_FAILED convoId={}", ctx.conversationId(), e);
         }
     }
 
     private ChatContext prepareChatContext(CompletionRequest request, String userId) {
         UUID workspaceId = request.workspaceId();
         UUID projectId = request.projectId();
+        long startedAt = System.nanoTime();
 
         log.info("CHAT_CONTEXT_PREPARE START workspaceId={} projectId={}", workspaceId, projectId);
 
-        workspaceAccessService.checkWorkspaceAccess(workspaceId);
-
-        List<UUID> documentIds = workspaceAccessService.getDocumentIdsInProject(projectId);
-        log.info(
-                "CHAT_CONTEXT_PREPARE DOCUMENTS_LOADED projectId={} documentsCount={}",
-                projectId,
-                documentIds.size()
+        UUID conversationId = request.conversationId() != null
+                ? request.conversationId()
+                : UUID.randomUUID();
+        Tags tags = chatPipelineMetrics.pipelineTags(request);
+
+        // One workspace round trip (or none while the local copy is fresh) covers access and the document set.
+        CompletableFuture<List<UUID>> documentsFuture = CompletableFuture.supplyAsync(
+                () -> chatPipelineMetrics.recordContextStage(
+                        "workspace_context",
+                        tags,
+                        () -> workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId)
+                ),
+                chatContextExecutor
         );
 
-        workspaceAccessService.validateRequestedDocuments(
-                request.documentIds(),
-                documentIds,
-                projectId
+        // The question is embedded alongside the document lookup so a cache miss costs one Redis read.
+        CompletableFuture<byte[]> embeddingFuture = CompletableFuture.completedFuture(null);
+        if (semanticAnswerCache.isEligible(request)) {
+            embeddingFuture = CompletableFuture.supplyAsync(
+                    () -> chatPipelineMetrics.recordContextStage(
+                            "answer_cache_embed",
+                            tags,
+                            () -> semanticAnswerCache.embed(request.message())
+                    ),
+                    chatContextExecutor
+            );
+        }
+
+        CompletableFuture<AnswerCacheLookup> answerCacheFuture = documentsFuture.thenCombineAsync(
+                embeddingFuture,
+                (documentIds, embedding) -> {
+                    log.info(
+                            "CHAT_CONTEXT_PREPARE DOCUMENTS_LOADED projectId={} documentsCount={}",
+                            projectId,
+                            documentIds.size()
+                    );
+
+                    workspaceAccessService.validateRequestedDocuments(
+                            request.documentIds(),
+                            documentIds,
+                            projectId
+                    );
+
+                    if (embedding == null) {
+                        return null;
+                    }
+                    return chatPipelineMetrics.recordContextStage(
+                            "answer_cache_lookup",
+                            tags,
+                            () -> semanticAnswerCache.lookup(request, documentIds, embedding)
+                    );
+                },
+                chatContextExecutor
         );
 
-        String prompt = ragPromptBuilder.buildPrompt(request, documentIds);
+        CompletableFuture<String> promptFuture = answerCacheFuture.thenApplyAsync(answerCache -> {
+            if (answerCache != null && answerCache.isHit()) {
+                return null;
+            }
+            return chatPipelineMetrics.recordContextStage(
+                    "prompt_build",
+                    tags,
+                    () -> ragPromptBuilder.buildPrompt(request, documentsFuture.join())
+            );
+        }, chatContextExecutor);
+
+        CompletableFuture<List<CompletionLlmRouterRequest.Message>> memoryFuture =
+                CompletableFuture.completedFuture(null);
+        if (request.conversationId() != null) {
+            memoryFuture = CompletableFuture.supplyAsync(
+                    () -> chatPipelineMetrics.recordContextStage(
+                            "memory",
+                            tags,
+                            () -> conversationMemoryService.buildMemory(
+                                    conversationId,
+                                    request.memorySize(),
+                                    request.model()
+                            )
+                    ),
+                    chatContextExecutor
+            );
+        }
 
-        UUID conversationId = request.conversationId() != null
-                ? request.conversationId()
-                : UUID.randomUUID();
+        awaitContextStages(documentsFuture, embeddingFuture, answerCacheFuture, promptFuture, memoryFuture);
 
-        List<CompletionLlmRouterRequest.Message> messages = request.conversationId() != null
-                ? buildChatMemory(conversationId, request.memorySize())
-                : null;
+        String prompt = promptFuture.join();
+        AnswerCacheLookup answerCache = answerCacheFuture.join();
+        List<CompletionLlmRouterRequest.Message> messages = memoryFuture.join();
 
         if (messages != null) {
             log.info(
@@ -422,19 +702,106 @@ public class ChatService {
         UUID ownerUUID = UUID.fromString(userId);
 
         log.info(
-                "CHAT_CONTEXT_PREPARE END convoId={} workspaceId={} projectId={} freeMode={} strictMode={}",
+                "CHAT_CONTEXT_PREPARE END convoId={} workspaceId={} projectId={} freeMode={} strictMode={} elapsedMs={}",
                 conversationId,
                 workspaceId,
                 projectId,
                 request.freeMode(),
-                request.strictMode()
+                request.strictMode(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)
+        );
+
+        return new ChatContext(prompt, conversationId, projectId, workspaceId, messages, ownerUUID, answerCache);
+    }
+
+    private void awaitContextStages(
+            CompletableFuture<?> workspaceFuture,
+            CompletableFuture<?>... otherStages
+    ) {
+        CompletableFuture<?>[] stages = Stream.concat(Stream.of(workspaceFuture), Arrays.stream(otherStages))
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(stages);
+        for (CompletableFuture<?> stage : stages) {
+            stage.whenComplete((ignored, ex) -> {
+                if (ex != null) {
+                    all.completeExceptionally(ex);
+                }
+            });
+        }
+
+        try {
+            all.join();
+        } catch (CompletionException | CancellationException e) {
+            for (CompletableFuture<?> stage : otherStages) {
+                stage.cancel(true);
+            }
+
+            // Access errors take precedence so that an unauthorized caller never reaches the strict-mode fallback.
+            try {
+                workspaceFuture.join();
+            } catch (CompletionException accessEx) {
+                throw unwrapStageException(accessEx);
+            }
+
+            throw unwrapStageException(e);
+        }
+    }
+
+    private RuntimeException unwrapStageException(RuntimeException e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new RuntimeException("CHAT_CONTEXT_PREPARE FAILED", cause);
+    }
+
+    private Flux<ServerSentEvent<Object>> serveCachedAnswerStream(ChatContext ctx, CompletionRequest request) {
+        CachedAnswer cached = ctx.answerCache().hit();
+        chatPipelineMetrics.recordAnswerCacheCreditsSaved(cached.estimatedCost());
+
+        log.info(
+                "CHAT_COMPLETION_STREAM CACHED_ANSWER convoId={} workspaceId={} projectId={} similarity={}",
+                ctx.conversationId(),
+                request.workspaceId(),
+                request.projectId(),
+                ctx.answerCache().similarity()
         );
 
-        return new ChatContext(prompt, conversationId, projectId, workspaceId, messages, ownerUUID);
+        UUID assistantMessageId = UUID.randomUUID();
+        Mono<ServerSentEvent<Object>> persistStage = Mono.<ServerSentEvent<Object>>fromRunnable(() -> {
+            try {
+                conversationPersistenceService.persistCachedAnswer(
+                        ctx.conversationId(),
+                        assistantMessageId,
+                        request,
+                        cached.content(),
+                        ctx.ownerId()
+                );
+            } catch (Exception persistEx) {
+                log.error("CHAT_COMPLETION_STREAM CACHED_ANSWER_PERSIST_FAILED convoId={}", ctx.conversationId(), persistEx);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+
+        Flux<ServerSentEvent<Object>> deltas = Flux.fromIterable(semanticAnswerCache.replayChunks(cached.content()))
+                .map(chunk -> sseEvent("delta", chunk));
+
+        return Flux.just(sseEvent("info", "Answer served from cache."))
+                .concatWith(deltas)
+                .concatWith(Flux.just(
+                        sseEvent("usage", new TokenUsage(0, 0)),
+                        sseEvent("metadata", new StreamEventMetadata(ctx.conversationId(), assistantMessageId)),
+                        sseEvent("done", "done")
+                ))
+                .concatWith(persistStage);
     }
 
-    private void handleContextNotFoundStrictMode(
-            SseEmitter emitter,
+    private Flux<ServerSentEvent<Object>> handleContextNotFoundStrictMode(
             CompletionRequest request,
             String userId
     ) {
@@ -455,32 +822,12 @@ public class ChatService {
                 request.projectId()
         );
 
-        try {
-            emitter.send(SseEmitter.event()
-                    .name("info")
-                    .data("No RAG context found for this query in strict mode."));
-
-            emitter.send(SseEmitter.event()
-                    .name("delta")
-                    .data(assistantContent));
-
-            emitter.send(SseEmitter.event()
-                    .name("usage")
-                    .data(new TokenUsage(0, 0)));
-
-            emitter.send(SseEmitter.event()
-                    .name("metadata")
-                    .data(new StreamEventMetadata(conversationId)));
-
-            emitter.send(SseEmitter.event()
-                    .name("done")
-                    .data("done"));
-        } catch (Exception sendEx) {
-            log.error("CHAT_COMPLETION_STREAM STRICT_NO_CONTEXT_SSE_FAILED convoId={}", conversationId, sendEx);
-        } finally {
+        UUID assistantMessageId = UUID.randomUUID();
+        Mono<ServerSentEvent<Object>> persistStage = Mono.<ServerSentEvent<Object>>fromRunnable(() -> {
             try {
                 conversationPersistenceService.persistStrictModeNoContext(
                         conversationId,
+                        assistantMessageId,
                         request,
                         assistantContent,
                         ownerId
@@ -498,10 +845,17 @@ public class ChatService {
                         conversationId,
                         persistEx
                 );
-            } finally {
-                emitter.complete();
             }
-        }
+        }).subscribeOn(Schedulers.boundedElastic());
+
+        return Flux.just(
+                        sseEvent("info", "No RAG context found for this query in strict mode."),
+                        sseEvent("delta", assistantContent),
+                        sseEvent("usage", new TokenUsage(0, 0)),
+                        sseEvent("metadata", new StreamEventMetadata(conversationId, assistantMessageId)),
+                        sseEvent("done", "done")
+                )
+                .concatWith(persistStage);
     }
 
 
@@ -531,78 +885,103 @@ public class ChatService {
         }
     }
 
-    private List<CompletionLlmRouterRequest.Message> buildChatMemory(UUID convoId, int memorySize) {
-        List<ConversationMessage> history =
-                conversationMessageRepository.findByConversationId(convoId, memorySize * 2);
-
-        log.info(
-                "CHAT_MEMORY LOAD convoId={} requestedPairs={} loadedMessages={}",
-                convoId,
-                memorySize,
-                history.size()
-        );
-
-        return history.stream()
-                .map(message -> new CompletionLlmRouterRequest.Message(
-                        message.getRole().name().toLowerCase(),
-                        message.getContent())
-                )
-                .toList();
-    }
-
 
-    public PagedResponse<ConversationMessageResponse> getMessages(
+    public CursorPage<ConversationMessageResponse> getMessages(
             UUID conversationId,
-            String subject,
-            PaginationRequest request
+            String before,
+            String after,
+            int limit
     ) {
+        if (before != null && after != null) {
+            throw new InvalidCursorException("Only one of before and after can be set");
+        }
+        int pageSize = Math.clamp(limit, 1, ConversationCacheService.MAX_MESSAGE_PAGE_SIZE);
+        boolean forward = after != null;
+
         log.info(
-                "CHAT_MESSAGES LIST_START convoId={} page={} size={}",
+                "CHAT_MESSAGES LIST_START convoId={} limit={} direction={}",
                 conversationId,
-                request.getPage(),
-                request.getSize()
+                pageSize,
+                forward ? "after" : before != null ? "before" : "latest"
         );
 
-        PagedResponse<ConversationMessageResponse> response =
-                conversationCacheService.findMessages(conversationId, request);
+        List<ConversationMessageResponse> rows;
+        if (forward) {
+            rows = conversationCacheService.findMessagesAfter(conversationId, KeysetCursor.decode(after), pageSize + 1);
+        } else if (before != null) {
+            rows = conversationCacheService.findMessagesBefore(conversationId, KeysetCursor.decode(before), pageSize + 1);
+        } else {
+            rows = conversationCacheService.findLatestMessages(conversationId);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<ConversationMessageResponse> page = rows.subList(0, Math.min(rows.size(), pageSize));
+        // backward pages are fetched newest first; content is always returned oldest first
+        if (!forward) {
+            page = page.reversed();
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            ConversationMessageResponse edge = forward ? page.getLast() : page.getFirst();
+            nextCursor = new KeysetCursor(edge.createdAt(), edge.id()).encode();
+        }
 
         log.info(
-                "CHAT_MESSAGES LIST_END convoId={} page={} size={} totalElements={}",
+                "CHAT_MESSAGES LIST_END convoId={} count={} hasNext={}",
                 conversationId,
-                response.page(),
-                response.size(),
-                response.totalElements()
+                page.size(),
+                hasNext
         );
 
-        return response;
+        return new CursorPage<>(page, nextCursor, hasNext);
     }
 
-    public List<UserConversationResponse> getUserConversations(String ownerId, UUID projectId) {
+    public CursorPage<UserConversationResponse> getUserConversations(
+            String ownerId,
+            UUID projectId,
+            String cursor,
+            int limit
+    ) {
         UUID ownerUuid = UUID.fromString(ownerId);
+        int pageSize = Math.clamp(limit, 1, ConversationCacheService.MAX_CONVERSATION_PAGE_SIZE);
 
-        log.info("CHAT_USER_CONVERSATIONS START ownerId={}", ownerUuid);
+        log.info("CHAT_USER_CONVERSATIONS START ownerId={} limit={} hasCursor={}", ownerUuid, pageSize, cursor != null);
 
-        List<UserConversationResponse> cached =
-                conversationCacheService.findUserConversations(ownerUuid, projectId);
+        List<UserConversationResponse> rows = cursor == null
+                ? conversationCacheService.findUserConversations(ownerUuid, projectId)
+                : conversationCacheService.findUserConversationsBefore(
+                        ownerUuid,
+                        projectId,
+                        KeysetCursor.decode(cursor),
+                        pageSize + 1
+                );
 
-        List<UserConversationResponse> result = cached.stream()
+        List<UserConversationResponse> result = rows.stream()
+                .limit(pageSize)
                 .map(cm -> {
-                    String cleaned = MarkdownCleaner.clean(cm.lastMessage());
-                    String preview = cleaned.substring(0, Math.min(cleaned.length(), 100));
                     return new UserConversationResponse(
                             cm.conversationId(),
-                            preview,
+                            MarkdownCleaner.clean(cm.lastMessage(), CONVERSATION_PREVIEW_LENGTH),
                             cm.lastMessageAt()
                     );
                 })
                 .toList();
 
+        boolean hasNext = rows.size() > pageSize;
+        String nextCursor = null;
+        if (hasNext) {
+            UserConversationResponse last = result.getLast();
+            nextCursor = new KeysetCursor(last.lastMessageAt(), last.conversationId()).encode();
+        }
+
         log.info(
-                "CHAT_USER_CONVERSATIONS END ownerId={} conversationsCount={}",
+                "CHAT_USER_CONVERSATIONS END ownerId={} conversationsCount={} hasNext={}",
                 ownerUuid,
-                result.size()
+                result.size(),
+                hasNext
         );
 
-        return result;
+        return new CursorPage<>(result, nextCursor, hasNext);
     }
-}
\ No newline at end of file
+}
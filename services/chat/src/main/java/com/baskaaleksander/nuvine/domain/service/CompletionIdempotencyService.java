@@ -0,0 +1,430 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.CompletionRequest;
+import com.baskaaleksander.nuvine.application.dto.ConversationMessageResponse;
+import com.baskaaleksander.nuvine.application.dto.IdempotentCompletion;
+import com.baskaaleksander.nuvine.application.dto.StreamEventMetadata;
+import com.baskaaleksander.nuvine.application.dto.TokenUsage;
+import com.baskaaleksander.nuvine.domain.exception.IdempotencyKeyMismatchException;
+import com.baskaaleksander.nuvine.domain.exception.IdempotentRequestInProgressException;
+import com.baskaaleksander.nuvine.domain.exception.InvalidIdempotencyKeyException;
+import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.infrastructure.cache.IdempotencyStore;
+import com.baskaaleksander.nuvine.infrastructure.config.IdempotencyProperties;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.client.RedisException;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Makes completion requests that carry an idempotency key safe to retry. A duplicate that arrives while
+ * the original runs on this instance shares its result or subscribes to the same SSE stream; a duplicate
+ * that arrives later gets the stored answer, and one racing the original on another instance waits for it.
+ * None of them repeats retrieval, credit reservation or the LLM call. If Redis is unavailable the request
+ * simply runs without idempotency.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CompletionIdempotencyService {
+
+    // Well below the gateway and client timeouts, so a waiting duplicate never turns into a timeout.
+    private static final Duration MAX_IN_FLIGHT_WAIT = Duration.ofSeconds(5);
+
+    private final IdempotencyStore idempotencyStore;
+    private final IdempotencyProperties properties;
+    private final ConversationCacheService conversationCacheService;
+    private final ChatPipelineMetrics chatPipelineMetrics;
+
+    private final ConcurrentMap<String, InFlight<ConversationMessageResponse>> inFlightCompletions =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, InFlight<Flux<ServerSentEvent<Object>>>> inFlightStreams =
+            new ConcurrentHashMap<>();
+
+    public ConversationMessageResponse completion(
+            String userId,
+            String idempotencyKey,
+            CompletionRequest request,
+            Supplier<ConversationMessageResponse> completion
+    ) {
+        if (!properties.isEnabled() || idempotencyKey == null) {
+            return completion.get();
+        }
+
+        String scope = IdempotencyStore.scope(userId, validate(idempotencyKey));
+        String fingerprint = fingerprint("sync", request);
+
+        InFlight<ConversationMessageResponse> mine = new InFlight<>(fingerprint, new CompletableFuture<>());
+        InFlight<ConversationMessageResponse> running = inFlightCompletions.putIfAbsent(scope, mine);
+        if (running != null) {
+            ensureSameRequest(running.fingerprint(), fingerprint, "sync");
+            chatPipelineMetrics.recordIdempotency("sync", "joined");
+            log.info("CHAT_IDEMPOTENCY JOINED type=sync userId={} key={}", userId, idempotencyKey);
+            return await(running.result());
+        }
+
+        try {
+            ConversationMessageResponse response = runCompletion(scope, fingerprint, userId, completion);
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightCompletions.remove(scope, mine);
+        }
+    }
+
+    public Flux<ServerSentEvent<Object>> completionStream(
+            String userId,
+            String idempotencyKey,
+            CompletionRequest request,
+            Supplier<Flux<ServerSentEvent<Object>>> completion
+    ) {
+        if (!properties.isEnabled() || idempotencyKey == null) {
+            return completion.get();
+        }
+
+        String scope = IdempotencyStore.scope(userId, validate(idempotencyKey));
+        String fingerprint = fingerprint("stream", request);
+
+        InFlight<Flux<ServerSentEvent<Object>>> mine = new InFlight<>(fingerprint, new CompletableFuture<>());
+        InFlight<Flux<ServerSentEvent<Object>>> running = inFlightStreams.putIfAbsent(scope, mine);
+        if (running != null) {
+            ensureSameRequest(running.fingerprint(), fingerprint, "stream");
+            chatPipelineMetrics.recordIdempotency("stream", "joined");
+            log.info("CHAT_IDEMPOTENCY JOINED type=stream userId={} key={}", userId, idempotencyKey);
+            return Mono.fromFuture(running.result()).flatMapMany(Function.identity());
+        }
+
+        Flux<ServerSentEvent<Object>> events;
+        try {
+            UUID leaseId = UUID.randomUUID();
+            IdempotentCompletion stored = claimOrAwait(scope, fingerprint, leaseId, "stream");
+            if (stored != null) {
+                inFlightStreams.remove(scope, mine);
+                events = replayStream(stored);
+            } else {
+                events = shareStream(scope, leaseId, mine, completion);
+            }
+        } catch (RuntimeException e) {
+            inFlightStreams.remove(scope, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+        mine.result().complete(events);
+        return events;
+    }
+
+    private ConversationMessageResponse runCompletion(
+            String scope,
+            String fingerprint,
+            String userId,
+            Supplier<ConversationMessageResponse> completion
+    ) {
+        UUID leaseId = UUID.randomUUID();
+        IdempotentCompletion stored = claimOrAwait(scope, fingerprint, leaseId, "sync");
+        if (stored != null) {
+            return toResponse(stored, userId);
+        }
+
+        ConversationMessageResponse response;
+        try {
+            response = completion.get();
+        } catch (RuntimeException e) {
+            release(scope, fingerprint, leaseId);
+            throw e;
+        }
+
+        store(scope, new IdempotentCompletion(
+                fingerprint,
+                true,
+                response.conversationId(),
+                response.id(),
+                storable(response.content()),
+                response.modelUsed(),
+                0,
+                0,
+                response.tokensCost(),
+                response.createdAt(),
+                null
+        ));
+        return response;
+    }
+
+    /**
+     * Runs the stream once and lets every subscriber for the key share it, replaying earlier events to
+     * late subscribers. The upstream keeps running when subscribers leave, so a client that dropped the
+     * connection can retry and either pick the stream up again or get the stored answer.
+     */
+    private Flux<ServerSentEvent<Object>> shareStream(
+            String scope,
+            UUID leaseId,
+            InFlight<Flux<ServerSentEvent<Object>>> handle,
+            Supplier<Flux<ServerSentEvent<Object>>> completion
+    ) {
+        Flux<ServerSentEvent<Object>> source;
+        try {
+            source = completion.get();
+        } catch (RuntimeException e) {
+            release(scope, handle.fingerprint(), leaseId);
+            throw e;
+        }
+
+        StreamCapture capture = new StreamCapture();
+        return source
+                .doOnNext(capture::add)
+                .doOnComplete(() -> {
+                    IdempotentCompletion completed =
+                            capture.toCompletion(handle.fingerprint(), properties.getMaxStoredContentLength());
+                    if (completed != null) {
+                        store(scope, completed);
+                    } else {
+                        release(scope, handle.fingerprint(), leaseId);
+                    }
+                })
+                .doOnError(e -> release(scope, handle.fingerprint(), leaseId))
+                .doFinally(signal -> inFlightStreams.remove(scope, handle))
+                .replay()
+                .autoConnect(1);
+    }
+
+    /**
+     * Takes the key, or returns the finished answer stored under it. While another instance holds the key
+     * this polls until the answer appears, the key is released, or {@code inFlightWait} runs out; then the
+     * client gets a 409 with Retry-After rather than holding a request thread for the whole completion.
+     *
+     * @return the stored answer, or {@code null} when the caller should run the request itself
+     */
+    private IdempotentCompletion claimOrAwait(String scope, String fingerprint, UUID leaseId, String type) {
+        Duration wait = properties.getInFlightWait().compareTo(MAX_IN_FLIGHT_WAIT) > 0
+                ? MAX_IN_FLIGHT_WAIT
+                : properties.getInFlightWait();
+        long deadline = System.nanoTime() + wait.toNanos();
+        boolean waited = false;
+        try {
+            while (true) {
+                if (idempotencyStore.claim(scope, fingerprint, leaseId, properties.getInFlightTtl())) {
+                    chatPipelineMetrics.recordIdempotency(type, "new");
+                    return null;
+                }
+
+                IdempotentCompletion existing = idempotencyStore.find(scope);
+                if (existing != null) {
+                    ensureSameRequest(existing.fingerprint(), fingerprint, type);
+                    if (existing.completed()) {
+                        chatPipelineMetrics.recordIdempotency(type, waited ? "awaited" : "replayed");
+                        log.info("CHAT_IDEMPOTENCY REPLAYED type={} convoId={} waited={}",
+                                type, existing.conversationId(), waited);
+                        return existing;
+                    }
+                }
+
+                if (System.nanoTime() >= deadline) {
+                    chatPipelineMetrics.recordIdempotency(type, "in_progress");
+                    throw new IdempotentRequestInProgressException(
+                            "A request with this idempotency key is still in progress"
+                    );
+                }
+                waited = true;
+                Thread.sleep(properties.getPollInterval().toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException("A request with this idempotency key is still in progress");
+        } catch (RedisException e) {
+            chatPipelineMetrics.recordIdempotency(type, "store_error");
+            log.warn("CHAT_IDEMPOTENCY STORE_UNAVAILABLE type={}", type, e);
+            return null;
+        }
+    }
+
+    private void store(String scope, IdempotentCompletion completed) {
+        try {
+            idempotencyStore.complete(scope, completed, properties.getTtl());
+        } catch (RedisException e) {
+            log.warn("CHAT_IDEMPOTENCY STORE_FAILED convoId={}", completed.conversationId(), e);
+        }
+    }
+
+    private void release(String scope, String fingerprint, UUID leaseId) {
+        try {
+            if (!idempotencyStore.release(scope, fingerprint, leaseId)) {
+                log.info("CHAT_IDEMPOTENCY RELEASE_SKIPPED reason=lease_lost");
+            }
+        } catch (RedisException e) {
+            log.warn("CHAT_IDEMPOTENCY RELEASE_FAILED", e);
+        }
+    }
+
+    private String storable(String content) {
+        return content != null && content.length() <= properties.getMaxStoredContentLength() ? content : null;
+    }
+
+    private ConversationMessageResponse toResponse(IdempotentCompletion stored, String userId) {
+        if (stored.content() == null) {
+            return fromHistory(stored);
+        }
+        return new ConversationMessageResponse(
+                stored.messageId(),
+                stored.conversationId(),
+                stored.content(),
+                ConversationRole.ASSISTANT,
+                stored.modelUsed(),
+                stored.tokensCost(),
+                UUID.fromString(userId),
+                stored.createdAt()
+        );
+    }
+
+    private Flux<ServerSentEvent<Object>> replayStream(IdempotentCompletion stored) {
+        String content = stored.content() != null ? stored.content() : fromHistory(stored).content();
+        return Flux.just(
+                sseEvent("delta", content),
+                sseEvent("usage", new TokenUsage(stored.tokensIn(), stored.tokensOut())),
+                sseEvent("metadata", new StreamEventMetadata(stored.conversationId(), stored.messageId())),
+                sseEvent("done", "done")
+        );
+    }
+
+    // Answers too long for Redis were not copied there and are read back from the history by their message id.
+    private ConversationMessageResponse fromHistory(IdempotentCompletion stored) {
+        return conversationCacheService.findLatestMessages(stored.conversationId()).stream()
+                .filter(message -> message.id().equals(stored.messageId()))
+                .findFirst()
+                .orElseThrow(() -> new IdempotentRequestInProgressException(
+                        "The response for this idempotency key is not available yet"
+                ));
+    }
+
+    private String validate(String idempotencyKey) {
+        if (idempotencyKey.isBlank()
+                || idempotencyKey.length() > properties.getMaxKeyLength()
+                || !idempotencyKey.chars().allMatch(c -> c > 0x20 && c < 0x7f)) {
+            throw new InvalidIdempotencyKeyException(
+                    "Idempotency key must be 1-" + properties.getMaxKeyLength() + " printable ASCII characters"
+            );
+        }
+        return idempotencyKey;
+    }
+
+    private void ensureSameRequest(String expected, String actual, String type) {
+        if (!expected.equals(actual)) {
+            chatPipelineMetrics.recordIdempotency(type, "mismatch");
+            throw new IdempotencyKeyMismatchException("Idempotency key was already used for a different request");
+        }
+    }
+
+    static String fingerprint(String type, CompletionRequest request) {
+        String canonical = String.join("\n",
+                type,
+                String.valueOf(request.workspaceId()),
+                String.valueOf(request.projectId()),
+                String.valueOf(request.conversationId()),
+                String.valueOf(request.documentIds()),
+                String.valueOf(request.model()),
+                String.valueOf(request.memorySize()),
+                String.valueOf(request.strictMode()),
+                String.valueOf(request.freeMode()),
+                String.valueOf(request.message())
+        );
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static ServerSentEvent<Object> sseEvent(String name, Object data) {
+        return ServerSentEvent.<Object>builder(data)
+                .event(name)
+                .build();
+    }
+
+    private record InFlight<T>(String fingerprint, CompletableFuture<T> result) {
+    }
+
+    private static final class StreamCapture {
+
+        private final StringBuilder content = new StringBuilder();
+        private UUID conversationId;
+        private UUID messageId;
+        private int tokensIn;
+        private int tokensOut;
+
+        synchronized void add(ServerSentEvent<Object> event) {
+            if (event.event() == null) {
+                return;
+            }
+            switch (event.event()) {
+                case "delta" -> {
+                    if (event.data() instanceof String delta) {
+                        content.append(delta);
+                    }
+                }
+                case "usage" -> {
+                    if (event.data() instanceof TokenUsage usage) {
+                        tokensIn = usage.tokensIn();
+                        tokensOut = usage.tokensOut();
+                    }
+                }
+                case "metadata" -> {
+                    if (event.data() instanceof StreamEventMetadata metadata) {
+                        conversationId = metadata.conversationId();
+                        messageId = metadata.messageId();
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        synchronized IdempotentCompletion toCompletion(String fingerprint, int maxStoredContentLength) {
+            if (conversationId == null || messageId == null) {
+                return null;
+            }
+            return new IdempotentCompletion(
+                    fingerprint,
+                    true,
+                    conversationId,
+                    messageId,
+                    content.length() <= maxStoredContentLength ? content.toString() : null,
+                    null,
+                    tokensIn,
+                    tokensOut,
+                    tokensOut,
+                    null,
+                    null
+            );
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.PackedContext;
+import com.baskaaleksander.nuvine.application.dto.VectorSearchResponse.VectorSearchMatch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+@Service
+@RequiredArgsConstructor
+public class ContextPacker {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int SHINGLE_SIZE = 3;
+
+    private final TokenCountingService tokenCountingService;
+
+    public PackedContext pack(List<VectorSearchMatch> rawMatches, int tokenBudget, double duplicateSimilarity) {
+        List<VectorSearchMatch> matches = rawMatches == null
+                ? List.of()
+                : rawMatches.stream()
+                .filter(match -> match.content() != null && !match.content().isBlank())
+                .toList();
+
+        if (matches.isEmpty()) {
+            return new PackedContext(List.of(), 0, 0, 0, 0, 0);
+        }
+
+        int rawTokens = 0;
+        for (VectorSearchMatch match : matches) {
+            rawTokens += tokenCountingService.count(match.content());
+        }
+
+        List<Segment> segments = mergeOverlapping(matches);
+        int mergedChunks = matches.size() - segments.size();
+        segments.sort(Comparator.comparingDouble(Segment::score).reversed());
+
+        List<String> selected = new ArrayList<>();
+        List<Set<String>> selectedShingles = new ArrayList<>();
+        int usedTokens = 0;
+        int droppedDuplicates = 0;
+        int droppedOverBudget = 0;
+
+        for (Segment segment : segments) {
+            Set<String> shingles = shingles(segment.content());
+            if (isNearDuplicate(shingles, selectedShingles, duplicateSimilarity)) {
+                droppedDuplicates++;
+                continue;
+            }
+
+            int tokens = tokenCountingService.count(segment.content());
+            if (usedTokens + tokens > tokenBudget) {
+                droppedOverBudget++;
+                continue;
+            }
+
+            selected.add(segment.content());
+            selectedShingles.add(shingles);
+            usedTokens += tokens;
+        }
+
+        return new PackedContext(
+                selected,
+                rawTokens,
+                usedTokens,
+                mergedChunks,
+                droppedDuplicates,
+                droppedOverBudget
+        );
+    }
+
+    private List<Segment> mergeOverlapping(List<VectorSearchMatch> matches) {
+        Map<String, List<VectorSearchMatch>> bySource = new LinkedHashMap<>();
+        List<Segment> out = new ArrayList<>();
+
+        for (VectorSearchMatch match : matches) {
+            if (!hasValidRange(match)) {
+                out.add(Segment.of(match));
+                continue;
+            }
+            bySource.computeIfAbsent(match.documentId() + ":" + match.page(), k -> new ArrayList<>())
+                    .add(match);
+        }
+
+        for (List<VectorSearchMatch> sourceMatches : bySource.values()) {
+            sourceMatches.sort(Comparator.comparingInt(VectorSearchMatch::startOffset));
+
+            Segment current = null;
+            for (VectorSearchMatch match : sourceMatches) {
+                if (current != null && match.startOffset() <= current.endOffset()) {
+                    current = current.extend(match);
+                } else {
+                    if (current != null) {
+                        out.add(current);
+                    }
+                    current = Segment.of(match);
+                }
+            }
+            out.add(current);
+        }
+
+        return out;
+    }
+
+    private boolean hasValidRange(VectorSearchMatch match) {
+        return match.documentId() != null
+                && match.endOffset() > match.startOffset()
+                && match.content().length() == match.endOffset() - match.startOffset();
+    }
+
+    private boolean isNearDuplicate(Set<String> candidate, List<Set<String>> selected, double threshold) {
+        if (candidate.isEmpty()) {
+            return false;
+        }
+
+        for (Set<String> existing : selected) {
+            int intersection = 0;
+            for (String shingle : candidate) {
+                if (existing.contains(shingle)) {
+                    intersection++;
+                }
+            }
+            int union = candidate.size() + existing.size() - intersection;
+            if (union > 0 && (double) intersection / union >= threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Set<String> shingles(String content) {
+        String[] words = Arrays.stream(WORD_SEPARATOR.split(content.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+
+        Set<String> shingles = new HashSet<>();
+        if (words.length < SHINGLE_SIZE) {
+            shingles.addAll(Arrays.asList(words));
+            return shingles;
+        }
+
+        for (int i = 0; i + SHINGLE_SIZE <= words.length; i++) {
+            shingles.add(String.join(" ", Arrays.copyOfRange(words, i, i + SHINGLE_SIZE)));
+        }
+        return shingles;
+    }
+
+    private record Segment(int startOffset, int endOffset, String content, float score) {
+
+        static Segment of(VectorSearchMatch match) {
+            return new Segment(match.startOffset(), match.endOffset(), match.content(), match.score());
+        }
+
+        Segment extend(VectorSearchMatch next) {
+            float mergedScore = Math.max(score, next.score());
+            if (next.endOffset() <= endOffset) {
+                return new Segment(startOffset, endOffset, content, mergedScore);
+            }
+
+            String tail = next.content().substring(endOffset - next.startOffset());
+            return new Segment(startOffset, next.endOffset(), content + tail, mergedScore);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.baskaaleksander.nuvine.domain.service;
 
+import com.baskaaleksander.nuvine.application.dto.SearchMode;
 import com.baskaaleksander.nuvine.application.dto.TextVectorSearchRequest;
 import com.baskaaleksander.nuvine.application.dto.VectorSearchResponse;
 import com.baskaaleksander.nuvine.infrastructure.client.VectorServiceClient;
@@ -25,23 +26,37 @@ public class ContextRetrievalService {
             int topK,
             float threshold
     ) {
+        return retrieveMatches(workspaceId, projectId, documentIds, query, topK, threshold).stream()
+                .map(VectorSearchResponse.VectorSearchMatch::content)
+                .toList();
+    }
+
+    public List<VectorSearchResponse.VectorSearchMatch> retrieveMatches(
+            UUID workspaceId,
+            UUID projectId,
+            List<UUID> documentIds,
+            String query,
+            int topK,
+            float threshold
+    ) {
 
-        List<String> context;
+        List<VectorSearchResponse.VectorSearchMatch> matches;
         try {
-            context = vectorServiceClient.searchText(
+            matches = vectorServiceClient.searchText(
                     new TextVectorSearchRequest(
                             workspaceId,
                             projectId,
                             documentIds,
                             query,
                             topK,
-                            threshold
+                            threshold,
+                            SearchMode.HYBRID
                     )
-            ).matches().stream().map(VectorSearchResponse.VectorSearchMatch::content).toList();
+            ).matches();
         } catch (Exception e) {
             log.error("CONTEXT_RETRIEVAL FAILED workspaceId={}, projectId={}, documentIds={}, topK={}, threshold={} ", workspaceId, projectId, documentIds, topK, threshold, e);
             throw e;
         }
-        return context;
+        return matches;
     }
 }
@@ -1,22 +1,21 @@
 package com.baskaaleksander.nuvine.domain.service;
 
 import com.baskaaleksander.nuvine.application.dto.ConversationMessageResponse;
-import com.baskaaleksander.nuvine.application.dto.PagedResponse;
-import com.baskaaleksander.nuvine.application.dto.PaginationRequest;
 import com.baskaaleksander.nuvine.application.dto.UserConversationResponse;
 import com.baskaaleksander.nuvine.application.mapper.ConversationMessageMapper;
-import com.baskaaleksander.nuvine.application.pagination.PaginationUtil;
+import com.baskaaleksander.nuvine.application.pagination.KeysetCursor;
+import com.baskaaleksander.nuvine.domain.model.Conversation;
 import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
 import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,46 +27,129 @@ import static com.baskaaleksander.nuvine.infrastructure.config.CacheConfiguratio
 @Slf4j
 public class ConversationCacheService {
 
+    public static final int MAX_CONVERSATION_PAGE_SIZE = 100;
+    public static final int MAX_MESSAGE_PAGE_SIZE = 50;
+
     private final ConversationMessageRepository conversationMessageRepository;
+    private final ConversationRepository conversationRepository;
     private final ConversationMessageMapper mapper;
 
+    /**
+     * Newest conversations, one row more than the largest page so callers can tell whether a next page exists.
+     */
     @Cacheable(
             cacheNames = USER_CONVERSATIONS_CACHE,
             key = "#ownerId.toString() + ':' + #projectId.toString()"
     )
     public List<UserConversationResponse> findUserConversations(UUID ownerId, UUID projectId) {
         log.debug("Cache MISS for user conversations: ownerId={}, projectId={}", ownerId, projectId);
-        return conversationMessageRepository.findUserConversations(ownerId, projectId);
+        return toResponses(conversationRepository.findLatest(ownerId, projectId, MAX_CONVERSATION_PAGE_SIZE + 1));
+    }
+
+    public List<UserConversationResponse> findUserConversationsBefore(
+            UUID ownerId,
+            UUID projectId,
+            KeysetCursor cursor,
+            int limit
+    ) {
+        return toResponses(conversationRepository.findBefore(ownerId, projectId, cursor.at(), cursor.id(), limit));
+    }
+
+    private List<UserConversationResponse> toResponses(List<Conversation> conversations) {
+        return conversations.stream()
+                .map(conversation -> new UserConversationResponse(
+                        conversation.getId(),
+                        conversation.getLastMessagePreview(),
+                        conversation.getLastMessageAt()
+                ))
+                .toList();
     }
 
+    /**
+     * Newest messages of a conversation, newest first, one row more than the largest page.
+     * Older pages are read through keyset queries and never cached.
+     */
     @Cacheable(
             cacheNames = CONVERSATION_MESSAGES_CACHE,
-            key = "#conversationId.toString() + ':' + #request.getPage() + ':' + #request.getSize() + ':' + #request.getSortField() + ':' + #request.getDirection()"
+            key = "#conversationId.toString()"
     )
-    public PagedResponse<ConversationMessageResponse> findMessages(
+    public List<ConversationMessageResponse> findLatestMessages(UUID conversationId) {
+        log.debug("Cache MISS for conversation messages: conversationId={}", conversationId);
+        int limit = MAX_MESSAGE_PAGE_SIZE + 1;
+        List<ConversationMessage> hot = conversationMessageRepository.findLatestPage(conversationId, limit);
+        return toMessageResponses(withOlderArchived(conversationId, hot, null, limit));
+    }
+
+    public List<ConversationMessageResponse> findMessagesBefore(UUID conversationId, KeysetCursor cursor, int limit) {
+        List<ConversationMessage> hot =
+                conversationMessageRepository.findPageBefore(conversationId, cursor.at(), cursor.id(), limit);
+        return toMessageResponses(withOlderArchived(conversationId, hot, cursor, limit));
+    }
+
+    public List<ConversationMessageResponse> findMessagesAfter(UUID conversationId, KeysetCursor cursor, int limit) {
+        // Archived messages are always older than hot ones, so walking forward starts in the archive.
+        List<ConversationMessage> archived =
+                conversationMessageRepository.findArchivedPageAfter(conversationId, cursor.at(), cursor.id(), limit);
+        if (archived.size() >= limit) {
+            return toMessageResponses(archived);
+        }
+
+        KeysetCursor from = archived.isEmpty()
+                ? cursor
+                : new KeysetCursor(archived.getLast().getCreatedAt(), archived.getLast().getId());
+        List<ConversationMessage> hot = conversationMessageRepository.findPageAfter(
+                conversationId, from.at(), from.id(), limit - archived.size()
+        );
+        return toMessageResponses(concat(archived, hot));
+    }
+
+    /**
+     * Tops up a newest-first page from the archive when the hot partitions run out before {@code limit}.
+     */
+    private List<ConversationMessage> withOlderArchived(
             UUID conversationId,
-            PaginationRequest request
+            List<ConversationMessage> hot,
+            KeysetCursor cursor,
+            int limit
     ) {
-        log.debug("Cache MISS for conversation messages: conversationId={}, page={}",
-                conversationId, request.getPage());
+        if (hot.size() >= limit) {
+            return hot;
+        }
 
-        Pageable pageable = PaginationUtil.getPageable(request);
-        Page<ConversationMessage> page =
-                conversationMessageRepository.findAllByConversationId(conversationId, pageable);
+        int remaining = limit - hot.size();
+        List<ConversationMessage> archived;
+        if (!hot.isEmpty()) {
+            ConversationMessage oldest = hot.getLast();
+            archived = conversationMessageRepository.findArchivedPageBefore(
+                    conversationId, oldest.getCreatedAt(), oldest.getId(), remaining
+            );
+        } else if (cursor != null) {
+            archived = conversationMessageRepository.findArchivedPageBefore(
+                    conversationId, cursor.at(), cursor.id(), remaining
+            );
+        } else {
+            archived = conversationMessageRepository.findArchivedLatestPage(conversationId, remaining);
+        }
+        return concat(hot, archived);
+    }
+
+    private static List<ConversationMessage> concat(List<ConversationMessage> first, List<ConversationMessage> second) {
+        if (second.isEmpty()) {
+            return first;
+        }
+        if (first.isEmpty()) {
+            return second;
+        }
+        List<ConversationMessage> merged = new ArrayList<>(first.size() + second.size());
+        merged.addAll(first);
+        merged.addAll(second);
+        return merged;
+    }
 
-        List<ConversationMessageResponse> content = page.getContent().stream()
+    private List<ConversationMessageResponse> toMessageResponses(List<ConversationMessage> messages) {
+        return messages.stream()
                 .map(mapper::toResponse)
                 .toList();
-
-        return new PagedResponse<>(
-                content,
-                page.getTotalPages(),
-                page.getTotalElements(),
-                page.getSize(),
-                page.getNumber(),
-                page.isLast(),
-                page.hasNext()
-        );
     }
 
     @CacheEvict(
@@ -80,7 +162,7 @@ public class ConversationCacheService {
 
     @CacheEvict(
             cacheNames = CONVERSATION_MESSAGES_CACHE,
-            allEntries = true
+            key = "#conversationId.toString()"
     )
     public void evictConversationMessagesCache(UUID conversationId) {
         log.debug("Evicted conversation messages cache for conversationId={}", conversationId);
@@ -93,7 +175,7 @@ public class ConversationCacheService {
             ),
             @CacheEvict(
                     cacheNames = CONVERSATION_MESSAGES_CACHE,
-                    allEntries = true
+                    key = "#conversationId.toString()"
             )
     })
     public void evictAfterNewMessage(UUID ownerId, UUID projectId, UUID conversationId) {
@@ -0,0 +1,62 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationIndexWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Populates the {@code conversation} table from existing messages. Safe to run repeatedly and
+ * concurrently with live traffic, since index upserts never move a conversation back in time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationIndexBackfillJob {
+
+    private final ConversationIndexWriter conversationIndexWriter;
+    private final ExecutorService chatPersistenceExecutor;
+
+    @Value("${chat.conversation-index.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    @Value("${chat.conversation-index.backfill-batch-size:500}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (backfillOnStartup) {
+            chatPersistenceExecutor.execute(this::backfill);
+        }
+    }
+
+    public int backfill() {
+        log.info("CONVERSATION_INDEX_BACKFILL START batchSize={}", batchSize);
+        long startedAt = System.currentTimeMillis();
+
+        int batches = 0;
+        UUID cursor = null;
+        try {
+            while ((cursor = conversationIndexWriter.backfillBatch(cursor, batchSize)) != null) {
+                batches++;
+                log.debug("CONVERSATION_INDEX_BACKFILL BATCH batch={} lastConversationId={}", batches, cursor);
+            }
+        } catch (RuntimeException e) {
+            log.error("CONVERSATION_INDEX_BACKFILL FAILED batches={} lastConversationId={}", batches, cursor, e);
+            throw e;
+        }
+
+        log.info(
+                "CONVERSATION_INDEX_BACKFILL END batches={} elapsedMs={}",
+                batches,
+                System.currentTimeMillis() - startedAt
+        );
+        return batches;
+    }
+}
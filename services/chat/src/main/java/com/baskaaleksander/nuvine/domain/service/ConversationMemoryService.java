@@ -0,0 +1,161 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.CompletionLlmRouterRequest;
+import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
+import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.domain.model.ConversationSummary;
+import com.baskaaleksander.nuvine.infrastructure.config.ChatMemoryProperties;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationMemoryService {
+
+    static final String SUMMARY_PREFIX = "Summary of the earlier conversation:\n";
+
+    private final ConversationMessageRepository conversationMessageRepository;
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final ConversationWriteBehindQueue conversationWriteBehindQueue;
+    private final TokenCountingService tokenCountingService;
+    private final ModelLimitsService modelLimitsService;
+    private final ChatMemoryProperties properties;
+
+    /**
+     * Picks history by tokens rather than by message count: walks back from the newest message, page by page,
+     * until the model's history budget is full. {@code memorySize} of zero or less turns memory off.
+     * Only the hot partitions are read: a conversation resumed after its messages moved to the archive
+     * starts without verbatim history (in summary mode the summary still covers it). Falling through to
+     * the archive would cost an extra query on every turn of every short conversation.
+     * Exchanges still waiting in the write-behind queue are read first, so a quick follow-up sees the turn before it.
+     */
+    public List<CompletionLlmRouterRequest.Message> buildMemory(UUID conversationId, int memorySize, String model) {
+        ConversationSummary summary = properties.getMode() == ChatMemoryProperties.Mode.SUMMARY
+                ? conversationSummaryRepository.findById(conversationId).orElse(null)
+                : null;
+
+        Instant since = summary != null ? summary.getSummarizedUntil() : Instant.EPOCH;
+        int budget = historyBudget(model) - (summary != null ? summary.getSummaryTokens() : 0);
+        int maxMessages = memorySize > 0 ? properties.getMaxMessages() : 0;
+        int pageSize = properties.getPageSize();
+
+        Deque<ConversationMessage> selected = new ArrayDeque<>();
+        int usedTokens = 0;
+        int loadedMessages = 0;
+        boolean enabled = maxMessages > 0 && budget > 0;
+        // Read the queue before the table: an exchange flushed in between is then deduplicated rather than missed.
+        List<ConversationMessage> unflushed = enabled ? unflushedSince(conversationId, since) : List.of();
+        List<ConversationMessage> stored = enabled
+                ? conversationMessageRepository.findLatestPageSince(conversationId, since, pageSize)
+                : List.of();
+        List<ConversationMessage> page = withUnflushed(unflushed, stored);
+
+        boolean full = false;
+        while (!page.isEmpty()) {
+            loadedMessages += page.size();
+            for (ConversationMessage message : page) {
+                int tokens = tokensOf(message);
+                if (usedTokens + tokens > budget || selected.size() >= maxMessages) {
+                    full = true;
+                    break;
+                }
+                usedTokens += tokens;
+                selected.addFirst(message);
+            }
+            if (full || stored.size() < pageSize) {
+                break;
+            }
+            ConversationMessage oldest = stored.getLast();
+            stored = conversationMessageRepository.findPageBeforeSince(
+                    conversationId,
+                    since,
+                    oldest.getCreatedAt(),
+                    oldest.getId(),
+                    pageSize
+            );
+            page = stored;
+        }
+
+        // Never open the window with an answer whose question was cut off by the budget.
+        if (!selected.isEmpty() && selected.peekFirst().getRole() == ConversationRole.ASSISTANT) {
+            usedTokens -= tokensOf(selected.pollFirst());
+        }
+
+        List<CompletionLlmRouterRequest.Message> memory = new ArrayList<>(selected.size() + 1);
+        if (summary != null) {
+            memory.add(new CompletionLlmRouterRequest.Message("system", SUMMARY_PREFIX + summary.getSummary()));
+        }
+        for (ConversationMessage message : selected) {
+            memory.add(new CompletionLlmRouterRequest.Message(
+                    message.getRole().name().toLowerCase(),
+                    message.getContent()
+            ));
+        }
+
+        log.info(
+                "CHAT_MEMORY LOAD convoId={} mode={} model={} budget={} loadedMessages={} selectedMessages={} summaryTokens={} messageTokens={}",
+                conversationId,
+                properties.getMode(),
+                model,
+                budget,
+                loadedMessages,
+                selected.size(),
+                summary != null ? summary.getSummaryTokens() : 0,
+                usedTokens
+        );
+
+        return memory;
+    }
+
+    // Newest first, to match the repository pages.
+    private List<ConversationMessage> unflushedSince(UUID conversationId, Instant since) {
+        return conversationWriteBehindQueue.unflushedMessages(conversationId).stream()
+                .filter(message -> message.getCreatedAt().isAfter(since))
+                .sorted(Comparator.comparing(ConversationMessage::getCreatedAt).reversed())
+                .toList();
+    }
+
+    private static List<ConversationMessage> withUnflushed(
+            List<ConversationMessage> unflushed,
+            List<ConversationMessage> stored
+    ) {
+        if (unflushed.isEmpty()) {
+            return stored;
+        }
+        Set<UUID> storedIds = stored.stream().map(ConversationMessage::getId).collect(Collectors.toSet());
+        List<ConversationMessage> merged = new ArrayList<>(unflushed.size() + stored.size());
+        unflushed.stream().filter(message -> !storedIds.contains(message.getId())).forEach(merged::add);
+        merged.addAll(stored);
+        return merged;
+    }
+
+    private int historyBudget(String model) {
+        OptionalInt contextWindow = modelLimitsService.contextWindow(model);
+        if (contextWindow.isEmpty()) {
+            return properties.getTokenBudget();
+        }
+        int share = (int) (contextWindow.getAsInt() * properties.getContextWindowShare());
+        return Math.min(share, properties.getMaxTokenBudget());
+    }
+
+    // Messages written before content_tokens existed are counted here; the tokenizer caches repeat lookups.
+    private int tokensOf(ConversationMessage message) {
+        Integer contentTokens = message.getContentTokens();
+        return contentTokens != null ? contentTokens : tokenCountingService.count(message.getContent());
+    }
+}
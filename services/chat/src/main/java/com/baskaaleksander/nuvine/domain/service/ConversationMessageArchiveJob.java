@@ -0,0 +1,84 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.infrastructure.config.ConversationArchiveProperties;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessagePartitionManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps {@code conversation_message} partitions created ahead of time and moves months that left the
+ * hot window into {@code conversation_message_archive}, so hot indexes only cover recent traffic.
+ * Safe to run on every instance; the database functions serialize archival with an advisory lock.
+ */
+@Service
+@Slf4j
+public class ConversationMessageArchiveJob {
+
+    private final ConversationMessagePartitionManager partitionManager;
+    private final ConversationArchiveProperties properties;
+    private final Clock clock;
+
+    @Autowired
+    public ConversationMessageArchiveJob(
+            ConversationMessagePartitionManager partitionManager,
+            ConversationArchiveProperties properties
+    ) {
+        this(partitionManager, properties, Clock.systemUTC());
+    }
+
+    ConversationMessageArchiveJob(
+            ConversationMessagePartitionManager partitionManager,
+            ConversationArchiveProperties properties,
+            Clock clock
+    ) {
+        this.partitionManager = partitionManager;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Scheduled(
+            initialDelayString = "${chat.message-archive.initial-delay:PT1M}",
+            fixedDelayString = "${chat.message-archive.interval:PT6H}"
+    )
+    public void run() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        try {
+            int created = partitionManager.ensurePartitions(properties.getPremakeMonths());
+            if (created > 0) {
+                log.info("CONVERSATION_ARCHIVE PARTITIONS_CREATED count={}", created);
+            }
+            archive();
+        } catch (RuntimeException e) {
+            log.error("CONVERSATION_ARCHIVE FAILED", e);
+        }
+    }
+
+    public int archive() {
+        Instant cutoff = cutoff();
+        int archived = 0;
+        String partition;
+        while ((partition = partitionManager.archiveOldestPartition(cutoff)) != null) {
+            archived++;
+            log.info("CONVERSATION_ARCHIVE PARTITION_ARCHIVED partition={} cutoff={}", partition, cutoff);
+        }
+        return archived;
+    }
+
+    Instant cutoff() {
+        return LocalDate.now(clock)
+                .withDayOfMonth(1)
+                .minusMonths(properties.getHotMonths())
+                .atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+    }
+}
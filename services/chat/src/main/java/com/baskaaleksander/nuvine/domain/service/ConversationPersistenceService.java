@@ -3,15 +3,19 @@ package com.baskaaleksander.nuvine.domain.service;
 import com.baskaaleksander.nuvine.application.dto.*;
 import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
 import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.domain.service.ConversationWriteBehindQueue.PendingExchange;
+import com.baskaaleksander.nuvine.domain.service.ConversationWriteBehindQueue.PostCommitTask;
 import com.baskaaleksander.nuvine.infrastructure.client.SubscriptionServiceClient;
 import com.baskaaleksander.nuvine.infrastructure.messaging.dto.LogTokenUsageEvent;
 import com.baskaaleksander.nuvine.infrastructure.messaging.out.LogTokenUsageEventProducer;
-import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -19,10 +23,12 @@ import java.util.UUID;
 @Slf4j
 public class ConversationPersistenceService {
 
-    private final ConversationMessageRepository conversationMessageRepository;
+    private final ConversationWriteBehindQueue conversationWriteBehindQueue;
     private final LogTokenUsageEventProducer logTokenUsageEventProducer;
     private final SubscriptionServiceClient subscriptionServiceClient;
     private final ConversationCacheService conversationCacheService;
+    private final ConversationSummaryService conversationSummaryService;
+    private final TokenCountingService tokenCountingService;
 
     public ConversationMessage persistSyncCompletion(
             UUID conversationId,
@@ -39,74 +45,36 @@ public class ConversationPersistenceService {
                 completion.tokensOut()
         );
 
-        ConversationMessage userMessage = ConversationMessage.builder()
-                .conversationId(conversationId)
-                .content(request.message())
-                .role(ConversationRole.USER)
-                .projectId(request.projectId())
-                .workspaceId(request.workspaceId())
-                .modelUsed(request.model())
-                .tokensCost(completion.tokensIn())
-                .ownerId(ownerId)
-                .cost(0)
-                .build();
-
-        conversationMessageRepository.save(userMessage);
-
-        ConversationMessage assistantMessage = ConversationMessage.builder()
-                .conversationId(conversationId)
-                .content(completion.content())
-                .projectId(request.projectId())
-                .workspaceId(request.workspaceId())
-                .role(ConversationRole.ASSISTANT)
-                .modelUsed(request.model())
-                .tokensCost(completion.tokensOut())
-                .ownerId(ownerId)
-                .cost(0)
-                .build();
+        ConversationMessage[] exchange = buildExchange(
+                conversationId,
+                UUID.randomUUID(),
+                request,
+                ownerId,
+                completion.content(),
+                completion.tokensIn(),
+                completion.tokensOut()
+        );
 
-        ConversationMessage savedAssistant = conversationMessageRepository.save(assistantMessage);
+        enqueue(exchange, request, ownerId, completion.tokensIn(), completion.tokensOut(), checkLimitResult);
 
         log.info(
                 "CONVERSATION_PERSIST_SYNC END convoId={} model={} userMsgId={} assistantMsgId={}",
                 conversationId,
                 request.model(),
-                userMessage.getId(),
-                savedAssistant.getId()
+                exchange[0].getId(),
+                exchange[1].getId()
         );
 
-        String provider = request.model().split("/")[0];
-        String model = request.model().split("/")[1];
-
-        logTokenUsageEventProducer.produceLogTokenUsageEvent(
-                new LogTokenUsageEvent(
-                        request.workspaceId().toString(),
-                        ownerId.toString(),
-                        conversationId.toString(),
-                        userMessage.getId().toString(),
-                        model,
-                        provider,
-                        "chat-service",
-                        completion.tokensIn(),
-                        completion.tokensOut(),
-                        Instant.now()
-                )
-        );
-
-        subscriptionServiceClient.releaseReservation(
-                new ReleaseReservationRequest(
-                        request.workspaceId(),
-                        checkLimitResult.estimatedCost()
-                )
-        );
-
-        conversationCacheService.evictAfterNewMessage(ownerId, request.projectId(), conversationId);
-
-        return savedAssistant;
+        return exchange[1];
     }
 
+    /**
+     * {@code assistantMessageId} is chosen when the stream starts, so it can be sent to the client before the
+     * exchange is written.
+     */
     public void persistStreamCompletion(
             ChatContext ctx,
+            UUID assistantMessageId,
             CompletionRequest request,
             String assistantContent,
             int tokensIn,
@@ -121,72 +89,30 @@ public class ConversationPersistenceService {
                 tokensOut
         );
 
-        ConversationMessage userMessage = ConversationMessage.builder()
-                .conversationId(ctx.conversationId())
-                .content(request.message())
-                .projectId(ctx.projectId())
-                .workspaceId(ctx.workspaceId())
-                .role(ConversationRole.USER)
-                .modelUsed(request.model())
-                .ownerId(ctx.ownerId())
-                .tokensCost(tokensIn)
-                .cost(0)
-                .build();
-
-        conversationMessageRepository.save(userMessage);
-
-        ConversationMessage assistantMessage = ConversationMessage.builder()
-                .conversationId(ctx.conversationId())
-                .content(assistantContent)
-                .projectId(ctx.projectId())
-                .workspaceId(ctx.workspaceId())
-                .role(ConversationRole.ASSISTANT)
-                .modelUsed(request.model())
-                .ownerId(ctx.ownerId())
-                .tokensCost(tokensOut)
-                .cost(0)
-                .build();
-
-        conversationMessageRepository.save(assistantMessage);
-
-        String provider = request.model().split("/")[0];
-        String model = request.model().split("/")[1];
-
-        logTokenUsageEventProducer.produceLogTokenUsageEvent(
-                new LogTokenUsageEvent(
-                        request.workspaceId().toString(),
-                        ctx.ownerId().toString(),
-                        ctx.conversationId().toString(),
-                        userMessage.getId().toString(),
-                        model,
-                        provider,
-                        "chat-service",
-                        tokensIn,
-                        tokensOut,
-                        Instant.now()
-                )
-        );
-
-        subscriptionServiceClient.releaseReservation(
-                new ReleaseReservationRequest(
-                        request.workspaceId(),
-                        checkLimitResult.estimatedCost()
-                )
+        ConversationMessage[] exchange = buildExchange(
+                ctx.conversationId(),
+                assistantMessageId,
+                request,
+                ctx.ownerId(),
+                assistantContent,
+                tokensIn,
+                tokensOut
         );
 
-        conversationCacheService.evictAfterNewMessage(ctx.ownerId(), request.projectId(), ctx.conversationId());
+        enqueue(exchange, request, ctx.ownerId(), tokensIn, tokensOut, checkLimitResult);
 
         log.info(
                 "CONVERSATION_PERSIST_STREAM END convoId={} model={} userMsgId={} assistantMsgId={}",
                 ctx.conversationId(),
                 request.model(),
-                userMessage.getId(),
-                assistantMessage.getId()
+                exchange[0].getId(),
+                exchange[1].getId()
         );
     }
 
     public ConversationMessage persistStrictModeNoContext(
             UUID conversationId,
+            UUID assistantMessageId,
             CompletionRequest request,
             String assistantContent,
             UUID ownerId
@@ -197,44 +123,149 @@ public class ConversationPersistenceService {
                 request.model()
         );
 
+        ConversationMessage[] exchange =
+                buildExchange(conversationId, assistantMessageId, request, ownerId, assistantContent, 0, 0);
+
+        enqueue(exchange, request, ownerId, 0, 0, null);
+
+        log.info(
+                "CONVERSATION_PERSIST_STRICT_NO_CONTEXT END convoId={} model={} userMsgId={} assistantMsgId={}",
+                conversationId,
+                request.model(),
+                exchange[0].getId(),
+                exchange[1].getId()
+        );
+
+        return exchange[1];
+    }
+
+    /**
+     * Persists an exchange answered from the semantic answer cache. Nothing was spent, so no usage
+     * event is emitted and there is no reservation to release.
+     */
+    public ConversationMessage persistCachedAnswer(
+            UUID conversationId,
+            UUID assistantMessageId,
+            CompletionRequest request,
+            String assistantContent,
+            UUID ownerId
+    ) {
+        ConversationMessage[] exchange =
+                buildExchange(conversationId, assistantMessageId, request, ownerId, assistantContent, 0, 0);
+
+        enqueue(exchange, request, ownerId, 0, 0, null);
+
+        log.info(
+                "CONVERSATION_PERSIST_CACHED_ANSWER END convoId={} model={} userMsgId={} assistantMsgId={}",
+                conversationId,
+                request.model(),
+                exchange[0].getId(),
+                exchange[1].getId()
+        );
+
+        return exchange[1];
+    }
+
+    private ConversationMessage[] buildExchange(
+            UUID conversationId,
+            UUID assistantMessageId,
+            CompletionRequest request,
+            UUID ownerId,
+            String assistantContent,
+            int tokensIn,
+            int tokensOut
+    ) {
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
         ConversationMessage userMessage = ConversationMessage.builder()
+                .id(UUID.randomUUID())
                 .conversationId(conversationId)
                 .content(request.message())
                 .role(ConversationRole.USER)
                 .projectId(request.projectId())
                 .workspaceId(request.workspaceId())
                 .modelUsed(request.model())
+                .tokensCost(tokensIn)
+                .contentTokens(tokenCountingService.count(request.message()))
                 .ownerId(ownerId)
-                .tokensCost(0)
                 .cost(0)
+                .createdAt(createdAt)
                 .build();
 
-        conversationMessageRepository.save(userMessage);
-
+        // One microsecond apart keeps the user message ordered first at Postgres timestamp precision.
         ConversationMessage assistantMessage = ConversationMessage.builder()
+                .id(assistantMessageId)
                 .conversationId(conversationId)
                 .content(assistantContent)
                 .role(ConversationRole.ASSISTANT)
                 .projectId(request.projectId())
                 .workspaceId(request.workspaceId())
                 .modelUsed(request.model())
+                .tokensCost(tokensOut)
+                .contentTokens(tokenCountingService.count(assistantContent))
                 .ownerId(ownerId)
-                .tokensCost(0)
                 .cost(0)
+                .createdAt(createdAt.plus(1, ChronoUnit.MICROS))
                 .build();
 
-        ConversationMessage savedAssistant = conversationMessageRepository.save(assistantMessage);
+        return new ConversationMessage[]{userMessage, assistantMessage};
+    }
 
-        log.info(
-                "CONVERSATION_PERSIST_STRICT_NO_CONTEXT END convoId={} model={} userMsgId={} assistantMsgId={}",
+    private void enqueue(
+            ConversationMessage[] exchange,
+            CompletionRequest request,
+            UUID ownerId,
+            int tokensIn,
+            int tokensOut,
+            CheckLimitResult checkLimitResult
+    ) {
+        UUID conversationId = exchange[0].getConversationId();
+        List<PostCommitTask> afterCommit = new ArrayList<>(4);
+
+        if (checkLimitResult != null) {
+            String provider = request.model().split("/")[0];
+            String model = request.model().split("/")[1];
+
+            LogTokenUsageEvent usageEvent = new LogTokenUsageEvent(
+                    request.workspaceId().toString(),
+                    ownerId.toString(),
+                    conversationId.toString(),
+                    exchange[0].getId().toString(),
+                    model,
+                    provider,
+                    "chat-service",
+                    tokensIn,
+                    tokensOut,
+                    Instant.now()
+            );
+            ReleaseReservationRequest releaseRequest = new ReleaseReservationRequest(
+                    request.workspaceId(),
+                    checkLimitResult.estimatedCost()
+            );
+
+            afterCommit.add(new PostCommitTask(
+                    "usage_event",
+                    () -> logTokenUsageEventProducer.produceLogTokenUsageEvent(usageEvent)
+            ));
+            afterCommit.add(new PostCommitTask(
+                    "release_reservation",
+                    () -> subscriptionServiceClient.releaseReservation(releaseRequest)
+            ));
+        }
+
+        afterCommit.add(new PostCommitTask(
+                "cache_evict",
+                () -> conversationCacheService.evictAfterNewMessage(ownerId, request.projectId(), conversationId)
+        ));
+        afterCommit.add(new PostCommitTask(
+                "summary_refresh",
+                () -> conversationSummaryService.refresh(conversationId)
+        ));
+
+        conversationWriteBehindQueue.enqueue(new PendingExchange(
                 conversationId,
-                request.model(),
-                userMessage.getId(),
-                savedAssistant.getId()
-        );
-
-        conversationCacheService.evictAfterNewMessage(ownerId, request.projectId(), conversationId);
-
-        return savedAssistant;
+                List.of(exchange),
+                afterCommit
+        ));
     }
-}
\ No newline at end of file
+}
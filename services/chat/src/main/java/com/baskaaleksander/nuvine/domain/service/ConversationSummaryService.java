@@ -0,0 +1,178 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.CheckLimitRequest;
+import com.baskaaleksander.nuvine.application.dto.CheckLimitResult;
+import com.baskaaleksander.nuvine.application.dto.CompletionLlmRouterRequest;
+import com.baskaaleksander.nuvine.application.dto.CompletionResponse;
+import com.baskaaleksander.nuvine.application.dto.ReleaseReservationRequest;
+import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
+import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.domain.model.ConversationSummary;
+import com.baskaaleksander.nuvine.infrastructure.client.LlmRouterServiceClient;
+import com.baskaaleksander.nuvine.infrastructure.client.SubscriptionServiceClient;
+import com.baskaaleksander.nuvine.infrastructure.config.ChatMemoryProperties;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.LogTokenUsageEvent;
+import com.baskaaleksander.nuvine.infrastructure.messaging.out.LogTokenUsageEventProducer;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationSummaryService {
+
+    private static final String SUMMARY_INSTRUCTIONS = """
+            You maintain a running summary of a conversation between a user and an assistant.
+            Update the existing summary with the new messages below. Keep facts, decisions, user preferences,
+            referenced documents and open questions. Drop greetings and repetition.
+            Answer with the updated summary only, in at most 200 words.
+            """;
+
+    private final ConversationMessageRepository conversationMessageRepository;
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final LlmRouterServiceClient llmRouterServiceClient;
+    private final SubscriptionServiceClient subscriptionServiceClient;
+    private final LogTokenUsageEventProducer logTokenUsageEventProducer;
+    private final TokenCountingService tokenCountingService;
+    private final ChatMemoryProperties properties;
+
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    public void refresh(UUID conversationId) {
+        if (properties.getMode() != ChatMemoryProperties.Mode.SUMMARY || !inFlight.add(conversationId)) {
+            return;
+        }
+
+        try {
+            refreshSummary(conversationId);
+        } catch (RuntimeException e) {
+            log.warn("CHAT_MEMORY_SUMMARY FAILED convoId={}", conversationId, e);
+        } finally {
+            inFlight.remove(conversationId);
+        }
+    }
+
+    private void refreshSummary(UUID conversationId) {
+        ConversationSummary summary = conversationSummaryRepository.findById(conversationId).orElse(null);
+        Instant after = summary != null ? summary.getSummarizedUntil() : Instant.EPOCH;
+        int keepRecent = properties.getKeepRecentMessages();
+
+        List<ConversationMessage> pending = conversationMessageRepository.findByConversationIdAndCreatedAtAfterOrderByCreatedAtAsc(
+                conversationId,
+                after,
+                Limit.of(properties.getMaxSummaryInputMessages() + keepRecent)
+        );
+
+        if (pending.size() < properties.getSummarizeAfterMessages() + keepRecent) {
+            return;
+        }
+
+        int end = pending.size() - keepRecent;
+        // Keep question and answer together on the verbatim side.
+        if (pending.get(end - 1).getRole() == ConversationRole.USER) {
+            end--;
+        }
+        if (end <= 0) {
+            return;
+        }
+        List<ConversationMessage> toSummarize = pending.subList(0, end);
+
+        // Billed like a user completion, to the conversation owner's workspace.
+        ConversationMessage last = toSummarize.getLast();
+        String summaryModel = properties.getSummaryModel();
+        String provider = summaryModel.split("/")[0];
+        String model = summaryModel.split("/")[1];
+        String previous = summary != null ? summary.getSummary() : "";
+        String prompt = buildSummaryPrompt(previous, toSummarize);
+
+        CheckLimitResult checkLimitResult = subscriptionServiceClient.checkLimit(new CheckLimitRequest(
+                last.getWorkspaceId(),
+                model,
+                provider,
+                tokenCountingService.count(prompt)
+        ));
+        if (!checkLimitResult.approved()) {
+            log.info(
+                    "CHAT_MEMORY_SUMMARY LIMIT_EXCEEDED convoId={} workspaceId={}",
+                    conversationId,
+                    last.getWorkspaceId()
+            );
+            return;
+        }
+
+        CompletionResponse response;
+        try {
+            response = llmRouterServiceClient.completion(new CompletionLlmRouterRequest(prompt, summaryModel, null));
+            logTokenUsageEventProducer.produceLogTokenUsageEvent(new LogTokenUsageEvent(
+                    last.getWorkspaceId().toString(),
+                    last.getOwnerId().toString(),
+                    conversationId.toString(),
+                    last.getId().toString(),
+                    model,
+                    provider,
+                    "chat-service",
+                    response.tokensIn(),
+                    response.tokensOut(),
+                    Instant.now()
+            ));
+        } finally {
+            releaseReservation(conversationId, last.getWorkspaceId(), checkLimitResult);
+        }
+
+        String content = response.content().strip();
+        if (summary == null) {
+            summary = ConversationSummary.builder()
+                    .conversationId(conversationId)
+                    .build();
+        }
+        summary.setSummary(content);
+        summary.setSummaryTokens(tokenCountingService.count(content));
+        summary.setSummarizedUntil(toSummarize.getLast().getCreatedAt());
+        summary.setSummarizedMessageCount(summary.getSummarizedMessageCount() + toSummarize.size());
+        conversationSummaryRepository.save(summary);
+
+        log.info(
+                "CHAT_MEMORY_SUMMARY UPDATED convoId={} summarizedMessages={} summaryTokens={} tokensIn={} tokensOut={}",
+                conversationId,
+                summary.getSummarizedMessageCount(),
+                summary.getSummaryTokens(),
+                response.tokensIn(),
+                response.tokensOut()
+        );
+    }
+
+    private void releaseReservation(UUID conversationId, UUID workspaceId, CheckLimitResult checkLimitResult) {
+        try {
+            subscriptionServiceClient.releaseReservation(
+                    new ReleaseReservationRequest(workspaceId, checkLimitResult.estimatedCost())
+            );
+        } catch (RuntimeException e) {
+            log.warn("CHAT_MEMORY_SUMMARY RELEASE_RESERVATION_FAILED convoId={}", conversationId, e);
+        }
+    }
+
+    private String buildSummaryPrompt(String previousSummary, List<ConversationMessage> messages) {
+        StringBuilder sb = new StringBuilder(SUMMARY_INSTRUCTIONS)
+                .append("\nExisting summary:\n")
+                .append(previousSummary.isBlank() ? "(none)" : previousSummary)
+                .append("\n\nNew messages:\n");
+
+        for (ConversationMessage message : messages) {
+            sb.append(message.getRole().name().toLowerCase())
+                    .append(": ")
+                    .append(message.getContent())
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,307 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
+import com.baskaaleksander.nuvine.infrastructure.config.ConversationPersistenceProperties;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageBatchWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers finished exchanges and writes them to the database in JDBC batches from a single
+ * flusher thread. Post-commit tasks (usage events, reservation release, cache eviction) run
+ * on the persistence executor once the batch has been attempted.
+ * Exchanges stay readable through {@link #unflushedMessages(UUID)} until their batch is attempted,
+ * so access checks and memory on this instance see a turn the moment it is answered. Exchanges that
+ * still fail after every retry are parked in the dead-letter table.
+ */
+@Service
+@Slf4j
+public class ConversationWriteBehindQueue implements SmartLifecycle {
+
+    // Stop after the web server has drained in-flight requests so their exchanges are flushed too.
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final ConversationMessageBatchWriter batchWriter;
+    private final ExecutorService chatPersistenceExecutor;
+    private final ConversationPersistenceProperties properties;
+    private final ChatPipelineMetrics chatPipelineMetrics;
+    private final BlockingQueue<PendingExchange> queue;
+    private final ConcurrentMap<UUID, List<PendingExchange>> unflushed = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public ConversationWriteBehindQueue(
+            ConversationMessageBatchWriter batchWriter,
+            ExecutorService chatPersistenceExecutor,
+            ConversationPersistenceProperties properties,
+            ChatPipelineMetrics chatPipelineMetrics
+    ) {
+        this.batchWriter = batchWriter;
+        this.chatPersistenceExecutor = chatPersistenceExecutor;
+        this.properties = properties;
+        this.chatPipelineMetrics = chatPipelineMetrics;
+        this.queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+        chatPipelineMetrics.registerPersistenceQueue(queue);
+    }
+
+    public void enqueue(PendingExchange exchange) {
+        track(exchange);
+        if (running && queue.offer(exchange)) {
+            return;
+        }
+
+        log.warn(
+                "CONVERSATION_WRITE_BEHIND INLINE_FLUSH convoId={} reason={}",
+                exchange.conversationId(),
+                running ? "queue_full" : "not_running"
+        );
+        flush(List.of(exchange));
+    }
+
+    /**
+     * Messages of a conversation that were accepted but not yet written, oldest first.
+     */
+    public List<ConversationMessage> unflushedMessages(UUID conversationId) {
+        List<PendingExchange> pending = unflushed.get(conversationId);
+        if (pending == null) {
+            return List.of();
+        }
+        return pending.stream()
+                .flatMap(exchange -> exchange.messages().stream())
+                .sorted(Comparator.comparing(ConversationMessage::getCreatedAt))
+                .toList();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = Thread.ofPlatform()
+                .name("conversation-write-behind")
+                .start(this::runFlusher);
+        log.info("CONVERSATION_WRITE_BEHIND STARTED batchSize={} queueCapacity={}",
+                properties.getBatchSize(), properties.getQueueCapacity());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        log.info("CONVERSATION_WRITE_BEHIND STOPPING pending={}", queue.size());
+
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        try {
+            flusher.join(properties.getShutdownTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<PendingExchange> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+
+        chatPersistenceExecutor.shutdown();
+        try {
+            long leftNanos = Math.max(0, deadline - System.nanoTime());
+            if (!chatPersistenceExecutor.awaitTermination(leftNanos, TimeUnit.NANOSECONDS)) {
+                log.warn("CONVERSATION_WRITE_BEHIND POST_COMMIT_TIMEOUT");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        log.info("CONVERSATION_WRITE_BEHIND STOPPED");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void runFlusher() {
+        int batchSize = properties.getBatchSize();
+        long pollMillis = properties.getFlushInterval().toMillis();
+        List<PendingExchange> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingExchange first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("CONVERSATION_WRITE_BEHIND FLUSHER_ERROR", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<PendingExchange> batch) {
+        List<ConversationMessage> messages = batch.stream()
+                .flatMap(exchange -> exchange.messages().stream())
+                .toList();
+
+        long startedAt = System.nanoTime();
+        boolean written = retry("insert_batch", () -> batchWriter.insertAll(messages));
+
+        if (!written && batch.size() > 1) {
+            // Isolate the failing exchange instead of losing the whole batch.
+            written = true;
+            for (PendingExchange exchange : batch) {
+                written &= insertSingle(exchange);
+            }
+        } else if (!written) {
+            deadLetter(batch.getFirst());
+        }
+        batch.forEach(this::untrack);
+
+        chatPipelineMetrics.recordPersistenceFlush(
+                messages.size(),
+                System.nanoTime() - startedAt,
+                written ? "success" : "error"
+        );
+        log.debug("CONVERSATION_WRITE_BEHIND FLUSHED exchanges={} messages={} written={}",
+                batch.size(), messages.size(), written);
+
+        // Billing must not depend on transcript storage, so post-commit tasks run either way.
+        for (PendingExchange exchange : batch) {
+            for (PostCommitTask task : exchange.afterCommit()) {
+                dispatch(exchange.conversationId(), task);
+            }
+        }
+    }
+
+    private boolean insertSingle(PendingExchange exchange) {
+        try {
+            batchWriter.insertAll(exchange.messages());
+            return true;
+        } catch (RuntimeException e) {
+            deadLetter(exchange);
+            return false;
+        }
+    }
+
+    private void deadLetter(PendingExchange exchange) {
+        List<UUID> messageIds = exchange.messages().stream().map(ConversationMessage::getId).toList();
+        if (retry("dead_letter", () -> batchWriter.insertDeadLetters(exchange.messages()))) {
+            log.error("CONVERSATION_WRITE_BEHIND DEAD_LETTERED convoId={} messageIds={}",
+                    exchange.conversationId(), messageIds);
+            return;
+        }
+        log.error("CONVERSATION_WRITE_BEHIND DROPPED convoId={} messageIds={}",
+                exchange.conversationId(), messageIds);
+    }
+
+    private void track(PendingExchange exchange) {
+        unflushed.merge(exchange.conversationId(), List.of(exchange), (current, added) -> {
+            List<PendingExchange> merged = new ArrayList<>(current);
+            merged.addAll(added);
+            return List.copyOf(merged);
+        });
+    }
+
+    private void untrack(PendingExchange exchange) {
+        unflushed.computeIfPresent(exchange.conversationId(), (conversationId, current) -> {
+            List<PendingExchange> remaining = current.stream()
+                    .filter(pending -> pending != exchange)
+                    .toList();
+            return remaining.isEmpty() ? null : remaining;
+        });
+    }
+
+    private void dispatch(UUID conversationId, PostCommitTask task) {
+        Runnable runnable = () -> {
+            if (!retry(task.name(), task.action())) {
+                log.error("CONVERSATION_WRITE_BEHIND POST_COMMIT_FAILED convoId={} task={}",
+                        conversationId, task.name());
+            }
+        };
+
+        try {
+            chatPersistenceExecutor.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            runnable.run();
+        }
+    }
+
+    private boolean retry(String operation, Runnable action) {
+        Duration backoff = properties.getInitialBackoff();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                action.run();
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= properties.getMaxAttempts()) {
+                    log.error("CONVERSATION_WRITE_BEHIND RETRIES_EXHAUSTED operation={} attempts={}",
+                            operation, attempt, e);
+                    return false;
+                }
+                log.warn("CONVERSATION_WRITE_BEHIND RETRY operation={} attempt={} backoffMs={} error={}",
+                        operation, attempt, backoff.toMillis(), e.getMessage());
+                chatPipelineMetrics.recordPersistenceRetry(operation);
+                if (!sleep(backoff)) {
+                    return false;
+                }
+                backoff = min(backoff.multipliedBy(2), properties.getMaxBackoff());
+            }
+        }
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    public record PendingExchange(
+            UUID conversationId,
+            List<ConversationMessage> messages,
+            List<PostCommitTask> afterCommit
+    ) {
+    }
+
+    public record PostCommitTask(String name, Runnable action) {
+    }
+}
@@ -1,25 +1,187 @@
 package com.baskaaleksander.nuvine.domain.service;
 
+/**
+ * Strips Markdown formatting in a single left-to-right pass, collapsing whitespace and
+ * line breaks into single spaces. When a maximum length is given, scanning stops as soon
+ * as that many characters have been produced, so previews of long messages stay cheap.
+ */
 public final class MarkdownCleaner {
 
     private MarkdownCleaner() {
     }
 
     public static String clean(String input) {
-        if (input == null) return "";
+        return clean(input, Integer.MAX_VALUE);
+    }
+
+    public static String clean(String input, int maxLength) {
+        if (input == null || maxLength <= 0) return "";
+        return new Scanner(input, maxLength).run();
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    private static final class Scanner {
+
+        private final String input;
+        private final int maxLength;
+        private final StringBuilder out;
+        // Position of the closing marker for an open ~~ (slot 0) or *, **, *** (slots 1-3) span.
+        private final int[] closers = {-1, -1, -1, -1};
+        private boolean pendingSpace;
+        private boolean inFence;
+
+        private Scanner(String input, int maxLength) {
+            this.input = input;
+            this.maxLength = maxLength;
+            this.out = new StringBuilder(Math.min(input.length(), maxLength));
+        }
+
+        private String run() {
+            int length = input.length();
+            int lineStart = 0;
+            while (lineStart < length && out.length() < maxLength) {
+                int lineEnd = input.indexOf('\n', lineStart);
+                if (lineEnd < 0) {
+                    lineEnd = length;
+                }
+                scanLine(lineStart, lineEnd);
+                pendingSpace = true;
+                lineStart = lineEnd + 1;
+            }
+
+            if (out.length() > maxLength) {
+                out.setLength(maxLength);
+            }
+            int end = out.length();
+            while (end > 0 && out.charAt(end - 1) == ' ') {
+                end--;
+            }
+            out.setLength(end);
+            return out.toString();
+        }
+
+        private void scanLine(int start, int end) {
+            int i = skipBlanks(start, end);
+            if (input.startsWith("```", i)) {
+                inFence = !inFence;
+                return;
+            }
+            if (inFence) {
+                return;
+            }
+
+            i = skipBlockMarkers(i, end);
+            while (i < end && out.length() < maxLength) {
+                i = scanInline(i, end);
+            }
+        }
+
+        private int skipBlockMarkers(int i, int end) {
+            int hashes = 0;
+            while (i + hashes < end && input.charAt(i + hashes) == '#') {
+                hashes++;
+            }
+            if (hashes >= 1 && hashes <= 6 && (i + hashes == end || isBlank(input.charAt(i + hashes)))) {
+                return skipBlanks(i + hashes, end);
+            }
+
+            while (i < end && input.charAt(i) == '>') {
+                i = skipBlanks(i + 1, end);
+            }
+
+            if (i + 1 < end && isListMarker(input.charAt(i)) && isBlank(input.charAt(i + 1))) {
+                i = skipBlanks(i + 1, end);
+            }
+            return i;
+        }
+
+        private int scanInline(int i, int end) {
+            char c = input.charAt(i);
+
+            if (c == '`') {
+                int close = input.indexOf('`', i + 1);
+                if (close < 0 || close >= end) {
+                    emit(c);
+                    return i + 1;
+                }
+                for (int j = i + 1; j < close; j++) {
+                    emit(input.charAt(j));
+                }
+                return close + 1;
+            }
+
+            if (c == '*' || c == '~') {
+                int run = runLength(i, end, c);
+                int slot = c == '*' ? (run <= 3 ? run : -1) : (run == 2 ? 0 : -1);
+                if (slot >= 0) {
+                    if (closers[slot] == i) {
+                        closers[slot] = -1;
+                        return i + run;
+                    }
+                    int close = findCloser(i + run, end, c, run);
+                    if (close >= 0) {
+                        closers[slot] = close;
+                        return i + run;
+                    }
+                }
+                for (int j = 0; j < run; j++) {
+                    emit(c);
+                }
+                return i + run;
+            }
+
+            emit(c);
+            return i + 1;
+        }
+
+        private int findCloser(int from, int end, char marker, int run) {
+            int j = from;
+            while (j < end) {
+                if (input.charAt(j) != marker) {
+                    j++;
+                    continue;
+                }
+                int candidate = runLength(j, end, marker);
+                if (candidate == run) {
+                    return j;
+                }
+                j += candidate;
+            }
+            return -1;
+        }
+
+        private int runLength(int i, int end, char marker) {
+            int j = i;
+            while (j < end && input.charAt(j) == marker) {
+                j++;
+            }
+            return j - i;
+        }
 
-        String cleaned = input;
+        private int skipBlanks(int i, int end) {
+            while (i < end && isBlank(input.charAt(i))) {
+                i++;
+            }
+            return i;
+        }
 
-        cleaned = cleaned.replaceAll("(?m)^#{1,6}\\s*", "");
-        cleaned = cleaned.replaceAll("\\*\\*(.*?)\\*\\*", "$1");
-        cleaned = cleaned.replaceAll("\\*(.*?)\\*", "$1");
-        cleaned = cleaned.replaceAll("~~(.*?)~~", "$1");
-        cleaned = cleaned.replaceAll("`([^`]*)`", "$1");
-        cleaned = cleaned.replaceAll("```[\\s\\S]*?```", "");
-        cleaned = cleaned.replaceAll(">\\s*", "");
-        cleaned = cleaned.replaceAll("[-*+]\\s+", "");
-        cleaned = cleaned.replaceAll("\\r?\\n", " ");
+        private static boolean isListMarker(char c) {
+            return c == '-' || c == '*' || c == '+';
+        }
 
-        return cleaned.trim();
+        private void emit(char c) {
+            if (isBlank(c)) {
+                pendingSpace = true;
+                return;
+            }
+            if (pendingSpace && !out.isEmpty()) {
+                out.append(' ');
+            }
+            pendingSpace = false;
+            out.append(c);
+        }
     }
-}
\ No newline at end of file
+}
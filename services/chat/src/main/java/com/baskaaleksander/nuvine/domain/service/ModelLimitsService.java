@@ -0,0 +1,65 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.ModelLimitsResponse;
+import com.baskaaleksander.nuvine.infrastructure.client.SubscriptionServiceClient;
+import com.baskaaleksander.nuvine.infrastructure.config.ChatMemoryProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.OptionalInt;
+
+/**
+ * Context windows of the models the subscription service knows about, cached per model. Unknown models are
+ * cached as empty too; failed lookups are not, so the next request tries again.
+ */
+@Service
+@Slf4j
+public class ModelLimitsService {
+
+    private static final int MAX_MODELS = 512;
+
+    private final SubscriptionServiceClient subscriptionServiceClient;
+    private final Cache<String, OptionalInt> contextWindows;
+
+    public ModelLimitsService(SubscriptionServiceClient subscriptionServiceClient, ChatMemoryProperties properties) {
+        this.subscriptionServiceClient = subscriptionServiceClient;
+        this.contextWindows = Caffeine.newBuilder()
+                .maximumSize(MAX_MODELS)
+                .expireAfterWrite(properties.getModelLimitsTtl())
+                .build();
+    }
+
+    public OptionalInt contextWindow(String model) {
+        try {
+            return contextWindows.get(model, this::fetchContextWindow);
+        } catch (FeignException e) {
+            log.warn("MODEL_LIMITS FETCH_FAILED model={} status={}", model, e.status());
+            return OptionalInt.empty();
+        }
+    }
+
+    private OptionalInt fetchContextWindow(String model) {
+        String[] parts = model.split("/");
+        if (parts.length < 2) {
+            return OptionalInt.empty();
+        }
+
+        ModelLimitsResponse limits;
+        try {
+            limits = subscriptionServiceClient.getModelLimits(parts[0], parts[1]);
+        } catch (FeignException.NotFound e) {
+            log.info("MODEL_LIMITS UNKNOWN_MODEL model={}", model);
+            return OptionalInt.empty();
+        }
+
+        Long contextWindow = limits != null ? limits.contextWindowTokens() : null;
+        log.info("MODEL_LIMITS LOADED model={} contextWindow={}", model, contextWindow);
+        if (contextWindow == null || contextWindow <= 0) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of((int) Math.min(contextWindow, Integer.MAX_VALUE));
+    }
+}
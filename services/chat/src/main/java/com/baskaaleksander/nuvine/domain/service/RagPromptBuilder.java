@@ -1,11 +1,16 @@
 package com.baskaaleksander.nuvine.domain.service;
 
 import com.baskaaleksander.nuvine.application.dto.CompletionRequest;
+import com.baskaaleksander.nuvine.application.dto.PackedContext;
+import com.baskaaleksander.nuvine.application.dto.VectorSearchResponse;
 import com.baskaaleksander.nuvine.domain.exception.ContextNotFoundException;
+import com.baskaaleksander.nuvine.infrastructure.config.RagContextProperties;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,7 +19,25 @@ import java.util.UUID;
 @Slf4j
 public class RagPromptBuilder {
 
+    private static final String STRICT_SYSTEM_PROMPT_HEAD = """
+            You are an AI assistant that must answer strictly and only using the context from the user's documents.
+            
+            Rules:
+            - Use only the information contained inside <context>...</context>.
+            - If the answer is not clearly supported by the context, reply that the documents do not contain enough information to answer the question.
+            - Do not use any outside or general knowledge.
+            - Do not invent or guess any facts, numbers, or details.
+            - If the context is only partially relevant, answer only what is directly supported and explicitly say what is missing.
+            - Answer in the same language as the user message.
+            
+            <context>
+            """;
+
     private final ContextRetrievalService contextRetrievalService;
+    private final ContextPacker contextPacker;
+    private final RagContextProperties ragContextProperties;
+    private final ChatPipelineMetrics chatPipelineMetrics;
+    private final TokenCountingService tokenCountingService;
 
     public String buildPrompt(CompletionRequest request, List<UUID> documentIds) {
         if (request.freeMode()) {
@@ -33,21 +56,40 @@ public class RagPromptBuilder {
                 request.strictMode()
         );
 
-        List<String> context = contextRetrievalService.retrieveContext(
-                request.workspaceId(),
-                request.projectId(),
-                documentIds,
-                request.message(),
-                10,
-                0.5f
+        List<VectorSearchResponse.VectorSearchMatch> matches = chatPipelineMetrics.recordContextStage(
+                "retrieval",
+                chatPipelineMetrics.pipelineTags(request),
+                () -> contextRetrievalService.retrieveMatches(
+                        request.workspaceId(),
+                        request.projectId(),
+                        documentIds,
+                        request.message(),
+                        ragContextProperties.getTopK(),
+                        ragContextProperties.getThreshold()
+                )
         );
 
-        int contextSize = context != null ? context.size() : 0;
+        PackedContext packed = contextPacker.pack(
+                matches,
+                ragContextProperties.tokenBudgetFor(request.model()),
+                ragContextProperties.getDuplicateSimilarity()
+        );
+        List<String> context = packed.chunks();
+        chatPipelineMetrics.recordContextTokensSaved(packed.tokensSaved());
+
+        int contextSize = context.size();
         log.info(
-                "RAG_PROMPT_BUILD CONTEXT_RETRIEVED workspaceId={} projectId={} contextChunks={}",
+                "RAG_PROMPT_BUILD CONTEXT_RETRIEVED workspaceId={} projectId={} retrievedChunks={} contextChunks={} rawTokens={} packedTokens={} tokensSaved={} merged={} duplicatesDropped={} overBudgetDropped={}",
                 request.workspaceId(),
                 request.projectId(),
-                contextSize
+                matches != null ? matches.size() : 0,
+                contextSize,
+                packed.rawTokens(),
+                packed.packedTokens(),
+                packed.tokensSaved(),
+                packed.mergedChunks(),
+                packed.droppedDuplicates(),
+                packed.droppedOverBudget()
         );
 
         String prompt;
@@ -69,11 +111,14 @@ public class RagPromptBuilder {
     }
 
     private String buildNonStrictPrompt(List<String> context, String userMessage, CompletionRequest request) {
-        String ragPart = (context != null && !context.isEmpty())
-                ? "Use the following context extracted from knowledge base to answer the user:\n---\n"
-                + String.join("\n", context)
-                + "\n---\n"
-                : "No relevant context was found. Answer based only on your general knowledge.\n";
+        List<String> parts = new ArrayList<>();
+        if (context != null && !context.isEmpty()) {
+            parts.add("Use the following context extracted from knowledge base to answer the user:\n---\n");
+            appendJoined(parts, context, "\n");
+            parts.add("\n---\n");
+        } else {
+            parts.add("No relevant context was found. Answer based only on your general knowledge.\n");
+        }
 
         if (context == null || context.isEmpty()) {
             log.info(
@@ -83,7 +128,9 @@ public class RagPromptBuilder {
             );
         }
 
-        return ragPart + "User message:\n" + userMessage;
+        parts.add("User message:\n");
+        parts.add(userMessage);
+        return compose(parts);
     }
 
     private String buildStrictPrompt(List<String> context, String userMessage, CompletionRequest request) {
@@ -96,23 +143,10 @@ public class RagPromptBuilder {
             throw new ContextNotFoundException("Context not found");
         }
 
-        String formattedContext = String.join("\n\n---\n\n", context);
-
-        String systemPrompt = """
-                You are an AI assistant that must answer strictly and only using the context from the user's documents.
-                
-                Rules:
-                - Use only the information contained inside <context>...</context>.
-                - If the answer is not clearly supported by the context, reply that the documents do not contain enough information to answer the question.
-                - Do not use any outside or general knowledge.
-                - Do not invent or guess any facts, numbers, or details.
-                - If the context is only partially relevant, answer only what is directly supported and explicitly say what is missing.
-                - Answer in the same language as the user message.
-                
-                <context>
-                %s
-                </context>
-                """.formatted(formattedContext);
+        List<String> parts = new ArrayList<>();
+        parts.add(STRICT_SYSTEM_PROMPT_HEAD);
+        appendJoined(parts, context, "\n\n---\n\n");
+        parts.add("\n</context>\n");
 
         log.info(
                 "RAG_PROMPT_BUILD STRICT_CONTEXT_OK workspaceId={} projectId={} contextChunks={}",
@@ -121,6 +155,23 @@ public class RagPromptBuilder {
                 context.size()
         );
 
-        return systemPrompt + "\nUser message:\n" + userMessage;
+        parts.add("\nUser message:\n");
+        parts.add(userMessage);
+        return compose(parts);
+    }
+
+    private void appendJoined(List<String> parts, List<String> context, String separator) {
+        for (int i = 0; i < context.size(); i++) {
+            if (i > 0) {
+                parts.add(separator);
+            }
+            parts.add(context.get(i));
+        }
+    }
+
+    private String compose(List<String> parts) {
+        String prompt = String.join("", parts);
+        tokenCountingService.rememberEstimate(prompt, tokenCountingService.countParts(parts));
+        return prompt;
     }
-}
\ No newline at end of file
+}
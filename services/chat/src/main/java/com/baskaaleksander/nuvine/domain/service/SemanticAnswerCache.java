@@ -0,0 +1,178 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.AnswerCacheLookup;
+import com.baskaaleksander.nuvine.application.dto.CachedAnswer;
+import com.baskaaleksander.nuvine.application.dto.CompletionRequest;
+import com.baskaaleksander.nuvine.application.dto.EmbeddingRequest;
+import com.baskaaleksander.nuvine.infrastructure.cache.AnswerCacheStore;
+import com.baskaaleksander.nuvine.infrastructure.cache.AnswerCacheStore.IndexedQuestion;
+import com.baskaaleksander.nuvine.infrastructure.client.LlmRouterServiceClient;
+import com.baskaaleksander.nuvine.infrastructure.config.AnswerCacheProperties;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in cache of finished answers, shared by everyone asking the same question in a project.
+ * Entries are scoped by project, document set, model and mode, and matched by cosine similarity
+ * of the question embedding. Every failure degrades to a miss.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SemanticAnswerCache {
+
+    private final AnswerCacheProperties properties;
+    private final AnswerCacheStore answerCacheStore;
+    private final LlmRouterServiceClient llmRouterServiceClient;
+    private final ChatPipelineMetrics chatPipelineMetrics;
+
+    /**
+     * Follow-up turns depend on conversation memory, so only opening questions are shared.
+     */
+    public boolean isEligible(CompletionRequest request) {
+        return properties.isEnabled() && request.conversationId() == null;
+    }
+
+    public byte[] embed(String query) {
+        try {
+            float[] vector = llmRouterServiceClient.embed(
+                    new EmbeddingRequest(List.of(query), properties.getEmbeddingModel())
+            ).embeddings().getFirst();
+            return quantize(vector);
+        } catch (Exception e) {
+            log.warn("ANSWER_CACHE EMBED_FAILED model={}", properties.getEmbeddingModel(), e);
+            return null;
+        }
+    }
+
+    public AnswerCacheLookup lookup(CompletionRequest request, List<UUID> projectDocumentIds, byte[] queryEmbedding) {
+        if (queryEmbedding == null) {
+            chatPipelineMetrics.recordAnswerCacheLookup("error");
+            return null;
+        }
+
+        String scope = AnswerCacheStore.scope(request.projectId(), fingerprint(request, projectDocumentIds));
+        try {
+            IndexedQuestion best = null;
+            double bestSimilarity = -1;
+            for (IndexedQuestion question : answerCacheStore.readIndex(scope)) {
+                double similarity = cosine(queryEmbedding, question.embedding());
+                if (similarity > bestSimilarity) {
+                    best = question;
+                    bestSimilarity = similarity;
+                }
+            }
+
+            if (best != null && bestSimilarity >= properties.getSimilarityThreshold()) {
+                CachedAnswer answer = answerCacheStore.readAnswer(scope, best.answerId());
+                if (answer != null) {
+                    chatPipelineMetrics.recordAnswerCacheLookup("hit");
+                    log.info("ANSWER_CACHE HIT projectId={} similarity={}", request.projectId(), bestSimilarity);
+                    return new AnswerCacheLookup(scope, queryEmbedding, answer, bestSimilarity);
+                }
+            }
+
+            chatPipelineMetrics.recordAnswerCacheLookup("miss");
+            return new AnswerCacheLookup(scope, queryEmbedding, null, bestSimilarity);
+        } catch (Exception e) {
+            log.warn("ANSWER_CACHE LOOKUP_FAILED projectId={}", request.projectId(), e);
+            chatPipelineMetrics.recordAnswerCacheLookup("error");
+            return null;
+        }
+    }
+
+    public void store(AnswerCacheLookup lookup, String answer, BigDecimal estimatedCost) {
+        if (lookup == null || lookup.isHit() || answer == null || answer.isBlank()
+                || answer.length() > properties.getMaxAnswerLength()) {
+            return;
+        }
+
+        try {
+            answerCacheStore.write(
+                    lookup.scope(),
+                    lookup.queryEmbedding(),
+                    new CachedAnswer(answer, estimatedCost),
+                    properties.getMaxEntriesPerScope(),
+                    properties.getTtl()
+            );
+        } catch (Exception e) {
+            log.warn("ANSWER_CACHE STORE_FAILED scope={}", lookup.scope(), e);
+        }
+    }
+
+    public void invalidateProject(UUID projectId) {
+        long removed = answerCacheStore.invalidateProject(projectId);
+        log.info("ANSWER_CACHE INVALIDATED projectId={} keysRemoved={}", projectId, removed);
+    }
+
+    /**
+     * Splits a cached answer into delta-sized pieces so clients render it like a live stream.
+     */
+    public List<String> replayChunks(String content) {
+        int chunkSize = Math.max(1, properties.getReplayChunkSize());
+        List<String> chunks = new ArrayList<>(content.length() / chunkSize + 1);
+        int start = 0;
+        while (start < content.length()) {
+            int end = Math.min(content.length(), start + chunkSize);
+            if (end < content.length() && Character.isHighSurrogate(content.charAt(end - 1))) {
+                end++;
+            }
+            chunks.add(content.substring(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static String fingerprint(CompletionRequest request, List<UUID> projectDocumentIds) {
+        String documents = projectDocumentIds.stream()
+                .map(UUID::toString)
+                .sorted()
+                .collect(Collectors.joining(","));
+        String key = request.model() + '|' + request.strictMode() + '|' + request.freeMode() + '|' + documents;
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    static byte[] quantize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+
+        byte[] quantized = new byte[vector.length];
+        if (norm == 0) {
+            return quantized;
+        }
+        for (int i = 0; i < quantized.length; i++) {
+            quantized[i] = (byte) Math.round(vector[i] / norm * 127);
+        }
+        return quantized;
+    }
+
+    static double cosine(byte[] a, byte[] b) {
+        if (a.length != b.length) {
+            return -1;
+        }
+        long dot = 0;
+        long normA = 0;
+        long normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0 || normB == 0) {
+            return 0;
+        }
+        return dot / Math.sqrt((double) normA * normB);
+    }
+}
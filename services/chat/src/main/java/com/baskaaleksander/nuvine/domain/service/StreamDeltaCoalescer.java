@@ -0,0 +1,217 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.LlmChunk;
+import com.baskaaleksander.nuvine.infrastructure.config.StreamCoalescingProperties;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges consecutive LLM deltas into fewer, larger chunks before they become SSE events.
+ * The first delta is always forwarded immediately; afterwards deltas are held until
+ * {@code maxBytes} accumulate or {@code maxDelay} passes. Any non-delta chunk flushes first,
+ * so ordering is preserved. Upstream demand follows downstream demand and the subscriber context
+ * is passed through.
+ */
+@Component
+@RequiredArgsConstructor
+public class StreamDeltaCoalescer {
+
+    private final StreamCoalescingProperties properties;
+    private final ChatPipelineMetrics chatPipelineMetrics;
+
+    public Flux<LlmChunk> coalesce(Flux<LlmChunk> chunks) {
+        return coalesce(chunks, Schedulers.parallel());
+    }
+
+    Flux<LlmChunk> coalesce(Flux<LlmChunk> chunks, Scheduler timerScheduler) {
+        if (!properties.isEnabled()) {
+            return chunks.doOnNext(chunk -> {
+                if (isDelta(chunk)) {
+                    chatPipelineMetrics.recordStreamFlush(utf8Length(chunk.content()), 1, "passthrough");
+                }
+                chatPipelineMetrics.recordStreamEvent(chunk.type());
+            });
+        }
+
+        return Flux.create(sink -> {
+            Coalescing coalescing = new Coalescing(sink, timerScheduler);
+            UpstreamSubscriber upstream = new UpstreamSubscriber(coalescing, Context.of(sink.contextView()));
+            sink.onDispose(() -> {
+                upstream.dispose();
+                coalescing.cancelTimer();
+            });
+            chunks.subscribe(upstream);
+            sink.onRequest(upstream::request);
+        });
+    }
+
+    private static boolean isDelta(LlmChunk chunk) {
+        return "delta".equals(chunk.type()) && chunk.content() != null;
+    }
+
+    static int utf8Length(String text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 2;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Requests from upstream only what downstream asked for, plus one more for every delta that was
+     * buffered without producing an event, so a slow client holds back the LLM stream instead of
+     * letting it pile up in memory.
+     */
+    private static final class UpstreamSubscriber extends BaseSubscriber<LlmChunk> {
+
+        private final Coalescing coalescing;
+        private final Context context;
+
+        private UpstreamSubscriber(Coalescing coalescing, Context context) {
+            this.coalescing = coalescing;
+            this.context = context;
+        }
+
+        @Override
+        public Context currentContext() {
+            return context;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            // demand is driven by sink.onRequest
+        }
+
+        @Override
+        protected void hookOnNext(LlmChunk chunk) {
+            if (!coalescing.onChunk(chunk)) {
+                request(1);
+            }
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            coalescing.onComplete();
+        }
+
+        @Override
+        protected void hookOnError(Throwable error) {
+            coalescing.onError(error);
+        }
+    }
+
+    private final class Coalescing {
+
+        private final FluxSink<LlmChunk> sink;
+        private final Scheduler timerScheduler;
+        private final StringBuilder pending = new StringBuilder();
+        private int pendingBytes;
+        private int pendingDeltas;
+        private boolean firstFlushed;
+        private Disposable timer;
+        private long timerGeneration;
+
+        private Coalescing(FluxSink<LlmChunk> sink, Scheduler timerScheduler) {
+            this.sink = sink;
+            this.timerScheduler = timerScheduler;
+        }
+
+        /**
+         * @return whether the chunk produced an event downstream
+         */
+        synchronized boolean onChunk(LlmChunk chunk) {
+            if (!isDelta(chunk)) {
+                flush("boundary");
+                emit(chunk);
+                return true;
+            }
+
+            pending.append(chunk.content());
+            pendingBytes += utf8Length(chunk.content());
+            pendingDeltas++;
+
+            if (!firstFlushed) {
+                return flush("first");
+            }
+            if (pendingBytes >= properties.getMaxBytes()) {
+                return flush("size");
+            }
+            if (timer == null) {
+                long generation = ++timerGeneration;
+                timer = timerScheduler.schedule(
+                        () -> onTimer(generation),
+                        properties.getMaxDelay().toMillis(),
+                        TimeUnit.MILLISECONDS
+                );
+            }
+            return false;
+        }
+
+        synchronized void onTimer(long generation) {
+            // A timer that fired while a size or boundary flush held the lock is stale.
+            if (timer == null || generation != timerGeneration) {
+                return;
+            }
+            timer = null;
+            flush("time");
+        }
+
+        synchronized void onComplete() {
+            flush("boundary");
+            sink.complete();
+        }
+
+        synchronized void onError(Throwable error) {
+            flush("boundary");
+            sink.error(error);
+        }
+
+        synchronized void cancelTimer() {
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+            }
+        }
+
+        private boolean flush(String reason) {
+            cancelTimer();
+            if (pendingDeltas == 0) {
+                return false;
+            }
+
+            firstFlushed = true;
+            chatPipelineMetrics.recordStreamFlush(pendingBytes, pendingDeltas, reason);
+            String content = pending.toString();
+            pending.setLength(0);
+            pendingBytes = 0;
+            pendingDeltas = 0;
+            emit(new LlmChunk("delta", content, null, null));
+            return true;
+        }
+
+        private void emit(LlmChunk chunk) {
+            chatPipelineMetrics.recordStreamEvent(chunk.type());
+            sink.next(chunk);
+        }
+    }
+}
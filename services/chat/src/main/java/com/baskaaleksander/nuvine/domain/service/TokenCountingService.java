@@ -6,14 +6,60 @@ import com.knuddels.jtokkit.api.EncodingRegistry;
 import com.knuddels.jtokkit.api.ModelType;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class TokenCountingService {
 
+    private static final int CACHE_CAPACITY = 1 << 14;
+    private static final int ESTIMATE_CACHE_CAPACITY = 1 << 10;
+    private static final int MIN_CACHEABLE_LENGTH = 64;
+
     private final EncodingRegistry encodingRegistry = Encodings.newDefaultEncodingRegistry();
     private final Encoding encoding = encodingRegistry.getEncodingForModel(ModelType.GPT_4_TURBO);
+    private final TokenCountCache cache = new TokenCountCache(CACHE_CAPACITY);
+    private final TokenCountCache estimates = new TokenCountCache(ESTIMATE_CACHE_CAPACITY);
 
 
     public int count(String rawText) {
-        return encoding.countTokens(rawText);
+        if (rawText.length() < MIN_CACHEABLE_LENGTH) {
+            return encoding.countTokens(rawText);
+        }
+
+        long hash = TokenCountCache.hash(rawText);
+        int cached = cache.get(hash);
+        if (cached >= 0) {
+            return cached;
+        }
+
+        int tokens = encoding.countTokens(rawText);
+        cache.put(hash, tokens);
+        return tokens;
+    }
+
+    public int countParts(List<String> parts) {
+        int total = 0;
+        for (String part : parts) {
+            total += count(part);
+        }
+        return total;
+    }
+
+    // Sum-of-parts counts can differ from encoding the joined text by a few tokens at the seams, so they are
+    // kept apart from exact counts and only served to callers that ask for an estimate.
+    public void rememberEstimate(String composedText, int tokens) {
+        if (composedText.length() >= MIN_CACHEABLE_LENGTH) {
+            estimates.put(TokenCountCache.hash(composedText), tokens);
+        }
+    }
+
+    public int estimate(String rawText) {
+        if (rawText.length() >= MIN_CACHEABLE_LENGTH) {
+            int estimated = estimates.get(TokenCountCache.hash(rawText));
+            if (estimated >= 0) {
+                return estimated;
+            }
+        }
+        return count(rawText);
     }
 }
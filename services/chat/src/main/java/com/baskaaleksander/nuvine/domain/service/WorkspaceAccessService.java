@@ -1,9 +1,13 @@
 package com.baskaaleksander.nuvine.domain.service;
 
+import com.baskaaleksander.nuvine.application.dto.ProjectChatContextResponse;
+import com.baskaaleksander.nuvine.infrastructure.cache.ProjectContextCache;
 import com.baskaaleksander.nuvine.infrastructure.client.WorkspaceServiceClient;
+import com.baskaaleksander.nuvine.infrastructure.config.WorkspaceContextProperties;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.util.HashSet;
@@ -17,53 +21,68 @@ import java.util.UUID;
 public class WorkspaceAccessService {
 
     private final WorkspaceServiceClient workspaceServiceClient;
+    private final ProjectContextCache projectContextCache;
+    private final WorkspaceContextProperties properties;
 
-    public void checkWorkspaceAccess(UUID workspaceId) {
-        log.info("WORKSPACE_ACCESS_CHECK START workspaceId={}", workspaceId);
-        try {
-            workspaceServiceClient.checkWorkspaceAccess(workspaceId);
-            log.info("WORKSPACE_ACCESS_CHECK END workspaceId={} status=OK", workspaceId);
-        } catch (FeignException e) {
-            int status = e.status();
-            if (status == 404) {
-                log.warn("WORKSPACE_ACCESS_CHECK END workspaceId={} status=NOT_FOUND", workspaceId);
-                throw new RuntimeException("WORKSPACE_NOT_FOUND");
-            } else if (status == 403) {
-                log.warn("WORKSPACE_ACCESS_CHECK END workspaceId={} status=FORBIDDEN", workspaceId);
-                throw new RuntimeException("WORKSPACE_ACCESS_DENIED");
-            }
-            log.error("WORKSPACE_ACCESS_CHECK FAILED workspaceId={} status={}", workspaceId, status, e);
-            throw new RuntimeException("WORKSPACE_ACCESS_CHECK_FAILED", e);
-        } catch (Exception e) {
-            log.error("WORKSPACE_ACCESS_CHECK FAILED workspaceId={}", workspaceId, e);
-            throw new RuntimeException("WORKSPACE_ACCESS_CHECK_FAILED", e);
+    public List<UUID> getProjectDocumentIds(UUID workspaceId, UUID projectId, String userId) {
+        ProjectContextCache.Key key = new ProjectContextCache.Key(userId, workspaceId, projectId);
+        ProjectContextCache.Entry cached = projectContextCache.get(key);
+
+        if (cached != null && System.nanoTime() - cached.validatedAtNanos() < properties.getFreshFor().toNanos()) {
+            log.info(
+                    "WORKSPACE_CONTEXT_FETCH CACHED projectId={} documentsCount={}",
+                    projectId,
+                    cached.documentIds().size()
+            );
+            return cached.documentIds();
         }
-    }
 
-    public List<UUID> getDocumentIdsInProject(UUID projectId) {
-        log.info("PROJECT_DOCUMENTS_FETCH START projectId={}", projectId);
+        log.info(
+                "WORKSPACE_CONTEXT_FETCH START workspaceId={} projectId={} conditional={}",
+                workspaceId,
+                projectId,
+                cached != null
+        );
         try {
-            List<UUID> docs = workspaceServiceClient.getDocumentIdsInProject(projectId);
+            ResponseEntity<ProjectChatContextResponse> response = workspaceServiceClient.getProjectChatContext(
+                    projectId,
+                    workspaceId,
+                    cached != null ? cached.etag() : null
+            );
+            List<UUID> documentIds = response.getBody().documentIds();
+            projectContextCache.put(
+                    key,
+                    new ProjectContextCache.Entry(documentIds, response.getHeaders().getETag(), System.nanoTime())
+            );
             log.info(
-                    "PROJECT_DOCUMENTS_FETCH END projectId={} documentsCount={}",
+                    "WORKSPACE_CONTEXT_FETCH END projectId={} status=OK documentsCount={}",
                     projectId,
-                    docs.size()
+                    documentIds.size()
             );
-            return docs;
+            return documentIds;
         } catch (FeignException e) {
             int status = e.status();
+            // Feign treats every non-2xx status as an error, including a successful revalidation.
+            if (status == 304 && cached != null) {
+                projectContextCache.put(key, cached.revalidated(System.nanoTime()));
+                log.info("WORKSPACE_CONTEXT_FETCH END projectId={} status=NOT_MODIFIED", projectId);
+                return cached.documentIds();
+            }
+
+            projectContextCache.invalidate(key);
             if (status == 404) {
-                log.warn("PROJECT_DOCUMENTS_FETCH END projectId={} status=NOT_FOUND", projectId);
+                log.warn("WORKSPACE_CONTEXT_FETCH END projectId={} status=NOT_FOUND", projectId);
                 throw new RuntimeException("PROJECT_NOT_FOUND");
             } else if (status == 403) {
-                log.warn("PROJECT_DOCUMENTS_FETCH END projectId={} status=FORBIDDEN", projectId);
-                throw new RuntimeException("PROJECT_ACCESS_DENIED");
+                log.warn("WORKSPACE_CONTEXT_FETCH END workspaceId={} projectId={} status=FORBIDDEN", workspaceId, projectId);
+                throw new RuntimeException("WORKSPACE_ACCESS_DENIED");
             }
-            log.error("PROJECT_DOCUMENTS_FETCH FAILED projectId={} status={}", projectId, status, e);
-            throw new RuntimeException("PROJECT_ACCESS_CHECK_FAILED", e);
+            log.error("WORKSPACE_CONTEXT_FETCH FAILED projectId={} status={}", projectId, status, e);
+            throw new RuntimeException("WORKSPACE_ACCESS_CHECK_FAILED", e);
         } catch (Exception e) {
-            log.error("PROJECT_DOCUMENTS_FETCH FAILED projectId={}", projectId, e);
-            throw new RuntimeException("PROJECT_ACCESS_CHECK_FAILED", e);
+            projectContextCache.invalidate(key);
+            log.error("WORKSPACE_CONTEXT_FETCH FAILED projectId={}", projectId, e);
+            throw new RuntimeException("WORKSPACE_ACCESS_CHECK_FAILED", e);
         }
     }
 
@@ -0,0 +1,64 @@
+package com.baskaaleksander.nuvine.infrastructure.cache;
+
+import com.baskaaleksander.nuvine.application.dto.CachedAnswer;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RBatch;
+import org.redisson.api.RListAsync;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Redis layout for the semantic answer cache. Every scope keeps a bounded list of quantized question
+ * embeddings plus one bucket per answer, all under a per-project prefix so a project can be wiped at once.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnswerCacheStore {
+
+    private static final String KEY_PREFIX = "chat-service:answer-cache:";
+
+    private final RedissonClient redissonClient;
+
+    public static String scope(UUID projectId, String fingerprint) {
+        return projectId + ":" + fingerprint;
+    }
+
+    public List<IndexedQuestion> readIndex(String scope) {
+        return redissonClient.<IndexedQuestion>getList(indexKey(scope)).readAll();
+    }
+
+    public CachedAnswer readAnswer(String scope, String answerId) {
+        return redissonClient.<CachedAnswer>getBucket(answerKey(scope, answerId)).get();
+    }
+
+    public void write(String scope, byte[] embedding, CachedAnswer answer, int maxEntries, Duration ttl) {
+        String answerId = UUID.randomUUID().toString();
+
+        RBatch batch = redissonClient.createBatch();
+        batch.<CachedAnswer>getBucket(answerKey(scope, answerId)).setAsync(answer, ttl);
+        RListAsync<IndexedQuestion> index = batch.getList(indexKey(scope));
+        index.addAsync(new IndexedQuestion(answerId, embedding));
+        index.trimAsync(-maxEntries, -1);
+        index.expireAsync(ttl);
+        batch.execute();
+    }
+
+    public long invalidateProject(UUID projectId) {
+        return redissonClient.getKeys().deleteByPattern(KEY_PREFIX + projectId + ":*");
+    }
+
+    private static String indexKey(String scope) {
+        return KEY_PREFIX + scope + ":index";
+    }
+
+    private static String answerKey(String scope, String answerId) {
+        return KEY_PREFIX + scope + ":answer:" + answerId;
+    }
+
+    public record IndexedQuestion(String answerId, byte[] embedding) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.baskaaleksander.nuvine.infrastructure.cache;
+
+import com.baskaaleksander.nuvine.application.dto.IdempotentCompletion;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Redis layout for completion idempotency keys: one bucket per user and key, always written with a TTL.
+ * An in-flight entry is a short lease taken with set-if-absent; finishing replaces it with the answer.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyStore {
+
+    private static final String KEY_PREFIX = "chat-service:idempotency:";
+
+    private final RedissonClient redissonClient;
+
+    public static String scope(String userId, String idempotencyKey) {
+        return userId + ":" + idempotencyKey;
+    }
+
+    public IdempotentCompletion find(String scope) {
+        return redissonClient.<IdempotentCompletion>getBucket(key(scope)).get();
+    }
+
+    public boolean claim(String scope, String fingerprint, UUID leaseId, Duration lease) {
+        return redissonClient.<IdempotentCompletion>getBucket(key(scope))
+                .setIfAbsent(IdempotentCompletion.inFlight(fingerprint, leaseId), lease);
+    }
+
+    public void complete(String scope, IdempotentCompletion completion, Duration ttl) {
+        redissonClient.<IdempotentCompletion>getBucket(key(scope)).set(completion, ttl);
+    }
+
+    /**
+     * Drops the key only while it still holds this claim's lease. Once the lease expired and another request
+     * claimed the key, or the answer was stored, the entry is left alone.
+     *
+     * @return whether the lease was released
+     */
+    public boolean release(String scope, String fingerprint, UUID leaseId) {
+        return redissonClient.<IdempotentCompletion>getBucket(key(scope))
+                .compareAndSet(IdempotentCompletion.inFlight(fingerprint, leaseId), null);
+    }
+
+    private static String key(String scope) {
+        return KEY_PREFIX + scope;
+    }
+}
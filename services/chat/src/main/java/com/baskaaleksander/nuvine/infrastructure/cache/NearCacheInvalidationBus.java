@@ -0,0 +1,96 @@
+package com.baskaaleksander.nuvine.infrastructure.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Broadcasts L1 invalidations over a Redis topic. Messages are plain strings
+ * ({@code origin|cache|key}, empty key meaning clear) so every instance can decode them
+ * regardless of the value codec.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class NearCacheInvalidationBus {
+
+    public static final String TOPIC = "chat-service:near-cache-invalidation";
+
+    private static final char SEPARATOR = '|';
+
+    private final RedissonClient redissonClient;
+    private final String originId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    private RTopic topic;
+    private int listenerId = -1;
+
+    @PostConstruct
+    public void subscribe() {
+        topic = redissonClient.getTopic(TOPIC, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, message) -> onMessage(message));
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (topic != null && listenerId != -1) {
+            topic.removeListener(listenerId);
+        }
+    }
+
+    public void register(TwoLevelCache cache) {
+        caches.put(cache.getName(), cache);
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(cacheName, key.toString());
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName, "");
+    }
+
+    private void publish(String cacheName, String key) {
+        if (topic == null) {
+            return;
+        }
+        try {
+            topic.publishAsync(originId + SEPARATOR + cacheName + SEPARATOR + key);
+        } catch (RuntimeException e) {
+            // L1 entries still expire on their own TTL if the broadcast is lost.
+            log.warn("NEAR_CACHE INVALIDATION_PUBLISH_FAILED cache={} key={}", cacheName, key, e);
+        }
+    }
+
+    void onMessage(String message) {
+        int first = message.indexOf(SEPARATOR);
+        int second = message.indexOf(SEPARATOR, first + 1);
+        if (first < 0 || second < 0) {
+            log.warn("NEAR_CACHE INVALIDATION_MALFORMED message={}", message);
+            return;
+        }
+
+        if (message.startsWith(originId + SEPARATOR)) {
+            return;
+        }
+
+        TwoLevelCache cache = caches.get(message.substring(first + 1, second));
+        if (cache == null) {
+            return;
+        }
+
+        String key = message.substring(second + 1);
+        if (key.isEmpty()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.baskaaleksander.nuvine.infrastructure.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.jcache.JCacheCacheManager;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * JCache-backed cache manager that puts an in-process L1 in front of selected caches.
+ */
+public class NearCacheManager extends JCacheCacheManager {
+
+    private final Map<String, NearCacheSpec> nearCaches;
+    private final NearCacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+
+    public NearCacheManager(
+            javax.cache.CacheManager cacheManager,
+            Map<String, NearCacheSpec> nearCaches,
+            NearCacheInvalidationBus invalidationBus,
+            MeterRegistry meterRegistry
+    ) {
+        super(cacheManager);
+        this.nearCaches = nearCaches;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        Cache decorated = super.decorateCache(cache);
+        NearCacheSpec spec = nearCaches.get(cache.getName());
+        if (spec == null) {
+            return decorated;
+        }
+
+        TwoLevelCache twoLevelCache = new TwoLevelCache(
+                decorated,
+                spec.maximumSize(),
+                spec.timeToLive(),
+                invalidationBus,
+                meterRegistry
+        );
+        invalidationBus.register(twoLevelCache);
+        return twoLevelCache;
+    }
+
+    public record NearCacheSpec(long maximumSize, Duration timeToLive) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.baskaaleksander.nuvine.infrastructure.cache;
+
+import com.baskaaleksander.nuvine.infrastructure.config.WorkspaceContextProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-instance cache of the workspace chat context, keyed per user because the access
+ * verdict is. Entries keep the ETag so stale ones can be revalidated with a conditional request.
+ */
+@Component
+public class ProjectContextCache {
+
+    private final Cache<Key, Entry> cache;
+
+    public ProjectContextCache(WorkspaceContextProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .build();
+    }
+
+    public Entry get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(Key key, Entry entry) {
+        cache.put(key, entry);
+    }
+
+    public void invalidate(Key key) {
+        cache.invalidate(key);
+    }
+
+    public record Key(String userId, UUID workspaceId, UUID projectId) {
+    }
+
+    public record Entry(List<UUID> documentIds, String etag, long validatedAtNanos) {
+
+        public Entry revalidated(long nowNanos) {
+            return new Entry(documentIds, etag, nowNanos);
+        }
+    }
+}
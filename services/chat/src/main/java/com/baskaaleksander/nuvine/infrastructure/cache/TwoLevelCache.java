@@ -0,0 +1,191 @@
+package com.baskaaleksander.nuvine.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process L1 in front of a shared L2 cache. Reads are served from L1 when possible,
+ * evictions are applied to both levels and broadcast so other instances drop their L1 copy.
+ */
+public class TwoLevelCache implements Cache {
+
+    public static final String REQUESTS_METRIC = "chat.cache.requests";
+    public static final String L1_SIZE_METRIC = "chat.cache.l1.size";
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> l1;
+    private final Cache l2;
+    private final NearCacheInvalidationBus invalidationBus;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder keyEvictions = new LongAdder();
+    private final LongAdder clears = new LongAdder();
+
+    public TwoLevelCache(
+            Cache l2,
+            long maximumSize,
+            Duration timeToLive,
+            NearCacheInvalidationBus invalidationBus,
+            MeterRegistry meterRegistry
+    ) {
+        this.name = l2.getName();
+        this.l2 = l2;
+        this.invalidationBus = invalidationBus;
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+
+        this.l1Hits = requests(meterRegistry, "l1", "hit");
+        this.l1Misses = requests(meterRegistry, "l1", "miss");
+        this.l2Hits = requests(meterRegistry, "l2", "hit");
+        this.l2Misses = requests(meterRegistry, "l2", "miss");
+        Gauge.builder(L1_SIZE_METRIC, l1, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                .description("Entries held in the in-process L1 cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder(REQUESTS_METRIC)
+                .description("Cache lookups per level and result")
+                .tag("cache", name)
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l1;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object local = l1.getIfPresent(key);
+        if (local != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(fromStoreValue(local));
+        }
+        l1Misses.increment();
+
+        ValueWrapper remote = l2.get(key);
+        if (remote == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        l1.put(key, toStoreValue(remote.get()));
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        puts.increment();
+        l2.put(key, value);
+        l1.put(key, toStoreValue(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        keyEvictions.increment();
+        l2.evict(key);
+        l1.invalidate(key);
+        invalidationBus.publishEvict(name, key);
+    }
+
+    @Override
+    public void clear() {
+        clears.increment();
+        l2.clear();
+        l1.invalidateAll();
+        invalidationBus.publishClear(name);
+    }
+
+    long hitCount() {
+        return (long) (l1Hits.count() + l2Hits.count());
+    }
+
+    long missCount() {
+        return (long) l2Misses.count();
+    }
+
+    long putCount() {
+        return puts.sum();
+    }
+
+    long keyEvictionCount() {
+        return keyEvictions.sum();
+    }
+
+    long clearCount() {
+        return clears.sum();
+    }
+
+    void evictLocal(Object key) {
+        l1.invalidate(key);
+    }
+
+    void clearLocal() {
+        l1.invalidateAll();
+    }
+
+    private static Object toStoreValue(Object value) {
+        return value != null ? value : NullValue.INSTANCE;
+    }
+
+    private static Object fromStoreValue(Object value) {
+        return value == NullValue.INSTANCE ? null : value;
+    }
+}
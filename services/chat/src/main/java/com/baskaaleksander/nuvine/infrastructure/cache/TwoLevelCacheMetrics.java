@@ -0,0 +1,73 @@
+package com.baskaaleksander.nuvine.infrastructure.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the standard {@code cache.*} meters for a {@link TwoLevelCache}, so near-cached and
+ * plain JCache caches share one hit ratio query. A hit on either level counts as a hit.
+ */
+public class TwoLevelCacheMetrics extends CacheMeterBinder<TwoLevelCache> {
+
+    public static final String INVALIDATIONS_METRIC = "cache.invalidations";
+
+    public TwoLevelCacheMetrics(TwoLevelCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        return null;
+    }
+
+    @Override
+    protected long hitCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.hitCount() : 0L;
+    }
+
+    @Override
+    protected Long missCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.missCount() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.keyEvictionCount() + cache.clearCount() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.putCount() : 0L;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        TwoLevelCache cache = getCache();
+        if (cache == null) {
+            return;
+        }
+        invalidations(registry, cache, "key", TwoLevelCache::keyEvictionCount);
+        invalidations(registry, cache, "all", TwoLevelCache::clearCount);
+    }
+
+    private void invalidations(
+            MeterRegistry registry,
+            TwoLevelCache cache,
+            String scope,
+            ToDoubleFunction<TwoLevelCache> count
+    ) {
+        FunctionCounter.builder(INVALIDATIONS_METRIC, cache, count)
+                .description("Explicit invalidations by scope; 'all' is a full cache wipe")
+                .tags(getTagsWithCacheName())
+                .tag("scope", scope)
+                .register(registry);
+    }
+}
@@ -2,6 +2,8 @@ package com.baskaaleksander.nuvine.infrastructure.client;
 
 import com.baskaaleksander.nuvine.application.dto.CompletionLlmRouterRequest;
 import com.baskaaleksander.nuvine.application.dto.CompletionResponse;
+import com.baskaaleksander.nuvine.application.dto.EmbeddingRequest;
+import com.baskaaleksander.nuvine.application.dto.EmbeddingResponse;
 import com.baskaaleksander.nuvine.infrastructure.config.InternalFeignConfig;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,4 +20,7 @@ public interface LlmRouterServiceClient {
     CompletionResponse completion(
             @RequestBody CompletionLlmRouterRequest request
     );
+
+    @PostMapping("/internal/llm/embeddings")
+    EmbeddingResponse embed(@RequestBody EmbeddingRequest request);
 }
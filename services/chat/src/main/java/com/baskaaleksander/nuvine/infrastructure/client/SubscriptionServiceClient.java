@@ -2,11 +2,14 @@ package com.baskaaleksander.nuvine.infrastructure.client;
 
 import com.baskaaleksander.nuvine.application.dto.CheckLimitRequest;
 import com.baskaaleksander.nuvine.application.dto.CheckLimitResult;
+import com.baskaaleksander.nuvine.application.dto.ModelLimitsResponse;
 import com.baskaaleksander.nuvine.application.dto.ReleaseReservationRequest;
 import com.baskaaleksander.nuvine.infrastructure.config.InternalFeignConfig;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @FeignClient(
         name = "subscription-service",
@@ -21,4 +24,7 @@ public interface SubscriptionServiceClient {
 
     @PostMapping("/internal/billing/release-reservation")
     void releaseReservation(@RequestBody ReleaseReservationRequest request);
+
+    @GetMapping("/internal/billing/models/limits")
+    ModelLimitsResponse getModelLimits(@RequestParam("provider") String provider, @RequestParam("model") String model);
 }
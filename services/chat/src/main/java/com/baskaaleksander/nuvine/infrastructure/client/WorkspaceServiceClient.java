@@ -1,11 +1,15 @@
 package com.baskaaleksander.nuvine.infrastructure.client;
 
+import com.baskaaleksander.nuvine.application.dto.ProjectChatContextResponse;
 import com.baskaaleksander.nuvine.infrastructure.config.UserFeignConfig;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.List;
 import java.util.UUID;
 
 @FeignClient(
@@ -16,10 +20,11 @@ import java.util.UUID;
 )
 public interface WorkspaceServiceClient {
 
-    @GetMapping("/workspaces/{workspaceId}")
-    void checkWorkspaceAccess(@PathVariable UUID workspaceId);
-
-    @GetMapping("/internal/projects/{projectId}/document-ids")
-    List<UUID> getDocumentIdsInProject(@PathVariable UUID projectId);
+    @GetMapping("/internal/projects/{projectId}/chat-context")
+    ResponseEntity<ProjectChatContextResponse> getProjectChatContext(
+            @PathVariable UUID projectId,
+            @RequestParam UUID workspaceId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    );
 
 }
@@ -0,0 +1,21 @@
+package com.baskaaleksander.nuvine.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.answer-cache")
+@Getter
+@Setter
+public class AnswerCacheProperties {
+
+    private boolean enabled = false;
+    private double similarityThreshold = 0.95;
+    private String embeddingModel = "text-embedding-3-small";
+    private int maxEntriesPerScope = 64;
+    private int maxAnswerLength = 20_000;
+    private Duration ttl = Duration.ofHours(24);
+    private int replayChunkSize = 64;
+}
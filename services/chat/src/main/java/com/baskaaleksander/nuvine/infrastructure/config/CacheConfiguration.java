@@ -1,5 +1,10 @@
 package com.baskaaleksander.nuvine.infrastructure.config;
 
+import com.baskaaleksander.nuvine.infrastructure.cache.NearCacheInvalidationBus;
+import com.baskaaleksander.nuvine.infrastructure.cache.NearCacheManager;
+import com.baskaaleksander.nuvine.infrastructure.cache.NearCacheManager.NearCacheSpec;
+import com.baskaaleksander.nuvine.infrastructure.cache.TwoLevelCacheMeterBinderProvider;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.codec.Kryo5Codec;
@@ -18,6 +23,7 @@ import javax.cache.configuration.MutableConfiguration;
 import javax.cache.expiry.CreatedExpiryPolicy;
 import javax.cache.expiry.Duration;
 import javax.cache.spi.CachingProvider;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
@@ -25,7 +31,6 @@ import java.util.concurrent.TimeUnit;
 @Profile("!integrationtest")
 public class CacheConfiguration {
 
-    public static final String KEYCLOAK_TOKEN_CACHE = "keycloak-tokens";
     public static final String USER_CONVERSATIONS_CACHE = "user-conversations";
     public static final String CONVERSATION_MESSAGES_CACHE = "conversation-messages";
 
@@ -58,19 +63,42 @@ public class CacheConfiguration {
         CacheManager manager = cachingProvider.getCacheManager();
 
         MutableConfiguration<String, Object> rateBucketConfig = createConfig(TimeUnit.DAYS, 2);
-        MutableConfiguration<String, Object> keycloakTokenConfig = createConfig(TimeUnit.MINUTES, 4);
         MutableConfiguration<String, Object> userConversationsConfig = createConfig(TimeUnit.MINUTES, 5);
         MutableConfiguration<String, Object> messagesConfig = createConfig(TimeUnit.MINUTES, 10);
 
         createCache(manager, redissonClient, "chat-service-buckets", rateBucketConfig);
 
-        createCache(manager, redissonClient, KEYCLOAK_TOKEN_CACHE, keycloakTokenConfig);
         createCache(manager, redissonClient, USER_CONVERSATIONS_CACHE, userConversationsConfig);
         createCache(manager, redissonClient, CONVERSATION_MESSAGES_CACHE, messagesConfig);
 
         return manager;
     }
 
+    @Bean
+    public NearCacheInvalidationBus nearCacheInvalidationBus(RedissonClient redissonClient) {
+        return new NearCacheInvalidationBus(redissonClient);
+    }
+
+    @Bean
+    public org.springframework.cache.CacheManager cacheManager(
+            CacheManager jCacheCacheManager,
+            NearCacheInvalidationBus nearCacheInvalidationBus,
+            MeterRegistry meterRegistry
+    ) {
+        // L1 TTLs stay well below the Redis TTLs so a missed invalidation heals quickly.
+        Map<String, NearCacheSpec> nearCaches = Map.of(
+                USER_CONVERSATIONS_CACHE, new NearCacheSpec(10_000, java.time.Duration.ofSeconds(30)),
+                CONVERSATION_MESSAGES_CACHE, new NearCacheSpec(10_000, java.time.Duration.ofSeconds(60))
+        );
+
+        return new NearCacheManager(jCacheCacheManager, nearCaches, nearCacheInvalidationBus, meterRegistry);
+    }
+
+    @Bean
+    public TwoLevelCacheMeterBinderProvider twoLevelCacheMeterBinderProvider() {
+        return new TwoLevelCacheMeterBinderProvider();
+    }
+
     private MutableConfiguration<String, Object> createConfig(
             TimeUnit timeUnit,
             long timeDuration
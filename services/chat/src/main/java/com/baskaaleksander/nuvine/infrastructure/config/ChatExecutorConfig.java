@@ -0,0 +1,23 @@
+package com.baskaaleksander.nuvine.infrastructure.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ChatExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService chatContextExecutor() {
+        // Workspace Feign calls forward the caller's JWT, so the security context has to follow the task.
+        return new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService chatPersistenceExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
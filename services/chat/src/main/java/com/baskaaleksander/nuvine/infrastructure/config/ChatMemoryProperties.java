@@ -0,0 +1,32 @@
+package com.baskaaleksander.nuvine.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.memory")
+@Getter
+@Setter
+public class ChatMemoryProperties {
+
+    private Mode mode = Mode.WINDOW;
+    // History budget for models whose context window is unknown.
+    private int tokenBudget = 2000;
+    // Share of the model's context window that history may take; the rest is left for RAG context and the answer.
+    private double contextWindowShare = 0.25;
+    private int maxTokenBudget = 16_000;
+    private int maxMessages = 200;
+    private int pageSize = 20;
+    private Duration modelLimitsTtl = Duration.ofMinutes(10);
+    private String summaryModel = "openai/gpt-4o-mini";
+    private int keepRecentMessages = 6;
+    private int summarizeAfterMessages = 10;
+    private int maxSummaryInputMessages = 100;
+
+    public enum Mode {
+        WINDOW,
+        SUMMARY
+    }
+}
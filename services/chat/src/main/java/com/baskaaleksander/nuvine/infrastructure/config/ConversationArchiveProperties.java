@@ -0,0 +1,16 @@
+package com.baskaaleksander.nuvine.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "chat.message-archive")
+@Getter
+@Setter
+public class ConversationArchiveProperties {
+
+    private boolean enabled = true;
+    // Whole months kept in the partitioned table, counted back from the start of the current month.
+    private int hotMonths = 6;
+    private int premakeMonths = 2;
+}
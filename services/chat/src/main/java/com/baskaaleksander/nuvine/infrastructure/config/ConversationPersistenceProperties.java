@@ -0,0 +1,21 @@
+package com.baskaaleksander.nuvine.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.persistence")
+@Getter
+@Setter
+public class ConversationPersistenceProperties {
+
+    private int queueCapacity = 10_000;
+    private int batchSize = 64;
+    private Duration flushInterval = Duration.ofMillis(50);
+    private int maxAttempts = 5;
+    private Duration initialBackoff = Duration.ofMillis(100);
+    private Duration maxBackoff = Duration.ofSeconds(5);
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
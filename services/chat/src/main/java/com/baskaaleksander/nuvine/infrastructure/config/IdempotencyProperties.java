@@ -0,0 +1,25 @@
+package com.baskaaleksander.nuvine.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.idempotency")
+@Getter
+@Setter
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+    private int maxKeyLength = 128;
+    // How long a finished answer can be replayed for the same key.
+    private Duration ttl = Duration.ofHours(24);
+    // Lease on an in-flight request, so a crashed instance does not block its key for the full ttl.
+    private Duration inFlightTtl = Duration.ofMinutes(5);
+    // How long a duplicate on another instance waits for the original before getting a 409 to retry; capped at 5s.
+    private Duration inFlightWait = Duration.ofSeconds(2);
+    private Duration pollInterval = Duration.ofMillis(250);
+    // Longer answers are not copied into Redis and are read back from conversation history instead.
+    private int maxStoredContentLength = 32_000;
+}
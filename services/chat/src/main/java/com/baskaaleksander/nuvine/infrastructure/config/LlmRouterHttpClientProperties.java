@@ -0,0 +1,26 @@
+package com.baskaaleksander.nuvine.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.netty.http.HttpProtocol;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "chat.llm-router-client")
+@Getter
+@Setter
+public class LlmRouterHttpClientProperties {
+
+    private int maxConnections = 100;
+    private int pendingAcquireMaxCount = 500;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+    private Duration evictInBackground = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    // Longest allowed gap between reads; covers the wait for the first token of slow models.
+    private Duration responseTimeout = Duration.ofSeconds(120);
+    private List<HttpProtocol> protocols = List.of(HttpProtocol.HTTP11, HttpProtocol.H2C);
+}
@@ -1,32 +1,62 @@
 package com.baskaaleksander.nuvine.infrastructure.config;
 
 import com.baskaaleksander.nuvine.infrastructure.auth.KeycloakClientCredentialsTokenProvider;
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.function.Function;
 
 @Configuration
 public class LlmRouterWebClientConfig {
 
     private final KeycloakClientCredentialsTokenProvider tokenProvider;
+    private final LlmRouterHttpClientProperties properties;
     private final String apiBaseUrl;
 
     public LlmRouterWebClientConfig(
             KeycloakClientCredentialsTokenProvider tokenProvider,
+            LlmRouterHttpClientProperties properties,
             @Value("${application.config.api-base-url}") String apiBaseUrl
     ) {
         this.tokenProvider = tokenProvider;
+        this.properties = properties;
         this.apiBaseUrl = apiBaseUrl;
     }
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider llmRouterConnectionProvider() {
+        return ConnectionProvider.builder("llm-router")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictInBackground())
+                .metrics(true)
+                .build();
+    }
+
     @Bean
-    public WebClient llmRouterWebClient() {
+    public WebClient llmRouterWebClient(WebClient.Builder webClientBuilder, ConnectionProvider llmRouterConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(llmRouterConnectionProvider)
+                .protocol(properties.getProtocols().toArray(HttpProtocol[]::new))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(properties.getResponseTimeout())
+                .metrics(true, Function.identity());
 
-        return WebClient.builder()
+        return webClientBuilder
                 .baseUrl(apiBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .filter(authorizationFilter())
                 .build();
     }
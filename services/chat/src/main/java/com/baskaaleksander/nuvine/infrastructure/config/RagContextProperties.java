@@ -0,0 +1,24 @@
+package com.baskaaleksander.nuvine.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "chat.rag")
+@Getter
+@Setter
+public class RagContextProperties {
+
+    private int topK = 20;
+    private float threshold = 0.5f;
+    private int defaultTokenBudget = 3000;
+    private Map<String, Integer> modelTokenBudgets = new HashMap<>();
+    private double duplicateSimilarity = 0.85;
+
+    public int tokenBudgetFor(String model) {
+        return modelTokenBudgets.getOrDefault(model, defaultTokenBudget);
+    }
+}
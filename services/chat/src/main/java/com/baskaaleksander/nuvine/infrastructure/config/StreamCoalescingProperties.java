@@ -0,0 +1,17 @@
+package com.baskaaleksander.nuvine.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.stream.coalescing")
+@Getter
+@Setter
+public class StreamCoalescingProperties {
+
+    private boolean enabled = true;
+    private Duration maxDelay = Duration.ofMillis(40);
+    private int maxBytes = 512;
+}
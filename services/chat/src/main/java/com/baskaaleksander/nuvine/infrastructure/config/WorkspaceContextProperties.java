@@ -0,0 +1,18 @@
+package com.baskaaleksander.nuvine.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.workspace-context")
+@Getter
+@Setter
+public class WorkspaceContextProperties {
+
+    // How long a fetched project context is trusted without revalidating against workspace-service.
+    private Duration freshFor = Duration.ofSeconds(5);
+    private Duration expireAfterAccess = Duration.ofMinutes(10);
+    private long maxEntries = 10_000;
+}
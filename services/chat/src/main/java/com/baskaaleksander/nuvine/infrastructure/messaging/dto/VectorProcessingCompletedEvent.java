@@ -0,0 +1,9 @@
+package com.baskaaleksander.nuvine.infrastructure.messaging.dto;
+
+public record VectorProcessingCompletedEvent(
+        String ingestionJobId,
+        String documentId,
+        String projectId,
+        String workspaceId
+) {
+}
@@ -0,0 +1,32 @@
+package com.baskaaleksander.nuvine.infrastructure.messaging.in;
+
+import com.baskaaleksander.nuvine.domain.service.SemanticAnswerCache;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.VectorProcessingCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "chat.answer-cache", name = "enabled", havingValue = "true")
+public class VectorProcessingCompletedEventConsumer {
+
+    private final SemanticAnswerCache semanticAnswerCache;
+
+    @KafkaListener(topics = "${topics.vector-processing-completed-topic}")
+    public void consumeVectorProcessingCompletedEvent(VectorProcessingCompletedEvent event) {
+        log.info("VECTOR_PROCESSING_COMPLETED_EVENT received documentId={} projectId={} workspaceId={}", event.documentId(), event.projectId(), event.workspaceId());
+        try {
+            semanticAnswerCache.invalidateProject(UUID.fromString(event.projectId()));
+        } catch (Exception e) {
+            // Entries still expire by TTL, so a lost invalidation only delays freshness.
+            log.error("VECTOR_PROCESSING_COMPLETED_EVENT failed documentId={} projectId={} error={}",
+                    event.documentId(), event.projectId(), e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.baskaaleksander.nuvine.infrastructure.metrics;
+
+import com.baskaaleksander.nuvine.application.dto.CompletionRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class ChatPipelineMetrics {
+
+    public static final String CONTEXT_STAGE_TIMER = "chat.context.stage";
+    public static final String CONTEXT_TOKENS_SAVED = "chat.context.tokens.saved";
+    public static final String PERSISTENCE_QUEUE_DEPTH = "chat.persistence.queue.depth";
+    public static final String PERSISTENCE_FLUSH_TIMER = "chat.persistence.flush";
+    public static final String PERSISTENCE_BATCH_SIZE = "chat.persistence.batch.size";
+    public static final String PERSISTENCE_RETRIES = "chat.persistence.retries";
+    public static final String ANSWER_CACHE_REQUESTS = "chat.answer.cache.requests";
+    public static final String ANSWER_CACHE_CREDITS_SAVED = "chat.answer.cache.credits.saved";
+    public static final String STREAM_EVENTS = "chat.stream.events";
+    public static final String STREAM_FLUSH_BYTES = "chat.stream.flush.bytes";
+    public static final String STREAM_FLUSH_DELTAS = "chat.stream.flush.deltas";
+    public static final String IDEMPOTENCY_REQUESTS = "chat.idempotency.requests";
+    public static final String COMPLETION_TTFT = "chat.completion.ttft";
+    public static final String COMPLETION_DURATION = "chat.completion.duration";
+    public static final String COMPLETION_TOKENS_PER_SECOND = "chat.completion.tokens.per.second";
+
+    public static final String OTHER_MODEL = "other";
+    private static final int MAX_MODEL_TAGS = 64;
+
+    private final MeterRegistry meterRegistry;
+    // Models the subscription service has priced. Anything else a client sends is tagged "other".
+    private final Set<String> knownModels = ConcurrentHashMap.newKeySet();
+
+    public Tags pipelineTags(CompletionRequest request) {
+        String mode = request.freeMode() ? "free" : request.strictMode() ? "strict" : "rag";
+        return Tags.of(
+                "model", modelTag(request.model()),
+                "mode", mode
+        );
+    }
+
+    public void registerKnownModel(String model) {
+        if (model != null && knownModels.size() < MAX_MODEL_TAGS) {
+            knownModels.add(model);
+        }
+    }
+
+    private String modelTag(String model) {
+        return model != null && knownModels.contains(model) ? model : OTHER_MODEL;
+    }
+
+    public <T> T recordContextStage(String stage, Tags tags, Supplier<T> supplier) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(CONTEXT_STAGE_TIMER)
+                    .description("Duration of a single chat pipeline stage")
+                    .tags(tags)
+                    .tag("stage", stage)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    public void recordContextStageRun(String stage, Tags tags, Runnable runnable) {
+        recordContextStage(stage, tags, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public CompletionTimer startCompletion(CompletionRequest request, String type) {
+        return new CompletionTimer(request, type, System.nanoTime());
+    }
+
+    public void recordContextTokensSaved(int tokensSaved) {
+        DistributionSummary.builder(CONTEXT_TOKENS_SAVED)
+                .description("Prompt tokens removed by context packing per RAG request")
+                .baseUnit("tokens")
+                .register(meterRegistry)
+                .record(tokensSaved);
+    }
+
+    public void registerPersistenceQueue(Collection<?> queue) {
+        Gauge.builder(PERSISTENCE_QUEUE_DEPTH, queue, Collection::size)
+                .description("Conversation exchanges waiting for the write-behind flush")
+                .register(meterRegistry);
+    }
+
+    public void recordPersistenceFlush(int messages, long elapsedNanos, String outcome) {
+        Timer.builder(PERSISTENCE_FLUSH_TIMER)
+                .description("Duration of a write-behind batch insert including retries")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(PERSISTENCE_BATCH_SIZE)
+                .description("Conversation messages written per write-behind batch")
+                .register(meterRegistry)
+                .record(messages);
+    }
+
+    public void recordPersistenceRetry(String operation) {
+        Counter.builder(PERSISTENCE_RETRIES)
+                .description("Retried write-behind inserts and post-commit tasks")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordAnswerCacheLookup(String result) {
+        Counter.builder(ANSWER_CACHE_REQUESTS)
+                .description("Semantic answer cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordAnswerCacheCreditsSaved(BigDecimal credits) {
+        if (credits == null) {
+            return;
+        }
+        Counter.builder(ANSWER_CACHE_CREDITS_SAVED)
+                .description("Estimated completion credits not spent because the answer came from cache")
+                .baseUnit("credits")
+                .register(meterRegistry)
+                .increment(credits.doubleValue());
+    }
+
+    public void recordIdempotency(String type, String result) {
+        Counter.builder(IDEMPOTENCY_REQUESTS)
+                .description("Completion requests carrying an idempotency key by how they were served")
+                .tag("type", type)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordStreamEvent(String type) {
+        Counter.builder(STREAM_EVENTS)
+                .description("Chunks forwarded to SSE clients by type")
+                .tag("type", type != null ? type : "unknown")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordStreamFlush(int bytes, int deltas, String reason) {
+        DistributionSummary.builder(STREAM_FLUSH_BYTES)
+                .description("UTF-8 bytes of delta text per emitted SSE event")
+                .baseUnit("bytes")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .record(bytes);
+        DistributionSummary.builder(STREAM_FLUSH_DELTAS)
+                .description("Upstream LLM deltas merged into one emitted SSE event")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .record(deltas);
+    }
+
+    /**
+     * Tracks one completion request end to end. Time to first token and total duration are
+     * measured from the moment the request entered the service; tokens per second only covers
+     * generation, from the first token (or the LLM call for sync requests) to the end.
+     * Tags are resolved when a meter is recorded, after the limit check has vetted the model.
+     */
+    public final class CompletionTimer {
+
+        private final CompletionRequest request;
+        private final String type;
+        private final long startedAt;
+        private final AtomicLong generationStartedAt = new AtomicLong();
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private CompletionTimer(CompletionRequest request, String type, long startedAt) {
+            this.request = request;
+            this.type = type;
+            this.startedAt = startedAt;
+        }
+
+        public Tags tags() {
+            return pipelineTags(request);
+        }
+
+        public void markGenerationStart() {
+            generationStartedAt.compareAndSet(0, System.nanoTime());
+        }
+
+        public void markFirstToken() {
+            long now = System.nanoTime();
+            if (!generationStartedAt.compareAndSet(0, now)) {
+                return;
+            }
+            Timer.builder(COMPLETION_TTFT)
+                    .description("Time from receiving a completion request to its first streamed token")
+                    .tags(tags())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(now - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        public void finish(String outcome, int tokensOut) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            long now = System.nanoTime();
+            Tags tags = tags();
+            Timer.builder(COMPLETION_DURATION)
+                    .description("Total duration of a completion request")
+                    .tags(tags)
+                    .tag("type", type)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(now - startedAt, TimeUnit.NANOSECONDS);
+
+            long generationStart = generationStartedAt.get();
+            if (tokensOut <= 0 || generationStart == 0 || now <= generationStart) {
+                return;
+            }
+            double seconds = (now - generationStart) / 1_000_000_000.0;
+            DistributionSummary.builder(COMPLETION_TOKENS_PER_SECOND)
+                    .description("Output tokens generated per second")
+                    .tags(tags)
+                    .tag("type", type)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(1.0)
+                    .maximumExpectedValue(1_000.0)
+                    .register(meterRegistry)
+                    .record(tokensOut / seconds);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.baskaaleksander.nuvine.infrastructure.repository;
+
+import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the {@code conversation} table in step with {@code conversation_message}.
+ * The backfill also reads {@code conversation_message_archive}, so archived-only conversations stay listed.
+ * Upserts only move a conversation forward in time, so replays and out-of-order batches are safe.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ConversationIndexWriter {
+
+    public static final int PREVIEW_LENGTH = 500;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO conversation (
+                id, owner_id, project_id, workspace_id, last_message_preview, last_message_at, created_at
+            ) VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (id) DO UPDATE SET
+                last_message_preview = EXCLUDED.last_message_preview,
+                last_message_at = EXCLUDED.last_message_at
+            WHERE conversation.last_message_at <= EXCLUDED.last_message_at
+            """;
+
+    private static final String NEXT_BACKFILL_IDS_SQL = """
+            SELECT conversation_id FROM (
+                SELECT conversation_id FROM conversation_message WHERE conversation_id > ?
+                UNION
+                SELECT conversation_id FROM conversation_message_archive WHERE conversation_id > ?
+            ) ids
+            ORDER BY conversation_id
+            LIMIT ?
+            """;
+
+    private static final String BACKFILL_SQL = """
+            WITH messages AS (
+                SELECT id, conversation_id, owner_id, project_id, workspace_id, content, created_at
+                FROM conversation_message
+                WHERE conversation_id = ANY (?)
+                UNION ALL
+                SELECT id, conversation_id, owner_id, project_id, workspace_id, content, created_at
+                FROM conversation_message_archive
+                WHERE conversation_id = ANY (?)
+            )
+            INSERT INTO conversation (
+                id, owner_id, project_id, workspace_id, last_message_preview, last_message_at, created_at
+            )
+            SELECT latest.conversation_id, latest.owner_id, latest.project_id, latest.workspace_id,
+                   LEFT(latest.content, %d), latest.created_at, first_message.created_at
+            FROM (
+                SELECT DISTINCT ON (conversation_id) *
+                FROM messages
+                ORDER BY conversation_id, created_at DESC, id DESC
+            ) latest
+            JOIN (
+                SELECT conversation_id, MIN(created_at) AS created_at
+                FROM messages
+                GROUP BY conversation_id
+            ) first_message ON first_message.conversation_id = latest.conversation_id
+            ON CONFLICT (id) DO UPDATE SET
+                last_message_preview = EXCLUDED.last_message_preview,
+                last_message_at = EXCLUDED.last_message_at
+            WHERE conversation.last_message_at <= EXCLUDED.last_message_at
+            """.formatted(PREVIEW_LENGTH);
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void upsertLatest(List<ConversationMessage> messages) {
+        Map<UUID, ConversationMessage> latest = new LinkedHashMap<>();
+        for (ConversationMessage message : messages) {
+            latest.merge(message.getConversationId(), message, (current, candidate) ->
+                    candidate.getCreatedAt().isAfter(current.getCreatedAt()) ? candidate : current);
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(latest.values()), latest.size(), (ps, message) -> {
+            OffsetDateTime at = OffsetDateTime.ofInstant(message.getCreatedAt(), ZoneOffset.UTC);
+            ps.setObject(1, message.getConversationId());
+            ps.setObject(2, message.getOwnerId());
+            ps.setObject(3, message.getProjectId());
+            ps.setObject(4, message.getWorkspaceId());
+            ps.setString(5, preview(message.getContent()));
+            ps.setObject(6, at);
+            ps.setObject(7, at);
+        });
+    }
+
+    /**
+     * Indexes the next {@code batchSize} conversations after {@code afterId}.
+     *
+     * @return the last conversation id processed, or {@code null} when nothing is left
+     */
+    public UUID backfillBatch(UUID afterId, int batchSize) {
+        UUID cursor = afterId != null ? afterId : MIN_UUID;
+        List<UUID> ids = jdbcTemplate.queryForList(NEXT_BACKFILL_IDS_SQL, UUID.class, cursor, cursor, batchSize);
+        if (ids.isEmpty()) {
+            return null;
+        }
+
+        UUID[] idArray = ids.toArray(UUID[]::new);
+        jdbcTemplate.update(connection -> {
+            var ps = connection.prepareStatement(BACKFILL_SQL);
+            var array = connection.createArrayOf("uuid", idArray);
+            ps.setArray(1, array);
+            ps.setArray(2, array);
+            return ps;
+        });
+        return ids.getLast();
+    }
+
+    private static String preview(String content) {
+        return content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH);
+    }
+}
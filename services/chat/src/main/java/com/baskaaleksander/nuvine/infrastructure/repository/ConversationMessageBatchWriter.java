@@ -0,0 +1,87 @@
+package com.baskaaleksander.nuvine.infrastructure.repository;
+
+import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class ConversationMessageBatchWriter {
+
+    // Ids and timestamps are assigned before enqueueing, so a retried batch that already committed is a no-op.
+    private static final String INSERT_SQL = """
+            INSERT INTO conversation_message (
+                id, conversation_id, content, role, model_used, tokens_cost,
+                owner_id, project_id, workspace_id, cost, created_at, content_tokens
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (id, created_at) DO NOTHING
+            """;
+
+    private static final String INSERT_DEAD_LETTER_SQL = """
+            INSERT INTO conversation_message_dead_letter (
+                id, conversation_id, content, role, model_used, tokens_cost,
+                owner_id, project_id, workspace_id, cost, created_at, content_tokens
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (id) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationIndexWriter conversationIndexWriter;
+
+    public void insertAll(List<ConversationMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            insertMessages(messages);
+            conversationIndexWriter.upsertLatest(messages);
+        });
+    }
+
+    /**
+     * Parks messages that could not be written to {@code conversation_message}, so the transcript
+     * survives for replay instead of only being logged.
+     */
+    public void insertDeadLetters(List<ConversationMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> batchInsert(INSERT_DEAD_LETTER_SQL, messages));
+    }
+
+    private void insertMessages(List<ConversationMessage> messages) {
+        batchInsert(INSERT_SQL, messages);
+    }
+
+    private void batchInsert(String sql, List<ConversationMessage> messages) {
+        jdbcTemplate.batchUpdate(
+                sql,
+                messages,
+                messages.size(),
+                (ps, message) -> {
+                    ps.setObject(1, message.getId());
+                    ps.setObject(2, message.getConversationId());
+                    ps.setString(3, message.getContent());
+                    ps.setString(4, message.getRole() != null ? message.getRole().name() : null);
+                    ps.setString(5, message.getModelUsed());
+                    ps.setInt(6, message.getTokensCost());
+                    ps.setObject(7, message.getOwnerId());
+                    ps.setObject(8, message.getProjectId());
+                    ps.setObject(9, message.getWorkspaceId());
+                    ps.setDouble(10, message.getCost());
+                    ps.setObject(11, OffsetDateTime.ofInstant(message.getCreatedAt(), ZoneOffset.UTC));
+                    ps.setObject(12, message.getContentTokens(), Types.INTEGER);
+                }
+        );
+    }
+}
@@ -0,0 +1,40 @@
+package com.baskaaleksander.nuvine.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Thin wrapper over the partition maintenance functions created in V6. Every call runs in its own
+ * transaction, so one archived partition is committed before the next one is picked.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ConversationMessagePartitionManager {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int ensurePartitions(int monthsAhead) {
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT ensure_conversation_message_partitions(?)",
+                Integer.class,
+                monthsAhead
+        );
+        return created != null ? created : 0;
+    }
+
+    /**
+     * @return the name of the partition moved to the archive, or {@code null} when none is older than the cutoff
+     */
+    public String archiveOldestPartition(Instant cutoff) {
+        return jdbcTemplate.queryForObject(
+                "SELECT archive_oldest_conversation_message_partition(?)",
+                String.class,
+                OffsetDateTime.ofInstant(cutoff, ZoneOffset.UTC)
+        );
+    }
+}
@@ -1,13 +1,12 @@
 package com.baskaaleksander.nuvine.infrastructure.repository;
 
-import com.baskaaleksander.nuvine.application.dto.UserConversationResponse;
 import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,23 +15,102 @@ public interface ConversationMessageRepository extends JpaRepository<Conversatio
     @Query("SELECT cm FROM ConversationMessage cm WHERE cm.conversationId = :conversationId ORDER BY cm.createdAt ASC FETCH FIRST :limit ROWS ONLY")
     List<ConversationMessage> findByConversationId(UUID conversationId, int limit);
 
-    Page<ConversationMessage> findAllByConversationId(UUID conversationId, Pageable pageable);
-
-    @Query("""
-            SELECT new com.baskaaleksander.nuvine.application.dto.UserConversationResponse(
-                cm.conversationId,
-                cm.content,
-                cm.createdAt
-            )
-            FROM ConversationMessage cm
-            WHERE cm.ownerId = :ownerId
-              AND cm.projectId = :projectId
-              AND cm.createdAt = (
-                    SELECT MAX(cm2.createdAt)
-                    FROM ConversationMessage cm2
-                    WHERE cm2.conversationId = cm.conversationId
-              )
-            ORDER BY cm.createdAt DESC
-            """)
-    List<UserConversationResponse> findUserConversations(UUID ownerId, UUID projectId);
+    List<ConversationMessage> findByConversationIdAndCreatedAtAfterOrderByCreatedAtAsc(
+            UUID conversationId,
+            Instant after,
+            Limit limit
+    );
+
+    @Query(value = """
+            SELECT * FROM conversation_message
+            WHERE conversation_id = :conversationId
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ConversationMessage> findLatestPage(UUID conversationId, int limit);
+
+    // created_at bound first so the scan stays on idx_conversation_message_conversation_created_at; id only breaks ties
+    @Query(value = """
+            SELECT * FROM conversation_message
+            WHERE conversation_id = :conversationId
+              AND created_at <= :beforeAt
+              AND (created_at < :beforeAt OR id < :beforeId)
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ConversationMessage> findPageBefore(UUID conversationId, Instant beforeAt, UUID beforeId, int limit);
+
+    @Query(value = """
+            SELECT * FROM conversation_message
+            WHERE conversation_id = :conversationId
+              AND created_at >= :afterAt
+              AND (created_at > :afterAt OR id > :afterId)
+            ORDER BY created_at ASC, id ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ConversationMessage> findPageAfter(UUID conversationId, Instant afterAt, UUID afterId, int limit);
+
+    // Chat memory pages; hot table only, archived messages are not part of the history window.
+    @Query(value = """
+            SELECT * FROM conversation_message
+            WHERE conversation_id = :conversationId
+              AND created_at > :since
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ConversationMessage> findLatestPageSince(UUID conversationId, Instant since, int limit);
+
+    @Query(value = """
+            SELECT * FROM conversation_message
+            WHERE conversation_id = :conversationId
+              AND created_at > :since
+              AND created_at <= :beforeAt
+              AND (created_at < :beforeAt OR id < :beforeId)
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ConversationMessage> findPageBeforeSince(
+            UUID conversationId,
+            Instant since,
+            Instant beforeAt,
+            UUID beforeId,
+            int limit
+    );
+
+    // Archived months live in conversation_message_archive; these are only consulted once the hot table runs out.
+    @Query(value = """
+            SELECT * FROM conversation_message_archive
+            WHERE conversation_id = :conversationId
+            ORDER BY created_at ASC, id ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ConversationMessage> findArchivedByConversationId(UUID conversationId, int limit);
+
+    @Query(value = """
+            SELECT * FROM conversation_message_archive
+            WHERE conversation_id = :conversationId
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ConversationMessage> findArchivedLatestPage(UUID conversationId, int limit);
+
+    @Query(value = """
+            SELECT * FROM conversation_message_archive
+            WHERE conversation_id = :conversationId
+              AND created_at <= :beforeAt
+              AND (created_at < :beforeAt OR id < :beforeId)
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ConversationMessage> findArchivedPageBefore(UUID conversationId, Instant beforeAt, UUID beforeId, int limit);
+
+    @Query(value = """
+            SELECT * FROM conversation_message_archive
+            WHERE conversation_id = :conversationId
+              AND created_at >= :afterAt
+              AND (created_at > :afterAt OR id > :afterId)
+            ORDER BY created_at ASC, id ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ConversationMessage> findArchivedPageAfter(UUID conversationId, Instant afterAt, UUID afterId, int limit);
 }
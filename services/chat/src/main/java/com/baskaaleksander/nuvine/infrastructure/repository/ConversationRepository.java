@@ -0,0 +1,33 @@
+package com.baskaaleksander.nuvine.infrastructure.repository;
+
+import com.baskaaleksander.nuvine.domain.model.Conversation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, UUID> {
+
+    @Query(value = """
+            SELECT * FROM conversation
+            WHERE owner_id = :ownerId
+              AND project_id = :projectId
+            ORDER BY last_message_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Conversation> findLatest(UUID ownerId, UUID projectId, int limit);
+
+    @Query(value = """
+            SELECT * FROM conversation
+            WHERE owner_id = :ownerId
+              AND project_id = :projectId
+              AND (last_message_at, id) < (:beforeAt, :beforeId)
+            ORDER BY last_message_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Conversation> findBefore(UUID ownerId, UUID projectId, Instant beforeAt, UUID beforeId, int limit);
+}
@@ -0,0 +1,11 @@
+package com.baskaaleksander.nuvine.infrastructure.repository;
+
+import com.baskaaleksander.nuvine.domain.model.ConversationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, UUID> {
+}
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS conversation_summary (
+    conversation_id          UUID PRIMARY KEY,
+    summary                  TEXT        NOT NULL,
+    summary_tokens           INTEGER     NOT NULL DEFAULT 0,
+    summarized_until         TIMESTAMPTZ NOT NULL,
+    summarized_message_count INTEGER     NOT NULL DEFAULT 0,
+    version                  BIGINT      NOT NULL DEFAULT 0,
+    updated_at               TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
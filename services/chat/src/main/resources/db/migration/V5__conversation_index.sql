@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS conversation (
+    id                   UUID PRIMARY KEY,
+    owner_id             UUID        NOT NULL,
+    project_id           UUID        NOT NULL,
+    workspace_id         UUID        NOT NULL,
+    last_message_preview TEXT        NOT NULL,
+    last_message_at      TIMESTAMPTZ NOT NULL,
+    created_at           TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_conversation_owner_project_activity
+    ON conversation (owner_id, project_id, last_message_at DESC, id DESC);
@@ -0,0 +1,167 @@
+-- Monthly range partitions for conversation_message, plus a compressed archive for partitions
+-- that leave the hot window. Existing rows are copied into the new layout in this migration.
+
+ALTER TABLE conversation_message RENAME TO conversation_message_legacy;
+ALTER TABLE conversation_message_legacy RENAME CONSTRAINT conversation_message_pkey TO conversation_message_legacy_pkey;
+DROP INDEX IF EXISTS idx_conversation_message_conversation_created_at;
+DROP INDEX IF EXISTS idx_conversation_message_created_at;
+
+CREATE TABLE conversation_message (
+    id              UUID             NOT NULL,
+    conversation_id UUID             NOT NULL,
+    content         TEXT             NOT NULL,
+    role            VARCHAR(32)      NOT NULL,
+    model_used      VARCHAR(100)     NOT NULL,
+    tokens_cost     INTEGER                   DEFAULT 0,
+    owner_id        UUID             NOT NULL,
+    project_id      UUID             NOT NULL,
+    workspace_id    UUID             NOT NULL,
+    cost            DOUBLE PRECISION NOT NULL DEFAULT 0,
+    created_at      TIMESTAMPTZ      NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_conversation_message_conversation_created_at
+    ON conversation_message (conversation_id, created_at DESC);
+
+-- Safety net for rows outside every monthly partition; kept empty by the maintenance job.
+CREATE TABLE conversation_message_default PARTITION OF conversation_message DEFAULT;
+
+CREATE TABLE conversation_message_archive (
+    id              UUID PRIMARY KEY,
+    conversation_id UUID             NOT NULL,
+    content         TEXT COMPRESSION lz4 NOT NULL,
+    role            VARCHAR(32)      NOT NULL,
+    model_used      VARCHAR(100)     NOT NULL,
+    tokens_cost     INTEGER                   DEFAULT 0,
+    owner_id        UUID             NOT NULL,
+    project_id      UUID             NOT NULL,
+    workspace_id    UUID             NOT NULL,
+    cost            DOUBLE PRECISION NOT NULL DEFAULT 0,
+    created_at      TIMESTAMPTZ      NOT NULL
+);
+
+CREATE INDEX idx_conversation_message_archive_conversation_created_at
+    ON conversation_message_archive (conversation_id, created_at DESC, id DESC);
+
+-- Creates the partition for the UTC month starting at month_start. Rows that already landed in the
+-- default partition for that month are moved over, so the attach never conflicts.
+CREATE OR REPLACE FUNCTION create_conversation_message_partition(month_start DATE)
+    RETURNS BOOLEAN
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    partition_name TEXT        := format('conversation_message_%s', to_char(month_start, 'YYYY_MM'));
+    lower_bound    TIMESTAMPTZ := month_start::TIMESTAMP AT TIME ZONE 'UTC';
+    upper_bound    TIMESTAMPTZ := (month_start + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC';
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE conversation_message INCLUDING DEFAULTS)', partition_name);
+    EXECUTE format(
+            'WITH moved AS (DELETE FROM conversation_message_default WHERE created_at >= %L AND created_at < %L RETURNING *)
+             INSERT INTO %I SELECT * FROM moved',
+            lower_bound, upper_bound, partition_name);
+    EXECUTE format(
+            'ALTER TABLE conversation_message ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+            partition_name, lower_bound, upper_bound);
+    RETURN TRUE;
+END;
+$$;
+
+-- Makes sure partitions exist from the current UTC month through months_ahead months ahead.
+CREATE OR REPLACE FUNCTION ensure_conversation_message_partitions(months_ahead INTEGER)
+    RETURNS INTEGER
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    current_month DATE := date_trunc('month', NOW() AT TIME ZONE 'UTC')::DATE;
+    created       INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead
+        LOOP
+            IF create_conversation_message_partition((current_month + make_interval(months => i))::DATE) THEN
+                created := created + 1;
+            END IF;
+        END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- Moves the oldest monthly partition that ends at or before cutoff into the archive table and drops it.
+-- Handles one partition per call so each one commits on its own; returns the partition name or NULL.
+CREATE OR REPLACE FUNCTION archive_oldest_conversation_message_partition(cutoff TIMESTAMPTZ)
+    RETURNS TEXT
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    partition_name TEXT;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('conversation_message_archive')) THEN
+        RETURN NULL;
+    END IF;
+
+    SELECT child.relname
+    INTO partition_name
+    FROM pg_inherits inh
+             JOIN pg_class parent ON parent.oid = inh.inhparent
+             JOIN pg_class child ON child.oid = inh.inhrelid
+    WHERE parent.relname = 'conversation_message'
+      AND child.relname ~ '^conversation_message_\d{4}_\d{2}$'
+      AND (to_date(right(child.relname, 7), 'YYYY_MM') + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC' <= cutoff
+    ORDER BY child.relname
+    LIMIT 1;
+
+    IF partition_name IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    EXECUTE format(
+            'INSERT INTO conversation_message_archive (
+                 id, conversation_id, content, role, model_used, tokens_cost,
+                 owner_id, project_id, workspace_id, cost, created_at)
+             SELECT id, conversation_id, content, role, model_used, tokens_cost,
+                    owner_id, project_id, workspace_id, cost, created_at
+             FROM %I
+             ON CONFLICT (id) DO NOTHING',
+            partition_name);
+    EXECUTE format('ALTER TABLE conversation_message DETACH PARTITION %I', partition_name);
+    EXECUTE format('DROP TABLE %I', partition_name);
+    RETURN partition_name;
+END;
+$$;
+
+DO
+$$
+DECLARE
+    first_month DATE;
+    month_start DATE;
+BEGIN
+    SELECT date_trunc('month', MIN(created_at) AT TIME ZONE 'UTC')::DATE
+    INTO first_month
+    FROM conversation_message_legacy;
+
+    month_start := COALESCE(first_month, date_trunc('month', NOW() AT TIME ZONE 'UTC')::DATE);
+    WHILE month_start < date_trunc('month', NOW() AT TIME ZONE 'UTC')::DATE
+        LOOP
+            PERFORM create_conversation_message_partition(month_start);
+            month_start := (month_start + INTERVAL '1 month')::DATE;
+        END LOOP;
+    PERFORM ensure_conversation_message_partitions(2);
+END;
+$$;
+
+INSERT INTO conversation_message (
+    id, conversation_id, content, role, model_used, tokens_cost,
+    owner_id, project_id, workspace_id, cost, created_at
+)
+SELECT id, conversation_id, content, role, model_used, tokens_cost,
+       owner_id, project_id, workspace_id, cost, created_at
+FROM conversation_message_legacy;
+
+DROP TABLE conversation_message_legacy;
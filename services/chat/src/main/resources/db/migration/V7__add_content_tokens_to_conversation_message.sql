@@ -0,0 +1,58 @@
+-- Token count of the message's own content, so chat memory can be fitted to a token budget without
+-- re-tokenizing history. Older user messages stay NULL and are counted when first read.
+
+ALTER TABLE conversation_message ADD COLUMN content_tokens INTEGER;
+ALTER TABLE conversation_message_archive ADD COLUMN content_tokens INTEGER;
+
+-- tokens_cost on an assistant message is its completion token count; on a user message it is the whole prompt.
+UPDATE conversation_message
+SET content_tokens = tokens_cost
+WHERE role = 'ASSISTANT'
+  AND tokens_cost > 0;
+
+UPDATE conversation_message_archive
+SET content_tokens = tokens_cost
+WHERE role = 'ASSISTANT'
+  AND tokens_cost > 0;
+
+CREATE OR REPLACE FUNCTION archive_oldest_conversation_message_partition(cutoff TIMESTAMPTZ)
+    RETURNS TEXT
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    partition_name TEXT;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('conversation_message_archive')) THEN
+        RETURN NULL;
+    END IF;
+
+    SELECT child.relname
+    INTO partition_name
+    FROM pg_inherits inh
+             JOIN pg_class parent ON parent.oid = inh.inhparent
+             JOIN pg_class child ON child.oid = inh.inhrelid
+    WHERE parent.relname = 'conversation_message'
+      AND child.relname ~ '^conversation_message_\d{4}_\d{2}$'
+      AND (to_date(right(child.relname, 7), 'YYYY_MM') + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC' <= cutoff
+    ORDER BY child.relname
+    LIMIT 1;
+
+    IF partition_name IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    EXECUTE format(
+            'INSERT INTO conversation_message_archive (
+                 id, conversation_id, content, role, model_used, tokens_cost,
+                 owner_id, project_id, workspace_id, cost, created_at, content_tokens)
+             SELECT id, conversation_id, content, role, model_used, tokens_cost,
+                    owner_id, project_id, workspace_id, cost, created_at, content_tokens
+             FROM %I
+             ON CONFLICT (id) DO NOTHING',
+            partition_name);
+    EXECUTE format('ALTER TABLE conversation_message DETACH PARTITION %I', partition_name);
+    EXECUTE format('DROP TABLE %I', partition_name);
+    RETURN partition_name;
+END;
+$$;
@@ -0,0 +1,30 @@
+-- Indexes every conversation that already has messages, so conversation lists are complete as soon as
+-- this deploys. Archived partitions are included, otherwise conversations that only live in the archive
+-- would never be listed. New messages keep the index current from the write path;
+-- ConversationIndexBackfillJob (chat.conversation-index.backfill-on-startup) is only a repair tool after that.
+WITH messages AS (
+    SELECT id, conversation_id, owner_id, project_id, workspace_id, content, created_at
+    FROM conversation_message
+    UNION ALL
+    SELECT id, conversation_id, owner_id, project_id, workspace_id, content, created_at
+    FROM conversation_message_archive
+)
+INSERT INTO conversation (
+    id, owner_id, project_id, workspace_id, last_message_preview, last_message_at, created_at
+)
+SELECT latest.conversation_id, latest.owner_id, latest.project_id, latest.workspace_id,
+       LEFT(latest.content, 500), latest.created_at, first_message.created_at
+FROM (
+    SELECT DISTINCT ON (conversation_id) conversation_id, owner_id, project_id, workspace_id, content, created_at
+    FROM messages
+    ORDER BY conversation_id, created_at DESC, id DESC
+) latest
+JOIN (
+    SELECT conversation_id, MIN(created_at) AS created_at
+    FROM messages
+    GROUP BY conversation_id
+) first_message ON first_message.conversation_id = latest.conversation_id
+ON CONFLICT (id) DO UPDATE SET
+    last_message_preview = EXCLUDED.last_message_preview,
+    last_message_at = EXCLUDED.last_message_at
+WHERE conversation.last_message_at <= EXCLUDED.last_message_at;
@@ -0,0 +1,20 @@
+-- Exchanges the write-behind queue could not insert after every retry. Kept unpartitioned and
+-- without constraints beyond the key so a row that broke conversation_message still fits here.
+CREATE TABLE IF NOT EXISTS conversation_message_dead_letter (
+    id              UUID PRIMARY KEY,
+    conversation_id UUID             NOT NULL,
+    content         TEXT,
+    role            VARCHAR(255),
+    model_used      VARCHAR(255),
+    tokens_cost     INTEGER,
+    owner_id        UUID,
+    project_id      UUID,
+    workspace_id    UUID,
+    cost            DOUBLE PRECISION,
+    created_at      TIMESTAMPTZ,
+    content_tokens  INTEGER,
+    failed_at       TIMESTAMPTZ      NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_conversation_message_dead_letter_conversation
+    ON conversation_message_dead_letter (conversation_id, created_at);
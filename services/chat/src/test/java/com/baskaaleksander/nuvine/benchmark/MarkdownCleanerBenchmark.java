@@ -0,0 +1,107 @@
+package com.baskaaleksander.nuvine.benchmark;
+
+import com.baskaaleksander.nuvine.domain.service.MarkdownCleaner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkdownCleanerBenchmark {
+
+    private static final int PREVIEW_LENGTH = 100;
+    private static final int CONVERSATION_COUNT = 20;
+
+    @Param({"4", "40"})
+    private int sections;
+
+    private List<String> messages;
+
+    @Setup
+    public void setUp() {
+        messages = new ArrayList<>();
+        for (int i = 0; i < CONVERSATION_COUNT; i++) {
+            messages.add(assistantMessage(i, sections));
+        }
+    }
+
+    @Benchmark
+    public void regexPipelineThenSubstring(Blackhole blackhole) {
+        for (String message : messages) {
+            String cleaned = regexClean(message);
+            blackhole.consume(cleaned.substring(0, Math.min(cleaned.length(), PREVIEW_LENGTH)));
+        }
+    }
+
+    @Benchmark
+    public void singlePassFullThenSubstring(Blackhole blackhole) {
+        for (String message : messages) {
+            String cleaned = MarkdownCleaner.clean(message);
+            blackhole.consume(cleaned.substring(0, Math.min(cleaned.length(), PREVIEW_LENGTH)));
+        }
+    }
+
+    @Benchmark
+    public void singlePassPreview(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(MarkdownCleaner.clean(message, PREVIEW_LENGTH));
+        }
+    }
+
+    // The cleaner as it was before the single-pass rewrite, kept here as the baseline.
+    private static String regexClean(String input) {
+        String cleaned = input;
+        cleaned = cleaned.replaceAll("(?m)^#{1,6}\\s*", "");
+        cleaned = cleaned.replaceAll("\\*\\*(.*?)\\*\\*", "$1");
+        cleaned = cleaned.replaceAll("\\*(.*?)\\*", "$1");
+        cleaned = cleaned.replaceAll("~~(.*?)~~", "$1");
+        cleaned = cleaned.replaceAll("`([^`]*)`", "$1");
+        cleaned = cleaned.replaceAll("```[\\s\\S]*?```", "");
+        cleaned = cleaned.replaceAll(">\\s*", "");
+        cleaned = cleaned.replaceAll("[-*+]\\s+", "");
+        cleaned = cleaned.replaceAll("\\r?\\n", " ");
+        return cleaned.trim();
+    }
+
+    private static String assistantMessage(int index, int sections) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("## Answer ").append(index).append("\n\n")
+                .append("Based on the **uploaded documents**, here is a summary of the *retention policy* ")
+                .append("and how it applies to `archived_invoices`.\n\n");
+        for (int i = 0; i < sections; i++) {
+            sb.append("### Section ").append(i).append("\n\n")
+                    .append("- Invoices older than **seven years** are moved to cold storage.\n")
+                    .append("- Access requires the `auditor` role and is ~~never~~ *rarely* granted.\n")
+                    .append("> Note: the policy was last reviewed in Q").append(i % 4 + 1).append(".\n\n")
+                    .append("```sql\nSELECT id, issued_at FROM invoices WHERE issued_at < now() - interval '7 years';\n```\n\n");
+        }
+        sb.append("Let me know if you need the exact clauses from the source document.");
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MarkdownCleanerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,99 @@
+package com.baskaaleksander.nuvine.benchmark;
+
+import com.baskaaleksander.nuvine.domain.service.TokenCountingService;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.ModelType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenCountingBenchmark {
+
+    private static final int CHUNK_COUNT = 10;
+
+    private Encoding encoding;
+    private TokenCountingService tokenCountingService;
+    private List<String> chunks;
+    private String prompt;
+
+    @Setup
+    public void setUp() {
+        encoding = Encodings.newDefaultEncodingRegistry().getEncodingForModel(ModelType.GPT_4_TURBO);
+        tokenCountingService = new TokenCountingService();
+
+        chunks = new ArrayList<>();
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            chunks.add(chunk(i));
+        }
+
+        StringBuilder sb = new StringBuilder("You are an assistant that answers only from the provided context.\n<context>\n");
+        for (String chunk : chunks) {
+            sb.append(chunk).append("\n\n---\n\n");
+        }
+        sb.append("</context>\n\nUser message:\nSummarize the retention policy for archived invoices.");
+        prompt = sb.toString();
+
+        tokenCountingService.count(prompt);
+        tokenCountingService.countParts(chunks);
+    }
+
+    @Benchmark
+    public int encodePromptUncached() {
+        return encoding.countTokens(prompt);
+    }
+
+    @Benchmark
+    public int countPromptCached() {
+        return tokenCountingService.count(prompt);
+    }
+
+    @Benchmark
+    public int encodeChunksUncached() {
+        int total = 0;
+        for (String chunk : chunks) {
+            total += encoding.countTokens(chunk);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int countChunksCached() {
+        return tokenCountingService.countParts(chunks);
+    }
+
+    private static String chunk(int index) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            sb.append("Section ").append(index).append('.').append(i)
+                    .append(": invoices older than seven years are moved to cold storage and retained for audit purposes. ");
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenCountingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
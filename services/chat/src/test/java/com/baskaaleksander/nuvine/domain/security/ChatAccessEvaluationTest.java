@@ -2,6 +2,7 @@ package com.baskaaleksander.nuvine.domain.security;
 
 import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
 import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.domain.service.ConversationWriteBehindQueue;
 import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +26,9 @@ class ChatAccessEvaluationTest {
     @Mock
     private ConversationMessageRepository conversationMessageRepository;
 
+    @Mock
+    private ConversationWriteBehindQueue conversationWriteBehindQueue;
+
     @InjectMocks
     private ChatAccessEvaluation chatAccessEvaluation;
 
@@ -145,4 +149,56 @@ class ChatAccessEvaluationTest {
         assertFalse(result);
         verify(conversationMessageRepository).findByConversationId(chatId, 1);
     }
+
+    @Test
+    void canAccessChat_archivedConversation_checksArchive() {
+        when(conversationMessageRepository.findByConversationId(chatId, 1))
+                .thenReturn(List.of());
+        when(conversationMessageRepository.findArchivedByConversationId(chatId, 1))
+                .thenReturn(List.of(message));
+
+        boolean result = chatAccessEvaluation.canAccessChat(chatId, ownerIdString);
+
+        assertTrue(result);
+    }
+
+    @Test
+    void canCreateMessage_archivedConversationOfAnotherUser_returnsFalse() {
+        when(conversationMessageRepository.findByConversationId(chatId, 1))
+                .thenReturn(List.of());
+        when(conversationMessageRepository.findArchivedByConversationId(chatId, 1))
+                .thenReturn(List.of(message));
+
+        boolean result = chatAccessEvaluation.canCreateMessage(chatId, UUID.randomUUID().toString(), projectId, workspaceId);
+
+        assertFalse(result);
+    }
+
+    @Test
+    void canAccessChat_unflushedConversation_checksWriteBehindQueue() {
+        when(conversationMessageRepository.findByConversationId(chatId, 1))
+                .thenReturn(List.of());
+        when(conversationMessageRepository.findArchivedByConversationId(chatId, 1))
+                .thenReturn(List.of());
+        when(conversationWriteBehindQueue.unflushedMessages(chatId))
+                .thenReturn(List.of(message));
+
+        boolean result = chatAccessEvaluation.canAccessChat(chatId, ownerIdString);
+
+        assertTrue(result);
+    }
+
+    @Test
+    void canCreateMessage_unflushedConversationOfAnotherUser_returnsFalse() {
+        when(conversationMessageRepository.findByConversationId(chatId, 1))
+                .thenReturn(List.of());
+        when(conversationMessageRepository.findArchivedByConversationId(chatId, 1))
+                .thenReturn(List.of());
+        when(conversationWriteBehindQueue.unflushedMessages(chatId))
+                .thenReturn(List.of(message));
+
+        boolean result = chatAccessEvaluation.canCreateMessage(chatId, UUID.randomUUID().toString(), projectId, workspaceId);
+
+        assertFalse(result);
+    }
 }
@@ -2,31 +2,40 @@ package com.baskaaleksander.nuvine.domain.service;
 
 import com.baskaaleksander.nuvine.application.dto.*;
 import com.baskaaleksander.nuvine.application.mapper.ConversationMessageMapper;
+import com.baskaaleksander.nuvine.application.pagination.KeysetCursor;
 import com.baskaaleksander.nuvine.domain.exception.ContextNotFoundException;
+import com.baskaaleksander.nuvine.domain.exception.InvalidCursorException;
 import com.baskaaleksander.nuvine.domain.exception.RequestLimitExceededException;
 import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
 import com.baskaaleksander.nuvine.domain.model.ConversationRole;
 import com.baskaaleksander.nuvine.infrastructure.client.LlmRouterServiceClient;
 import com.baskaaleksander.nuvine.infrastructure.client.SubscriptionServiceClient;
-import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -39,9 +48,6 @@ class ChatServiceTest {
     @Mock
     private LlmRouterServiceClient llmRouterServiceClient;
 
-    @Mock
-    private ConversationMessageRepository conversationMessageRepository;
-
     @Mock
     private ConversationMessageMapper mapper;
 
@@ -66,6 +72,24 @@ class ChatServiceTest {
     @Mock
     private ConversationCacheService conversationCacheService;
 
+    @Mock
+    private ConversationMemoryService conversationMemoryService;
+
+    @Mock
+    private SemanticAnswerCache semanticAnswerCache;
+
+    @Mock
+    private StreamDeltaCoalescer streamDeltaCoalescer;
+
+    @Mock
+    private CompletionIdempotencyService completionIdempotencyService;
+
+    @Spy
+    private ChatPipelineMetrics chatPipelineMetrics = new ChatPipelineMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private ExecutorService chatContextExecutor = Executors.newCachedThreadPool();
+
     @InjectMocks
     private ChatService chatService;
 
@@ -84,6 +108,11 @@ class ChatServiceTest {
         documentIds = List.of(UUID.randomUUID(), UUID.randomUUID());
     }
 
+    @AfterEach
+    void tearDown() {
+        chatContextExecutor.shutdownNow();
+    }
+
     private CompletionRequest createRequest(String message, String model, boolean strictMode, boolean freeMode) {
         return new CompletionRequest(
                 workspaceId,
@@ -118,9 +147,9 @@ class ChatServiceTest {
             CompletionRequest request = createRequest(userMessage, "openai/gpt-4", false, false);
 
             String prompt = "Processed prompt with context";
-            when(workspaceAccessService.getDocumentIdsInProject(projectId)).thenReturn(documentIds);
+            when(workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId)).thenReturn(documentIds);
             when(ragPromptBuilder.buildPrompt(eq(request), eq(documentIds))).thenReturn(prompt);
-            when(tokenCountingService.count(prompt)).thenReturn(100);
+            when(tokenCountingService.estimate(prompt)).thenReturn(100);
             when(subscriptionServiceClient.checkLimit(any(CheckLimitRequest.class)))
                     .thenReturn(createApprovedLimit(BigDecimal.valueOf(0.01)));
 
@@ -151,7 +180,7 @@ class ChatServiceTest {
             assertThat(result.role()).isEqualTo(ConversationRole.ASSISTANT);
             assertThat(result.conversationId()).isEqualTo(conversationId);
 
-            verify(workspaceAccessService).checkWorkspaceAccess(workspaceId);
+            verify(workspaceAccessService).getProjectDocumentIds(workspaceId, projectId, userId);
             verify(workspaceAccessService).validateRequestedDocuments(documentIds, documentIds, projectId);
             verify(llmRouterServiceClient).completion(any(CompletionLlmRouterRequest.class));
             verify(conversationPersistenceService).persistSyncCompletion(
@@ -164,9 +193,9 @@ class ChatServiceTest {
         void completion_limitExceeded_throwsException() {
             CompletionRequest request = createRequest("test", "openai/gpt-4", false, false);
 
-            when(workspaceAccessService.getDocumentIdsInProject(projectId)).thenReturn(documentIds);
+            when(workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId)).thenReturn(documentIds);
             when(ragPromptBuilder.buildPrompt(eq(request), eq(documentIds))).thenReturn("prompt");
-            when(tokenCountingService.count(anyString())).thenReturn(100);
+            when(tokenCountingService.estimate(anyString())).thenReturn(100);
             when(subscriptionServiceClient.checkLimit(any(CheckLimitRequest.class)))
                     .thenReturn(createRejectedLimit());
 
@@ -183,7 +212,7 @@ class ChatServiceTest {
         void completion_strictModeNoContext_returnsFallbackResponse() {
             CompletionRequest request = createRequest("test", "openai/gpt-4", true, false);
 
-            when(workspaceAccessService.getDocumentIdsInProject(projectId)).thenReturn(documentIds);
+            when(workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId)).thenReturn(documentIds);
             when(ragPromptBuilder.buildPrompt(eq(request), eq(documentIds)))
                     .thenThrow(new ContextNotFoundException("Context not found"));
 
@@ -202,7 +231,7 @@ class ChatServiceTest {
                     .build();
 
             when(conversationPersistenceService.persistStrictModeNoContext(
-                    any(UUID.class), eq(request), anyString(), any(UUID.class)
+                    any(UUID.class), any(UUID.class), eq(request), anyString(), any(UUID.class)
             )).thenReturn(savedAssistant);
 
             ConversationMessageResponse result = chatService.completion(request, userId);
@@ -213,7 +242,7 @@ class ChatServiceTest {
 
             verify(llmRouterServiceClient, never()).completion(any());
             verify(conversationPersistenceService).persistStrictModeNoContext(
-                    any(), eq(request), anyString(), any()
+                    any(), any(), eq(request), anyString(), any()
             );
         }
 
@@ -222,22 +251,15 @@ class ChatServiceTest {
         void completion_withConversationHistory_includesMemory() {
             CompletionRequest request = createRequest("follow up question", "openai/gpt-4", false, false);
 
-            List<ConversationMessage> history = List.of(
-                    ConversationMessage.builder()
-                            .role(ConversationRole.USER)
-                            .content("previous question")
-                            .build(),
-                    ConversationMessage.builder()
-                            .role(ConversationRole.ASSISTANT)
-                            .content("previous answer")
-                            .build()
+            List<CompletionLlmRouterRequest.Message> history = List.of(
+                    new CompletionLlmRouterRequest.Message("user", "previous question"),
+                    new CompletionLlmRouterRequest.Message("assistant", "previous answer")
             );
 
-            when(workspaceAccessService.getDocumentIdsInProject(projectId)).thenReturn(documentIds);
+            when(workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId)).thenReturn(documentIds);
             when(ragPromptBuilder.buildPrompt(eq(request), eq(documentIds))).thenReturn("prompt");
-            when(conversationMessageRepository.findByConversationId(conversationId, 10))
-                    .thenReturn(history);
-            when(tokenCountingService.count(anyString())).thenReturn(100);
+            when(conversationMemoryService.buildMemory(conversationId, 5, "openai/gpt-4")).thenReturn(history);
+            when(tokenCountingService.estimate(anyString())).thenReturn(100);
             when(subscriptionServiceClient.checkLimit(any(CheckLimitRequest.class)))
                     .thenReturn(createApprovedLimit(BigDecimal.valueOf(0.01)));
 
@@ -261,7 +283,7 @@ class ChatServiceTest {
 
             chatService.completion(request, userId);
 
-            verify(conversationMessageRepository).findByConversationId(conversationId, 10);
+            verify(conversationMemoryService).buildMemory(conversationId, 5, "openai/gpt-4");
             verify(llmRouterServiceClient).completion(argThat(req ->
                     req.messages() != null && req.messages().size() == 2
             ));
@@ -269,58 +291,337 @@ class ChatServiceTest {
     }
 
     @Nested
-    @DisplayName("getMessages")
-    class GetMessagesTests {
+    @DisplayName("completionStream")
+    class CompletionStreamTests {
 
         @Test
-        @DisplayName("Should return paginated messages for conversation")
-        void getMessages_returnsPaginatedResponse() {
-            PaginationRequest paginationRequest = new PaginationRequest();
-            paginationRequest.setPage(0);
-            paginationRequest.setSize(10);
-            paginationRequest.setSortField("createdAt");
-            paginationRequest.setDirection(Sort.Direction.DESC);
-
-            ConversationMessageResponse response1 = new ConversationMessageResponse(
-                    UUID.randomUUID(), conversationId, "Hello", ConversationRole.USER, "gpt-4", 10, UUID.randomUUID(), Instant.now()
+        @DisplayName("Should stream fallback events and persist them when strict mode finds no context")
+        void completionStream_strictModeNoContext_streamsFallbackAndPersists() {
+            CompletionRequest request = createRequest("test", "openai/gpt-4", true, false);
+
+            when(workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId)).thenReturn(documentIds);
+            when(ragPromptBuilder.buildPrompt(eq(request), eq(documentIds)))
+                    .thenThrow(new ContextNotFoundException("Context not found"));
+
+            List<ServerSentEvent<Object>> events = chatService.completionStream(request, userId)
+                    .collectList()
+                    .block();
+
+            assertThat(events).extracting(ServerSentEvent::event)
+                    .containsExactly("info", "delta", "usage", "metadata", "done");
+            ArgumentCaptor<UUID> assistantMessageId = ArgumentCaptor.forClass(UUID.class);
+            verify(conversationPersistenceService).persistStrictModeNoContext(
+                    eq(conversationId), assistantMessageId.capture(), eq(request), anyString(), any(UUID.class)
             );
-            ConversationMessageResponse response2 = new ConversationMessageResponse(
-                    UUID.randomUUID(), conversationId, "Hi there", ConversationRole.ASSISTANT, "gpt-4", 20, UUID.randomUUID(), Instant.now()
+            assertThat(events.get(3).data())
+                    .isEqualTo(new StreamEventMetadata(conversationId, assistantMessageId.getValue()));
+            verify(llmRouterWebClient, never()).post();
+        }
+
+        @Test
+        @DisplayName("Should throw RequestLimitExceededException before opening the stream")
+        void completionStream_limitExceeded_throwsException() {
+            CompletionRequest request = createRequest("test", "openai/gpt-4", false, false);
+
+            when(workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId)).thenReturn(documentIds);
+            when(ragPromptBuilder.buildPrompt(eq(request), eq(documentIds))).thenReturn("prompt");
+            when(tokenCountingService.estimate(anyString())).thenReturn(100);
+            when(subscriptionServiceClient.checkLimit(any(CheckLimitRequest.class)))
+                    .thenReturn(createRejectedLimit());
+
+            assertThatThrownBy(() -> chatService.completionStream(request, userId))
+                    .isInstanceOf(RequestLimitExceededException.class);
+
+            verify(llmRouterWebClient, never()).post();
+        }
+
+        @Test
+        @DisplayName("Should persist the partial answer and settle the reservation when the upstream stream fails")
+        void completionStream_upstreamFailsMidStream_persistsPartialAndSettlesReservation() {
+            CompletionRequest request = createRequest("test", "openai/gpt-4", false, false);
+            CheckLimitResult limit = createApprovedLimit(BigDecimal.valueOf(0.01));
+            stubStreamingPipeline(request, limit, Flux.just(new LlmChunk("delta", "Partial ", null, null))
+                    .concatWith(Flux.error(new IllegalStateException("upstream reset"))));
+
+            assertThatThrownBy(() -> chatService.completionStream(request, userId).collectList().block())
+                    .hasMessageContaining("upstream reset");
+
+            verify(conversationPersistenceService, timeout(2000)).persistStreamCompletion(
+                    any(ChatContext.class), any(UUID.class), eq(request), eq("Partial "), eq(100), anyInt(), eq(limit)
             );
+            verify(subscriptionServiceClient, never()).releaseReservation(any());
+        }
 
-            PagedResponse<ConversationMessageResponse> cachedResponse = new PagedResponse<>(
-                    List.of(response1, response2), 1, 2, 10, 0, true, false
+        @Test
+        @DisplayName("Should release the reservation directly when the partial answer cannot be persisted")
+        void completionStream_upstreamFailsAndPersistFails_releasesReservation() {
+            CompletionRequest request = createRequest("test", "openai/gpt-4", false, false);
+            CheckLimitResult limit = createApprovedLimit(BigDecimal.valueOf(0.01));
+            stubStreamingPipeline(request, limit, Flux.just(new LlmChunk("delta", "Partial ", null, null))
+                    .concatWith(Flux.error(new IllegalStateException("upstream reset"))));
+            doThrow(new IllegalStateException("queue full")).when(conversationPersistenceService)
+                    .persistStreamCompletion(any(), any(), any(), any(), anyInt(), anyInt(), any());
+
+            assertThatThrownBy(() -> chatService.completionStream(request, userId).collectList().block())
+                    .hasMessageContaining("upstream reset");
+
+            ArgumentCaptor<ReleaseReservationRequest> releaseCaptor = ArgumentCaptor.forClass(ReleaseReservationRequest.class);
+            verify(subscriptionServiceClient, timeout(2000)).releaseReservation(releaseCaptor.capture());
+            assertThat(releaseCaptor.getValue().workspaceId()).isEqualTo(workspaceId);
+            assertThat(releaseCaptor.getValue().amount()).isEqualTo(BigDecimal.valueOf(0.01));
+            verify(conversationPersistenceService).persistStreamCompletion(
+                    any(ChatContext.class), any(UUID.class), eq(request), eq("Partial "), anyInt(), anyInt(), eq(limit)
             );
-            when(conversationCacheService.findMessages(eq(conversationId), eq(paginationRequest)))
-                    .thenReturn(cachedResponse);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private void stubStreamingPipeline(CompletionRequest request, CheckLimitResult limit, Flux<LlmChunk> upstream) {
+            when(workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId)).thenReturn(documentIds);
+            when(ragPromptBuilder.buildPrompt(eq(request), eq(documentIds))).thenReturn("prompt");
+            when(tokenCountingService.estimate(anyString())).thenReturn(100);
+            when(subscriptionServiceClient.checkLimit(any(CheckLimitRequest.class))).thenReturn(limit);
+            when(streamDeltaCoalescer.coalesce(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+            WebClient.RequestBodyUriSpec uriSpec = mock(WebClient.RequestBodyUriSpec.class);
+            WebClient.RequestBodySpec bodySpec = mock(WebClient.RequestBodySpec.class);
+            WebClient.RequestHeadersSpec headersSpec = mock(WebClient.RequestHeadersSpec.class);
+            WebClient.ResponseSpec responseSpec = mock(WebClient.ResponseSpec.class);
+            when(llmRouterWebClient.post()).thenReturn(uriSpec);
+            when(uriSpec.uri(anyString())).thenReturn(bodySpec);
+            when(bodySpec.contentType(any())).thenReturn(bodySpec);
+            when(bodySpec.accept(any())).thenReturn(bodySpec);
+            doReturn(headersSpec).when(bodySpec).bodyValue(any());
+            when(headersSpec.retrieve()).thenReturn(responseSpec);
+            when(responseSpec.bodyToFlux(LlmChunk.class)).thenReturn(upstream);
+        }
+    }
 
-            PagedResponse<ConversationMessageResponse> result = chatService.getMessages(
-                    conversationId, userId, paginationRequest
+    @Nested
+    @DisplayName("prepareChatContext - parallel stages")
+    class PrepareChatContextTests {
+
+        @Test
+        @DisplayName("Should surface access error even when memory fails first")
+        void completion_accessDenied_takesPrecedenceOverMemoryFailure() {
+            CompletionRequest request = createRequest("test", "openai/gpt-4", true, false);
+
+            doAnswer(invocation -> {
+                Thread.sleep(50);
+                throw new RuntimeException("WORKSPACE_ACCESS_DENIED");
+            }).when(workspaceAccessService).getProjectDocumentIds(workspaceId, projectId, userId);
+            when(conversationMemoryService.buildMemory(conversationId, 5, "openai/gpt-4"))
+                    .thenThrow(new RuntimeException("MEMORY_FAILED"));
+
+            assertThatThrownBy(() -> chatService.completion(request, userId))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessage("WORKSPACE_ACCESS_DENIED");
+
+            verify(ragPromptBuilder, never()).buildPrompt(any(), any());
+            verify(conversationPersistenceService, never()).persistStrictModeNoContext(any(), any(), any(), any(), any());
+            verify(llmRouterServiceClient, never()).completion(any());
+        }
+
+        @Test
+        @DisplayName("Should fail fast with document lookup error without waiting for memory")
+        void completion_documentLookupFails_propagatesOriginalException() {
+            CompletionRequest request = createRequest("test", "openai/gpt-4", false, false);
+
+            when(workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId))
+                    .thenThrow(new RuntimeException("PROJECT_NOT_FOUND"));
+
+            assertThatThrownBy(() -> chatService.completion(request, userId))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessage("PROJECT_NOT_FOUND");
+
+            verify(ragPromptBuilder, never()).buildPrompt(any(), any());
+            verify(subscriptionServiceClient, never()).checkLimit(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("semantic answer cache")
+    class AnswerCacheTests {
+
+        private final byte[] embedding = {1, 2, 3};
+
+        private CompletionRequest firstTurnRequest() {
+            return new CompletionRequest(
+                    workspaceId, projectId, documentIds, null, "What is terroir?", "openai/gpt-4", 5, false, false
             );
+        }
+
+        private AnswerCacheLookup hit(String content) {
+            return new AnswerCacheLookup("scope", embedding, new CachedAnswer(content, BigDecimal.valueOf(0.02)), 0.98);
+        }
+
+        @Test
+        @DisplayName("Should answer from cache without building a prompt, checking limits or calling the LLM")
+        void completion_cacheHit_skipsPipeline() {
+            CompletionRequest request = firstTurnRequest();
+            when(semanticAnswerCache.isEligible(request)).thenReturn(true);
+            when(semanticAnswerCache.embed(request.message())).thenReturn(embedding);
+            when(workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId)).thenReturn(documentIds);
+            when(semanticAnswerCache.lookup(request, documentIds, embedding)).thenReturn(hit("Terroir is..."));
+
+            ConversationMessage saved = ConversationMessage.builder()
+                    .id(UUID.randomUUID())
+                    .content("Terroir is...")
+                    .role(ConversationRole.ASSISTANT)
+                    .build();
+            when(conversationPersistenceService.persistCachedAnswer(any(UUID.class), any(UUID.class), eq(request), eq("Terroir is..."), any(UUID.class)))
+                    .thenReturn(saved);
+            ConversationMessageResponse mapped = new ConversationMessageResponse(
+                    saved.getId(), null, "Terroir is...", ConversationRole.ASSISTANT, "openai/gpt-4", 0, null, Instant.now()
+            );
+            when(mapper.toResponse(saved)).thenReturn(mapped);
+
+            ConversationMessageResponse result = chatService.completion(request, userId);
+
+            assertThat(result).isSameAs(mapped);
+            verify(workspaceAccessService).getProjectDocumentIds(workspaceId, projectId, userId);
+            verify(ragPromptBuilder, never()).buildPrompt(any(), any());
+            verify(subscriptionServiceClient, never()).checkLimit(any());
+            verify(llmRouterServiceClient, never()).completion(any());
+            verify(chatPipelineMetrics).recordAnswerCacheCreditsSaved(BigDecimal.valueOf(0.02));
+        }
+
+        @Test
+        @DisplayName("Should store the fresh answer on a cache miss")
+        void completion_cacheMiss_storesAnswer() {
+            CompletionRequest request = firstTurnRequest();
+            AnswerCacheLookup miss = new AnswerCacheLookup("scope", embedding, null, 0.4);
+            when(semanticAnswerCache.isEligible(request)).thenReturn(true);
+            when(semanticAnswerCache.embed(request.message())).thenReturn(embedding);
+            when(workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId)).thenReturn(documentIds);
+            when(semanticAnswerCache.lookup(request, documentIds, embedding)).thenReturn(miss);
+            when(ragPromptBuilder.buildPrompt(request, documentIds)).thenReturn("prompt");
+            when(tokenCountingService.estimate("prompt")).thenReturn(10);
+            when(subscriptionServiceClient.checkLimit(any(CheckLimitRequest.class)))
+                    .thenReturn(createApprovedLimit(BigDecimal.valueOf(0.01)));
+            CompletionResponse llmResponse = new CompletionResponse("Terroir is...", 10, 20, "openai/gpt-4");
+            when(llmRouterServiceClient.completion(any(CompletionLlmRouterRequest.class))).thenReturn(llmResponse);
+            when(conversationPersistenceService.persistSyncCompletion(
+                    any(UUID.class), eq(request), eq(llmResponse), any(UUID.class), any(CheckLimitResult.class)
+            )).thenReturn(ConversationMessage.builder().id(UUID.randomUUID()).build());
+
+            chatService.completion(request, userId);
+
+            verify(semanticAnswerCache).store(miss, "Terroir is...", BigDecimal.valueOf(0.01));
+        }
+
+        @Test
+        @DisplayName("Should replay a cached answer as delta events")
+        void completionStream_cacheHit_replaysDeltas() {
+            CompletionRequest request = firstTurnRequest();
+            when(semanticAnswerCache.isEligible(request)).thenReturn(true);
+            when(semanticAnswerCache.embed(request.message())).thenReturn(embedding);
+            when(workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId)).thenReturn(documentIds);
+            when(semanticAnswerCache.lookup(request, documentIds, embedding)).thenReturn(hit("Terroir is..."));
+            when(semanticAnswerCache.replayChunks("Terroir is...")).thenReturn(List.of("Terroir ", "is..."));
+
+            List<ServerSentEvent<Object>> events = chatService.completionStream(request, userId).collectList().block();
+
+            assertThat(events).extracting(ServerSentEvent::event)
+                    .containsExactly("info", "delta", "delta", "usage", "metadata", "done");
+            assertThat(events.get(1).data()).isEqualTo("Terroir ");
+            verify(conversationPersistenceService).persistCachedAnswer(any(UUID.class), any(UUID.class), eq(request), eq("Terroir is..."), any(UUID.class));
+            verifyNoInteractions(llmRouterWebClient);
+        }
+    }
+
+    @Nested
+    @DisplayName("getMessages")
+    class GetMessagesTests {
+
+        private ConversationMessageResponse message(String content, Instant createdAt) {
+            return new ConversationMessageResponse(
+                    UUID.randomUUID(), conversationId, content, ConversationRole.USER, "none", 0, UUID.randomUUID(), createdAt
+            );
+        }
+
+        @Test
+        @DisplayName("Should serve the newest window from cache in chronological order")
+        void getMessages_noCursor_returnsCachedNewestWindow() {
+            Instant now = Instant.now();
+            when(conversationCacheService.findLatestMessages(conversationId))
+                    .thenReturn(List.of(message("Hi there", now), message("Hello", now.minusSeconds(1))));
+
+            CursorPage<ConversationMessageResponse> result = chatService.getMessages(conversationId, null, null, 20);
 
-            assertThat(result.content()).hasSize(2);
             assertThat(result.content()).extracting("content").containsExactly("Hello", "Hi there");
+            assertThat(result.hasNext()).isFalse();
+            assertThat(result.nextCursor()).isNull();
         }
 
         @Test
         @DisplayName("Should return empty page when no messages exist")
         void getMessages_noMessages_returnsEmptyPage() {
-            PaginationRequest paginationRequest = new PaginationRequest();
-            paginationRequest.setPage(0);
-            paginationRequest.setSize(10);
-
-            PagedResponse<ConversationMessageResponse> emptyResponse = new PagedResponse<>(
-                    List.of(), 0, 0, 10, 0, true, false
-            );
-            when(conversationCacheService.findMessages(eq(conversationId), eq(paginationRequest)))
-                    .thenReturn(emptyResponse);
+            when(conversationCacheService.findLatestMessages(conversationId)).thenReturn(List.of());
 
-            PagedResponse<ConversationMessageResponse> result = chatService.getMessages(
-                    conversationId, userId, paginationRequest
-            );
+            CursorPage<ConversationMessageResponse> result = chatService.getMessages(conversationId, null, null, 20);
 
             assertThat(result.content()).isEmpty();
-            assertThat(result.totalElements()).isZero();
+            assertThat(result.hasNext()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should point the next cursor at the oldest message of a backward page")
+        void getMessages_moreRows_returnsCursorAtOldestMessage() {
+            Instant now = Instant.now();
+            ConversationMessageResponse newest = message("Third", now);
+            ConversationMessageResponse middle = message("Second", now.minusSeconds(1));
+            when(conversationCacheService.findLatestMessages(conversationId))
+                    .thenReturn(List.of(newest, middle, message("First", now.minusSeconds(2))));
+
+            CursorPage<ConversationMessageResponse> result = chatService.getMessages(conversationId, null, null, 2);
+
+            assertThat(result.content()).containsExactly(middle, newest);
+            assertThat(result.hasNext()).isTrue();
+            assertThat(KeysetCursor.decode(result.nextCursor()))
+                    .isEqualTo(new KeysetCursor(middle.createdAt(), middle.id()));
+        }
+
+        @Test
+        @DisplayName("Should read older messages by keyset without touching the cached window")
+        void getMessages_beforeCursor_readsOlderPage() {
+            KeysetCursor cursor = new KeysetCursor(Instant.now(), UUID.randomUUID());
+            ConversationMessageResponse older = message("Older", cursor.at().minusSeconds(1));
+            when(conversationCacheService.findMessagesBefore(conversationId, cursor, 11)).thenReturn(List.of(older));
+
+            CursorPage<ConversationMessageResponse> result =
+                    chatService.getMessages(conversationId, cursor.encode(), null, 10);
+
+            assertThat(result.content()).containsExactly(older);
+            assertThat(result.hasNext()).isFalse();
+            verify(conversationCacheService, never()).findLatestMessages(any());
+        }
+
+        @Test
+        @DisplayName("Should read newer messages forward and point the cursor at the newest one")
+        void getMessages_afterCursor_readsNewerPage() {
+            KeysetCursor cursor = new KeysetCursor(Instant.now(), UUID.randomUUID());
+            ConversationMessageResponse first = message("First", cursor.at().plusSeconds(1));
+            ConversationMessageResponse second = message("Second", cursor.at().plusSeconds(2));
+            when(conversationCacheService.findMessagesAfter(conversationId, cursor, 2))
+                    .thenReturn(List.of(first, second));
+
+            CursorPage<ConversationMessageResponse> result =
+                    chatService.getMessages(conversationId, null, cursor.encode(), 1);
+
+            assertThat(result.content()).containsExactly(first);
+            assertThat(KeysetCursor.decode(result.nextCursor()))
+                    .isEqualTo(new KeysetCursor(first.createdAt(), first.id()));
+        }
+
+        @Test
+        @DisplayName("Should reject requests with both before and after cursors")
+        void getMessages_bothCursors_throwsInvalidCursor() {
+            String cursor = new KeysetCursor(Instant.now(), UUID.randomUUID()).encode();
+
+            assertThatThrownBy(() -> chatService.getMessages(conversationId, cursor, cursor, 10))
+                    .isInstanceOf(InvalidCursorException.class);
+
+            verifyNoInteractions(conversationCacheService);
         }
     }
 
@@ -343,11 +644,13 @@ class ChatServiceTest {
             when(conversationCacheService.findUserConversations(any(UUID.class), eq(projectId)))
                     .thenReturn(responses);
 
-            List<UserConversationResponse> result = chatService.getUserConversations(userId, projectId);
+            CursorPage<UserConversationResponse> result = chatService.getUserConversations(userId, projectId, null, 50);
 
-            assertThat(result).hasSize(2);
-            assertThat(result.get(0).lastMessage()).doesNotContain("**");
-            assertThat(result.get(0).conversationId()).isEqualTo(convo1Id);
+            assertThat(result.content()).hasSize(2);
+            assertThat(result.content().get(0).lastMessage()).doesNotContain("**");
+            assertThat(result.content().get(0).conversationId()).isEqualTo(convo1Id);
+            assertThat(result.hasNext()).isFalse();
+            assertThat(result.nextCursor()).isNull();
         }
 
         @Test
@@ -363,10 +666,10 @@ class ChatServiceTest {
             when(conversationCacheService.findUserConversations(any(UUID.class), eq(projectId)))
                     .thenReturn(responses);
 
-            List<UserConversationResponse> result = chatService.getUserConversations(userId, projectId);
+            CursorPage<UserConversationResponse> result = chatService.getUserConversations(userId, projectId, null, 50);
 
-            assertThat(result).hasSize(1);
-            assertThat(result.get(0).lastMessage()).hasSize(100);
+            assertThat(result.content()).hasSize(1);
+            assertThat(result.content().get(0).lastMessage()).hasSize(100);
         }
 
         @Test
@@ -375,9 +678,54 @@ class ChatServiceTest {
             when(conversationCacheService.findUserConversations(any(UUID.class), eq(projectId)))
                     .thenReturn(List.of());
 
-            List<UserConversationResponse> result = chatService.getUserConversations(userId, projectId);
+            CursorPage<UserConversationResponse> result = chatService.getUserConversations(userId, projectId, null, 50);
+
+            assertThat(result.content()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should return a cursor pointing at the last conversation of a full page")
+        void getUserConversations_morePagesAvailable_returnsNextCursor() {
+            Instant now = Instant.now();
+            UUID newest = UUID.randomUUID();
+            UUID second = UUID.randomUUID();
+            UUID third = UUID.randomUUID();
+
+            when(conversationCacheService.findUserConversations(any(UUID.class), eq(projectId)))
+                    .thenReturn(List.of(
+                            new UserConversationResponse(newest, "one", now),
+                            new UserConversationResponse(second, "two", now.minusSeconds(1)),
+                            new UserConversationResponse(third, "three", now.minusSeconds(2))
+                    ));
+
+            CursorPage<UserConversationResponse> result = chatService.getUserConversations(userId, projectId, null, 2);
+
+            assertThat(result.content()).extracting(UserConversationResponse::conversationId)
+                    .containsExactly(newest, second);
+            assertThat(result.hasNext()).isTrue();
+            assertThat(KeysetCursor.decode(result.nextCursor()))
+                    .isEqualTo(new KeysetCursor(now.minusSeconds(1), second));
+        }
+
+        @Test
+        @DisplayName("Should read pages after the first one straight from the index using the cursor")
+        void getUserConversations_withCursor_queriesBeforeCursor() {
+            KeysetCursor cursor = new KeysetCursor(Instant.parse("2025-01-01T00:00:00Z"), UUID.randomUUID());
+            when(conversationCacheService.findUserConversationsBefore(any(UUID.class), eq(projectId), eq(cursor), eq(11)))
+                    .thenReturn(List.of());
+
+            CursorPage<UserConversationResponse> result =
+                    chatService.getUserConversations(userId, projectId, cursor.encode(), 10);
 
-            assertThat(result).isEmpty();
+            assertThat(result.content()).isEmpty();
+            verify(conversationCacheService, never()).findUserConversations(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed cursor")
+        void getUserConversations_malformedCursor_throws() {
+            assertThatThrownBy(() -> chatService.getUserConversations(userId, projectId, "not-a-cursor", 10))
+                    .isInstanceOf(InvalidCursorException.class);
         }
     }
 }
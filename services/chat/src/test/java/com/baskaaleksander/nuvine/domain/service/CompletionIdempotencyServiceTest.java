@@ -0,0 +1,365 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.CompletionRequest;
+import com.baskaaleksander.nuvine.application.dto.ConversationMessageResponse;
+import com.baskaaleksander.nuvine.application.dto.IdempotentCompletion;
+import com.baskaaleksander.nuvine.application.dto.StreamEventMetadata;
+import com.baskaaleksander.nuvine.application.dto.TokenUsage;
+import com.baskaaleksander.nuvine.domain.exception.IdempotencyKeyMismatchException;
+import com.baskaaleksander.nuvine.domain.exception.IdempotentRequestInProgressException;
+import com.baskaaleksander.nuvine.domain.exception.InvalidIdempotencyKeyException;
+import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.infrastructure.cache.IdempotencyStore;
+import com.baskaaleksander.nuvine.infrastructure.config.IdempotencyProperties;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.client.RedisException;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CompletionIdempotencyServiceTest {
+
+    private static final String KEY = "retry-7f3a";
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private ConversationCacheService conversationCacheService;
+
+    private IdempotencyProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private CompletionIdempotencyService service;
+    private String userId;
+    private String scope;
+    private CompletionRequest request;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotencyProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        service = new CompletionIdempotencyService(
+                idempotencyStore,
+                properties,
+                conversationCacheService,
+                new ChatPipelineMetrics(meterRegistry)
+        );
+        userId = UUID.randomUUID().toString();
+        scope = IdempotencyStore.scope(userId, KEY);
+        request = new CompletionRequest(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                List.of(),
+                null,
+                "What grapes grow in Tokaj?",
+                "gpt-4o-mini",
+                10,
+                false,
+                false
+        );
+    }
+
+    private ConversationMessageResponse response(UUID conversationId, String content) {
+        return new ConversationMessageResponse(
+                UUID.randomUUID(),
+                conversationId,
+                content,
+                ConversationRole.ASSISTANT,
+                "gpt-4o-mini",
+                42,
+                UUID.fromString(userId),
+                Instant.now()
+        );
+    }
+
+    private double idempotencyCount(String type, String result) {
+        var counter = meterRegistry.find(ChatPipelineMetrics.IDEMPOTENCY_REQUESTS)
+                .tags("type", type, "result", result)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    @DisplayName("Should run the completion directly when no idempotency key is sent")
+    void completion_withoutKey_skipsStore() {
+        ConversationMessageResponse expected = response(UUID.randomUUID(), "Furmint.");
+
+        ConversationMessageResponse result = service.completion(userId, null, request, () -> expected);
+
+        assertThat(result).isEqualTo(expected);
+        verifyNoInteractions(idempotencyStore);
+    }
+
+    @Test
+    @DisplayName("Should reject keys that are too long or not printable ASCII")
+    void completion_invalidKey_throws() {
+        String tooLong = "k".repeat(properties.getMaxKeyLength() + 1);
+
+        assertThatThrownBy(() -> service.completion(userId, tooLong, request, () -> null))
+                .isInstanceOf(InvalidIdempotencyKeyException.class);
+        assertThatThrownBy(() -> service.completion(userId, "key with spaces", request, () -> null))
+                .isInstanceOf(InvalidIdempotencyKeyException.class);
+        verifyNoInteractions(idempotencyStore);
+    }
+
+    @Test
+    @DisplayName("Should store the finished answer under a newly claimed key")
+    void completion_newKey_storesAnswer() {
+        ConversationMessageResponse expected = response(UUID.randomUUID(), "Furmint.");
+        when(idempotencyStore.claim(eq(scope), anyString(), any(), eq(properties.getInFlightTtl()))).thenReturn(true);
+
+        ConversationMessageResponse result = service.completion(userId, KEY, request, () -> expected);
+
+        assertThat(result).isEqualTo(expected);
+        ArgumentCaptor<IdempotentCompletion> stored = ArgumentCaptor.forClass(IdempotentCompletion.class);
+        verify(idempotencyStore).complete(eq(scope), stored.capture(), eq(properties.getTtl()));
+        assertThat(stored.getValue().completed()).isTrue();
+        assertThat(stored.getValue().messageId()).isEqualTo(expected.id());
+        assertThat(stored.getValue().content()).isEqualTo("Furmint.");
+        assertThat(stored.getValue().tokensCost()).isEqualTo(42);
+        assertThat(stored.getValue().tokensIn()).isZero();
+        assertThat(stored.getValue().tokensOut()).isZero();
+        assertThat(idempotencyCount("sync", "new")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should replay a stored answer without running the completion again")
+    void completion_completedKey_replaysStoredAnswer() {
+        UUID conversationId = UUID.randomUUID();
+        UUID messageId = UUID.randomUUID();
+        when(idempotencyStore.claim(eq(scope), anyString(), any(), any())).thenReturn(false);
+        when(idempotencyStore.find(scope)).thenReturn(new IdempotentCompletion(
+                CompletionIdempotencyService.fingerprint("sync", request),
+                true,
+                conversationId,
+                messageId,
+                "Furmint.",
+                "gpt-4o-mini",
+                0,
+                0,
+                42,
+                Instant.now(),
+                null
+        ));
+        AtomicInteger calls = new AtomicInteger();
+
+        ConversationMessageResponse result = service.completion(userId, KEY, request, () -> {
+            calls.incrementAndGet();
+            return response(conversationId, "again");
+        });
+
+        assertThat(calls).hasValue(0);
+        assertThat(result.id()).isEqualTo(messageId);
+        assertThat(result.content()).isEqualTo("Furmint.");
+        assertThat(result.tokensCost()).isEqualTo(42);
+        assertThat(idempotencyCount("sync", "replayed")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should give up waiting for another instance and tell the client to retry")
+    void completion_keyHeldElsewhere_throwsInProgressAfterWait() {
+        properties.setInFlightWait(Duration.ofMillis(50));
+        properties.setPollInterval(Duration.ofMillis(10));
+        when(idempotencyStore.claim(eq(scope), anyString(), any(), any())).thenReturn(false);
+        when(idempotencyStore.find(scope))
+                .thenReturn(IdempotentCompletion.inFlight(
+                        CompletionIdempotencyService.fingerprint("sync", request), UUID.randomUUID())));
+
+        assertThatThrownBy(() -> service.completion(userId, KEY, request, () -> null))
+                .isInstanceOf(IdempotentRequestInProgressException.class);
+        assertThat(idempotencyCount("sync", "in_progress")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should read answers too long for Redis back from conversation history")
+    void completion_completedKeyWithoutContent_readsHistory() {
+        UUID conversationId = UUID.randomUUID();
+        ConversationMessageResponse persisted = response(conversationId, "Furmint, Hárslevelű and Sárgamuskotály.");
+        when(idempotencyStore.claim(eq(scope), anyString(), any(), any())).thenReturn(false);
+        when(idempotencyStore.find(scope)).thenReturn(new IdempotentCompletion(
+                CompletionIdempotencyService.fingerprint("sync", request),
+                true,
+                conversationId,
+                persisted.id(),
+                null,
+                "gpt-4o-mini",
+                0,
+                0,
+                42,
+                persisted.createdAt(),
+                null
+        ));
+        when(conversationCacheService.findLatestMessages(conversationId)).thenReturn(List.of(persisted));
+
+        ConversationMessageResponse result = service.completion(userId, KEY, request, () -> null);
+
+        assertThat(result).isEqualTo(persisted);
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different request")
+    void completion_keyReusedForOtherRequest_throws() {
+        when(idempotencyStore.claim(eq(scope), anyString(), any(), any())).thenReturn(false);
+        when(idempotencyStore.find(scope)).thenReturn(IdempotentCompletion.inFlight("other-fingerprint", UUID.randomUUID()));
+
+        assertThatThrownBy(() -> service.completion(userId, KEY, request, () -> null))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(idempotencyCount("sync", "mismatch")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should release only its own lease when the completion fails so a retry can run it")
+    void completion_failure_releasesOwnLease() {
+        String fingerprint = CompletionIdempotencyService.fingerprint("sync", request);
+        when(idempotencyStore.claim(eq(scope), eq(fingerprint), any(), any())).thenReturn(true);
+
+        assertThatThrownBy(() -> service.completion(userId, KEY, request, () -> {
+            throw new IllegalStateException("llm down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        ArgumentCaptor<UUID> claimedLease = ArgumentCaptor.forClass(UUID.class);
+        verify(idempotencyStore).claim(eq(scope), eq(fingerprint), claimedLease.capture(), any());
+        verify(idempotencyStore).release(scope, fingerprint, claimedLease.getValue());
+        verify(idempotencyStore, never()).complete(anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should run the completion without idempotency when Redis is unavailable")
+    void completion_storeUnavailable_runsRequest() {
+        ConversationMessageResponse expected = response(UUID.randomUUID(), "Furmint.");
+        when(idempotencyStore.claim(eq(scope), anyString(), any(), any())).thenThrow(new RedisException("down"));
+        doThrow(new RedisException("down")).when(idempotencyStore).complete(eq(scope), any(), any());
+
+        ConversationMessageResponse result = service.completion(userId, KEY, request, () -> expected);
+
+        assertThat(result).isEqualTo(expected);
+        assertThat(idempotencyCount("sync", "store_error")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should share one upstream stream between duplicate requests and store the answer")
+    void completionStream_duplicateWhileRunning_sharesStream() {
+        UUID conversationId = UUID.randomUUID();
+        UUID messageId = UUID.randomUUID();
+        when(idempotencyStore.claim(eq(scope), anyString(), any(), any())).thenReturn(true);
+        Sinks.Many<ServerSentEvent<Object>> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicInteger calls = new AtomicInteger();
+
+        Flux<ServerSentEvent<Object>> first = service.completionStream(userId, KEY, request, () -> {
+            calls.incrementAndGet();
+            return upstream.asFlux();
+        });
+        Flux<ServerSentEvent<Object>> second = service.completionStream(userId, KEY, request, () -> {
+            calls.incrementAndGet();
+            return Flux.empty();
+        });
+
+        List<String> firstEvents = new CopyOnWriteArrayList<>();
+        first.subscribe(event -> firstEvents.add(event.event()));
+        upstream.tryEmitNext(ServerSentEvent.<Object>builder("Furmint").event("delta").build());
+
+        List<String> secondEvents = new CopyOnWriteArrayList<>();
+        second.subscribe(event -> secondEvents.add(event.event()));
+        upstream.tryEmitNext(ServerSentEvent.<Object>builder(new TokenUsage(12, 3)).event("usage").build());
+        upstream.tryEmitNext(ServerSentEvent.<Object>builder(new StreamEventMetadata(conversationId, messageId))
+                .event("metadata").build());
+        upstream.tryEmitNext(ServerSentEvent.<Object>builder("done").event("done").build());
+        upstream.tryEmitComplete();
+
+        assertThat(calls).hasValue(1);
+        assertThat(firstEvents).containsExactly("delta", "usage", "metadata", "done");
+        assertThat(secondEvents).containsExactly("delta", "usage", "metadata", "done");
+        ArgumentCaptor<IdempotentCompletion> stored = ArgumentCaptor.forClass(IdempotentCompletion.class);
+        verify(idempotencyStore).complete(eq(scope), stored.capture(), eq(properties.getTtl()));
+        assertThat(stored.getValue().conversationId()).isEqualTo(conversationId);
+        assertThat(stored.getValue().messageId()).isEqualTo(messageId);
+        assertThat(stored.getValue().content()).isEqualTo("Furmint");
+        assertThat(stored.getValue().tokensIn()).isEqualTo(12);
+        assertThat(stored.getValue().tokensOut()).isEqualTo(3);
+        assertThat(stored.getValue().tokensCost()).isEqualTo(3);
+        assertThat(idempotencyCount("stream", "joined")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should replay a finished stream from the stored answer")
+    void completionStream_completedKey_replaysEvents() {
+        UUID conversationId = UUID.randomUUID();
+        UUID messageId = UUID.randomUUID();
+        when(idempotencyStore.claim(eq(scope), anyString(), any(), any())).thenReturn(false);
+        when(idempotencyStore.find(scope)).thenReturn(new IdempotentCompletion(
+                CompletionIdempotencyService.fingerprint("stream", request),
+                true,
+                conversationId,
+                messageId,
+                "Furmint.",
+                null,
+                12,
+                3,
+                3,
+                null,
+                null
+        ));
+
+        List<ServerSentEvent<Object>> events = service.completionStream(userId, KEY, request, Flux::empty)
+                .collectList()
+                .block();
+
+        assertThat(events).extracting(ServerSentEvent::event)
+                .containsExactly("delta", "usage", "metadata", "done");
+        assertThat(events.getFirst().data()).isEqualTo("Furmint.");
+        assertThat(events.get(2).data()).isEqualTo(new StreamEventMetadata(conversationId, messageId));
+    }
+
+    @Test
+    @DisplayName("Should replay a long stored stream answer by its message id, not the newest long answer")
+    void completionStream_completedKeyWithoutContent_matchesHistoryById() {
+        UUID conversationId = UUID.randomUUID();
+        ConversationMessageResponse original = response(conversationId, "Furmint, Hárslevelű and Sárgamuskotály.");
+        ConversationMessageResponse newer = response(conversationId, "A later, even longer answer about Tokaji aszú.");
+        when(idempotencyStore.claim(eq(scope), anyString(), any(), any())).thenReturn(false);
+        when(idempotencyStore.find(scope)).thenReturn(new IdempotentCompletion(
+                CompletionIdempotencyService.fingerprint("stream", request),
+                true,
+                conversationId,
+                original.id(),
+                null,
+                null,
+                12,
+                3,
+                3,
+                null,
+                null
+        ));
+        when(conversationCacheService.findLatestMessages(conversationId)).thenReturn(List.of(newer, original));
+
+        List<ServerSentEvent<Object>> events = service.completionStream(userId, KEY, request, Flux::empty)
+                .collectList()
+                .block();
+
+        assertThat(events.getFirst().data()).isEqualTo(original.content());
+        assertThat(events.get(2).data()).isEqualTo(new StreamEventMetadata(conversationId, original.id()));
+    }
+}
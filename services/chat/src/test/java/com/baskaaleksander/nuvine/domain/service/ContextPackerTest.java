@@ -0,0 +1,104 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.PackedContext;
+import com.baskaaleksander.nuvine.application.dto.VectorSearchResponse.VectorSearchMatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextPackerTest {
+
+    private static final String DOCUMENT_TEXT =
+            "Tannins are polyphenols found in grape skins. They give red wine its structure. "
+                    + "Decanting softens young tannic wines. Serve full-bodied reds slightly below room temperature.";
+
+    private ContextPacker contextPacker;
+    private TokenCountingService tokenCountingService;
+
+    @BeforeEach
+    void setUp() {
+        tokenCountingService = new TokenCountingService();
+        contextPacker = new ContextPacker(tokenCountingService);
+    }
+
+    private VectorSearchMatch slice(UUID documentId, int start, int end, float score) {
+        return new VectorSearchMatch(documentId, 0, start, end, DOCUMENT_TEXT.substring(start, end), score);
+    }
+
+    @Test
+    @DisplayName("Should merge overlapping chunks of the same document into one segment")
+    void pack_overlappingChunks_mergesIntoSingleSegment() {
+        UUID documentId = UUID.randomUUID();
+        List<VectorSearchMatch> matches = List.of(
+                slice(documentId, 0, 80, 0.9f),
+                slice(documentId, 46, 118, 0.8f)
+        );
+
+        PackedContext packed = contextPacker.pack(matches, 10_000, 0.85);
+
+        assertThat(packed.chunks()).containsExactly(DOCUMENT_TEXT.substring(0, 118));
+        assertThat(packed.mergedChunks()).isEqualTo(1);
+        assertThat(packed.tokensSaved()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should keep chunks from different documents separate and ordered by score")
+    void pack_differentDocuments_keepsSeparateOrderedByScore() {
+        List<VectorSearchMatch> matches = List.of(
+                new VectorSearchMatch(UUID.randomUUID(), 0, 0, 14, "Low score text", 0.6f),
+                new VectorSearchMatch(UUID.randomUUID(), 0, 0, 15, "High score text", 0.9f)
+        );
+
+        PackedContext packed = contextPacker.pack(matches, 10_000, 0.85);
+
+        assertThat(packed.chunks()).containsExactly("High score text", "Low score text");
+        assertThat(packed.mergedChunks()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop near-duplicate chunks coming from different documents")
+    void pack_nearDuplicates_dropsLowerScoredCopy() {
+        String text = "Decanting softens young tannic wines and opens up the aromas of the wine";
+        List<VectorSearchMatch> matches = List.of(
+                new VectorSearchMatch(UUID.randomUUID(), 0, 0, text.length(), text, 0.9f),
+                new VectorSearchMatch(UUID.randomUUID(), 0, 0, text.length() + 1, text + ".", 0.7f)
+        );
+
+        PackedContext packed = contextPacker.pack(matches, 10_000, 0.85);
+
+        assertThat(packed.chunks()).containsExactly(text);
+        assertThat(packed.droppedDuplicates()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should stop adding chunks once the token budget is exhausted")
+    void pack_budgetExceeded_skipsChunksThatDoNotFit() {
+        String first = "Tannins are polyphenols found in grape skins.";
+        String second = "Serve full-bodied reds slightly below room temperature.";
+        List<VectorSearchMatch> matches = List.of(
+                new VectorSearchMatch(UUID.randomUUID(), 0, 0, first.length(), first, 0.9f),
+                new VectorSearchMatch(UUID.randomUUID(), 0, 0, second.length(), second, 0.8f)
+        );
+
+        int budget = tokenCountingService.count(first);
+        PackedContext packed = contextPacker.pack(matches, budget, 0.85);
+
+        assertThat(packed.chunks()).containsExactly(first);
+        assertThat(packed.packedTokens()).isEqualTo(budget);
+        assertThat(packed.droppedOverBudget()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should return empty context for null or blank matches")
+    void pack_noUsableMatches_returnsEmptyContext() {
+        assertThat(contextPacker.pack(null, 1000, 0.85).chunks()).isEmpty();
+        assertThat(contextPacker.pack(
+                List.of(new VectorSearchMatch(UUID.randomUUID(), 0, 0, 0, " ", 0.9f)), 1000, 0.85
+        ).chunks()).isEmpty();
+    }
+}
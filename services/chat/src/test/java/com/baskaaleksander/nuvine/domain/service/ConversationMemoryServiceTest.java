@@ -0,0 +1,252 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.CompletionLlmRouterRequest;
+import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
+import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.domain.model.ConversationSummary;
+import com.baskaaleksander.nuvine.infrastructure.config.ChatMemoryProperties;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationMemoryServiceTest {
+
+    private static final String MODEL = "openai/gpt-4o-mini";
+
+    @Mock
+    private ConversationMessageRepository conversationMessageRepository;
+
+    @Mock
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Mock
+    private ConversationWriteBehindQueue conversationWriteBehindQueue;
+
+    @Mock
+    private TokenCountingService tokenCountingService;
+
+    @Mock
+    private ModelLimitsService modelLimitsService;
+
+    private ChatMemoryProperties properties;
+    private ConversationMemoryService conversationMemoryService;
+    private UUID conversationId;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChatMemoryProperties();
+        properties.setMode(ChatMemoryProperties.Mode.SUMMARY);
+        properties.setTokenBudget(100);
+        conversationMemoryService = new ConversationMemoryService(
+                conversationMessageRepository,
+                conversationSummaryRepository,
+                conversationWriteBehindQueue,
+                tokenCountingService,
+                modelLimitsService,
+                properties
+        );
+        conversationId = UUID.randomUUID();
+        lenient().when(tokenCountingService.count(anyString())).thenReturn(30);
+        lenient().when(modelLimitsService.contextWindow(MODEL)).thenReturn(OptionalInt.empty());
+    }
+
+    private ConversationMessage message(ConversationRole role, String content) {
+        return ConversationMessage.builder()
+                .id(UUID.randomUUID())
+                .conversationId(conversationId)
+                .role(role)
+                .content(content)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should prepend the rolling summary and only load messages after it")
+    void buildMemory_withSummary_prependsSummary() {
+        Instant summarizedUntil = Instant.parse("2025-01-01T00:00:00Z");
+        when(conversationSummaryRepository.findById(conversationId)).thenReturn(Optional.of(
+                ConversationSummary.builder()
+                        .conversationId(conversationId)
+                        .summary("User asked about tannins.")
+                        .summaryTokens(10)
+                        .summarizedUntil(summarizedUntil)
+                        .build()
+        ));
+        when(conversationMessageRepository.findLatestPageSince(conversationId, summarizedUntil, 20)).thenReturn(List.of(
+                message(ConversationRole.ASSISTANT, "answer"),
+                message(ConversationRole.USER, "question")
+        ));
+
+        List<CompletionLlmRouterRequest.Message> memory = conversationMemoryService.buildMemory(conversationId, 5, MODEL);
+
+        assertThat(memory).extracting(CompletionLlmRouterRequest.Message::role)
+                .containsExactly("system", "user", "assistant");
+        assertThat(memory.get(0).content()).endsWith("User asked about tannins.");
+    }
+
+    @Test
+    @DisplayName("Should keep the newest messages that fit the token budget in chronological order")
+    void buildMemory_overBudget_keepsNewestMessages() {
+        when(conversationSummaryRepository.findById(conversationId)).thenReturn(Optional.empty());
+        when(conversationMessageRepository.findLatestPageSince(conversationId, Instant.EPOCH, 20)).thenReturn(List.of(
+                message(ConversationRole.ASSISTANT, "answer 3"),
+                message(ConversationRole.USER, "question 3"),
+                message(ConversationRole.ASSISTANT, "answer 2"),
+                message(ConversationRole.USER, "question 2")
+        ));
+
+        List<CompletionLlmRouterRequest.Message> memory = conversationMemoryService.buildMemory(conversationId, 5, MODEL);
+
+        assertThat(memory).extracting(CompletionLlmRouterRequest.Message::content)
+                .containsExactly("question 3", "answer 3");
+    }
+
+    @Test
+    @DisplayName("Should ignore stored summaries in window mode")
+    void buildMemory_windowMode_skipsSummary() {
+        properties.setMode(ChatMemoryProperties.Mode.WINDOW);
+        when(conversationMessageRepository.findLatestPageSince(conversationId, Instant.EPOCH, 20)).thenReturn(List.of(
+                message(ConversationRole.ASSISTANT, "answer"),
+                message(ConversationRole.USER, "question")
+        ));
+
+        List<CompletionLlmRouterRequest.Message> memory = conversationMemoryService.buildMemory(conversationId, 1, MODEL);
+
+        assertThat(memory).hasSize(2);
+        verifyNoInteractions(conversationSummaryRepository);
+    }
+
+    @Test
+    @DisplayName("Should size the history budget from the model's context window")
+    void buildMemory_knownContextWindow_usesModelBudget() {
+        properties.setMode(ChatMemoryProperties.Mode.WINDOW);
+        when(modelLimitsService.contextWindow(MODEL)).thenReturn(OptionalInt.of(1000));
+        when(conversationMessageRepository.findLatestPageSince(conversationId, Instant.EPOCH, 20)).thenReturn(List.of(
+                message(ConversationRole.ASSISTANT, "answer 3"),
+                message(ConversationRole.USER, "question 3"),
+                message(ConversationRole.ASSISTANT, "answer 2"),
+                message(ConversationRole.USER, "question 2")
+        ));
+
+        List<CompletionLlmRouterRequest.Message> memory = conversationMemoryService.buildMemory(conversationId, 5, MODEL);
+
+        assertThat(memory).extracting(CompletionLlmRouterRequest.Message::content)
+                .containsExactly("question 2", "answer 2", "question 3", "answer 3");
+    }
+
+    @Test
+    @DisplayName("Should cap the budget of a 128k context window model at the maximum history budget")
+    void buildMemory_largeContextWindow_capsAtMaxTokenBudget() {
+        properties.setMode(ChatMemoryProperties.Mode.WINDOW);
+        when(modelLimitsService.contextWindow(MODEL)).thenReturn(OptionalInt.of(128_000));
+        ConversationMessage answer = message(ConversationRole.ASSISTANT, "long answer");
+        answer.setContentTokens(9_000);
+        ConversationMessage question = message(ConversationRole.USER, "pasted report");
+        question.setContentTokens(6_000);
+        ConversationMessage olderAnswer = message(ConversationRole.ASSISTANT, "older answer");
+        olderAnswer.setContentTokens(2_000);
+        ConversationMessage olderQuestion = message(ConversationRole.USER, "older question");
+        olderQuestion.setContentTokens(500);
+        when(conversationMessageRepository.findLatestPageSince(conversationId, Instant.EPOCH, 20))
+                .thenReturn(List.of(answer, question, olderAnswer, olderQuestion));
+
+        List<CompletionLlmRouterRequest.Message> memory = conversationMemoryService.buildMemory(conversationId, 5, MODEL);
+
+        assertThat(memory).extracting(CompletionLlmRouterRequest.Message::content)
+                .containsExactly("pasted report", "long answer");
+    }
+
+    @Test
+    @DisplayName("Should use stored per-message token counts instead of re-tokenizing history")
+    void buildMemory_storedTokenCounts_skipsTokenizer() {
+        properties.setMode(ChatMemoryProperties.Mode.WINDOW);
+        ConversationMessage pastedDocument = message(ConversationRole.USER, "long pasted document");
+        pastedDocument.setContentTokens(90);
+        ConversationMessage answer = message(ConversationRole.ASSISTANT, "short answer");
+        answer.setContentTokens(5);
+        ConversationMessage followUp = message(ConversationRole.USER, "follow up");
+        followUp.setContentTokens(4);
+        ConversationMessage lastAnswer = message(ConversationRole.ASSISTANT, "last answer");
+        lastAnswer.setContentTokens(6);
+        when(conversationMessageRepository.findLatestPageSince(conversationId, Instant.EPOCH, 20))
+                .thenReturn(List.of(lastAnswer, followUp, answer, pastedDocument));
+
+        List<CompletionLlmRouterRequest.Message> memory = conversationMemoryService.buildMemory(conversationId, 5, MODEL);
+
+        assertThat(memory).extracting(CompletionLlmRouterRequest.Message::content)
+                .containsExactly("follow up", "last answer");
+        verify(tokenCountingService, never()).count(anyString());
+    }
+
+    @Test
+    @DisplayName("Should keep paging back while older messages still fit the budget")
+    void buildMemory_firstPageFits_loadsNextPage() {
+        properties.setMode(ChatMemoryProperties.Mode.WINDOW);
+        properties.setPageSize(2);
+        when(tokenCountingService.count(anyString())).thenReturn(10);
+        ConversationMessage answer2 = message(ConversationRole.ASSISTANT, "answer 2");
+        ConversationMessage question2 = message(ConversationRole.USER, "question 2");
+        when(conversationMessageRepository.findLatestPageSince(conversationId, Instant.EPOCH, 2))
+                .thenReturn(List.of(answer2, question2));
+        when(conversationMessageRepository.findPageBeforeSince(
+                conversationId, Instant.EPOCH, question2.getCreatedAt(), question2.getId(), 2
+        )).thenReturn(List.of(message(ConversationRole.ASSISTANT, "answer 1")));
+
+        List<CompletionLlmRouterRequest.Message> memory = conversationMemoryService.buildMemory(conversationId, 5, MODEL);
+
+        assertThat(memory).extracting(CompletionLlmRouterRequest.Message::content)
+                .containsExactly("question 2", "answer 2");
+    }
+
+    @Test
+    @DisplayName("Should include an exchange that is still waiting in the write-behind queue")
+    void buildMemory_unflushedExchange_isIncludedOnce() {
+        properties.setMode(ChatMemoryProperties.Mode.WINDOW);
+        ConversationMessage storedQuestion = message(ConversationRole.USER, "question 1");
+        storedQuestion.setCreatedAt(Instant.now().minusSeconds(60));
+        ConversationMessage storedAnswer = message(ConversationRole.ASSISTANT, "answer 1");
+        storedAnswer.setCreatedAt(Instant.now().minusSeconds(59));
+        ConversationMessage pendingQuestion = message(ConversationRole.USER, "question 2");
+        pendingQuestion.setCreatedAt(Instant.now().minusSeconds(2));
+        ConversationMessage pendingAnswer = message(ConversationRole.ASSISTANT, "answer 2");
+        pendingAnswer.setCreatedAt(Instant.now().minusSeconds(1));
+        List.of(storedQuestion, storedAnswer, pendingQuestion, pendingAnswer)
+                .forEach(message -> message.setContentTokens(10));
+        when(conversationWriteBehindQueue.unflushedMessages(conversationId))
+                .thenReturn(List.of(storedAnswer, pendingQuestion, pendingAnswer));
+        when(conversationMessageRepository.findLatestPageSince(conversationId, Instant.EPOCH, 20))
+                .thenReturn(List.of(storedAnswer, storedQuestion));
+
+        List<CompletionLlmRouterRequest.Message> memory = conversationMemoryService.buildMemory(conversationId, 5, MODEL);
+
+        assertThat(memory).extracting(CompletionLlmRouterRequest.Message::content)
+                .containsExactly("question 1", "answer 1", "question 2", "answer 2");
+    }
+
+    @Test
+    @DisplayName("Should skip history entirely when memory size is zero")
+    void buildMemory_zeroMemorySize_loadsNothing() {
+        properties.setMode(ChatMemoryProperties.Mode.WINDOW);
+
+        List<CompletionLlmRouterRequest.Message> memory = conversationMemoryService.buildMemory(conversationId, 0, MODEL);
+
+        assertThat(memory).isEmpty();
+        verifyNoInteractions(conversationMessageRepository);
+    }
+}
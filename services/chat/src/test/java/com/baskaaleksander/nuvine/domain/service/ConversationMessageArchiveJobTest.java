@@ -0,0 +1,78 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.infrastructure.config.ConversationArchiveProperties;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessagePartitionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationMessageArchiveJobTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T12:30:00Z");
+
+    @Mock
+    private ConversationMessagePartitionManager partitionManager;
+
+    private ConversationArchiveProperties properties;
+    private ConversationMessageArchiveJob job;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConversationArchiveProperties();
+        properties.setHotMonths(6);
+        properties.setPremakeMonths(2);
+        job = new ConversationMessageArchiveJob(partitionManager, properties, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Cutoff is the start of the month hotMonths before the current one")
+    void cutoff_startOfMonthHotMonthsBack() {
+        assertThat(job.cutoff()).isEqualTo(Instant.parse("2026-04-01T00:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Archives partitions one at a time until none is older than the cutoff")
+    void archive_loopsUntilNothingLeft() {
+        Instant cutoff = Instant.parse("2026-04-01T00:00:00Z");
+        when(partitionManager.archiveOldestPartition(cutoff))
+                .thenReturn("conversation_message_2026_02", "conversation_message_2026_03", null);
+
+        int archived = job.archive();
+
+        assertThat(archived).isEqualTo(2);
+        verify(partitionManager, times(3)).archiveOldestPartition(cutoff);
+    }
+
+    @Test
+    @DisplayName("Creates upcoming partitions before archiving")
+    void run_createsPartitionsThenArchives() {
+        when(partitionManager.ensurePartitions(2)).thenReturn(1);
+
+        job.run();
+
+        var inOrder = inOrder(partitionManager);
+        inOrder.verify(partitionManager).ensurePartitions(2);
+        inOrder.verify(partitionManager).archiveOldestPartition(any());
+    }
+
+    @Test
+    @DisplayName("Does nothing when disabled")
+    void run_disabled_noop() {
+        properties.setEnabled(false);
+
+        job.run();
+
+        verifyNoInteractions(partitionManager);
+    }
+}
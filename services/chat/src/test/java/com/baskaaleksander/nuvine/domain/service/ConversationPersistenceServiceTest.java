@@ -3,10 +3,11 @@ package com.baskaaleksander.nuvine.domain.service;
 import com.baskaaleksander.nuvine.application.dto.*;
 import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
 import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.domain.service.ConversationWriteBehindQueue.PendingExchange;
+import com.baskaaleksander.nuvine.domain.service.ConversationWriteBehindQueue.PostCommitTask;
 import com.baskaaleksander.nuvine.infrastructure.client.SubscriptionServiceClient;
 import com.baskaaleksander.nuvine.infrastructure.messaging.dto.LogTokenUsageEvent;
 import com.baskaaleksander.nuvine.infrastructure.messaging.out.LogTokenUsageEventProducer;
-import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -30,7 +31,7 @@ import static org.mockito.Mockito.*;
 class ConversationPersistenceServiceTest {
 
     @Mock
-    private ConversationMessageRepository conversationMessageRepository;
+    private ConversationWriteBehindQueue conversationWriteBehindQueue;
 
     @Mock
     private LogTokenUsageEventProducer logTokenUsageEventProducer;
@@ -41,11 +42,17 @@ class ConversationPersistenceServiceTest {
     @Mock
     private ConversationCacheService conversationCacheService;
 
+    @Mock
+    private ConversationSummaryService conversationSummaryService;
+
+    @Mock
+    private TokenCountingService tokenCountingService;
+
     @InjectMocks
     private ConversationPersistenceService conversationPersistenceService;
 
     @Captor
-    private ArgumentCaptor<ConversationMessage> messageCaptor;
+    private ArgumentCaptor<PendingExchange> exchangeCaptor;
 
     @Captor
     private ArgumentCaptor<LogTokenUsageEvent> eventCaptor;
@@ -89,13 +96,13 @@ class ConversationPersistenceServiceTest {
         );
     }
 
-    private void setupRepositorySaveWithIdGeneration() {
-        when(conversationMessageRepository.save(any(ConversationMessage.class)))
-                .thenAnswer(invocation -> {
-                    ConversationMessage msg = invocation.getArgument(0);
-                    msg.setId(UUID.randomUUID());
-                    return msg;
-                });
+    private PendingExchange captureExchange() {
+        verify(conversationWriteBehindQueue).enqueue(exchangeCaptor.capture());
+        return exchangeCaptor.getValue();
+    }
+
+    private void runAfterCommit(PendingExchange exchange) {
+        exchange.afterCommit().forEach(task -> task.action().run());
     }
 
     @Nested
@@ -110,24 +117,14 @@ class ConversationPersistenceServiceTest {
             CompletionRequest request = createRequest(userMessage, "openai/gpt-4");
             CompletionResponse response = new CompletionResponse(assistantContent, 50, 100, "openai/gpt-4");
             CheckLimitResult checkLimitResult = createCheckLimitResult(BigDecimal.valueOf(0.005));
-
-            UUID savedAssistantId = UUID.randomUUID();
-            when(conversationMessageRepository.save(any(ConversationMessage.class)))
-                    .thenAnswer(invocation -> {
-                        ConversationMessage msg = invocation.getArgument(0);
-                        msg.setId(UUID.randomUUID());
-                        if (msg.getRole() == ConversationRole.ASSISTANT) {
-                            msg.setId(savedAssistantId);
-                        }
-                        return msg;
-                    });
+            when(tokenCountingService.count(userMessage)).thenReturn(6);
+            when(tokenCountingService.count(assistantContent)).thenReturn(9);
 
             ConversationMessage result = conversationPersistenceService.persistSyncCompletion(
                     conversationId, request, response, ownerId, checkLimitResult
             );
 
-            verify(conversationMessageRepository, times(2)).save(messageCaptor.capture());
-            List<ConversationMessage> savedMessages = messageCaptor.getAllValues();
+            List<ConversationMessage> savedMessages = captureExchange().messages();
 
             ConversationMessage userMsg = savedMessages.get(0);
             assertThat(userMsg.getConversationId()).isEqualTo(conversationId);
@@ -135,6 +132,7 @@ class ConversationPersistenceServiceTest {
             assertThat(userMsg.getRole()).isEqualTo(ConversationRole.USER);
             assertThat(userMsg.getModelUsed()).isEqualTo("openai/gpt-4");
             assertThat(userMsg.getTokensCost()).isEqualTo(50);
+            assertThat(userMsg.getContentTokens()).isEqualTo(6);
             assertThat(userMsg.getOwnerId()).isEqualTo(ownerId);
             assertThat(userMsg.getProjectId()).isEqualTo(projectId);
             assertThat(userMsg.getWorkspaceId()).isEqualTo(workspaceId);
@@ -145,8 +143,40 @@ class ConversationPersistenceServiceTest {
             assertThat(assistantMsg.getContent()).isEqualTo(assistantContent);
             assertThat(assistantMsg.getRole()).isEqualTo(ConversationRole.ASSISTANT);
             assertThat(assistantMsg.getTokensCost()).isEqualTo(100);
+            assertThat(assistantMsg.getContentTokens()).isEqualTo(9);
+
+            assertThat(userMsg.getId()).isNotNull();
+            assertThat(userMsg.getCreatedAt()).isBefore(assistantMsg.getCreatedAt());
+            assertThat(result).isSameAs(assistantMsg);
+            assertThat(result.getId()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should defer usage event, reservation release and cache eviction until after commit")
+        void persistSyncCompletion_defersSideEffectsUntilAfterCommit() {
+            CompletionRequest request = createRequest("test", "openai/gpt-4");
+            CompletionResponse response = new CompletionResponse("response", 10, 20, "openai/gpt-4");
+            CheckLimitResult checkLimitResult = createCheckLimitResult(BigDecimal.valueOf(0.01));
+
+            conversationPersistenceService.persistSyncCompletion(
+                    conversationId, request, response, ownerId, checkLimitResult
+            );
+
+            PendingExchange exchange = captureExchange();
+            verifyNoInteractions(
+                    logTokenUsageEventProducer,
+                    subscriptionServiceClient,
+                    conversationCacheService,
+                    conversationSummaryService
+            );
+            assertThat(exchange.afterCommit())
+                    .extracting(PostCommitTask::name)
+                    .containsExactly("usage_event", "release_reservation", "cache_evict", "summary_refresh");
+
+            runAfterCommit(exchange);
 
-            assertThat(result.getId()).isEqualTo(savedAssistantId);
+            verify(conversationCacheService).evictAfterNewMessage(ownerId, projectId, conversationId);
+            verify(conversationSummaryService).refresh(conversationId);
         }
 
         @Test
@@ -156,11 +186,11 @@ class ConversationPersistenceServiceTest {
             CompletionResponse response = new CompletionResponse("response", 25, 75, "anthropic/claude-3");
             CheckLimitResult checkLimitResult = createCheckLimitResult(BigDecimal.valueOf(0.01));
 
-            setupRepositorySaveWithIdGeneration();
-
             conversationPersistenceService.persistSyncCompletion(
                     conversationId, request, response, ownerId, checkLimitResult
             );
+            PendingExchange exchange = captureExchange();
+            runAfterCommit(exchange);
 
             verify(logTokenUsageEventProducer).produceLogTokenUsageEvent(eventCaptor.capture());
             LogTokenUsageEvent event = eventCaptor.getValue();
@@ -173,6 +203,7 @@ class ConversationPersistenceServiceTest {
             assertThat(event.sourceService()).isEqualTo("chat-service");
             assertThat(event.tokensIn()).isEqualTo(25);
             assertThat(event.tokensOut()).isEqualTo(75);
+            assertThat(event.messageId()).isEqualTo(exchange.messages().get(0).getId().toString());
         }
 
         @Test
@@ -183,11 +214,11 @@ class ConversationPersistenceServiceTest {
             BigDecimal estimatedCost = BigDecimal.valueOf(0.015);
             CheckLimitResult checkLimitResult = createCheckLimitResult(estimatedCost);
 
-            setupRepositorySaveWithIdGeneration();
-
             conversationPersistenceService.persistSyncCompletion(
                     conversationId, request, response, ownerId, checkLimitResult
             );
+            PendingExchange exchange = captureExchange();
+            runAfterCommit(exchange);
 
             verify(subscriptionServiceClient).releaseReservation(releaseCaptor.capture());
             ReleaseReservationRequest releaseRequest = releaseCaptor.getValue();
@@ -213,18 +244,17 @@ class ConversationPersistenceServiceTest {
                     projectId,
                     workspaceId,
                     List.of(),
-                    ownerId
+                    ownerId,
+                    null
             );
             CheckLimitResult checkLimitResult = createCheckLimitResult(BigDecimal.valueOf(0.02));
-
-            setupRepositorySaveWithIdGeneration();
+            UUID assistantMessageId = UUID.randomUUID();
 
             conversationPersistenceService.persistStreamCompletion(
-                    ctx, request, assistantContent, 100, 200, checkLimitResult
+                    ctx, assistantMessageId, request, assistantContent, 100, 200, checkLimitResult
             );
 
-            verify(conversationMessageRepository, times(2)).save(messageCaptor.capture());
-            List<ConversationMessage> savedMessages = messageCaptor.getAllValues();
+            List<ConversationMessage> savedMessages = captureExchange().messages();
 
             ConversationMessage userMsg = savedMessages.get(0);
             assertThat(userMsg.getRole()).isEqualTo(ConversationRole.USER);
@@ -232,6 +262,7 @@ class ConversationPersistenceServiceTest {
             assertThat(userMsg.getTokensCost()).isEqualTo(100);
 
             ConversationMessage assistantMsg = savedMessages.get(1);
+            assertThat(assistantMsg.getId()).isEqualTo(assistantMessageId);
             assertThat(assistantMsg.getRole()).isEqualTo(ConversationRole.ASSISTANT);
             assertThat(assistantMsg.getContent()).isEqualTo(assistantContent);
             assertThat(assistantMsg.getTokensCost()).isEqualTo(200);
@@ -247,16 +278,16 @@ class ConversationPersistenceServiceTest {
                     projectId,
                     workspaceId,
                     List.of(),
-                    ownerId
+                    ownerId,
+                    null
             );
             BigDecimal estimatedCost = BigDecimal.valueOf(0.03);
             CheckLimitResult checkLimitResult = createCheckLimitResult(estimatedCost);
 
-            setupRepositorySaveWithIdGeneration();
-
             conversationPersistenceService.persistStreamCompletion(
-                    ctx, request, "response", 50, 150, checkLimitResult
+                    ctx, UUID.randomUUID(), request, "response", 50, 150, checkLimitResult
             );
+            runAfterCommit(captureExchange());
 
             verify(logTokenUsageEventProducer).produceLogTokenUsageEvent(any(LogTokenUsageEvent.class));
             verify(subscriptionServiceClient).releaseReservation(releaseCaptor.capture());
@@ -277,28 +308,16 @@ class ConversationPersistenceServiceTest {
             String assistantContent = "I couldn't find relevant information in your documents.";
             CompletionRequest request = createRequest(userMessage, "openai/gpt-4");
 
-            UUID savedAssistantId = UUID.randomUUID();
-            when(conversationMessageRepository.save(any(ConversationMessage.class)))
-                    .thenAnswer(invocation -> {
-                        ConversationMessage msg = invocation.getArgument(0);
-                        msg.setId(UUID.randomUUID());
-                        if (msg.getRole() == ConversationRole.ASSISTANT) {
-                            msg.setId(savedAssistantId);
-                        }
-                        return msg;
-                    });
-
             ConversationMessage result = conversationPersistenceService.persistStrictModeNoContext(
-                    conversationId, request, assistantContent, ownerId
+                    conversationId, UUID.randomUUID(), request, assistantContent, ownerId
             );
 
-            verify(conversationMessageRepository, times(2)).save(messageCaptor.capture());
-            List<ConversationMessage> savedMessages = messageCaptor.getAllValues();
+            List<ConversationMessage> savedMessages = captureExchange().messages();
 
             assertThat(savedMessages.get(0).getTokensCost()).isZero();
             assertThat(savedMessages.get(1).getTokensCost()).isZero();
 
-            assertThat(result.getId()).isEqualTo(savedAssistantId);
+            assertThat(result).isSameAs(savedMessages.get(1));
         }
 
         @Test
@@ -306,14 +325,36 @@ class ConversationPersistenceServiceTest {
         void persistStrictModeNoContext_doesNotProduceEventOrRelease() {
             CompletionRequest request = createRequest("test", "openai/gpt-4");
 
-            setupRepositorySaveWithIdGeneration();
-
             conversationPersistenceService.persistStrictModeNoContext(
-                    conversationId, request, "No context response", ownerId
+                    conversationId, UUID.randomUUID(), request, "No context response", ownerId
+            );
+            runAfterCommit(captureExchange());
+
+            verify(logTokenUsageEventProducer, never()).produceLogTokenUsageEvent(any());
+            verify(subscriptionServiceClient, never()).releaseReservation(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("persistCachedAnswer")
+    class PersistCachedAnswerTests {
+
+        @Test
+        @DisplayName("Should save the cached answer without billing or releasing a reservation")
+        void persistCachedAnswer_savesWithoutUsage() {
+            CompletionRequest request = createRequest("What is terroir?", "openai/gpt-4");
+
+            ConversationMessage result = conversationPersistenceService.persistCachedAnswer(
+                    conversationId, UUID.randomUUID(), request, "Terroir is...", ownerId
             );
+            PendingExchange exchange = captureExchange();
+            runAfterCommit(exchange);
 
+            assertThat(result.getContent()).isEqualTo("Terroir is...");
+            assertThat(exchange.messages()).extracting(ConversationMessage::getTokensCost).containsOnly(0);
             verify(logTokenUsageEventProducer, never()).produceLogTokenUsageEvent(any());
             verify(subscriptionServiceClient, never()).releaseReservation(any());
+            verify(conversationCacheService).evictAfterNewMessage(ownerId, projectId, conversationId);
         }
     }
 }
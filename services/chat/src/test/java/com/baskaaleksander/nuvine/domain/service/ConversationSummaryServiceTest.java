@@ -0,0 +1,232 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.CheckLimitRequest;
+import com.baskaaleksander.nuvine.application.dto.CheckLimitResult;
+import com.baskaaleksander.nuvine.application.dto.CompletionLlmRouterRequest;
+import com.baskaaleksander.nuvine.application.dto.CompletionResponse;
+import com.baskaaleksander.nuvine.application.dto.ReleaseReservationRequest;
+import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
+import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.domain.model.ConversationSummary;
+import com.baskaaleksander.nuvine.infrastructure.client.LlmRouterServiceClient;
+import com.baskaaleksander.nuvine.infrastructure.client.SubscriptionServiceClient;
+import com.baskaaleksander.nuvine.infrastructure.config.ChatMemoryProperties;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.LogTokenUsageEvent;
+import com.baskaaleksander.nuvine.infrastructure.messaging.out.LogTokenUsageEventProducer;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationSummaryServiceTest {
+
+    @Mock
+    private ConversationMessageRepository conversationMessageRepository;
+
+    @Mock
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Mock
+    private LlmRouterServiceClient llmRouterServiceClient;
+
+    @Mock
+    private SubscriptionServiceClient subscriptionServiceClient;
+
+    @Mock
+    private LogTokenUsageEventProducer logTokenUsageEventProducer;
+
+    @Mock
+    private TokenCountingService tokenCountingService;
+
+    private ChatMemoryProperties properties;
+    private ConversationSummaryService conversationSummaryService;
+    private UUID conversationId;
+    private UUID workspaceId;
+    private UUID ownerId;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChatMemoryProperties();
+        properties.setMode(ChatMemoryProperties.Mode.SUMMARY);
+        properties.setKeepRecentMessages(2);
+        properties.setSummarizeAfterMessages(4);
+        conversationSummaryService = new ConversationSummaryService(
+                conversationMessageRepository,
+                conversationSummaryRepository,
+                llmRouterServiceClient,
+                subscriptionServiceClient,
+                logTokenUsageEventProducer,
+                tokenCountingService,
+                properties
+        );
+        conversationId = UUID.randomUUID();
+        workspaceId = UUID.randomUUID();
+        ownerId = UUID.randomUUID();
+    }
+
+    private List<ConversationMessage> turns(int pairs) {
+        List<ConversationMessage> messages = new ArrayList<>();
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        for (int i = 0; i < pairs * 2; i++) {
+            messages.add(ConversationMessage.builder()
+                    .id(UUID.randomUUID())
+                    .conversationId(conversationId)
+                    .workspaceId(workspaceId)
+                    .ownerId(ownerId)
+                    .role(i % 2 == 0 ? ConversationRole.USER : ConversationRole.ASSISTANT)
+                    .content("message " + i)
+                    .createdAt(start.plusSeconds(i))
+                    .build());
+        }
+        return messages;
+    }
+
+    private void approveLimit() {
+        when(subscriptionServiceClient.checkLimit(any(CheckLimitRequest.class))).thenReturn(CheckLimitResult.approved(
+                new BigDecimal("0.02"), BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("100")
+        ));
+    }
+
+    @Test
+    @DisplayName("Should summarize everything but the most recent turns")
+    void refresh_enoughPendingMessages_storesSummary() {
+        List<ConversationMessage> pending = turns(3);
+        when(conversationSummaryRepository.findById(conversationId)).thenReturn(Optional.empty());
+        when(conversationMessageRepository.findByConversationIdAndCreatedAtAfterOrderByCreatedAtAsc(
+                conversationId, Instant.EPOCH, Limit.of(102)
+        )).thenReturn(pending);
+        when(llmRouterServiceClient.completion(any(CompletionLlmRouterRequest.class)))
+                .thenReturn(new CompletionResponse(" Condensed summary ", 300, 40, "openai/gpt-4o-mini"));
+        when(tokenCountingService.count(anyString())).thenReturn(4);
+        approveLimit();
+
+        conversationSummaryService.refresh(conversationId);
+
+        ArgumentCaptor<ConversationSummary> captor = ArgumentCaptor.forClass(ConversationSummary.class);
+        verify(conversationSummaryRepository).save(captor.capture());
+        ConversationSummary saved = captor.getValue();
+
+        assertThat(saved.getSummary()).isEqualTo("Condensed summary");
+        assertThat(saved.getSummaryTokens()).isEqualTo(4);
+        assertThat(saved.getSummarizedMessageCount()).isEqualTo(4);
+        assertThat(saved.getSummarizedUntil()).isEqualTo(pending.get(3).getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should skip the LLM call while the backlog is below the threshold")
+    void refresh_belowThreshold_doesNothing() {
+        when(conversationSummaryRepository.findById(conversationId)).thenReturn(Optional.empty());
+        when(conversationMessageRepository.findByConversationIdAndCreatedAtAfterOrderByCreatedAtAsc(
+                conversationId, Instant.EPOCH, Limit.of(102)
+        )).thenReturn(turns(2));
+
+        conversationSummaryService.refresh(conversationId);
+
+        verifyNoInteractions(llmRouterServiceClient, subscriptionServiceClient);
+        verify(conversationSummaryRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should swallow LLM failures so the next turn can retry")
+    void refresh_llmFails_doesNotThrow() {
+        when(conversationSummaryRepository.findById(conversationId)).thenReturn(Optional.empty());
+        when(conversationMessageRepository.findByConversationIdAndCreatedAtAfterOrderByCreatedAtAsc(
+                conversationId, Instant.EPOCH, Limit.of(102)
+        )).thenReturn(turns(3));
+        approveLimit();
+        when(llmRouterServiceClient.completion(any(CompletionLlmRouterRequest.class)))
+                .thenThrow(new RuntimeException("router unavailable"));
+
+        conversationSummaryService.refresh(conversationId);
+
+        verify(conversationSummaryRepository, never()).save(any());
+        verify(subscriptionServiceClient).releaseReservation(
+                new ReleaseReservationRequest(workspaceId, new BigDecimal("0.02"))
+        );
+        verifyNoInteractions(logTokenUsageEventProducer);
+    }
+
+    @Test
+    @DisplayName("Should charge the summary call to the conversation owner and release the reservation")
+    void refresh_summaryCall_publishesUsageAndReleasesReservation() {
+        List<ConversationMessage> pending = turns(3);
+        when(conversationSummaryRepository.findById(conversationId)).thenReturn(Optional.empty());
+        when(conversationMessageRepository.findByConversationIdAndCreatedAtAfterOrderByCreatedAtAsc(
+                conversationId, Instant.EPOCH, Limit.of(102)
+        )).thenReturn(pending);
+        when(tokenCountingService.count(anyString())).thenReturn(250, 4);
+        approveLimit();
+        when(llmRouterServiceClient.completion(any(CompletionLlmRouterRequest.class)))
+                .thenReturn(new CompletionResponse("Condensed summary", 300, 40, "openai/gpt-4o-mini"));
+
+        conversationSummaryService.refresh(conversationId);
+
+        ArgumentCaptor<CheckLimitRequest> limitCaptor = ArgumentCaptor.forClass(CheckLimitRequest.class);
+        verify(subscriptionServiceClient).checkLimit(limitCaptor.capture());
+        assertThat(limitCaptor.getValue()).isEqualTo(new CheckLimitRequest(workspaceId, "gpt-4o-mini", "openai", 250));
+
+        ArgumentCaptor<LogTokenUsageEvent> eventCaptor = ArgumentCaptor.forClass(LogTokenUsageEvent.class);
+        verify(logTokenUsageEventProducer).produceLogTokenUsageEvent(eventCaptor.capture());
+        LogTokenUsageEvent event = eventCaptor.getValue();
+        assertThat(event.workspaceId()).isEqualTo(workspaceId.toString());
+        assertThat(event.userId()).isEqualTo(ownerId.toString());
+        assertThat(event.conversationId()).isEqualTo(conversationId.toString());
+        assertThat(event.messageId()).isEqualTo(pending.get(3).getId().toString());
+        assertThat(event.model()).isEqualTo("gpt-4o-mini");
+        assertThat(event.provider()).isEqualTo("openai");
+        assertThat(event.tokensIn()).isEqualTo(300);
+        assertThat(event.tokensOut()).isEqualTo(40);
+
+        verify(subscriptionServiceClient).releaseReservation(
+                new ReleaseReservationRequest(workspaceId, new BigDecimal("0.02"))
+        );
+    }
+
+    @Test
+    @DisplayName("Should skip the summary when the workspace is over its limit")
+    void refresh_limitRejected_skipsSummary() {
+        when(conversationSummaryRepository.findById(conversationId)).thenReturn(Optional.empty());
+        when(conversationMessageRepository.findByConversationIdAndCreatedAtAfterOrderByCreatedAtAsc(
+                conversationId, Instant.EPOCH, Limit.of(102)
+        )).thenReturn(turns(3));
+        when(tokenCountingService.count(anyString())).thenReturn(250);
+        when(subscriptionServiceClient.checkLimit(any(CheckLimitRequest.class))).thenReturn(CheckLimitResult.rejected(
+                new BigDecimal("100"), BigDecimal.ZERO, new BigDecimal("0.02"), new BigDecimal("100")
+        ));
+
+        conversationSummaryService.refresh(conversationId);
+
+        verifyNoInteractions(llmRouterServiceClient, logTokenUsageEventProducer);
+        verify(subscriptionServiceClient, never()).releaseReservation(any());
+        verify(conversationSummaryRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should do nothing in window mode")
+    void refresh_windowMode_doesNothing() {
+        properties.setMode(ChatMemoryProperties.Mode.WINDOW);
+
+        conversationSummaryService.refresh(conversationId);
+
+        verifyNoInteractions(conversationMessageRepository, llmRouterServiceClient, subscriptionServiceClient);
+    }
+}
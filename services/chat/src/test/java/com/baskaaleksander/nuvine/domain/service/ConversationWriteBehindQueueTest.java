@@ -0,0 +1,170 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
+import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.domain.service.ConversationWriteBehindQueue.PendingExchange;
+import com.baskaaleksander.nuvine.domain.service.ConversationWriteBehindQueue.PostCommitTask;
+import com.baskaaleksander.nuvine.infrastructure.config.ConversationPersistenceProperties;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageBatchWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationWriteBehindQueueTest {
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private ConversationMessageBatchWriter batchWriter;
+
+    private ExecutorService executor;
+    private ConversationWriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        ConversationPersistenceProperties properties = new ConversationPersistenceProperties();
+        properties.setFlushInterval(Duration.ofMillis(10));
+        properties.setInitialBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(2));
+        properties.setMaxAttempts(3);
+
+        executor = Executors.newSingleThreadExecutor();
+        queue = new ConversationWriteBehindQueue(
+                batchWriter,
+                executor,
+                properties,
+                new ChatPipelineMetrics(new SimpleMeterRegistry())
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private PendingExchange exchange(AtomicInteger postCommitRuns) {
+        UUID conversationId = UUID.randomUUID();
+        return new PendingExchange(
+                conversationId,
+                List.of(message(conversationId, ConversationRole.USER), message(conversationId, ConversationRole.ASSISTANT)),
+                List.of(new PostCommitTask("count", postCommitRuns::incrementAndGet))
+        );
+    }
+
+    private ConversationMessage message(UUID conversationId, ConversationRole role) {
+        return ConversationMessage.builder()
+                .id(UUID.randomUUID())
+                .conversationId(conversationId)
+                .content("content")
+                .role(role)
+                .modelUsed("openai/gpt-4")
+                .ownerId(UUID.randomUUID())
+                .projectId(UUID.randomUUID())
+                .workspaceId(UUID.randomUUID())
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should flush every queued exchange and run post-commit tasks on stop")
+    @SuppressWarnings("unchecked")
+    void stop_flushesQueuedExchanges() {
+        AtomicInteger postCommitRuns = new AtomicInteger();
+        queue.start();
+
+        for (int i = 0; i < 5; i++) {
+            queue.enqueue(exchange(postCommitRuns));
+        }
+        queue.stop();
+
+        ArgumentCaptor<List<ConversationMessage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter, atLeastOnce()).insertAll(captor.capture());
+        List<ConversationMessage> written = new ArrayList<>();
+        captor.getAllValues().forEach(written::addAll);
+
+        assertThat(written).hasSize(10);
+        assertThat(postCommitRuns).hasValue(5);
+        assertThat(queue.isRunning()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should write inline when the flusher is not running")
+    void enqueue_notRunning_writesInline() {
+        AtomicInteger postCommitRuns = new AtomicInteger();
+        PendingExchange exchange = exchange(postCommitRuns);
+
+        queue.enqueue(exchange);
+
+        verify(batchWriter).insertAll(exchange.messages());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed batch with backoff")
+    void flush_transientFailure_retries() {
+        AtomicInteger postCommitRuns = new AtomicInteger();
+        PendingExchange exchange = exchange(postCommitRuns);
+        doThrow(new RuntimeException("connection reset"))
+                .doNothing()
+                .when(batchWriter).insertAll(anyList());
+
+        queue.flush(List.of(exchange));
+
+        verify(batchWriter, times(2)).insertAll(exchange.messages());
+    }
+
+    @Test
+    @DisplayName("Should fall back to per-exchange inserts when the batch keeps failing")
+    void flush_persistentBatchFailure_isolatesExchanges() {
+        AtomicInteger postCommitRuns = new AtomicInteger();
+        PendingExchange good = exchange(postCommitRuns);
+        PendingExchange bad = exchange(postCommitRuns);
+        List<ConversationMessage> batch = new ArrayList<>(good.messages());
+        batch.addAll(bad.messages());
+
+        doThrow(new RuntimeException("constraint violation")).when(batchWriter).insertAll(batch);
+        doThrow(new RuntimeException("constraint violation")).when(batchWriter).insertAll(bad.messages());
+
+        queue.flush(List.of(good, bad));
+
+        verify(batchWriter, times(3)).insertAll(batch);
+        verify(batchWriter).insertAll(good.messages());
+        verify(batchWriter).insertAll(bad.messages());
+        verify(batchWriter).insertDeadLetters(bad.messages());
+        verify(batchWriter, never()).insertDeadLetters(good.messages());
+    }
+
+    @Test
+    @DisplayName("Should expose an exchange's messages until its batch has been written")
+    void unflushedMessages_visibleUntilFlushed() {
+        PendingExchange exchange = exchange(new AtomicInteger());
+        List<ConversationMessage> seenDuringWrite = new ArrayList<>();
+        doAnswer(invocation -> {
+            seenDuringWrite.addAll(queue.unflushedMessages(exchange.conversationId()));
+            return null;
+        }).when(batchWriter).insertAll(anyList());
+
+        queue.enqueue(exchange);
+
+        assertThat(seenDuringWrite).containsExactlyElementsOf(exchange.messages());
+        assertThat(queue.unflushedMessages(exchange.conversationId())).isEmpty();
+    }
+}
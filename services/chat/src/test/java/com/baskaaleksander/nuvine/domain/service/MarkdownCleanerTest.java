@@ -68,4 +68,76 @@ class MarkdownCleanerTest {
 
         assertEquals("Title Bold and italic with code quote list item", result);
     }
+
+    @Test
+    void clean_fencedCodeBlock_removesBlock() {
+        String input = "Run this:\n```java\nint x = 1;\n```\nThen restart.";
+
+        String result = MarkdownCleaner.clean(input);
+
+        assertEquals("Run this: Then restart.", result);
+    }
+
+    @Test
+    void clean_nestedEmphasis_stripsAllMarkers() {
+        String input = "*italic with **bold** inside* and ***both***";
+
+        String result = MarkdownCleaner.clean(input);
+
+        assertEquals("italic with bold inside and both", result);
+    }
+
+    @Test
+    void clean_markersInsideSentence_keepsOperators() {
+        String input = "Compute 5 * 3 - 2 when x > y";
+
+        String result = MarkdownCleaner.clean(input);
+
+        assertEquals("Compute 5 * 3 - 2 when x > y", result);
+    }
+
+    @Test
+    void clean_blankLines_collapseToSingleSpace() {
+        String input = "First paragraph.\r\n\r\n\nSecond paragraph.  ";
+
+        String result = MarkdownCleaner.clean(input);
+
+        assertEquals("First paragraph. Second paragraph.", result);
+    }
+
+    // Tests for clean(input, maxLength) method
+
+    @Test
+    void cleanWithMaxLength_longInput_truncatesCleanedText() {
+        String input = "## Summary\n\nThe **quarterly** report shows growth across all regions.";
+
+        String result = MarkdownCleaner.clean(input, 30);
+
+        assertEquals("Summary The quarterly report s", result);
+    }
+
+    @Test
+    void cleanWithMaxLength_cutAtSpace_dropsTrailingSpace() {
+        String input = "**Hello** world";
+
+        String result = MarkdownCleaner.clean(input, 6);
+
+        assertEquals("Hello", result);
+    }
+
+    @Test
+    void cleanWithMaxLength_matchesPrefixOfFullClean() {
+        String input = "# Title\n**Bold** and *italic* with `code`\n> quote\n- list item";
+
+        String result = MarkdownCleaner.clean(input, 20);
+
+        assertEquals(MarkdownCleaner.clean(input).substring(0, 20), result);
+    }
+
+    @Test
+    void cleanWithMaxLength_zero_returnsEmptyString() {
+        String result = MarkdownCleaner.clean("text", 0);
+
+        assertEquals("", result);
+    }
 }
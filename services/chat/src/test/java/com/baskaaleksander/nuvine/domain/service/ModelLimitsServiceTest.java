@@ -0,0 +1,87 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.ModelLimitsResponse;
+import com.baskaaleksander.nuvine.infrastructure.client.SubscriptionServiceClient;
+import com.baskaaleksander.nuvine.infrastructure.config.ChatMemoryProperties;
+import feign.FeignException;
+import feign.Request;
+import feign.RequestTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ModelLimitsServiceTest {
+
+    @Mock
+    private SubscriptionServiceClient subscriptionServiceClient;
+
+    private ModelLimitsService modelLimitsService;
+
+    @BeforeEach
+    void setUp() {
+        modelLimitsService = new ModelLimitsService(subscriptionServiceClient, new ChatMemoryProperties());
+    }
+
+    private static FeignException feignException(int status) {
+        Request request = Request.create(
+                Request.HttpMethod.GET,
+                "/internal/billing/models/limits",
+                Collections.emptyMap(),
+                null,
+                new RequestTemplate()
+        );
+
+        return FeignException.errorStatus("getModelLimits", feign.Response.builder()
+                .status(status)
+                .reason("Test error")
+                .request(request)
+                .headers(Collections.emptyMap())
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should fetch the context window once and serve it from cache afterwards")
+    void contextWindow_knownModel_cachesResult() {
+        when(subscriptionServiceClient.getModelLimits("openai", "gpt-4o-mini"))
+                .thenReturn(new ModelLimitsResponse("openai", "gpt-4o-mini", 128_000L, 16_384L));
+
+        assertThat(modelLimitsService.contextWindow("openai/gpt-4o-mini")).hasValue(128_000);
+        assertThat(modelLimitsService.contextWindow("openai/gpt-4o-mini")).hasValue(128_000);
+
+        verify(subscriptionServiceClient, times(1)).getModelLimits("openai", "gpt-4o-mini");
+    }
+
+    @Test
+    @DisplayName("Should report no context window when the model has none recorded")
+    void contextWindow_missingWindow_returnsEmpty() {
+        when(subscriptionServiceClient.getModelLimits("openai", "gpt-4o-mini"))
+                .thenReturn(new ModelLimitsResponse("openai", "gpt-4o-mini", null, 16_384L));
+
+        assertThat(modelLimitsService.contextWindow("openai/gpt-4o-mini")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should cache unknown models but retry after a failed lookup")
+    void contextWindow_notFoundAndFailure_onlyCachesNotFound() {
+        when(subscriptionServiceClient.getModelLimits("acme", "unknown")).thenThrow(feignException(404));
+        when(subscriptionServiceClient.getModelLimits("openai", "gpt-4o-mini")).thenThrow(feignException(503));
+
+        assertThat(modelLimitsService.contextWindow("acme/unknown")).isEmpty();
+        assertThat(modelLimitsService.contextWindow("acme/unknown")).isEmpty();
+        assertThat(modelLimitsService.contextWindow("openai/gpt-4o-mini")).isEmpty();
+        assertThat(modelLimitsService.contextWindow("openai/gpt-4o-mini")).isEqualTo(OptionalInt.empty());
+
+        verify(subscriptionServiceClient, times(1)).getModelLimits("acme", "unknown");
+        verify(subscriptionServiceClient, times(2)).getModelLimits("openai", "gpt-4o-mini");
+    }
+}
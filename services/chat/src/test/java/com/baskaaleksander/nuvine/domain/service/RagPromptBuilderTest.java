@@ -1,13 +1,16 @@
 package com.baskaaleksander.nuvine.domain.service;
 
 import com.baskaaleksander.nuvine.application.dto.CompletionRequest;
+import com.baskaaleksander.nuvine.application.dto.VectorSearchResponse;
 import com.baskaaleksander.nuvine.domain.exception.ContextNotFoundException;
+import com.baskaaleksander.nuvine.infrastructure.config.RagContextProperties;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -26,7 +29,6 @@ class RagPromptBuilderTest {
     @Mock
     private ContextRetrievalService contextRetrievalService;
 
-    @InjectMocks
     private RagPromptBuilder ragPromptBuilder;
 
     private UUID workspaceId;
@@ -38,6 +40,23 @@ class RagPromptBuilderTest {
         workspaceId = UUID.randomUUID();
         projectId = UUID.randomUUID();
         documentIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        TokenCountingService tokenCountingService = new TokenCountingService();
+        ragPromptBuilder = new RagPromptBuilder(
+                contextRetrievalService,
+                new ContextPacker(tokenCountingService),
+                new RagContextProperties(),
+                new ChatPipelineMetrics(new SimpleMeterRegistry()),
+                tokenCountingService
+        );
+    }
+
+    private List<VectorSearchResponse.VectorSearchMatch> matches(List<String> contents) {
+        return contents.stream()
+                .map(content -> new VectorSearchResponse.VectorSearchMatch(
+                        UUID.randomUUID(), 0, 0, content.length(), content, 0.8f
+                ))
+                .toList();
     }
 
     private CompletionRequest createRequest(String message, boolean freeMode, boolean strictMode) {
@@ -67,7 +86,7 @@ class RagPromptBuilderTest {
             String result = ragPromptBuilder.buildPrompt(request, documentIds);
 
             assertThat(result).isEqualTo(userMessage);
-            verify(contextRetrievalService, never()).retrieveContext(
+            verify(contextRetrievalService, never()).retrieveMatches(
                     any(), any(), any(), any(), anyInt(), anyFloat()
             );
         }
@@ -81,7 +100,7 @@ class RagPromptBuilderTest {
             String result = ragPromptBuilder.buildPrompt(request, documentIds);
 
             assertThat(result).isEqualTo(userMessage);
-            verify(contextRetrievalService, never()).retrieveContext(
+            verify(contextRetrievalService, never()).retrieveMatches(
                     any(), any(), any(), any(), anyInt(), anyFloat()
             );
         }
@@ -101,9 +120,9 @@ class RagPromptBuilderTest {
                     "Lighter reds like Pinot Noir can be served slightly cooler"
             );
 
-            when(contextRetrievalService.retrieveContext(
-                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(10), eq(0.5f)
-            )).thenReturn(context);
+            when(contextRetrievalService.retrieveMatches(
+                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(20), eq(0.5f)
+            )).thenReturn(matches(context));
 
             String result = ragPromptBuilder.buildPrompt(request, documentIds);
 
@@ -123,8 +142,8 @@ class RagPromptBuilderTest {
             String userMessage = "What is the meaning of life?";
             CompletionRequest request = createRequest(userMessage, false, true);
 
-            when(contextRetrievalService.retrieveContext(
-                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(10), eq(0.5f)
+            when(contextRetrievalService.retrieveMatches(
+                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(20), eq(0.5f)
             )).thenReturn(Collections.emptyList());
 
             assertThatThrownBy(() -> ragPromptBuilder.buildPrompt(request, documentIds))
@@ -138,8 +157,8 @@ class RagPromptBuilderTest {
             String userMessage = "Random question";
             CompletionRequest request = createRequest(userMessage, false, true);
 
-            when(contextRetrievalService.retrieveContext(
-                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(10), eq(0.5f)
+            when(contextRetrievalService.retrieveMatches(
+                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(20), eq(0.5f)
             )).thenReturn(null);
 
             assertThatThrownBy(() -> ragPromptBuilder.buildPrompt(request, documentIds))
@@ -162,9 +181,9 @@ class RagPromptBuilderTest {
                     "White wines complement soft cheeses well"
             );
 
-            when(contextRetrievalService.retrieveContext(
-                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(10), eq(0.5f)
-            )).thenReturn(context);
+            when(contextRetrievalService.retrieveMatches(
+                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(20), eq(0.5f)
+            )).thenReturn(matches(context));
 
             String result = ragPromptBuilder.buildPrompt(request, documentIds);
 
@@ -182,8 +201,8 @@ class RagPromptBuilderTest {
             String userMessage = "What is quantum physics?";
             CompletionRequest request = createRequest(userMessage, false, false);
 
-            when(contextRetrievalService.retrieveContext(
-                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(10), eq(0.5f)
+            when(contextRetrievalService.retrieveMatches(
+                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(20), eq(0.5f)
             )).thenReturn(Collections.emptyList());
 
             String result = ragPromptBuilder.buildPrompt(request, documentIds);
@@ -200,8 +219,8 @@ class RagPromptBuilderTest {
             String userMessage = "Tell me something";
             CompletionRequest request = createRequest(userMessage, false, false);
 
-            when(contextRetrievalService.retrieveContext(
-                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(10), eq(0.5f)
+            when(contextRetrievalService.retrieveMatches(
+                    eq(workspaceId), eq(projectId), eq(documentIds), eq(userMessage), eq(20), eq(0.5f)
             )).thenReturn(null);
 
             String result = ragPromptBuilder.buildPrompt(request, documentIds);
@@ -223,18 +242,18 @@ class RagPromptBuilderTest {
             String userMessage = "Test message";
             CompletionRequest request = createRequest(userMessage, false, false);
 
-            when(contextRetrievalService.retrieveContext(
+            when(contextRetrievalService.retrieveMatches(
                     any(), any(), any(), any(), anyInt(), anyFloat()
-            )).thenReturn(List.of("Some context"));
+            )).thenReturn(matches(List.of("Some context")));
 
             ragPromptBuilder.buildPrompt(request, documentIds);
 
-            verify(contextRetrievalService).retrieveContext(
+            verify(contextRetrievalService).retrieveMatches(
                     workspaceId,
                     projectId,
                     documentIds,
                     userMessage,
-                    10,
+                    20,
                     0.5f
             );
         }
@@ -0,0 +1,171 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.AnswerCacheLookup;
+import com.baskaaleksander.nuvine.application.dto.CachedAnswer;
+import com.baskaaleksander.nuvine.application.dto.CompletionRequest;
+import com.baskaaleksander.nuvine.application.dto.EmbeddingResponse;
+import com.baskaaleksander.nuvine.infrastructure.cache.AnswerCacheStore;
+import com.baskaaleksander.nuvine.infrastructure.cache.AnswerCacheStore.IndexedQuestion;
+import com.baskaaleksander.nuvine.infrastructure.client.LlmRouterServiceClient;
+import com.baskaaleksander.nuvine.infrastructure.config.AnswerCacheProperties;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SemanticAnswerCacheTest {
+
+    @Mock
+    private AnswerCacheStore answerCacheStore;
+
+    @Mock
+    private LlmRouterServiceClient llmRouterServiceClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AnswerCacheProperties properties;
+    private SemanticAnswerCache cache;
+
+    private final UUID projectId = UUID.randomUUID();
+    private final List<UUID> documentIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new AnswerCacheProperties();
+        properties.setEnabled(true);
+        properties.setReplayChunkSize(4);
+        cache = new SemanticAnswerCache(
+                properties,
+                answerCacheStore,
+                llmRouterServiceClient,
+                new ChatPipelineMetrics(meterRegistry)
+        );
+    }
+
+    private CompletionRequest request(UUID conversationId, String model) {
+        return new CompletionRequest(
+                UUID.randomUUID(), projectId, null, conversationId, "What is terroir?", model, 5, false, false
+        );
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get(ChatPipelineMetrics.ANSWER_CACHE_REQUESTS).tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should only consider first turns when enabled")
+    void isEligible_requiresEnabledAndNewConversation() {
+        assertThat(cache.isEligible(request(null, "openai/gpt-4"))).isTrue();
+        assertThat(cache.isEligible(request(UUID.randomUUID(), "openai/gpt-4"))).isFalse();
+
+        properties.setEnabled(false);
+        assertThat(cache.isEligible(request(null, "openai/gpt-4"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should quantize to unit length so cosine of a vector with itself is one")
+    void quantize_preservesDirection() {
+        byte[] a = SemanticAnswerCache.quantize(new float[]{0.3f, -0.4f, 0.5f});
+        byte[] b = SemanticAnswerCache.quantize(new float[]{0.6f, -0.8f, 1.0f});
+        byte[] orthogonal = SemanticAnswerCache.quantize(new float[]{0.4f, 0.3f, 0f});
+
+        assertThat(SemanticAnswerCache.cosine(a, b)).isCloseTo(1.0, within(1e-3));
+        assertThat(SemanticAnswerCache.cosine(a, orthogonal)).isCloseTo(0.0, within(1e-2));
+    }
+
+    @Test
+    @DisplayName("Should degrade to no lookup when the embedding call fails")
+    void embed_failure_returnsNull() {
+        when(llmRouterServiceClient.embed(any())).thenThrow(new RuntimeException("router down"));
+
+        assertThat(cache.embed("question")).isNull();
+        assertThat(cache.lookup(request(null, "openai/gpt-4"), documentIds, null)).isNull();
+        assertThat(lookups("error")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should return the stored answer of the closest question above the threshold")
+    void lookup_similarQuestion_returnsHit() {
+        when(llmRouterServiceClient.embed(any()))
+                .thenReturn(new EmbeddingResponse(List.of(new float[]{0.6f, 0.8f, 0f}), "text-embedding-3-small"));
+        byte[] query = cache.embed("What is terroir?");
+        byte[] close = SemanticAnswerCache.quantize(new float[]{0.61f, 0.79f, 0.01f});
+        byte[] far = SemanticAnswerCache.quantize(new float[]{0f, 0f, 1f});
+        when(answerCacheStore.readIndex(anyString()))
+                .thenReturn(List.of(new IndexedQuestion("far", far), new IndexedQuestion("close", close)));
+        CachedAnswer answer = new CachedAnswer("Terroir is...", BigDecimal.ONE);
+        when(answerCacheStore.readAnswer(anyString(), eq("close"))).thenReturn(answer);
+
+        AnswerCacheLookup lookup = cache.lookup(request(null, "openai/gpt-4"), documentIds, query);
+
+        assertThat(lookup.isHit()).isTrue();
+        assertThat(lookup.hit()).isEqualTo(answer);
+        assertThat(lookups("hit")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should miss below the threshold and keep the scope for storing")
+    void lookup_belowThreshold_returnsMiss() {
+        byte[] query = SemanticAnswerCache.quantize(new float[]{1f, 0f});
+        when(answerCacheStore.readIndex(anyString()))
+                .thenReturn(List.of(new IndexedQuestion("other", SemanticAnswerCache.quantize(new float[]{0.7f, 0.7f}))));
+
+        AnswerCacheLookup lookup = cache.lookup(request(null, "openai/gpt-4"), documentIds, query);
+
+        assertThat(lookup.isHit()).isFalse();
+        assertThat(lookup.scope()).startsWith(projectId.toString());
+        verify(answerCacheStore, never()).readAnswer(anyString(), anyString());
+        assertThat(lookups("miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should scope entries by model and ignore document order")
+    void lookup_scopeDependsOnModelAndDocumentSet() {
+        byte[] query = SemanticAnswerCache.quantize(new float[]{1f, 0f});
+        when(answerCacheStore.readIndex(anyString())).thenReturn(List.of());
+
+        String scope = cache.lookup(request(null, "openai/gpt-4"), documentIds, query).scope();
+        String reordered = cache.lookup(request(null, "openai/gpt-4"), documentIds.reversed(), query).scope();
+        String otherModel = cache.lookup(request(null, "openai/gpt-4o"), documentIds, query).scope();
+
+        assertThat(reordered).isEqualTo(scope);
+        assertThat(otherModel).isNotEqualTo(scope);
+    }
+
+    @Test
+    @DisplayName("Should store misses only")
+    void store_onlyWritesMisses() {
+        byte[] query = {1, 2};
+        AnswerCacheLookup miss = new AnswerCacheLookup("scope", query, null, 0.2);
+        AnswerCacheLookup hit = new AnswerCacheLookup("scope", query, new CachedAnswer("a", BigDecimal.ONE), 0.99);
+
+        cache.store(hit, "answer", BigDecimal.ONE);
+        cache.store(miss, " ", BigDecimal.ONE);
+        cache.store(miss, "answer", BigDecimal.ONE);
+
+        verify(answerCacheStore, times(1)).write(
+                eq("scope"), eq(query), eq(new CachedAnswer("answer", BigDecimal.ONE)), anyInt(), any()
+        );
+    }
+
+    @Test
+    @DisplayName("Should replay an answer in fixed-size chunks without splitting surrogate pairs")
+    void replayChunks_splitsContent() {
+        assertThat(cache.replayChunks("abcdefghij")).containsExactly("abcd", "efgh", "ij");
+        assertThat(cache.replayChunks("abc🍷d")).containsExactly("abc🍷", "d");
+    }
+}
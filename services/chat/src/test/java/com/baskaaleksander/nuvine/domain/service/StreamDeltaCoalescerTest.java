@@ -0,0 +1,159 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.LlmChunk;
+import com.baskaaleksander.nuvine.infrastructure.config.StreamCoalescingProperties;
+import com.baskaaleksander.nuvine.infrastructure.metrics.ChatPipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamDeltaCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StreamCoalescingProperties properties;
+    private StreamDeltaCoalescer coalescer;
+    private VirtualTimeScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new StreamCoalescingProperties();
+        properties.setMaxDelay(Duration.ofMillis(40));
+        properties.setMaxBytes(8);
+        coalescer = new StreamDeltaCoalescer(properties, new ChatPipelineMetrics(meterRegistry));
+        scheduler = VirtualTimeScheduler.create();
+    }
+
+    private static LlmChunk delta(String content) {
+        return new LlmChunk("delta", content, null, null);
+    }
+
+    private static LlmChunk chunk(String type) {
+        return new LlmChunk(type, null, null, null);
+    }
+
+    private List<String> contents(List<LlmChunk> chunks) {
+        return chunks.stream()
+                .map(chunk -> chunk.type() + ":" + chunk.content())
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Should forward the first delta at once and merge the rest until a non-delta chunk")
+    void coalesce_firstDeltaImmediate_restMergedUntilBoundary() {
+        Flux<LlmChunk> upstream = Flux.just(delta("He"), delta("l"), delta("lo"), chunk("usage"), chunk("done"));
+
+        List<LlmChunk> result = coalescer.coalesce(upstream, scheduler).collectList().block();
+
+        assertThat(contents(result)).containsExactly("delta:He", "delta:llo", "usage:null", "done:null");
+        assertThat(meterRegistry.get(ChatPipelineMetrics.STREAM_FLUSH_DELTAS).tag("reason", "boundary")
+                .summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should flush once the buffered text reaches the byte limit")
+    void coalesce_byteLimit_flushes() {
+        Flux<LlmChunk> upstream = Flux.just(delta("a"), delta("bcde"), delta("fghi"), delta("j"));
+
+        List<LlmChunk> result = coalescer.coalesce(upstream, scheduler).collectList().block();
+
+        assertThat(contents(result)).containsExactly("delta:a", "delta:bcdefghi", "delta:j");
+        assertThat(meterRegistry.get(ChatPipelineMetrics.STREAM_FLUSH_BYTES).tag("reason", "size")
+                .summary().totalAmount()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should flush buffered deltas after the maximum delay")
+    void coalesce_quietUpstream_flushesAfterDelay() {
+        Sinks.Many<LlmChunk> upstream = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.create(coalescer.coalesce(upstream.asFlux(), scheduler))
+                .then(() -> upstream.tryEmitNext(delta("a")))
+                .expectNextMatches(chunk -> "a".equals(chunk.content()))
+                .then(() -> {
+                    upstream.tryEmitNext(delta("b"));
+                    upstream.tryEmitNext(delta("c"));
+                })
+                .expectNoEvent(Duration.ZERO)
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(40)))
+                .expectNextMatches(chunk -> "bc".equals(chunk.content()))
+                .then(upstream::tryEmitComplete)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should flush pending text before propagating an upstream error")
+    void coalesce_error_flushesFirst() {
+        Flux<LlmChunk> upstream = Flux.just(delta("a"), delta("b"))
+                .concatWith(Flux.error(new IllegalStateException("router closed")));
+
+        StepVerifier.create(coalescer.coalesce(upstream, scheduler))
+                .expectNextMatches(chunk -> "a".equals(chunk.content()))
+                .expectNextMatches(chunk -> "b".equals(chunk.content()))
+                .verifyError(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should request from upstream only as much as downstream asked for")
+    void coalesce_boundedDownstreamDemand_keepsUpstreamDemandBounded() {
+        AtomicLong upstreamDemand = new AtomicLong();
+        Flux<LlmChunk> upstream = Flux.range(0, 1_000)
+                .map(i -> delta("abcd"))
+                .doOnRequest(upstreamDemand::addAndGet);
+
+        StepVerifier.create(coalescer.coalesce(upstream, scheduler), 0)
+                .expectSubscription()
+                .then(() -> assertThat(upstreamDemand).hasValue(0))
+                .thenRequest(1)
+                .expectNextMatches(chunk -> "abcd".equals(chunk.content()))
+                .then(() -> assertThat(upstreamDemand).hasValue(1))
+                .thenRequest(1)
+                .expectNextMatches(chunk -> "abcdabcd".equals(chunk.content()))
+                .then(() -> assertThat(upstreamDemand).hasValue(3))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Should expose the subscriber context to upstream")
+    void coalesce_propagatesContextUpstream() {
+        Flux<LlmChunk> upstream = Flux.deferContextual(context -> Flux.just(delta(context.get("requestId"))));
+
+        StepVerifier.create(coalescer.coalesce(upstream, scheduler).contextWrite(Context.of("requestId", "req-1")))
+                .expectNextMatches(chunk -> "req-1".equals(chunk.content()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should pass chunks through unchanged when disabled")
+    void coalesce_disabled_passesThrough() {
+        properties.setEnabled(false);
+        Flux<LlmChunk> upstream = Flux.just(delta("a"), delta("b"), chunk("done"));
+
+        List<LlmChunk> result = coalescer.coalesce(upstream, scheduler).collectList().block();
+
+        assertThat(contents(result)).containsExactly("delta:a", "delta:b", "done:null");
+        assertThat(meterRegistry.get(ChatPipelineMetrics.STREAM_EVENTS).tag("type", "delta").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should count UTF-8 bytes rather than characters")
+    void utf8Length_countsMultiByteCharacters() {
+        assertThat(StreamDeltaCoalescer.utf8Length("abc")).isEqualTo(3);
+        assertThat(StreamDeltaCoalescer.utf8Length("żółw")).isEqualTo(7);
+        assertThat(StreamDeltaCoalescer.utf8Length("🍷")).isEqualTo(4);
+    }
+}
@@ -0,0 +1,54 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenCountCacheTest {
+
+    @Test
+    void get_missingHash_returnsMinusOne() {
+        TokenCountCache cache = new TokenCountCache(16);
+
+        assertEquals(-1, cache.get(TokenCountCache.hash("never stored")));
+    }
+
+    @Test
+    void put_thenGet_returnsStoredCount() {
+        TokenCountCache cache = new TokenCountCache(16);
+        long hash = TokenCountCache.hash("some text");
+
+        cache.put(hash, 0);
+        assertEquals(0, cache.get(hash));
+
+        cache.put(hash, 1234);
+        assertEquals(1234, cache.get(hash));
+    }
+
+    @Test
+    void get_differentHashInSameSlot_returnsMinusOne() {
+        TokenCountCache cache = new TokenCountCache(16);
+        long stored = 0x1234_5678_0000_0003L;
+        long colliding = 0x8765_4321_0000_0003L;
+
+        cache.put(stored, 10);
+
+        assertEquals(-1, cache.get(colliding));
+        cache.put(colliding, 20);
+        assertEquals(-1, cache.get(stored));
+        assertEquals(20, cache.get(colliding));
+    }
+
+    @Test
+    void hash_differentText_producesDifferentHashes() {
+        assertNotEquals(TokenCountCache.hash("abc"), TokenCountCache.hash("acb"));
+        assertEquals(TokenCountCache.hash("abc"), TokenCountCache.hash(new StringBuilder("abc")));
+    }
+
+    @Test
+    void constructor_nonPowerOfTwo_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenCountCache(10));
+    }
+}
@@ -3,6 +3,8 @@ package com.baskaaleksander.nuvine.domain.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -54,4 +56,51 @@ class TokenCountingServiceTest {
 
         assertTrue(result > 0, "Text with special characters should have positive token count");
     }
+
+    @Test
+    void count_repeatedLongText_returnsSameCountAsFirstCall() {
+        String input = "Cached counts must match the encoder. ".repeat(20);
+
+        int first = tokenCountingService.count(input);
+        int second = tokenCountingService.count(input);
+
+        assertEquals(first, second);
+        assertEquals(first, new TokenCountingService().count(input));
+    }
+
+    @Test
+    void countParts_sumsPartCounts() {
+        String first = "First retrieved chunk about invoice retention and storage tiers.";
+        String second = "Second retrieved chunk about archival policies and audit access.";
+
+        int result = tokenCountingService.countParts(List.of(first, second));
+
+        assertEquals(tokenCountingService.count(first) + tokenCountingService.count(second), result);
+    }
+
+    @Test
+    void rememberEstimate_composedText_isReturnedByEstimate() {
+        String prompt = "Composed prompt whose count was assembled from its cached parts. ".repeat(4);
+
+        tokenCountingService.rememberEstimate(prompt, 42);
+
+        assertEquals(42, tokenCountingService.estimate(prompt));
+    }
+
+    @Test
+    void rememberEstimate_composedText_doesNotChangeExactCount() {
+        String prompt = "Composed prompt whose count was assembled from its cached parts. ".repeat(4);
+        int exact = new TokenCountingService().count(prompt);
+
+        tokenCountingService.rememberEstimate(prompt, 42);
+
+        assertEquals(exact, tokenCountingService.count(prompt));
+    }
+
+    @Test
+    void estimate_nothingRemembered_fallsBackToExactCount() {
+        String prompt = "Prompt that was never composed from parts, so there is no estimate for it. ".repeat(2);
+
+        assertEquals(tokenCountingService.count(prompt), tokenCountingService.estimate(prompt));
+    }
 }
@@ -1,16 +1,20 @@
 package com.baskaaleksander.nuvine.domain.service;
 
+import com.baskaaleksander.nuvine.application.dto.ProjectChatContextResponse;
+import com.baskaaleksander.nuvine.infrastructure.cache.ProjectContextCache;
 import com.baskaaleksander.nuvine.infrastructure.client.WorkspaceServiceClient;
+import com.baskaaleksander.nuvine.infrastructure.config.WorkspaceContextProperties;
 import feign.FeignException;
 import feign.Request;
 import feign.RequestTemplate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -24,101 +28,145 @@ class WorkspaceAccessServiceTest {
     @Mock
     private WorkspaceServiceClient workspaceServiceClient;
 
-    @InjectMocks
+    private WorkspaceContextProperties properties;
     private WorkspaceAccessService workspaceAccessService;
 
     private UUID workspaceId;
     private UUID projectId;
+    private String userId;
 
     @BeforeEach
     void setUp() {
+        properties = new WorkspaceContextProperties();
+        properties.setFreshFor(Duration.ZERO);
+        workspaceAccessService = new WorkspaceAccessService(
+                workspaceServiceClient,
+                new ProjectContextCache(properties),
+                properties
+        );
         workspaceId = UUID.randomUUID();
         projectId = UUID.randomUUID();
+        userId = UUID.randomUUID().toString();
     }
 
 
-    @Test
-    void checkWorkspaceAccess_validWorkspace_completesSuccessfully() {
-        doNothing().when(workspaceServiceClient).checkWorkspaceAccess(workspaceId);
-
-        assertDoesNotThrow(() -> workspaceAccessService.checkWorkspaceAccess(workspaceId));
-
-        verify(workspaceServiceClient).checkWorkspaceAccess(workspaceId);
+    private ResponseEntity<ProjectChatContextResponse> contextResponse(List<UUID> documentIds, String version) {
+        return ResponseEntity.ok()
+                .eTag(version)
+                .body(new ProjectChatContextResponse(workspaceId, projectId, documentIds, version));
     }
 
     @Test
-    void checkWorkspaceAccess_notFound_throwsRuntimeException() {
-        FeignException.NotFound notFoundException = createFeignException(404);
-        doThrow(notFoundException).when(workspaceServiceClient).checkWorkspaceAccess(workspaceId);
+    void getProjectDocumentIds_firstCall_fetchesUnconditionally() {
+        List<UUID> docIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(workspaceServiceClient.getProjectChatContext(projectId, workspaceId, null))
+                .thenReturn(contextResponse(docIds, "1-2-2-100"));
 
-        RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> workspaceAccessService.checkWorkspaceAccess(workspaceId));
+        List<UUID> result = workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId);
 
-        assertEquals("WORKSPACE_NOT_FOUND", exception.getMessage());
-        verify(workspaceServiceClient).checkWorkspaceAccess(workspaceId);
+        assertEquals(docIds, result);
+        verify(workspaceServiceClient).getProjectChatContext(projectId, workspaceId, null);
     }
 
     @Test
-    void checkWorkspaceAccess_forbidden_throwsRuntimeException() {
-        FeignException.Forbidden forbiddenException = createFeignException(403);
-        doThrow(forbiddenException).when(workspaceServiceClient).checkWorkspaceAccess(workspaceId);
+    void getProjectDocumentIds_freshEntry_skipsRoundTrip() {
+        properties.setFreshFor(Duration.ofMinutes(1));
+        List<UUID> docIds = List.of(UUID.randomUUID());
+        when(workspaceServiceClient.getProjectChatContext(projectId, workspaceId, null))
+                .thenReturn(contextResponse(docIds, "1-1-1-100"));
 
-        RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> workspaceAccessService.checkWorkspaceAccess(workspaceId));
+        workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId);
+        List<UUID> result = workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId);
 
-        assertEquals("WORKSPACE_ACCESS_DENIED", exception.getMessage());
-        verify(workspaceServiceClient).checkWorkspaceAccess(workspaceId);
+        assertEquals(docIds, result);
+        verify(workspaceServiceClient, times(1)).getProjectChatContext(any(), any(), any());
     }
 
     @Test
-    void checkWorkspaceAccess_otherFeignError_throwsRuntimeException() {
-        FeignException.InternalServerError serverError = createFeignException(500);
-        doThrow(serverError).when(workspaceServiceClient).checkWorkspaceAccess(workspaceId);
-
-        RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> workspaceAccessService.checkWorkspaceAccess(workspaceId));
-
-        assertEquals("WORKSPACE_ACCESS_CHECK_FAILED", exception.getMessage());
-        verify(workspaceServiceClient).checkWorkspaceAccess(workspaceId);
+    void getProjectDocumentIds_staleEntryNotModified_reusesCachedIds() {
+        List<UUID> docIds = List.of(UUID.randomUUID());
+        when(workspaceServiceClient.getProjectChatContext(projectId, workspaceId, null))
+                .thenReturn(contextResponse(docIds, "1-1-1-100"));
+        FeignException notModified = createFeignException(304);
+        when(workspaceServiceClient.getProjectChatContext(projectId, workspaceId, "\"1-1-1-100\""))
+                .thenThrow(notModified);
+
+        workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId);
+        List<UUID> result = workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId);
+
+        assertEquals(docIds, result);
+        verify(workspaceServiceClient).getProjectChatContext(projectId, workspaceId, "\"1-1-1-100\"");
     }
 
+    @Test
+    void getProjectDocumentIds_staleEntryChanged_replacesCachedIds() {
+        List<UUID> oldIds = List.of(UUID.randomUUID());
+        List<UUID> newIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(workspaceServiceClient.getProjectChatContext(projectId, workspaceId, null))
+                .thenReturn(contextResponse(oldIds, "1-1-1-100"));
+        when(workspaceServiceClient.getProjectChatContext(projectId, workspaceId, "\"1-1-1-100\""))
+                .thenReturn(contextResponse(newIds, "1-2-2-200"));
+
+        workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId);
+        List<UUID> result = workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId);
+
+        assertEquals(newIds, result);
+    }
 
     @Test
-    void getDocumentIdsInProject_validProject_returnsIds() {
-        List<UUID> expectedIds = List.of(UUID.randomUUID(), UUID.randomUUID());
-        when(workspaceServiceClient.getDocumentIdsInProject(projectId)).thenReturn(expectedIds);
+    void getProjectDocumentIds_otherUser_doesNotShareEntry() {
+        properties.setFreshFor(Duration.ofMinutes(1));
+        when(workspaceServiceClient.getProjectChatContext(projectId, workspaceId, null))
+                .thenReturn(contextResponse(List.of(UUID.randomUUID()), "1-1-1-100"));
 
-        List<UUID> result = workspaceAccessService.getDocumentIdsInProject(projectId);
+        workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId);
+        workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, UUID.randomUUID().toString());
 
-        assertEquals(expectedIds, result);
-        verify(workspaceServiceClient).getDocumentIdsInProject(projectId);
+        verify(workspaceServiceClient, times(2)).getProjectChatContext(projectId, workspaceId, null);
     }
 
     @Test
-    void getDocumentIdsInProject_notFound_throwsRuntimeException() {
+    void getProjectDocumentIds_notFound_throwsRuntimeException() {
         FeignException.NotFound notFoundException = createFeignException(404);
-        when(workspaceServiceClient.getDocumentIdsInProject(projectId)).thenThrow(notFoundException);
+        when(workspaceServiceClient.getProjectChatContext(projectId, workspaceId, null)).thenThrow(notFoundException);
 
         RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> workspaceAccessService.getDocumentIdsInProject(projectId));
+                () -> workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId));
 
         assertEquals("PROJECT_NOT_FOUND", exception.getMessage());
-        verify(workspaceServiceClient).getDocumentIdsInProject(projectId);
     }
 
     @Test
-    void getDocumentIdsInProject_forbidden_throwsRuntimeException() {
+    void getProjectDocumentIds_forbiddenOnRevalidation_dropsCachedEntry() {
         FeignException.Forbidden forbiddenException = createFeignException(403);
-        when(workspaceServiceClient.getDocumentIdsInProject(projectId)).thenThrow(forbiddenException);
+        when(workspaceServiceClient.getProjectChatContext(projectId, workspaceId, null))
+                .thenReturn(contextResponse(List.of(UUID.randomUUID()), "1-1-1-100"))
+                .thenThrow(forbiddenException);
+        when(workspaceServiceClient.getProjectChatContext(projectId, workspaceId, "\"1-1-1-100\""))
+                .thenThrow(forbiddenException);
+
+        workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId);
+        RuntimeException first = assertThrows(RuntimeException.class,
+                () -> workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId));
+        RuntimeException second = assertThrows(RuntimeException.class,
+                () -> workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId));
+
+        assertEquals("WORKSPACE_ACCESS_DENIED", first.getMessage());
+        assertEquals("WORKSPACE_ACCESS_DENIED", second.getMessage());
+        verify(workspaceServiceClient, times(2)).getProjectChatContext(projectId, workspaceId, null);
+    }
+
+    @Test
+    void getProjectDocumentIds_otherFeignError_throwsRuntimeException() {
+        FeignException.InternalServerError serverError = createFeignException(500);
+        when(workspaceServiceClient.getProjectChatContext(projectId, workspaceId, null)).thenThrow(serverError);
 
         RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> workspaceAccessService.getDocumentIdsInProject(projectId));
+                () -> workspaceAccessService.getProjectDocumentIds(workspaceId, projectId, userId));
 
-        assertEquals("PROJECT_ACCESS_DENIED", exception.getMessage());
-        verify(workspaceServiceClient).getDocumentIdsInProject(projectId);
+        assertEquals("WORKSPACE_ACCESS_CHECK_FAILED", exception.getMessage());
     }
 
-
     @Test
     void validateRequestedDocuments_nullRequestedDocs_passes() {
         List<UUID> projectDocumentIds = List.of(UUID.randomUUID());
@@ -0,0 +1,196 @@
+package com.baskaaleksander.nuvine.infrastructure.auth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class KeycloakClientCredentialsTokenProviderTest {
+
+    private static final String TOKEN_URL = "http://keycloak/realms/nuvine/protocol/openid-connect/token";
+
+    private MutableClock clock;
+    private MockRestServiceServer keycloak;
+    private KeycloakClientCredentialsTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        KeycloakClientCredentialsProperties properties = new KeycloakClientCredentialsProperties();
+        properties.setAuthServerUrl(TOKEN_URL);
+        properties.setClientId("chat-service");
+        properties.setClientSecret("secret");
+
+        RestTemplate restTemplate = new RestTemplate();
+        keycloak = MockRestServiceServer.bindTo(restTemplate).build();
+        clock = new MutableClock(Instant.parse("2026-01-01T10:00:00Z"));
+        provider = new KeycloakClientCredentialsTokenProvider(properties, restTemplate, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.destroy();
+    }
+
+    private void expectToken(String token) {
+        keycloak.expect(once(), requestTo(TOKEN_URL))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess(
+                        "{\"access_token\": \"" + token + "\", \"expires_in\": 300, \"token_type\": \"Bearer\"}",
+                        MediaType.APPLICATION_JSON
+                ));
+    }
+
+    @Test
+    @DisplayName("Should fetch once and serve the token from memory until it expires")
+    void getAccessToken_validToken_servedFromMemory() {
+        expectToken("token-1");
+
+        assertThat(provider.getAccessToken()).isEqualTo("token-1");
+        clock.advance(Duration.ofMinutes(4));
+        assertThat(provider.getAccessToken()).isEqualTo("token-1");
+
+        keycloak.verify();
+    }
+
+    @Test
+    @DisplayName("Should let concurrent callers share a single Keycloak request")
+    void getAccessToken_concurrentCallers_singleFlight() throws Exception {
+        expectToken("token-1");
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(provider::getAccessToken);
+            }
+            for (Future<String> result : callers.invokeAll(tasks)) {
+                assertThat(result.get()).isEqualTo("token-1");
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        keycloak.verify();
+    }
+
+    @Test
+    @DisplayName("Should fetch a new token once the current one has expired")
+    void getAccessToken_expiredToken_fetchesNew() {
+        expectToken("token-1");
+        expectToken("token-2");
+
+        provider.getAccessToken();
+        clock.advance(Duration.ofMinutes(5));
+
+        assertThat(provider.getAccessToken()).isEqualTo("token-2");
+        keycloak.verify();
+    }
+
+    @Test
+    @DisplayName("Should keep serving the last token when Keycloak fails")
+    void getAccessToken_keycloakDown_servesStaleToken() {
+        expectToken("token-1");
+        keycloak.expect(once(), requestTo(TOKEN_URL)).andRespond(withServerError());
+
+        provider.getAccessToken();
+        clock.advance(Duration.ofMinutes(5));
+
+        assertThat(provider.getAccessToken()).isEqualTo("token-1");
+        keycloak.verify();
+    }
+
+    @Test
+    @DisplayName("Should propagate the failure when there is no token to fall back to")
+    void getAccessToken_noTokenAndKeycloakDown_throws() {
+        keycloak.expect(once(), requestTo(TOKEN_URL)).andRespond(withServerError());
+
+        assertThatThrownBy(() -> provider.getAccessToken())
+                .isInstanceOf(HttpServerErrorException.class);
+    }
+
+    @Test
+    @DisplayName("Should serve the stale token without calling Keycloak during the failure back-off")
+    void getAccessToken_afterFailure_servesStaleDuringBackoff() {
+        expectToken("token-1");
+        keycloak.expect(once(), requestTo(TOKEN_URL)).andRespond(withServerError());
+        expectToken("token-2");
+
+        provider.getAccessToken();
+        clock.advance(Duration.ofMinutes(5));
+        assertThat(provider.getAccessToken()).isEqualTo("token-1");
+        clock.advance(Duration.ofSeconds(4));
+        assertThat(provider.getAccessToken()).isEqualTo("token-1");
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(provider.getAccessToken()).isEqualTo("token-2");
+        keycloak.verify();
+    }
+
+    @Test
+    @DisplayName("Should fail fast during the back-off when there is no token to fall back to")
+    void getAccessToken_noTokenAfterFailure_failsFastDuringBackoff() {
+        keycloak.expect(once(), requestTo(TOKEN_URL)).andRespond(withServerError());
+        expectToken("token-1");
+
+        assertThatThrownBy(() -> provider.getAccessToken()).isInstanceOf(HttpServerErrorException.class);
+        assertThatThrownBy(() -> provider.getAccessToken())
+                .isInstanceOf(IllegalStateException.class)
+                .hasCauseInstanceOf(HttpServerErrorException.class);
+
+        clock.advance(Duration.ofSeconds(5));
+        assertThat(provider.getAccessToken()).isEqualTo("token-1");
+        keycloak.verify();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.baskaaleksander.nuvine.infrastructure.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheInvalidationBusTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    @Mock
+    private TwoLevelCache cache;
+
+    private NearCacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        when(redissonClient.getTopic(NearCacheInvalidationBus.TOPIC, StringCodec.INSTANCE)).thenReturn(topic);
+        when(cache.getName()).thenReturn("conversation-messages");
+        bus = new NearCacheInvalidationBus(redissonClient);
+        bus.subscribe();
+        bus.register(cache);
+    }
+
+    @Test
+    @DisplayName("Should evict the local entry for invalidations from other instances")
+    void onMessage_remoteEvict_evictsLocal() {
+        bus.onMessage("other-instance|conversation-messages|convo:0:20");
+
+        verify(cache).evictLocal("convo:0:20");
+    }
+
+    @Test
+    @DisplayName("Should clear the local cache when the key is empty")
+    void onMessage_remoteClear_clearsLocal() {
+        bus.onMessage("other-instance|conversation-messages|");
+
+        verify(cache).clearLocal();
+    }
+
+    @Test
+    @DisplayName("Should ignore its own broadcasts")
+    void onMessage_ownMessage_ignored() {
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+
+        bus.publishEvict("conversation-messages", "key");
+        verify(topic).publishAsync(published.capture());
+        bus.onMessage((String) published.getValue());
+
+        verify(cache, never()).evictLocal(any());
+    }
+
+    @Test
+    @DisplayName("Should ignore invalidations for caches that are not registered")
+    void onMessage_unknownCache_ignored() {
+        bus.onMessage("other-instance|user-conversations|key");
+
+        verify(cache, never()).evictLocal(any());
+        verify(cache, never()).clearLocal();
+    }
+}
@@ -0,0 +1,136 @@
+package com.baskaaleksander.nuvine.infrastructure.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    @Mock
+    private NearCacheInvalidationBus invalidationBus;
+
+    private ConcurrentMapCache l2;
+    private MeterRegistry meterRegistry;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        l2 = spy(new ConcurrentMapCache("user-conversations"));
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TwoLevelCache(l2, 100, Duration.ofMinutes(1), invalidationBus, meterRegistry);
+    }
+
+    private double requests(String level, String result) {
+        return meterRegistry.get(TwoLevelCache.REQUESTS_METRIC)
+                .tag("cache", "user-conversations")
+                .tag("level", level)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads from L1 after the first L2 hit")
+    void get_l2Hit_populatesL1() {
+        l2.put("owner:project", "value");
+
+        assertThat(cache.get("owner:project").get()).isEqualTo("value");
+        assertThat(cache.get("owner:project").get()).isEqualTo("value");
+
+        verify(l2, times(1)).get("owner:project");
+        assertThat(requests("l1", "hit")).isEqualTo(1);
+        assertThat(requests("l1", "miss")).isEqualTo(1);
+        assertThat(requests("l2", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count a miss on both levels when the key is absent")
+    void get_absentKey_missesBothLevels() {
+        assertThat(cache.get("missing")).isNull();
+
+        assertThat(requests("l1", "miss")).isEqualTo(1);
+        assertThat(requests("l2", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should write through to L2 and cache null values locally")
+    void put_writesBothLevels() {
+        cache.put("key", null);
+
+        assertThat(l2.get("key")).isNotNull();
+        assertThat(cache.get("key").get()).isNull();
+        verify(l2, never()).get("key");
+    }
+
+    @Test
+    @DisplayName("Should evict both levels and broadcast the invalidation")
+    void evict_removesAndPublishes() {
+        cache.put("key", "value");
+
+        cache.evict("key");
+
+        assertThat(l2.get("key")).isNull();
+        assertThat(cache.get("key")).isNull();
+        verify(invalidationBus).publishEvict("user-conversations", "key");
+    }
+
+    @Test
+    @DisplayName("Should drop only the local copy on a remote invalidation")
+    void evictLocal_keepsL2() {
+        cache.put("key", "value");
+
+        cache.evictLocal("key");
+
+        assertThat(cache.get("key").get()).isEqualTo("value");
+        verify(l2).get("key");
+        verifyNoInteractions(invalidationBus);
+    }
+
+    @Test
+    @DisplayName("Should clear both levels and broadcast a clear")
+    void clear_clearsAndPublishes() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        cache.clear();
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isNull();
+        verify(invalidationBus).publishClear("user-conversations");
+    }
+
+    @Test
+    @DisplayName("Should publish standard cache meters with hits from either level")
+    void metrics_reportHitRatioAndInvalidations() {
+        new TwoLevelCacheMetrics(cache, List.of()).bindTo(meterRegistry);
+        l2.put("remote", "value");
+
+        cache.get("missing");
+        cache.get("remote");
+        cache.put("key", "value");
+        cache.get("key");
+        cache.evict("key");
+        cache.clear();
+
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.puts").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TwoLevelCacheMetrics.INVALIDATIONS_METRIC).tag("scope", "key")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TwoLevelCacheMetrics.INVALIDATIONS_METRIC).tag("scope", "all")
+                .functionCounter().count()).isEqualTo(1);
+    }
+}
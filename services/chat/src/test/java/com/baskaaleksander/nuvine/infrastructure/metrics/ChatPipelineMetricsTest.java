@@ -0,0 +1,140 @@
+package com.baskaaleksander.nuvine.infrastructure.metrics;
+
+import com.baskaaleksander.nuvine.application.dto.CompletionRequest;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatPipelineMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChatPipelineMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new ChatPipelineMetrics(meterRegistry);
+    }
+
+    private CompletionRequest request(boolean strictMode, boolean freeMode) {
+        return request("openai/gpt-4o", strictMode, freeMode);
+    }
+
+    private CompletionRequest request(String model, boolean strictMode, boolean freeMode) {
+        return new CompletionRequest(
+                UUID.randomUUID(), UUID.randomUUID(), List.of(), null, "question", model, 5, strictMode, freeMode
+        );
+    }
+
+    @Test
+    @DisplayName("Should tag requests by model and free, strict or rag mode")
+    void pipelineTags_resolvesMode() {
+        metrics.registerKnownModel("openai/gpt-4o");
+
+        assertThat(metrics.pipelineTags(request(false, true)))
+                .containsExactlyInAnyOrderElementsOf(Tags.of("model", "openai/gpt-4o", "mode", "free"));
+        assertThat(metrics.pipelineTags(request(true, false)))
+                .containsExactlyInAnyOrderElementsOf(Tags.of("model", "openai/gpt-4o", "mode", "strict"));
+        assertThat(metrics.pipelineTags(request(false, false)))
+                .containsExactlyInAnyOrderElementsOf(Tags.of("model", "openai/gpt-4o", "mode", "rag"));
+    }
+
+    @Test
+    @DisplayName("Should tag models the subscription service has not priced as other")
+    void pipelineTags_unknownModel_tagsOther() {
+        metrics.registerKnownModel("openai/gpt-4o");
+
+        assertThat(metrics.pipelineTags(request("openai/gpt-4o-" + UUID.randomUUID(), false, false)))
+                .contains(Tag.of("model", ChatPipelineMetrics.OTHER_MODEL));
+        assertThat(metrics.pipelineTags(request(null, false, false)))
+                .contains(Tag.of("model", ChatPipelineMetrics.OTHER_MODEL));
+    }
+
+    @Test
+    @DisplayName("Should stop adding model tags once the cap is reached")
+    void registerKnownModel_capsDistinctModels() {
+        for (int i = 0; i < 1_000; i++) {
+            metrics.registerKnownModel("acme/model-" + i);
+        }
+
+        assertThat(metrics.pipelineTags(request("acme/model-0", false, false)))
+                .contains(Tag.of("model", "acme/model-0"));
+        assertThat(metrics.pipelineTags(request("acme/model-999", false, false)))
+                .contains(Tag.of("model", ChatPipelineMetrics.OTHER_MODEL));
+    }
+
+    @Test
+    @DisplayName("Should resolve the completion timer's model tag once the model is known")
+    void completionTimer_tagsModelKnownByRecordTime() {
+        ChatPipelineMetrics.CompletionTimer timer = metrics.startCompletion(request(false, false), "sync");
+        metrics.registerKnownModel("openai/gpt-4o");
+
+        timer.finish("success", 0);
+
+        assertThat(meterRegistry.get(ChatPipelineMetrics.COMPLETION_DURATION).tag("model", "openai/gpt-4o")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should time a stage with model, mode and outcome tags")
+    void recordContextStage_tagsOutcome() {
+        metrics.registerKnownModel("openai/gpt-4o");
+        Tags tags = metrics.pipelineTags(request(false, false));
+
+        metrics.recordContextStage("retrieval", tags, () -> "ok");
+        assertThatThrownBy(() -> metrics.recordContextStage("retrieval", tags, () -> {
+            throw new IllegalStateException("vector down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        Timer success = meterRegistry.get(ChatPipelineMetrics.CONTEXT_STAGE_TIMER)
+                .tags("stage", "retrieval", "outcome", "success", "model", "openai/gpt-4o", "mode", "rag")
+                .timer();
+        Timer error = meterRegistry.get(ChatPipelineMetrics.CONTEXT_STAGE_TIMER)
+                .tags("stage", "retrieval", "outcome", "error")
+                .timer();
+        assertThat(success.count()).isEqualTo(1);
+        assertThat(error.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should record time to first token once and the completion only on the first finish")
+    void completionTimer_recordsOnce() throws InterruptedException {
+        ChatPipelineMetrics.CompletionTimer timer = metrics.startCompletion(request(true, false), "stream");
+
+        timer.markFirstToken();
+        Thread.sleep(5);
+        timer.markFirstToken();
+        timer.finish("success", 50);
+        timer.finish("cancelled", 50);
+
+        assertThat(meterRegistry.get(ChatPipelineMetrics.COMPLETION_TTFT).tag("mode", "strict").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(ChatPipelineMetrics.COMPLETION_DURATION)
+                .tags("type", "stream", "outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find(ChatPipelineMetrics.COMPLETION_DURATION).tag("outcome", "cancelled").timer())
+                .isNull();
+        assertThat(meterRegistry.get(ChatPipelineMetrics.COMPLETION_TOKENS_PER_SECOND).summary().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should skip tokens per second when nothing was generated")
+    void completionTimer_noTokens_skipsThroughput() {
+        ChatPipelineMetrics.CompletionTimer timer = metrics.startCompletion(request(false, false), "sync");
+
+        timer.finish("error", 0);
+
+        assertThat(meterRegistry.find(ChatPipelineMetrics.COMPLETION_TOKENS_PER_SECOND).summary()).isNull();
+        assertThat(meterRegistry.find(ChatPipelineMetrics.COMPLETION_TTFT).timer()).isNull();
+    }
+}
@@ -25,7 +25,6 @@ import java.util.concurrent.TimeUnit;
 @Profile("integrationtest")
 public class TestCacheConfiguration {
 
-    public static final String KEYCLOAK_TOKEN_CACHE = "keycloak-tokens";
     public static final String USER_CONVERSATIONS_CACHE = "user-conversations";
     public static final String CONVERSATION_MESSAGES_CACHE = "conversation-messages";
 
@@ -62,13 +61,11 @@ public class TestCacheConfiguration {
         CacheManager manager = cachingProvider.getCacheManager();
 
         MutableConfiguration<String, Object> rateBucketConfig = createConfig(TimeUnit.HOURS, 2);
-        MutableConfiguration<String, Object> keycloakTokenConfig = createConfig(TimeUnit.MINUTES, 4);
         MutableConfiguration<String, Object> userConversationsConfig = createConfig(TimeUnit.MINUTES, 5);
         MutableConfiguration<String, Object> messagesConfig = createConfig(TimeUnit.MINUTES, 10);
 
         createCache(manager, redissonClient, "chat-service-buckets", rateBucketConfig);
 
-        createCache(manager, redissonClient, KEYCLOAK_TOKEN_CACHE, keycloakTokenConfig);
         createCache(manager, redissonClient, USER_CONVERSATIONS_CACHE, userConversationsConfig);
         createCache(manager, redissonClient, CONVERSATION_MESSAGES_CACHE, messagesConfig);
 
@@ -2,11 +2,13 @@ package com.baskaaleksander.nuvine.integration.controller;
 
 import com.baskaaleksander.nuvine.application.dto.CompletionRequest;
 import com.baskaaleksander.nuvine.application.dto.ConversationMessageResponse;
-import com.baskaaleksander.nuvine.application.dto.PagedResponse;
+import com.baskaaleksander.nuvine.application.dto.CursorPage;
 import com.baskaaleksander.nuvine.application.dto.UserConversationResponse;
 import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
 import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationIndexWriter;
 import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationRepository;
 import com.baskaaleksander.nuvine.integration.base.BaseControllerIntegrationTest;
 import com.baskaaleksander.nuvine.integration.support.JwtTestUtils;
 import com.baskaaleksander.nuvine.integration.support.TestDataBuilder;
@@ -30,6 +32,12 @@ class ChatControllerIT extends BaseControllerIntegrationTest {
     @Autowired
     private ConversationMessageRepository conversationMessageRepository;
 
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ConversationIndexWriter conversationIndexWriter;
+
     @Autowired
     private TestDataBuilder testDataBuilder;
 
@@ -42,6 +50,7 @@ class ChatControllerIT extends BaseControllerIntegrationTest {
     @BeforeEach
     void setUp() {
         conversationMessageRepository.deleteAll();
+        conversationRepository.deleteAll();
 
         jwtTestUtils = new JwtTestUtils("http://localhost:" + wireMockServer.port() + "/realms/nuvine");
         userId = UUID.randomUUID();
@@ -130,8 +139,7 @@ class ChatControllerIT extends BaseControllerIntegrationTest {
         void limitExceeded_returns403() {
             // given
             UUID documentId = UUID.randomUUID();
-            wireMockStubs.stubWorkspaceAccessGranted(workspaceId);
-            wireMockStubs.stubProjectDocumentIds(projectId, List.of(documentId));
+            wireMockStubs.stubProjectChatContext(workspaceId, projectId, List.of(documentId));
             wireMockStubs.stubVectorSearchWithResults(List.of(
                     new WireMockStubs.VectorMatch(documentId, 1, 0, 100, "Some context", 0.9f)
             ));
@@ -175,8 +183,7 @@ class ChatControllerIT extends BaseControllerIntegrationTest {
         void strictMode_withNoContext_returnsStrictModeMessage() {
             // given
             UUID documentId = UUID.randomUUID();
-            wireMockStubs.stubWorkspaceAccessGranted(workspaceId);
-            wireMockStubs.stubProjectDocumentIds(projectId, List.of(documentId));
+            wireMockStubs.stubProjectChatContext(workspaceId, projectId, List.of(documentId));
             wireMockStubs.stubVectorSearchEmpty();
 
             CompletionRequest request = new CompletionRequest(
@@ -279,7 +286,7 @@ class ChatControllerIT extends BaseControllerIntegrationTest {
             HttpEntity<Void> entity = new HttpEntity<>(headers);
 
             // when
-            ResponseEntity<List<UserConversationResponse>> response = restTemplate.exchange(
+            ResponseEntity<CursorPage<UserConversationResponse>> response = restTemplate.exchange(
                     "/api/v1/chat?projectId=" + projectId,
                     HttpMethod.GET,
                     entity,
@@ -289,7 +296,8 @@ class ChatControllerIT extends BaseControllerIntegrationTest {
             // then
             assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
             assertThat(response.getBody()).isNotNull();
-            assertThat(response.getBody()).hasSize(2);
+            assertThat(response.getBody().content()).hasSize(2);
+            assertThat(response.getBody().hasNext()).isFalse();
         }
 
         @Test
@@ -311,8 +319,8 @@ class ChatControllerIT extends BaseControllerIntegrationTest {
     class GetMessagesEndpoint {
 
         @Test
-        @DisplayName("As owner returns paged messages")
-        void asOwner_returnsPagedMessages() {
+        @DisplayName("As owner returns the newest messages with a cursor to older ones")
+        void asOwner_returnsNewestMessagesWithCursor() {
             // given
             UUID conversationId = UUID.randomUUID();
 
@@ -325,8 +333,14 @@ class ChatControllerIT extends BaseControllerIntegrationTest {
             HttpEntity<Void> entity = new HttpEntity<>(headers);
 
             // when
-            ResponseEntity<PagedResponse<ConversationMessageResponse>> response = restTemplate.exchange(
-                    "/api/v1/chat/" + conversationId + "?page=0&size=2",
+            ResponseEntity<CursorPage<ConversationMessageResponse>> response = restTemplate.exchange(
+                    "/api/v1/chat/" + conversationId + "?limit=2",
+                    HttpMethod.GET,
+                    entity,
+                    new ParameterizedTypeReference<>() {}
+            );
+            ResponseEntity<CursorPage<ConversationMessageResponse>> older = restTemplate.exchange(
+                    "/api/v1/chat/" + conversationId + "?limit=2&before=" + response.getBody().nextCursor(),
                     HttpMethod.GET,
                     entity,
                     new ParameterizedTypeReference<>() {}
@@ -334,10 +348,14 @@ class ChatControllerIT extends BaseControllerIntegrationTest {
 
             // then
             assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-            assertThat(response.getBody()).isNotNull();
-            assertThat(response.getBody().content()).hasSize(2);
-            assertThat(response.getBody().totalElements()).isEqualTo(4);
-            assertThat(response.getBody().totalPages()).isEqualTo(2);
+            assertThat(response.getBody().content()).extracting(ConversationMessageResponse::content)
+                    .containsExactly("User message 2", "Assistant response 2");
+            assertThat(response.getBody().hasNext()).isTrue();
+
+            assertThat(older.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(older.getBody().content()).extracting(ConversationMessageResponse::content)
+                    .containsExactly("User message 1", "Assistant response 1");
+            assertThat(older.getBody().hasNext()).isFalse();
         }
 
         @Test
@@ -398,8 +416,7 @@ class ChatControllerIT extends BaseControllerIntegrationTest {
     }
 
     private void setupSuccessfulCompletionStubs(UUID documentId) {
-        wireMockStubs.stubWorkspaceAccessGranted(workspaceId);
-        wireMockStubs.stubProjectDocumentIds(projectId, List.of(documentId));
+        wireMockStubs.stubProjectChatContext(workspaceId, projectId, List.of(documentId));
         wireMockStubs.stubVectorSearchWithResults(List.of(
                 new WireMockStubs.VectorMatch(documentId, 1, 0, 100, "The answer is 42.", 0.95f)
         ));
@@ -425,6 +442,6 @@ class ChatControllerIT extends BaseControllerIntegrationTest {
                 .workspaceId(workspaceId)
                 .cost(role == ConversationRole.ASSISTANT ? 0.001 : 0.0)
                 .build();
-        conversationMessageRepository.save(message);
+        conversationIndexWriter.upsertLatest(List.of(conversationMessageRepository.save(message)));
     }
 }
@@ -1,18 +1,22 @@
 package com.baskaaleksander.nuvine.integration.repository;
 
-import com.baskaaleksander.nuvine.application.dto.UserConversationResponse;
+import com.baskaaleksander.nuvine.domain.model.Conversation;
 import com.baskaaleksander.nuvine.domain.model.ConversationMessage;
 import com.baskaaleksander.nuvine.domain.model.ConversationRole;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationIndexWriter;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessagePartitionManager;
 import com.baskaaleksander.nuvine.infrastructure.repository.ConversationMessageRepository;
+import com.baskaaleksander.nuvine.infrastructure.repository.ConversationRepository;
 import com.baskaaleksander.nuvine.integration.base.BaseRepositoryIntegrationTest;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,6 +27,18 @@ class ConversationMessageRepositoryIT extends BaseRepositoryIntegrationTest {
     @Autowired
     private ConversationMessageRepository conversationMessageRepository;
 
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ConversationIndexWriter conversationIndexWriter;
+
+    @Autowired
+    private ConversationMessagePartitionManager partitionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private UUID ownerId;
     private UUID projectId;
     private UUID workspaceId;
@@ -30,7 +46,7 @@ class ConversationMessageRepositoryIT extends BaseRepositoryIntegrationTest {
 
     @BeforeEach
     void setUp() {
-        truncateTables("conversation_message");
+        truncateTables("conversation_message", "conversation_message_archive", "conversation");
         ownerId = UUID.randomUUID();
         projectId = UUID.randomUUID();
         workspaceId = UUID.randomUUID();
@@ -93,25 +109,71 @@ class ConversationMessageRepositoryIT extends BaseRepositoryIntegrationTest {
     }
 
     @Test
-    @DisplayName("findAllByConversationId with pagination returns paged results")
-    void findAllByConversationId_withPagination_returnsPagedResults() {
+    @DisplayName("findLatestPage returns newest messages first")
+    void findLatestPage_returnsNewestFirst() {
         // given
         createMessages(10);
-        PageRequest pageRequest = PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "createdAt"));
+        flushAndClear();
 
         // when
-        Page<ConversationMessage> page = conversationMessageRepository.findAllByConversationId(conversationId, pageRequest);
+        List<ConversationMessage> page = conversationMessageRepository.findLatestPage(conversationId, 3);
 
         // then
-        assertThat(page.getContent()).hasSize(5);
-        assertThat(page.getTotalElements()).isEqualTo(10);
-        assertThat(page.getTotalPages()).isEqualTo(2);
-        assertThat(page.getNumber()).isEqualTo(0);
+        assertThat(page).extracting(ConversationMessage::getContent)
+                .containsExactly("Message 10", "Message 9", "Message 8");
     }
 
     @Test
-    @DisplayName("findUserConversations returns latest message per conversation")
-    void findUserConversations_returnsLatestMessagePerConversation() {
+    @DisplayName("findPageBefore and findPageAfter walk the conversation by keyset")
+    void findPageBeforeAndAfter_walkByKeyset() {
+        // given
+        createMessages(10);
+        flushAndClear();
+        ConversationMessage edge = conversationMessageRepository.findLatestPage(conversationId, 3).getLast();
+
+        // when
+        List<ConversationMessage> older = conversationMessageRepository.findPageBefore(
+                conversationId, edge.getCreatedAt(), edge.getId(), 3
+        );
+        List<ConversationMessage> newer = conversationMessageRepository.findPageAfter(
+                conversationId, older.getLast().getCreatedAt(), older.getLast().getId(), 3
+        );
+
+        // then
+        assertThat(older).extracting(ConversationMessage::getContent)
+                .containsExactly("Message 7", "Message 6", "Message 5");
+        assertThat(newer).extracting(ConversationMessage::getContent)
+                .containsExactly("Message 6", "Message 7", "Message 8");
+    }
+
+    @Test
+    @DisplayName("findPageBefore breaks created_at ties by id")
+    void findPageBefore_breaksTiesById() {
+        // given
+        createMessages(2);
+        flushAndClear();
+        List<ConversationMessage> all = conversationMessageRepository.findLatestPage(conversationId, 2);
+        jdbcTemplate.update(
+                "UPDATE conversation_message SET created_at = ? WHERE conversation_id = ?",
+                Timestamp.from(all.getFirst().getCreatedAt()), conversationId
+        );
+        ConversationMessage first = all.stream()
+                .max(Comparator.comparing(m -> m.getId().toString()))
+                .orElseThrow();
+
+        // when
+        List<ConversationMessage> older = conversationMessageRepository.findPageBefore(
+                conversationId, all.getFirst().getCreatedAt(), first.getId(), 10
+        );
+
+        // then
+        assertThat(older).hasSize(1);
+        assertThat(older.getFirst().getId()).isNotEqualTo(first.getId());
+    }
+
+    @Test
+    @DisplayName("Backfilled conversation index returns latest message per conversation")
+    void conversationIndex_returnsLatestMessagePerConversation() {
         // given
         UUID conversation1 = UUID.randomUUID();
         UUID conversation2 = UUID.randomUUID();
@@ -126,19 +188,22 @@ class ConversationMessageRepositoryIT extends BaseRepositoryIntegrationTest {
         createMessageForConversation(conversation2, "Latest message conv2", ConversationRole.ASSISTANT);
 
         // when
-        List<UserConversationResponse> conversations = conversationMessageRepository.findUserConversations(ownerId, projectId);
+        backfillIndex();
+        List<Conversation> conversations = conversationRepository.findLatest(ownerId, projectId, 10);
 
         // then
         assertThat(conversations).hasSize(2);
+        assertThat(conversations).extracting(Conversation::getLastMessagePreview)
+                .containsExactly("Latest message conv2", "Latest message conv1");
 
         // Conversations should be ordered by latest message timestamp DESC
-        assertThat(conversations.get(0).lastMessageAt())
-                .isAfterOrEqualTo(conversations.get(1).lastMessageAt());
+        assertThat(conversations.get(0).getLastMessageAt())
+                .isAfterOrEqualTo(conversations.get(1).getLastMessageAt());
     }
 
     @Test
-    @DisplayName("findUserConversations filters by project and owner")
-    void findUserConversations_filtersByProjectAndOwner() {
+    @DisplayName("Conversation index filters by project and owner")
+    void conversationIndex_filtersByProjectAndOwner() {
         // given
         UUID anotherOwnerId = UUID.randomUUID();
         UUID anotherProjectId = UUID.randomUUID();
@@ -175,11 +240,130 @@ class ConversationMessageRepositoryIT extends BaseRepositoryIntegrationTest {
         conversationMessageRepository.save(otherProjectMessage);
 
         // when
-        List<UserConversationResponse> conversations = conversationMessageRepository.findUserConversations(ownerId, projectId);
+        backfillIndex();
+        List<Conversation> conversations = conversationRepository.findLatest(ownerId, projectId, 10);
 
         // then
         assertThat(conversations).hasSize(1);
-        assertThat(conversations.get(0).conversationId()).isEqualTo(conversationId);
+        assertThat(conversations.get(0).getId()).isEqualTo(conversationId);
+    }
+
+    @Test
+    @DisplayName("Conversation index pages with a keyset cursor")
+    void conversationIndex_pagesWithKeysetCursor() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            createMessageForConversation(UUID.randomUUID(), "Conversation " + i, ConversationRole.USER);
+        }
+        backfillIndex();
+
+        // when
+        List<Conversation> firstPage = conversationRepository.findLatest(ownerId, projectId, 3);
+        Conversation last = firstPage.getLast();
+        List<Conversation> secondPage = conversationRepository.findBefore(
+                ownerId, projectId, last.getLastMessageAt(), last.getId(), 3
+        );
+
+        // then
+        assertThat(firstPage).hasSize(3);
+        assertThat(secondPage).hasSize(2);
+        assertThat(secondPage).extracting(Conversation::getId)
+                .doesNotContainAnyElementsOf(firstPage.stream().map(Conversation::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Index upsert never moves a conversation back in time")
+    void conversationIndex_upsertIgnoresOlderMessages() {
+        // given
+        createMessages(2);
+        backfillIndex();
+        Conversation indexed = conversationRepository.findLatest(ownerId, projectId, 1).getFirst();
+
+        ConversationMessage older = ConversationMessage.builder()
+                .conversationId(conversationId)
+                .content("Replayed older message")
+                .ownerId(ownerId)
+                .projectId(projectId)
+                .workspaceId(workspaceId)
+                .createdAt(indexed.getLastMessageAt().minusSeconds(60))
+                .build();
+
+        // when
+        conversationIndexWriter.upsertLatest(List.of(older));
+
+        // then
+        List<Conversation> conversations = conversationRepository.findLatest(ownerId, projectId, 10);
+        assertThat(conversations).hasSize(1);
+        assertThat(conversations.getFirst().getLastMessagePreview()).isEqualTo("Message 2");
+    }
+
+    @Test
+    @DisplayName("Archived partitions leave the hot table and stay readable from the archive")
+    void archiveOldestPartition_movesRowsToArchive() {
+        // given
+        createMessages(3);
+        flushAndClear();
+        jdbcTemplate.update(
+                "UPDATE conversation_message SET created_at = created_at - INTERVAL '3 years' WHERE conversation_id = ?",
+                conversationId
+        );
+        Instant oldest = conversationMessageRepository.findByConversationId(conversationId, 1).getFirst().getCreatedAt();
+        jdbcTemplate.queryForObject(
+                "SELECT create_conversation_message_partition(date_trunc('month', ?::timestamptz AT TIME ZONE 'UTC')::date)",
+                Boolean.class,
+                Timestamp.from(oldest)
+        );
+
+        // when
+        String archived = partitionManager.archiveOldestPartition(Instant.now().minusSeconds(365L * 24 * 3600));
+
+        // then
+        assertThat(archived).startsWith("conversation_message_");
+        assertThat(conversationMessageRepository.findLatestPage(conversationId, 10)).isEmpty();
+        assertThat(conversationMessageRepository.findArchivedLatestPage(conversationId, 10))
+                .extracting(ConversationMessage::getContent)
+                .containsExactly("Message 3", "Message 2", "Message 1");
+    }
+
+    @Test
+    @DisplayName("Backfill indexes conversations that only live in the archive")
+    void conversationIndex_backfillIncludesArchivedConversations() {
+        // given
+        createMessages(2);
+        flushAndClear();
+        jdbcTemplate.update(
+                """
+                        INSERT INTO conversation_message_archive (
+                            id, conversation_id, content, role, model_used, tokens_cost,
+                            owner_id, project_id, workspace_id, cost, created_at)
+                        SELECT id, conversation_id, content, role, model_used, tokens_cost,
+                               owner_id, project_id, workspace_id, cost, created_at
+                        FROM conversation_message WHERE conversation_id = ?
+                        """,
+                conversationId
+        );
+        jdbcTemplate.update("DELETE FROM conversation_message WHERE conversation_id = ?", conversationId);
+
+        // when
+        backfillIndex();
+
+        // then
+        List<Conversation> conversations = conversationRepository.findLatest(ownerId, projectId, 10);
+        assertThat(conversations).extracting(Conversation::getId).containsExactly(conversationId);
+        assertThat(conversations.getFirst().getLastMessagePreview()).isEqualTo("Message 2");
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void backfillIndex() {
+        conversationMessageRepository.flush();
+        UUID cursor = null;
+        while ((cursor = conversationIndexWriter.backfillBatch(cursor, 2)) != null) {
+            // keep paging until every conversation is indexed
+        }
     }
 
     private void createMessages(int count) {
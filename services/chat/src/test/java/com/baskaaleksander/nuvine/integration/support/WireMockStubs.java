@@ -220,19 +220,31 @@ public class WireMockStubs {
 
     // ============ Workspace Service Stubs ============
 
-    public void stubWorkspaceAccessGranted(UUID workspaceId) {
+    public void stubProjectChatContext(UUID workspaceId, UUID projectId, List<UUID> documentIds) {
+        StringBuilder idsJson = new StringBuilder("[");
+        for (int i = 0; i < documentIds.size(); i++) {
+            if (i > 0) idsJson.append(",");
+            idsJson.append("\"").append(documentIds.get(i)).append("\"");
+        }
+        idsJson.append("]");
+
+        String version = "1-" + documentIds.size();
         wireMockServer.stubFor(
-            get(urlPathEqualTo("/workspaces/" + workspaceId))
+            get(urlPathEqualTo("/internal/projects/" + projectId + "/chat-context"))
+                .withQueryParam("workspaceId", equalTo(workspaceId.toString()))
                 .willReturn(aResponse()
                     .withStatus(200)
                     .withHeader("Content-Type", "application/json")
-                    .withBody("{\"id\": \"" + workspaceId + "\"}"))
+                    .withHeader("ETag", "\"" + version + "\"")
+                    .withBody("{\"workspaceId\": \"" + workspaceId + "\", \"projectId\": \"" + projectId
+                        + "\", \"documentIds\": " + idsJson + ", \"version\": \"" + version + "\"}"))
         );
     }
 
-    public void stubWorkspaceAccessDenied(UUID workspaceId) {
+    public void stubProjectChatContextDenied(UUID workspaceId, UUID projectId) {
         wireMockServer.stubFor(
-            get(urlPathEqualTo("/workspaces/" + workspaceId))
+            get(urlPathEqualTo("/internal/projects/" + projectId + "/chat-context"))
+                .withQueryParam("workspaceId", equalTo(workspaceId.toString()))
                 .willReturn(aResponse()
                     .withStatus(403)
                     .withHeader("Content-Type", "application/json")
@@ -240,23 +252,6 @@ public class WireMockStubs {
         );
     }
 
-    public void stubProjectDocumentIds(UUID projectId, List<UUID> documentIds) {
-        StringBuilder idsJson = new StringBuilder("[");
-        for (int i = 0; i < documentIds.size(); i++) {
-            if (i > 0) idsJson.append(",");
-            idsJson.append("\"").append(documentIds.get(i)).append("\"");
-        }
-        idsJson.append("]");
-
-        wireMockServer.stubFor(
-            get(urlPathEqualTo("/internal/projects/" + projectId + "/document-ids"))
-                .willReturn(aResponse()
-                    .withStatus(200)
-                    .withHeader("Content-Type", "application/json")
-                    .withBody(idsJson.toString()))
-        );
-    }
-
     // ============ Keycloak Stubs ============
 
     public void stubKeycloakToken() {
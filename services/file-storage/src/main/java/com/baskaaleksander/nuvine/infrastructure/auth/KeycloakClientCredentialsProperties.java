@@ -4,6 +4,8 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @ConfigurationProperties(prefix = "file-storage.keycloak")
 @Getter
 @Setter
@@ -12,6 +14,10 @@ public class KeycloakClientCredentialsProperties {
     private String authServerUrl;
     private String clientId;
     private String clientSecret;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(5);
+    // How long callers are served the stale token (or fail fast) after a failed fetch.
+    private Duration failureBackoff = Duration.ofSeconds(5);
 
     public String getTokenUrl() {
         return authServerUrl;
@@ -1,38 +1,174 @@
 package com.baskaaleksander.nuvine.infrastructure.auth;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
-
-
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the service-account token in memory and renews it in the background before it expires,
+ * so Feign interceptors normally just read a field. Callers that find no usable token share one
+ * fetch, and when Keycloak is unavailable the last token keeps being served. After a failed fetch
+ * callers get the stale token (or fail fast) for a short back-off instead of queueing up for
+ * another request each.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
-public class KeycloakClientCredentialsTokenProvider {
+public class KeycloakClientCredentialsTokenProvider implements DisposableBean {
+
+    private static final Duration EXPIRY_SKEW = Duration.ofSeconds(5);
+    private static final Duration MIN_REFRESH_MARGIN = Duration.ofSeconds(10);
+    private static final Duration MAX_REFRESH_MARGIN = Duration.ofSeconds(60);
+    private static final Duration DEFAULT_LIFETIME = Duration.ofMinutes(1);
+    private static final Duration INITIAL_RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
 
     private final KeycloakClientCredentialsProperties properties;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final Clock clock;
+    private final ScheduledExecutorService refresher;
+    private final ReentrantLock fetchLock = new ReentrantLock();
+
+    private volatile Token current;
+    private volatile Instant retryNotBefore = Instant.MIN;
+    // Guarded by fetchLock.
+    private RuntimeException lastFailure;
+    private ScheduledFuture<?> scheduledRefresh;
+    private Duration retryDelay = INITIAL_RETRY_DELAY;
+
+    @Autowired
+    public KeycloakClientCredentialsTokenProvider(KeycloakClientCredentialsProperties properties) {
+        this(properties, restTemplate(properties), Clock.systemUTC());
+    }
 
-    private String cachedToken;
-    private long expiresAt = 0;
+    KeycloakClientCredentialsTokenProvider(
+            KeycloakClientCredentialsProperties properties,
+            RestTemplate restTemplate,
+            Clock clock
+    ) {
+        this.properties = properties;
+        this.restTemplate = restTemplate;
+        this.clock = clock;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("keycloak-token-refresh").daemon().factory()
+        );
+    }
 
-    public synchronized String getAccessToken() {
-        long now = System.currentTimeMillis();
+    public String getAccessToken() {
+        Token token = current;
+        Instant now = clock.instant();
+        if (token != null && (token.isUsableAt(now) || now.isBefore(retryNotBefore))) {
+            return token.value();
+        }
+        return fetchOrServeStale();
+    }
 
-        if (cachedToken != null && now < expiresAt) {
-            return cachedToken;
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    private String fetchOrServeStale() {
+        fetchLock.lock();
+        try {
+            Token token = current;
+            Instant now = clock.instant();
+            if (token != null && token.isUsableAt(now)) {
+                return token.value();
+            }
+            if (now.isBefore(retryNotBefore)) {
+                if (token == null) {
+                    throw new IllegalStateException("Keycloak token unavailable until " + retryNotBefore, lastFailure);
+                }
+                return token.value();
+            }
+            try {
+                return refreshLocked().value();
+            } catch (RuntimeException e) {
+                recordFailureLocked(e);
+                if (token == null) {
+                    throw e;
+                }
+                log.warn("KEYCLOAK_TOKEN FETCH_FAILED servingStale=true expiresAt={}", token.expiresAt(), e);
+                return token.value();
+            }
+        } finally {
+            fetchLock.unlock();
         }
+    }
 
-        log.info("Fetching new Keycloak service-account token");
+    private void refreshInBackground() {
+        fetchLock.lock();
+        try {
+            refreshLocked();
+        } catch (RuntimeException e) {
+            recordFailureLocked(e);
+            Duration delay = retryDelay;
+            retryDelay = retryDelay.multipliedBy(2).compareTo(MAX_RETRY_DELAY) > 0
+                    ? MAX_RETRY_DELAY
+                    : retryDelay.multipliedBy(2);
+            Token token = current;
+            log.warn(
+                    "KEYCLOAK_TOKEN REFRESH_FAILED retryIn={} expiresAt={}",
+                    delay,
+                    token != null ? token.expiresAt() : null,
+                    e
+            );
+            schedule(delay);
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    private Token refreshLocked() {
+        Token token = fetchToken();
+        current = token;
+        retryDelay = INITIAL_RETRY_DELAY;
+        retryNotBefore = Instant.MIN;
+        lastFailure = null;
+        Duration untilRefresh = Duration.between(clock.instant(), token.refreshAt());
+        schedule(untilRefresh.compareTo(INITIAL_RETRY_DELAY) < 0 ? INITIAL_RETRY_DELAY : untilRefresh);
+        log.info("KEYCLOAK_TOKEN REFRESHED expiresAt={} refreshAt={}", token.expiresAt(), token.refreshAt());
+        return token;
+    }
+
+    private void recordFailureLocked(RuntimeException e) {
+        lastFailure = e;
+        retryNotBefore = clock.instant().plus(properties.getFailureBackoff());
+    }
+
+    private void schedule(Duration delay) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        scheduledRefresh = refresher.schedule(
+                this::refreshInBackground,
+                Math.max(0, delay.toMillis()),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    private Token fetchToken() {
+        // Lifetime is counted from before the request, so network latency only shortens it.
+        Instant requestedAt = clock.instant();
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
@@ -47,12 +183,39 @@ public class KeycloakClientCredentialsTokenProvider {
         ResponseEntity<Map> response =
                 restTemplate.postForEntity(properties.getTokenUrl(), request, Map.class);
 
-        String accessToken = (String) response.getBody().get("access_token");
-        Integer expiresIn = (Integer) response.getBody().get("expires_in");
+        Map<?, ?> responseBody = response.getBody();
+        if (responseBody == null || !(responseBody.get("access_token") instanceof String accessToken)) {
+            throw new IllegalStateException("Keycloak token response has no access_token");
+        }
+
+        Duration lifetime = responseBody.get("expires_in") instanceof Number expiresIn
+                ? Duration.ofSeconds(expiresIn.longValue())
+                : DEFAULT_LIFETIME;
+        Duration margin = lifetime.dividedBy(5);
+        if (margin.compareTo(MIN_REFRESH_MARGIN) < 0) {
+            margin = MIN_REFRESH_MARGIN;
+        } else if (margin.compareTo(MAX_REFRESH_MARGIN) > 0) {
+            margin = MAX_REFRESH_MARGIN;
+        }
+        if (margin.compareTo(lifetime.dividedBy(2)) > 0) {
+            margin = lifetime.dividedBy(2);
+        }
 
-        this.cachedToken = accessToken;
-        this.expiresAt = now + (expiresIn - 10) * 1000;
+        Instant expiresAt = requestedAt.plus(lifetime);
+        return new Token(accessToken, expiresAt.minus(margin), expiresAt.minus(EXPIRY_SKEW));
+    }
 
-        return accessToken;
+    private static RestTemplate restTemplate(KeycloakClientCredentialsProperties properties) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getConnectTimeout());
+        requestFactory.setReadTimeout(properties.getReadTimeout());
+        return new RestTemplate(requestFactory);
+    }
+
+    private record Token(String value, Instant refreshAt, Instant expiresAt) {
+
+        boolean isUsableAt(Instant now) {
+            return now.isBefore(expiresAt);
+        }
     }
 }
@@ -0,0 +1,71 @@
+package com.baskaaleksander.nuvine.domain.service.chunker;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Direct-mapped cache of token counts keyed by a 64-bit content hash.
+ * Each slot packs the upper hash bits and the count into a single long,
+ * so lookups never allocate and concurrent writers cannot tear an entry.
+ */
+public final class TokenCountCache {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int MAX_COUNT = (int) COUNT_MASK - 1;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    public TokenCountCache(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two");
+        }
+        this.slots = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public static long hash(CharSequence text) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            hash ^= (c & 0xff);
+            hash *= FNV_PRIME;
+            hash ^= (c >>> 8);
+            hash *= FNV_PRIME;
+        }
+        hash ^= text.length();
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public int get(long hash) {
+        long slot = slots.get(index(hash));
+        if (slot != 0 && (slot >>> COUNT_BITS) == tag(hash)) {
+            return (int) (slot & COUNT_MASK) - 1;
+        }
+        return -1;
+    }
+
+    public void put(long hash, int count) {
+        if (count < 0 || count > MAX_COUNT) {
+            return;
+        }
+        slots.set(index(hash), (tag(hash) << COUNT_BITS) | (count + 1));
+    }
+
+    private int index(long hash) {
+        return (int) hash & mask;
+    }
+
+    private long tag(long hash) {
+        return hash >>> COUNT_BITS;
+    }
+}
@@ -8,11 +8,27 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class Tokenizer {
+    private static final int CACHE_CAPACITY = 1 << 16;
+    private static final int MIN_CACHEABLE_LENGTH = 64;
+
     private final EncodingRegistry encodingRegistry = Encodings.newDefaultEncodingRegistry();
     private final Encoding encoding = encodingRegistry.getEncodingForModel(ModelType.TEXT_EMBEDDING_3_SMALL);
+    private final TokenCountCache cache = new TokenCountCache(CACHE_CAPACITY);
 
 
     public int count(String rawText) {
-        return encoding.countTokens(rawText);
+        if (rawText.length() < MIN_CACHEABLE_LENGTH) {
+            return encoding.countTokens(rawText);
+        }
+
+        long hash = TokenCountCache.hash(rawText);
+        int cached = cache.get(hash);
+        if (cached >= 0) {
+            return cached;
+        }
+
+        int tokens = encoding.countTokens(rawText);
+        cache.put(hash, tokens);
+        return tokens;
     }
 }
@@ -0,0 +1,57 @@
+package com.baskaaleksander.nuvine.infrastructure.serialization;
+
+import com.baskaaleksander.nuvine.domain.model.Chunk;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.VectorProcessingRequestEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingEventCodecTest {
+
+    private static final String TOPIC = "vector-processing-request";
+
+    private final UUID documentId = UUID.randomUUID();
+
+    @Test
+    void vectorProcessingRequestEvent_roundTripsThroughBinary() throws Exception {
+        VectorProcessingRequestEvent event = new VectorProcessingRequestEvent("job-1", documentId.toString(),
+                "project", "workspace", List.of(
+                        new Chunk(documentId, 1, 0, 120, "Pierwszy fragment – zażółć gęślą jaźń", 0),
+                        new Chunk(documentId, 2, 120, 240, null, 1)
+                ));
+
+        byte[] bytes = serializer(true).serialize(TOPIC, new RecordHeaders(), event);
+
+        assertTrue(EmbeddingEventCodec.isBinary(bytes));
+        assertEquals(event, EmbeddingEventCodec.decode(bytes));
+    }
+
+    @Test
+    void serialize_binaryDisabled_writesJson() {
+        VectorProcessingRequestEvent event = new VectorProcessingRequestEvent("job-1", documentId.toString(),
+                "project", "workspace", List.of(new Chunk(documentId, 1, 0, 120, "content", 0)));
+
+        byte[] bytes = serializer(false).serialize(TOPIC, new RecordHeaders(), event);
+
+        assertFalse(EmbeddingEventCodec.isBinary(bytes));
+        assertEquals('{', bytes[0]);
+    }
+
+    @Test
+    void serialize_otherPayload_writesJson() {
+        byte[] bytes = serializer(true).serialize(TOPIC, new RecordHeaders(), Map.of("documentId", documentId.toString()));
+
+        assertFalse(EmbeddingEventCodec.isBinary(bytes));
+    }
+
+    private EmbeddingEventSerializer serializer(boolean binaryEnabled) {
+        EmbeddingEventSerializer serializer = new EmbeddingEventSerializer();
+        serializer.configure(Map.of(EmbeddingEventSerializer.BINARY_ENABLED, String.valueOf(binaryEnabled)), false);
+        return serializer;
+    }
+}
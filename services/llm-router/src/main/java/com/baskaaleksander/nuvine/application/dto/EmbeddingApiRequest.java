@@ -1,9 +1,13 @@
 package com.baskaaleksander.nuvine.application.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.util.List;
 
 public record EmbeddingApiRequest(
         String model,
-        List<String> input
+        List<String> input,
+        @JsonProperty("encoding_format")
+        String encodingFormat
 ) {
 }
@@ -1,5 +1,8 @@
 package com.baskaaleksander.nuvine.application.dto;
 
+import com.baskaaleksander.nuvine.infrastructure.serialization.EmbeddingCodec;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
 import java.util.List;
 
 public record EmbeddingApiResponse(
@@ -8,7 +11,8 @@ public record EmbeddingApiResponse(
 ) {
     public record EmbeddingData(
             int index,
-            List<Float> embedding
+            @JsonDeserialize(using = EmbeddingCodec.Deserializer.class)
+            float[] embedding
     ) {
     }
 }
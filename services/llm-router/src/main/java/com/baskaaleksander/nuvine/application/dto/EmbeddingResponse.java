@@ -1,15 +1,23 @@
 package com.baskaaleksander.nuvine.application.dto;
 
+import com.baskaaleksander.nuvine.infrastructure.serialization.EmbeddingCodec;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.util.List;
 
 public record EmbeddingResponse(
-        List<List<Float>> embeddings,
+        @JsonSerialize(contentUsing = EmbeddingCodec.Serializer.class)
+        @JsonDeserialize(contentUsing = EmbeddingCodec.Deserializer.class)
+        List<float[]> embeddings,
         String usedModel
 ) {
 
     public record Embedding(
             int index,
-            List<Float> vector
+            @JsonSerialize(using = EmbeddingCodec.Serializer.class)
+            @JsonDeserialize(using = EmbeddingCodec.Deserializer.class)
+            float[] vector
     ) {
     }
 }
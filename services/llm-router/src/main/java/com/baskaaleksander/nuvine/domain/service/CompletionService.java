@@ -72,7 +72,8 @@ public class CompletionService {
         OpenRouterChatStreamRequest request = buildStreamRequest(model, prompt, messages);
 
         return openRouterStreamService.stream(request, model)
-                .doOnComplete(() -> log.info("COMPLETION_CALL_STREAM END"));
+                .doOnComplete(() -> log.info("COMPLETION_CALL_STREAM END"))
+                .doOnCancel(() -> log.info("COMPLETION_CALL_STREAM CANCELLED model={}", model));
     }
 
     private OpenRouterChatStreamRequest buildStreamRequest(
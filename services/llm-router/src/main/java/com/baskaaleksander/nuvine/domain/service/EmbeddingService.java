@@ -19,22 +19,22 @@ public class EmbeddingService {
     private final OpenAIEmbeddingService embeddingClient;
 
     public List<EmbeddedChunk> createEmbeddings(List<Chunk> chunks) {
-        List<List<Float>> embeddings = createEmbedding(chunks.stream().map(Chunk::content).toList());
+        List<float[]> embeddings = createEmbedding(chunks.stream().map(Chunk::content).toList());
         return chunks.stream()
                 .map(chunk -> new EmbeddedChunk(chunk.documentId(), chunk.page(), chunk.startOffset(), chunk.endOffset(), embeddings.get(chunk.index()), chunk.content(), chunk.index()))
                 .toList();
     }
 
     public EmbeddingResponse createEmbeddings(EmbeddingRequest request) {
-        List<List<Float>> embeddings = createEmbedding(request.texts());
+        List<float[]> embeddings = createEmbedding(request.texts());
         return new EmbeddingResponse(
                 embeddings,
                 request.model()
         );
     }
 
-    private List<List<Float>> createEmbedding(List<String> input) {
-        List<List<Float>> embeddings;
+    private List<float[]> createEmbedding(List<String> input) {
+        List<float[]> embeddings;
         try {
             embeddings = embeddingClient.embed(input);
         } catch (Exception e) {
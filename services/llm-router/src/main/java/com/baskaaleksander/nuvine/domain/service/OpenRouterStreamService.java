@@ -64,7 +64,7 @@ public class OpenRouterStreamService {
             return;
         }
 
-        log.info(data);
+        log.trace("STREAM_DATA raw={}", data);
 
         String cleanData = data;
         if (data.startsWith("data:")) {
@@ -19,6 +19,9 @@ import java.util.function.Supplier;
 @Slf4j
 public class OpenAIEmbeddingService {
 
+    // Little-endian float32 bytes as base64: under half the size of JSON number text and decoded without boxing.
+    private static final String ENCODING_FORMAT = "base64";
+
     private final OpenAIEmbeddingClient client;
     private final CircuitBreaker circuitBreaker;
 
@@ -32,14 +35,15 @@ public class OpenAIEmbeddingService {
         this.circuitBreaker = circuitBreaker;
     }
 
-    public List<List<Float>> embed(List<String> texts) {
+    public List<float[]> embed(List<String> texts) {
         if (texts == null || texts.isEmpty()) {
             return List.of();
         }
 
         EmbeddingApiRequest requestBody = new EmbeddingApiRequest(
                 embeddingModel,
-                texts
+                texts,
+                ENCODING_FORMAT
         );
 
         Supplier<EmbeddingApiResponse> decoratedSupplier = CircuitBreaker
@@ -0,0 +1,73 @@
+package com.baskaaleksander.nuvine.infrastructure.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Wire format for embedding vectors: little-endian float32 bytes, written to JSON as one base64 string.
+ * This is the layout OpenAI returns for {@code encoding_format=base64}. Readers also accept a plain JSON
+ * number array, the format used before, so older messages and clients keep working.
+ */
+public final class EmbeddingCodec {
+
+    private EmbeddingCodec() {
+    }
+
+    public static byte[] toBytes(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    public static float[] fromBytes(byte[] bytes) {
+        if (bytes.length % Float.BYTES != 0) {
+            throw new IllegalArgumentException("Embedding length " + bytes.length + " is not a multiple of 4 bytes");
+        }
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    public static final class Serializer extends StdSerializer<float[]> {
+
+        public Serializer() {
+            super(float[].class);
+        }
+
+        @Override
+        public void serialize(float[] value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeBinary(toBytes(value));
+        }
+    }
+
+    public static final class Deserializer extends StdDeserializer<float[]> {
+
+        public Deserializer() {
+            super(float[].class);
+        }
+
+        @Override
+        public float[] deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_STRING) {
+                try {
+                    return fromBytes(p.getBinaryValue());
+                } catch (IllegalArgumentException e) {
+                    return (float[]) ctxt.handleWeirdStringValue(float[].class, p.getText(), e.getMessage());
+                }
+            }
+            if (p.isExpectedStartArrayToken()) {
+                return ctxt.readValue(p, float[].class);
+            }
+            return (float[]) ctxt.handleUnexpectedToken(float[].class, p);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.baskaaleksander.nuvine.infrastructure.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Kafka value deserializer for topics that may carry {@link EmbeddingEventCodec} messages. Binary payloads are
+ * recognised by their magic byte; anything else, including JSON written before the switch, goes to the regular
+ * {@link JsonDeserializer} configured from the same consumer properties.
+ */
+public class EmbeddingEventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (EmbeddingEventCodec.isBinary(data)) {
+            return decode(topic, data);
+        }
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (EmbeddingEventCodec.isBinary(data)) {
+            return decode(topic, data);
+        }
+        return jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+
+    private Object decode(String topic, byte[] data) {
+        try {
+            return EmbeddingEventCodec.decode(data);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException("Can't deserialize binary embedding event from topic " + topic, e);
+        }
+    }
+}
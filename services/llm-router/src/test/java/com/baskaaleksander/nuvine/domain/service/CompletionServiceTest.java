@@ -21,6 +21,7 @@ import reactor.test.StepVerifier;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -164,6 +165,23 @@ class CompletionServiceTest {
         assertTrue(capturedRequest.streamOptions().includeUsage());
     }
 
+    @Test
+    void callStream_downstreamCancel_cancelsUpstreamStream() {
+        AtomicBoolean upstreamCancelled = new AtomicBoolean(false);
+        LlmChunk chunk = new LlmChunk("delta", "Hello", null, null, model);
+
+        when(openRouterStreamService.stream(any(OpenRouterChatStreamRequest.class), eq(model)))
+                .thenReturn(Flux.concat(Flux.just(chunk), Flux.<LlmChunk>never())
+                        .doOnCancel(() -> upstreamCancelled.set(true)));
+
+        StepVerifier.create(completionService.callStream(model, prompt, null))
+                .expectNext(chunk)
+                .thenCancel()
+                .verify();
+
+        assertTrue(upstreamCancelled.get());
+    }
+
     @Test
     void call_circuitBreakerOpen_throwsModelCircuitBreakerOpenException() {
         circuitBreaker.transitionToOpenState();
@@ -28,14 +28,14 @@ class EmbeddingServiceTest {
     private EmbeddingService embeddingService;
 
     private UUID documentId;
-    private List<Float> embedding1;
-    private List<Float> embedding2;
+    private float[] embedding1;
+    private float[] embedding2;
 
     @BeforeEach
     void setUp() {
         documentId = UUID.randomUUID();
-        embedding1 = List.of(0.1f, 0.2f, 0.3f);
-        embedding2 = List.of(0.4f, 0.5f, 0.6f);
+        embedding1 = new float[]{0.1f, 0.2f, 0.3f};
+        embedding2 = new float[]{0.4f, 0.5f, 0.6f};
     }
 
     @Test
@@ -50,8 +50,8 @@ class EmbeddingServiceTest {
         List<EmbeddedChunk> result = embeddingService.createEmbeddings(chunks);
 
         assertEquals(2, result.size());
-        assertEquals(embedding1, result.get(0).embedding());
-        assertEquals(embedding2, result.get(1).embedding());
+        assertArrayEquals(embedding1, result.get(0).embedding());
+        assertArrayEquals(embedding2, result.get(1).embedding());
         verify(embeddingClient).embed(List.of("First chunk content", "Second chunk content"));
     }
 
@@ -73,7 +73,7 @@ class EmbeddingServiceTest {
         assertEquals(150, embeddedChunk.endOffset());
         assertEquals("Test content", embeddedChunk.content());
         assertEquals(0, embeddedChunk.index());
-        assertEquals(embedding1, embeddedChunk.embedding());
+        assertArrayEquals(embedding1, embeddedChunk.embedding());
     }
 
     @Test
@@ -89,8 +89,8 @@ class EmbeddingServiceTest {
         EmbeddingResponse response = embeddingService.createEmbeddings(request);
 
         assertEquals(2, response.embeddings().size());
-        assertEquals(embedding1, response.embeddings().get(0));
-        assertEquals(embedding2, response.embeddings().get(1));
+        assertArrayEquals(embedding1, response.embeddings().get(0));
+        assertArrayEquals(embedding2, response.embeddings().get(1));
         assertEquals("text-embedding-3-small", response.usedModel());
         verify(embeddingClient).embed(List.of("text1", "text2"));
     }
@@ -9,6 +9,7 @@ import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -28,13 +29,13 @@ class OpenAIEmbeddingServiceTest {
     private OpenAIEmbeddingService service;
     private CircuitBreaker circuitBreaker;
 
-    private List<Float> embedding1;
-    private List<Float> embedding2;
+    private float[] embedding1;
+    private float[] embedding2;
 
     @BeforeEach
     void setUp() {
-        embedding1 = List.of(0.1f, 0.2f, 0.3f);
-        embedding2 = List.of(0.4f, 0.5f, 0.6f);
+        embedding1 = new float[]{0.1f, 0.2f, 0.3f};
+        embedding2 = new float[]{0.4f, 0.5f, 0.6f};
 
         CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
         circuitBreaker = registry.circuitBreaker("test-embeddings-circuit-breaker");
@@ -53,11 +54,11 @@ class OpenAIEmbeddingServiceTest {
 
         when(client.createEmbedding(any(EmbeddingApiRequest.class))).thenReturn(response);
 
-        List<List<Float>> result = service.embed(texts);
+        List<float[]> result = service.embed(texts);
 
         assertEquals(2, result.size());
-        assertEquals(embedding1, result.get(0));
-        assertEquals(embedding2, result.get(1));
+        assertArrayEquals(embedding1, result.get(0));
+        assertArrayEquals(embedding2, result.get(1));
         verify(client).createEmbedding(any(EmbeddingApiRequest.class));
     }
 
@@ -71,10 +72,24 @@ class OpenAIEmbeddingServiceTest {
 
         when(client.createEmbedding(any(EmbeddingApiRequest.class))).thenReturn(response);
 
-        List<List<Float>> result = service.embed(texts);
+        List<float[]> result = service.embed(texts);
 
-        assertEquals(embedding1, result.get(0));
-        assertEquals(embedding2, result.get(1));
+        assertArrayEquals(embedding1, result.get(0));
+        assertArrayEquals(embedding2, result.get(1));
+    }
+
+    @Test
+    void embed_requestsBase64Encoding() {
+        EmbeddingApiResponse.EmbeddingData data = new EmbeddingApiResponse.EmbeddingData(0, embedding1);
+        EmbeddingApiResponse response = new EmbeddingApiResponse("text-embedding-3-small", List.of(data));
+        when(client.createEmbedding(any(EmbeddingApiRequest.class))).thenReturn(response);
+
+        service.embed(List.of("text1"));
+
+        ArgumentCaptor<EmbeddingApiRequest> captor = ArgumentCaptor.forClass(EmbeddingApiRequest.class);
+        verify(client).createEmbedding(captor.capture());
+        assertEquals("base64", captor.getValue().encodingFormat());
+        assertEquals("text-embedding-3-small", captor.getValue().model());
     }
 
     @Test
@@ -91,8 +106,8 @@ class OpenAIEmbeddingServiceTest {
 
     @Test
     void embed_emptyTexts_returnsEmptyList() {
-        List<List<Float>> resultEmpty = service.embed(List.of());
-        List<List<Float>> resultNull = service.embed(null);
+        List<float[]> resultEmpty = service.embed(List.of());
+        List<float[]> resultNull = service.embed(null);
 
         assertTrue(resultEmpty.isEmpty());
         assertTrue(resultNull.isEmpty());
@@ -119,7 +134,7 @@ class OpenAIEmbeddingServiceTest {
         EmbeddingApiResponse response = new EmbeddingApiResponse("text-embedding-3-small", List.of(data));
         when(client.createEmbedding(any(EmbeddingApiRequest.class))).thenReturn(response);
 
-        List<List<Float>> result = service.embed(texts);
+        List<float[]> result = service.embed(texts);
 
         assertEquals(1, result.size());
         verify(client).createEmbedding(any(EmbeddingApiRequest.class));
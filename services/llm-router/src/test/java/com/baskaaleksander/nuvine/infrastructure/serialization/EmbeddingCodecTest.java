@@ -0,0 +1,100 @@
+package com.baskaaleksander.nuvine.infrastructure.serialization;
+
+import com.baskaaleksander.nuvine.application.dto.EmbeddingApiResponse;
+import com.baskaaleksander.nuvine.application.dto.EmbeddingResponse;
+import com.baskaaleksander.nuvine.domain.model.EmbeddedChunk;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void toBytes_writesLittleEndianFloat32() {
+        byte[] bytes = EmbeddingCodec.toBytes(new float[]{1.0f});
+
+        assertArrayEquals(new byte[]{0x00, 0x00, (byte) 0x80, 0x3f}, bytes);
+    }
+
+    @Test
+    void fromBytes_roundTripsVector() {
+        float[] vector = {0.1f, -0.2f, 0.3f, Float.MIN_VALUE, -0.0f};
+
+        assertArrayEquals(vector, EmbeddingCodec.fromBytes(EmbeddingCodec.toBytes(vector)));
+    }
+
+    @Test
+    void fromBytes_lengthNotMultipleOfFour_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingCodec.fromBytes(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void serialize_embeddedChunk_writesBase64String() throws Exception {
+        float[] vector = {0.1f, 0.2f, 0.3f};
+        EmbeddedChunk chunk = new EmbeddedChunk(UUID.randomUUID(), 1, 0, 10, vector, "content", 0);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(chunk));
+
+        assertTrue(json.get("embedding").isTextual());
+        assertEquals(Base64.getEncoder().encodeToString(EmbeddingCodec.toBytes(vector)), json.get("embedding").asText());
+
+        EmbeddedChunk read = objectMapper.readValue(json.toString(), EmbeddedChunk.class);
+        assertArrayEquals(vector, read.embedding());
+    }
+
+    @Test
+    void deserialize_embeddedChunk_acceptsLegacyNumberArray() throws Exception {
+        String json = """
+                {"documentId":"%s","page":1,"startOffset":0,"endOffset":10,
+                 "embedding":[0.1,0.2,0.3],"content":"content","index":0}
+                """.formatted(UUID.randomUUID());
+
+        EmbeddedChunk chunk = objectMapper.readValue(json, EmbeddedChunk.class);
+
+        assertArrayEquals(new float[]{0.1f, 0.2f, 0.3f}, chunk.embedding());
+    }
+
+    @Test
+    void deserialize_embeddingResponse_acceptsMixedEncodings() throws Exception {
+        float[] encoded = {0.5f, 0.25f};
+        String json = """
+                {"embeddings":["%s",[1.0,2.0]],"usedModel":"text-embedding-3-small"}
+                """.formatted(Base64.getEncoder().encodeToString(EmbeddingCodec.toBytes(encoded)));
+
+        EmbeddingResponse response = objectMapper.readValue(json, EmbeddingResponse.class);
+
+        assertEquals(2, response.embeddings().size());
+        assertArrayEquals(encoded, response.embeddings().get(0));
+        assertArrayEquals(new float[]{1.0f, 2.0f}, response.embeddings().get(1));
+    }
+
+    @Test
+    void deserialize_openAiBase64Response_decodesVector() throws Exception {
+        float[] vector = {-0.5f, 0.75f, 0.125f};
+        String json = """
+                {"model":"text-embedding-3-small","data":[{"index":0,"embedding":"%s"}]}
+                """.formatted(Base64.getEncoder().encodeToString(EmbeddingCodec.toBytes(vector)));
+
+        EmbeddingApiResponse response = objectMapper.readValue(json, EmbeddingApiResponse.class);
+
+        assertArrayEquals(vector, response.data().getFirst().embedding());
+    }
+
+    @Test
+    void deserialize_truncatedBase64Vector_throwsInvalidFormatException() {
+        String json = """
+                {"embeddings":["%s"],"usedModel":"m"}
+                """.formatted(Base64.getEncoder().encodeToString(new byte[]{1, 2, 3}));
+
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue(json, EmbeddingResponse.class));
+    }
+}
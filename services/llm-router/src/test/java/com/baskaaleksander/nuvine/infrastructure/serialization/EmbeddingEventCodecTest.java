@@ -0,0 +1,92 @@
+package com.baskaaleksander.nuvine.infrastructure.serialization;
+
+import com.baskaaleksander.nuvine.domain.model.Chunk;
+import com.baskaaleksander.nuvine.domain.model.EmbeddedChunk;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.EmbeddingCompletedEvent;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.EmbeddingRequestEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingEventCodecTest {
+
+    private static final String TOPIC = "embedding-request";
+
+    private EmbeddingEventSerializer serializer;
+    private EmbeddingEventDeserializer deserializer;
+    private UUID documentId;
+
+    @BeforeEach
+    void setUp() {
+        serializer = new EmbeddingEventSerializer();
+        serializer.configure(Map.of(EmbeddingEventSerializer.BINARY_ENABLED, "true"), false);
+        deserializer = new EmbeddingEventDeserializer();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.VALUE_DEFAULT_TYPE, EmbeddingRequestEvent.class.getName(),
+                JsonDeserializer.USE_TYPE_INFO_HEADERS, false
+        ), false);
+        documentId = UUID.randomUUID();
+    }
+
+    @Test
+    void embeddingCompletedEvent_roundTripsThroughBinary() {
+        float[] vector = {0.1f, -0.2f, 0.3f};
+        EmbeddingCompletedEvent event = new EmbeddingCompletedEvent("job-1",
+                List.of(new EmbeddedChunk(documentId, 1, 0, 100, vector, "content", 0)), "text-embedding-3-small");
+
+        byte[] bytes = serializer.serialize(TOPIC, new RecordHeaders(), event);
+        EmbeddingCompletedEvent read = (EmbeddingCompletedEvent) deserializer.deserialize(TOPIC, new RecordHeaders(), bytes);
+
+        assertTrue(EmbeddingEventCodec.isBinary(bytes));
+        assertEquals("job-1", read.ingestionJobId());
+        assertEquals("text-embedding-3-small", read.model());
+        assertEquals(documentId, read.embeddedChunks().getFirst().documentId());
+        assertEquals("content", read.embeddedChunks().getFirst().content());
+        assertArrayEquals(vector, read.embeddedChunks().getFirst().embedding());
+    }
+
+    @Test
+    void embeddingRequestEvent_roundTripsThroughBinary() {
+        EmbeddingRequestEvent event = new EmbeddingRequestEvent("job-2", List.of(
+                new Chunk(documentId, 1, 0, 50, "first", 0),
+                new Chunk(documentId, 1, 50, 90, "second", 1)
+        ), "text-embedding-3-small");
+
+        Object read = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, event));
+
+        assertEquals(event, read);
+    }
+
+    @Test
+    void deserialize_legacyJson_fallsBackToJsonDeserializer() {
+        String json = """
+                {"embeddingJobId":"job-2","model":"text-embedding-3-small","chunks":[
+                  {"documentId":"%s","page":1,"startOffset":0,"endOffset":50,"content":"first","index":0}]}
+                """.formatted(documentId);
+
+        Object read = deserializer.deserialize(TOPIC, new RecordHeaders(), json.getBytes());
+
+        assertEquals(new EmbeddingRequestEvent("job-2", List.of(new Chunk(documentId, 1, 0, 50, "first", 0)),
+                "text-embedding-3-small"), read);
+    }
+
+    @Test
+    void deserialize_truncatedBinary_throwsSerializationException() {
+        EmbeddingRequestEvent event = new EmbeddingRequestEvent("job-2",
+                List.of(new Chunk(documentId, 1, 0, 50, "first", 0)), "text-embedding-3-small");
+        byte[] bytes = serializer.serialize(TOPIC, event);
+
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize(TOPIC, Arrays.copyOf(bytes, bytes.length - 10)));
+    }
+}
@@ -1,5 +1,6 @@
 package com.baskaaleksander.nuvine.integration.base;
 
+import com.baskaaleksander.nuvine.infrastructure.serialization.EmbeddingEventDeserializer;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
@@ -37,7 +38,7 @@ public abstract class BaseKafkaIntegrationTest extends BaseControllerIntegration
         consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, "test-consumer-" + topic + "-" + java.util.UUID.randomUUID());
         consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
         consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, EmbeddingEventDeserializer.class);
         consumerProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         consumerProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, valueType.getName());
         consumerProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
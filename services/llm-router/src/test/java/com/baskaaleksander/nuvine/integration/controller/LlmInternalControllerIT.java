@@ -47,7 +47,7 @@ class LlmInternalControllerIT extends BaseControllerIntegrationTest {
         void shouldCreateEmbeddingForSingleText() {
             // Given
             String internalServiceJwt = jwtTestUtils.generateInternalServiceJwt();
-            List<Float> testEmbedding = WireMockStubs.generateTestEmbedding();
+            float[] testEmbedding = WireMockStubs.generateTestEmbedding();
             wireMockStubs.stubOpenAIEmbeddingSingle("text-embedding-3-small", testEmbedding);
 
             EmbeddingRequest request = new EmbeddingRequest(
@@ -79,7 +79,7 @@ class LlmInternalControllerIT extends BaseControllerIntegrationTest {
         void shouldCreateEmbeddingsForBatchTexts() {
             // Given
             String internalServiceJwt = jwtTestUtils.generateInternalServiceJwt();
-            List<List<Float>> testEmbeddings = List.of(
+            List<float[]> testEmbeddings = List.of(
                     WireMockStubs.generateTestEmbedding(),
                     WireMockStubs.generateTestEmbedding(),
                     WireMockStubs.generateTestEmbedding()
@@ -48,7 +48,7 @@ class EmbeddingKafkaIT extends BaseKafkaIntegrationTest {
                 new Chunk(documentId, 1, 100, 200, "This is the second chunk of text.", 1)
         );
 
-        List<List<Float>> testEmbeddings = List.of(
+        List<float[]> testEmbeddings = List.of(
                 WireMockStubs.generateTestEmbedding(),
                 WireMockStubs.generateTestEmbedding()
         );
@@ -97,7 +97,7 @@ class EmbeddingKafkaIT extends BaseKafkaIntegrationTest {
                 new Chunk(documentId, 1, 0, 50, "Single chunk content.", 0)
         );
 
-        List<Float> testEmbedding = WireMockStubs.generateTestEmbedding();
+        float[] testEmbedding = WireMockStubs.generateTestEmbedding();
         wireMockStubs.stubOpenAIEmbeddingSingle("text-embedding-3-small", testEmbedding);
 
         EmbeddingRequestEvent requestEvent = new EmbeddingRequestEvent(
@@ -132,7 +132,7 @@ class EmbeddingKafkaIT extends BaseKafkaIntegrationTest {
         String embeddingJobId = UUID.randomUUID().toString();
 
         List<Chunk> chunks = new ArrayList<>();
-        List<List<Float>> testEmbeddings = new ArrayList<>();
+        List<float[]> testEmbeddings = new ArrayList<>();
 
         for (int i = 0; i < 10; i++) {
             chunks.add(new Chunk(documentId, i + 1, i * 100, (i + 1) * 100, "Chunk number " + (i + 1), i));
@@ -1,12 +1,12 @@
 package com.baskaaleksander.nuvine.integration.support;
 
+import com.baskaaleksander.nuvine.infrastructure.serialization.EmbeddingCodec;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 
+import java.util.Base64;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public class WireMockStubs {
 
@@ -19,7 +19,7 @@ public class WireMockStubs {
 
     // ==================== OpenAI Embeddings Stubs ====================
 
-    public void stubOpenAIEmbedding(String model, List<List<Float>> embeddings) {
+    public void stubOpenAIEmbedding(String model, List<float[]> embeddings) {
         StringBuilder dataJson = new StringBuilder("[");
         for (int i = 0; i < embeddings.size(); i++) {
             if (i > 0) dataJson.append(",");
@@ -27,9 +27,9 @@ public class WireMockStubs {
                 {
                     "object": "embedding",
                     "index": %d,
-                    "embedding": %s
+                    "embedding": "%s"
                 }
-                """, i, embeddingToJson(embeddings.get(i))));
+                """, i, embeddingToBase64(embeddings.get(i))));
         }
         dataJson.append("]");
 
@@ -54,7 +54,7 @@ public class WireMockStubs {
         );
     }
 
-    public void stubOpenAIEmbeddingSingle(String model, List<Float> embedding) {
+    public void stubOpenAIEmbeddingSingle(String model, float[] embedding) {
         stubOpenAIEmbedding(model, List.of(embedding));
     }
 
@@ -229,20 +229,20 @@ public class WireMockStubs {
 
     // ==================== Helper Methods ====================
 
-    public static List<Float> generateTestEmbedding(int dimension) {
-        return IntStream.range(0, dimension)
-                .mapToObj(i -> RANDOM.nextFloat() * 2 - 1)
-                .collect(Collectors.toList());
+    public static float[] generateTestEmbedding(int dimension) {
+        float[] embedding = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            embedding[i] = RANDOM.nextFloat() * 2 - 1;
+        }
+        return embedding;
     }
 
-    public static List<Float> generateTestEmbedding() {
+    public static float[] generateTestEmbedding() {
         return generateTestEmbedding(1536);
     }
 
-    private String embeddingToJson(List<Float> embedding) {
-        return "[" + embedding.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(",")) + "]";
+    private String embeddingToBase64(float[] embedding) {
+        return Base64.getEncoder().encodeToString(EmbeddingCodec.toBytes(embedding));
     }
 
     private String escapeJson(String text) {
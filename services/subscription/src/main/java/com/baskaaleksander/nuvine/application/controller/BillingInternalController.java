@@ -2,15 +2,19 @@ package com.baskaaleksander.nuvine.application.controller;
 
 import com.baskaaleksander.nuvine.application.dto.CheckLimitRequest;
 import com.baskaaleksander.nuvine.application.dto.CheckLimitResult;
+import com.baskaaleksander.nuvine.application.dto.ModelLimitsResponse;
 import com.baskaaleksander.nuvine.application.dto.ReleaseReservationRequest;
 import com.baskaaleksander.nuvine.domain.service.BillingInternalService;
+import com.baskaaleksander.nuvine.domain.service.ModelPricingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -20,6 +24,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class BillingInternalController {
 
     private final BillingInternalService billingInternalService;
+    private final ModelPricingService modelPricingService;
 
     @PostMapping("/check-limit")
     public ResponseEntity<CheckLimitResult> checkLimit(
@@ -36,4 +41,12 @@ public class BillingInternalController {
         billingInternalService.releaseReservation(request.workspaceId(), request.amount());
         return ResponseEntity.ok().build();
     }
+
+    @GetMapping("/models/limits")
+    public ResponseEntity<ModelLimitsResponse> getModelLimits(
+            @RequestParam String provider,
+            @RequestParam String model
+    ) {
+        return ResponseEntity.ok(modelPricingService.getModelLimits(model, provider));
+    }
 }
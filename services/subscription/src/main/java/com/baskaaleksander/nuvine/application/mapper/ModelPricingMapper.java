@@ -1,5 +1,6 @@
 package com.baskaaleksander.nuvine.application.mapper;
 
+import com.baskaaleksander.nuvine.application.dto.ModelLimitsResponse;
 import com.baskaaleksander.nuvine.application.dto.ModelPricingResponse;
 import com.baskaaleksander.nuvine.domain.model.LlmModel;
 import org.springframework.stereotype.Component;
@@ -15,4 +16,13 @@ public class ModelPricingMapper {
                 model.getPricing()
         );
     }
+
+    public ModelLimitsResponse toLimitsResponse(LlmModel model) {
+        return new ModelLimitsResponse(
+                model.getProvider().getProviderKey(),
+                model.getModelKey(),
+                model.getContextWindowTokens(),
+                model.getMaxOutputTokens()
+        );
+    }
 }
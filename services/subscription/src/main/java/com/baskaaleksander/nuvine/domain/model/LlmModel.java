@@ -32,6 +32,9 @@ public class LlmModel {
     @Column(nullable = false)
     private long maxOutputTokens;
 
+    // Prompt plus completion limit; null until known for the model.
+    private Long contextWindowTokens;
+
     @Embedded
     private ModelPricing pricing;
 
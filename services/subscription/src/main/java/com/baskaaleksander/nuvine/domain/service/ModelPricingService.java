@@ -1,5 +1,6 @@
 package com.baskaaleksander.nuvine.domain.service;
 
+import com.baskaaleksander.nuvine.application.dto.ModelLimitsResponse;
 import com.baskaaleksander.nuvine.application.dto.ModelPricingResponse;
 import com.baskaaleksander.nuvine.application.mapper.ModelPricingMapper;
 import com.baskaaleksander.nuvine.domain.exception.ModelNotFoundException;
@@ -31,6 +32,13 @@ public class ModelPricingService {
                 .orElseThrow(() -> new ModelNotFoundException("Model not found"));
     }
 
+    @Cacheable(cacheNames = "model-limits", key = "#providerKey + ':' + #modelKey")
+    public ModelLimitsResponse getModelLimits(String modelKey, String providerKey) {
+        return llmModelRepository.findActiveModel(providerKey, modelKey, Instant.now())
+                .map(modelPricingMapper::toLimitsResponse)
+                .orElseThrow(() -> new ModelNotFoundException("Model not found"));
+    }
+
     @Cacheable(cacheNames = "all-active-models", key = "'all'")
     public List<ModelPricingResponse> getAllActivePricing() {
         return llmModelRepository.findAllActiveModels(Instant.now())
@@ -57,17 +57,16 @@ public class CacheConfiguration {
         MutableConfiguration<String, Object> modelPricingConfig = createConfig(TimeUnit.MINUTES, 30);
         MutableConfiguration<String, Object> subscriptionConfig = createConfig(TimeUnit.SECONDS, 30);
         MutableConfiguration<String, Object> externalServiceConfig = createConfig(TimeUnit.MINUTES, 5);
-        MutableConfiguration<String, Object> keycloakTokenConfig = createConfig(TimeUnit.MINUTES, 4);
 
         createCache(manager, redissonClient, "subscription-service-buckets", rateBucketConfig);
 
         createCache(manager, redissonClient, "model-pricing", modelPricingConfig);
         createCache(manager, redissonClient, "all-active-models", modelPricingConfig);
+        createCache(manager, redissonClient, "model-limits", modelPricingConfig);
         createCache(manager, redissonClient, "plans", rateBucketConfig);
         createCache(manager, redissonClient, "subscriptions", subscriptionConfig);
         createCache(manager, redissonClient, "users", externalServiceConfig);
         createCache(manager, redissonClient, "workspaces", externalServiceConfig);
-        createCache(manager, redissonClient, "keycloak-tokens", keycloakTokenConfig);
 
         return manager;
     }
@@ -0,0 +1,2 @@
+ALTER TABLE llm_models
+    ADD COLUMN context_window_tokens BIGINT;
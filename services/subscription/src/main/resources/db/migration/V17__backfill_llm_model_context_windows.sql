@@ -0,0 +1,40 @@
+-- Published context windows (prompt plus completion) for models already in the pricing table.
+-- Rows that were set by hand are left alone; models added later need the value on insert.
+UPDATE llm_models m
+SET context_window_tokens = w.context_window_tokens
+FROM llm_providers p,
+     (VALUES ('openai', 'gpt-3.5-turbo', 16385),
+             ('openai', 'gpt-4', 8192),
+             ('openai', 'gpt-4-turbo', 128000),
+             ('openai', 'gpt-4o', 128000),
+             ('openai', 'gpt-4o-mini', 128000),
+             ('openai', 'gpt-4.1', 1047576),
+             ('openai', 'gpt-4.1-mini', 1047576),
+             ('openai', 'gpt-4.1-nano', 1047576),
+             ('openai', 'o1', 200000),
+             ('openai', 'o1-mini', 128000),
+             ('openai', 'o3', 200000),
+             ('openai', 'o3-mini', 200000),
+             ('openai', 'o4-mini', 200000),
+             ('openai', 'gpt-5', 400000),
+             ('openai', 'gpt-5-mini', 400000),
+             ('openai', 'gpt-5-nano', 400000),
+             ('anthropic', 'claude-3-haiku', 200000),
+             ('anthropic', 'claude-3-opus', 200000),
+             ('anthropic', 'claude-3.5-haiku', 200000),
+             ('anthropic', 'claude-3.5-sonnet', 200000),
+             ('anthropic', 'claude-3.7-sonnet', 200000),
+             ('anthropic', 'claude-sonnet-4', 200000),
+             ('anthropic', 'claude-opus-4', 200000),
+             ('google', 'gemini-2.0-flash-001', 1048576),
+             ('google', 'gemini-2.5-flash', 1048576),
+             ('google', 'gemini-2.5-pro', 1048576),
+             ('meta-llama', 'llama-3.1-8b-instruct', 131072),
+             ('meta-llama', 'llama-3.1-70b-instruct', 131072),
+             ('mistralai', 'mistral-large', 128000),
+             ('mistralai', 'mistral-small', 32768))
+         AS w(provider_key, model_key, context_window_tokens)
+WHERE m.provider_id = p.id
+  AND p.provider_key = w.provider_key
+  AND m.model_key = w.model_key
+  AND m.context_window_tokens IS NULL;
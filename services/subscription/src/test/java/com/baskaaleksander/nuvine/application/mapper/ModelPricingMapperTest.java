@@ -1,6 +1,7 @@
 package com.baskaaleksander.nuvine.application.mapper;
 
 import com.baskaaleksander.nuvine.TestFixtures;
+import com.baskaaleksander.nuvine.application.dto.ModelLimitsResponse;
 import com.baskaaleksander.nuvine.application.dto.ModelPricingResponse;
 import com.baskaaleksander.nuvine.domain.model.LlmModel;
 import org.junit.jupiter.api.BeforeEach;
@@ -54,4 +55,19 @@ class ModelPricingMapperTest {
         assertThat(response.pricing().getOutputPricePer1MTokens())
                 .isEqualTo(model.getPricing().getOutputPricePer1MTokens());
     }
+
+    @Test
+    @DisplayName("toLimitsResponse maps context window and output limit")
+    void toLimitsResponse_mapsLimits() {
+        LlmModel model = TestFixtures.llmModel()
+                .contextWindowTokens(128_000L)
+                .build();
+
+        ModelLimitsResponse response = modelPricingMapper.toLimitsResponse(model);
+
+        assertThat(response.provider()).isEqualTo(model.getProvider().getProviderKey());
+        assertThat(response.model()).isEqualTo(model.getModelKey());
+        assertThat(response.contextWindowTokens()).isEqualTo(128_000L);
+        assertThat(response.maxOutputTokens()).isEqualTo(model.getMaxOutputTokens());
+    }
 }
@@ -1,6 +1,7 @@
 package com.baskaaleksander.nuvine.domain.service;
 
 import com.baskaaleksander.nuvine.TestFixtures;
+import com.baskaaleksander.nuvine.application.dto.ModelLimitsResponse;
 import com.baskaaleksander.nuvine.application.dto.ModelPricingResponse;
 import com.baskaaleksander.nuvine.application.mapper.ModelPricingMapper;
 import com.baskaaleksander.nuvine.domain.exception.ModelNotFoundException;
@@ -133,6 +134,40 @@ class ModelPricingServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("getModelLimits")
+    class GetModelLimits {
+
+        @Test
+        @DisplayName("should return context window and output limit when model is active")
+        void getModelLimits_activeModel_returnsLimits() {
+            String modelKey = TestFixtures.DEFAULT_MODEL_KEY;
+            String providerKey = TestFixtures.DEFAULT_PROVIDER_KEY;
+            LlmModel model = TestFixtures.llmModel()
+                    .contextWindowTokens(128_000L)
+                    .build();
+            ModelLimitsResponse expected = new ModelLimitsResponse(providerKey, modelKey, 128_000L, 4096L);
+
+            when(llmModelRepository.findActiveModel(eq(providerKey), eq(modelKey), any(Instant.class)))
+                    .thenReturn(Optional.of(model));
+            when(modelPricingMapper.toLimitsResponse(model)).thenReturn(expected);
+
+            ModelLimitsResponse result = modelPricingService.getModelLimits(modelKey, providerKey);
+
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("should throw ModelNotFoundException when model not found")
+        void getModelLimits_modelNotFound_throwsModelNotFoundException() {
+            when(llmModelRepository.findActiveModel(eq("unknown-provider"), eq("non-existent-model"), any(Instant.class)))
+                    .thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> modelPricingService.getModelLimits("non-existent-model", "unknown-provider"))
+                    .isInstanceOf(ModelNotFoundException.class);
+        }
+    }
+
     @Nested
     @DisplayName("calculateCost")
     class CalculateCost {
@@ -25,7 +25,6 @@ import java.util.concurrent.TimeUnit;
 @Profile("integrationtest")
 public class TestCacheConfiguration {
 
-    public static final String KEYCLOAK_TOKEN_CACHE = "keycloak-tokens";
 
     @Value("${spring.data.redis.host}")
     private String redisHost;
@@ -62,7 +61,6 @@ public class TestCacheConfiguration {
         MutableConfiguration<String, Object> modelPricingConfig = createConfig(TimeUnit.MINUTES, 30);
         MutableConfiguration<String, Object> subscriptionConfig = createConfig(TimeUnit.SECONDS, 30);
         MutableConfiguration<String, Object> externalServiceConfig = createConfig(TimeUnit.MINUTES, 5);
-        MutableConfiguration<String, Object> keycloakTokenConfig = createConfig(TimeUnit.MINUTES, 4);
 
         createCache(manager, redissonClient, "subscription-service-buckets", rateBucketConfig);
 
@@ -72,7 +70,6 @@ public class TestCacheConfiguration {
         createCache(manager, redissonClient, "subscriptions", subscriptionConfig);
         createCache(manager, redissonClient, "users", externalServiceConfig);
         createCache(manager, redissonClient, "workspaces", externalServiceConfig);
-        createCache(manager, redissonClient, KEYCLOAK_TOKEN_CACHE, keycloakTokenConfig);
 
         return manager;
     }
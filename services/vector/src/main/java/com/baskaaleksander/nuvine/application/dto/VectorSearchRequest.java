@@ -1,5 +1,8 @@
 package com.baskaaleksander.nuvine.application.dto;
 
+import com.baskaaleksander.nuvine.infrastructure.serialization.EmbeddingCodec;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
@@ -14,7 +17,9 @@ public record VectorSearchRequest(
         @NotEmpty(message = "Document Ids cannot be empty")
         List<UUID> documentIds,
         @NotEmpty(message = "Query cannot be empty")
-        List<Float> query,
+        @JsonSerialize(using = EmbeddingCodec.Serializer.class)
+        @JsonDeserialize(using = EmbeddingCodec.Deserializer.class)
+        float[] query,
         @NotNull(message = "Top K cannot be null")
         int topK,
         @NotNull(message = "Threshold cannot be null")
@@ -1,9 +1,15 @@
 package com.baskaaleksander.nuvine.domain.model;
 
-import java.util.List;
+import com.baskaaleksander.nuvine.infrastructure.serialization.EmbeddingCodec;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.util.UUID;
 
-public record EmbeddedChunk(UUID documentId, int page, int startOffset, int endOffset, List<Float> embedding,
+public record EmbeddedChunk(UUID documentId, int page, int startOffset, int endOffset,
+                            @JsonSerialize(using = EmbeddingCodec.Serializer.class)
+                            @JsonDeserialize(using = EmbeddingCodec.Deserializer.class)
+                            float[] embedding,
                             String content,
                             int index) {
 }
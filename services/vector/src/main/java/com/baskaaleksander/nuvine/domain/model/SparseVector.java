@@ -0,0 +1,7 @@
+package com.baskaaleksander.nuvine.domain.model;
+
+public record SparseVector(
+        int[] indices,
+        float[] values
+) {
+}
@@ -0,0 +1,99 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.domain.model.SparseVector;
+import com.baskaaleksander.nuvine.infrastructure.config.QdrantConfig;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * BM25 term weights for the sparse vector. Documents get the saturated, length-normalised term frequency;
+ * queries get 1 per term. The IDF half of BM25 is applied by Qdrant (the sparse vector uses the Idf modifier),
+ * so nothing here depends on corpus statistics. Terms are hashed into the uint32 index space with murmur3.
+ */
+@Service
+@RequiredArgsConstructor
+public class SparseVectorEncoder {
+
+    private static final HashFunction HASH = Hashing.murmur3_32_fixed();
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("\\s+");
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern EDGE_PUNCTUATION = Pattern.compile("^[^\\p{L}\\p{N}]+|[^\\p{L}\\p{N}]+$");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "in", "is", "it", "of", "on",
+            "or", "that", "the", "this", "to", "was", "were", "will", "with"
+    );
+
+    private final QdrantConfig.QdrantProperties props;
+
+    public SparseVector encodeDocument(String text) {
+        List<String> terms = tokenize(text);
+        Map<Integer, Integer> frequencies = frequencies(terms);
+
+        float k1 = props.bm25K1();
+        float lengthNorm = 1 - props.bm25B() + props.bm25B() * terms.size() / props.bm25AverageLength();
+        return toSparseVector(frequencies, tf -> tf * (k1 + 1) / (tf + k1 * lengthNorm));
+    }
+
+    public SparseVector encodeQuery(String text) {
+        return toSparseVector(frequencies(tokenize(text)), tf -> 1.0f);
+    }
+
+    // Alphanumeric runs, plus whole identifiers such as ERR-4021 or v1.16.1 so exact codes outrank their parts.
+    List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            String trimmed = EDGE_PUNCTUATION.matcher(word).replaceAll("");
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] parts = TERM_SEPARATOR.split(trimmed);
+            for (String part : parts) {
+                if (!part.isEmpty() && !STOP_WORDS.contains(part)) {
+                    terms.add(part);
+                }
+            }
+            if (parts.length > 1) {
+                terms.add(trimmed);
+            }
+        }
+        return terms;
+    }
+
+    private Map<Integer, Integer> frequencies(List<String> terms) {
+        Map<Integer, Integer> frequencies = new TreeMap<>();
+        for (String term : terms) {
+            frequencies.merge(HASH.hashString(term, StandardCharsets.UTF_8).asInt(), 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    private SparseVector toSparseVector(Map<Integer, Integer> frequencies, TermWeight weight) {
+        int[] indices = new int[frequencies.size()];
+        float[] values = new float[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : frequencies.entrySet()) {
+            indices[i] = entry.getKey();
+            values[i] = weight.apply(entry.getValue());
+            i++;
+        }
+        return new SparseVector(indices, values);
+    }
+
+    private interface TermWeight {
+        float apply(int termFrequency);
+    }
+}
@@ -29,7 +29,21 @@ public class VectorSearchService {
                 new EmbeddingRequest(List.of(request.query()), "text-embedding-3-small")
         );
 
-        List<Float> queryVector = embeddingResponse.embeddings().get(0);
+        float[] queryVector = embeddingResponse.embeddings().get(0);
+
+        if (request.mode() == SearchMode.HYBRID) {
+            List<Points.ScoredPoint> searchResults = storageService.hybridSearch(
+                    request.workspaceId(),
+                    request.projectId(),
+                    request.documentIds(),
+                    queryVector,
+                    request.query(),
+                    request.topK(),
+                    request.threshold()
+            );
+            log.info("VECTOR_SEARCH_BY_TEXT HYBRID POINTS_RETRIEVED projectId={} pointsCount={}", request.projectId(), searchResults.size());
+            return toResponse(searchResults);
+        }
 
         return search(
                 new VectorSearchRequest(
@@ -56,6 +70,12 @@ public class VectorSearchService {
 
         log.info("VECTOR_SEARCH POINTS_RETRIEVED projectId={} pointsCount={}", req.projectId(), searchResults.size());
 
+        VectorSearchResponse response = toResponse(searchResults);
+        log.info("VECTOR_SEARCH END projectId={} matchesCount={}", req.projectId(), response.matches().size());
+        return response;
+    }
+
+    private VectorSearchResponse toResponse(List<Points.ScoredPoint> searchResults) {
         List<VectorSearchResponse.VectorSearchMatch> matches = new ArrayList<>();
 
         for (var point : searchResults) {
@@ -79,7 +99,6 @@ public class VectorSearchService {
             );
         }
 
-        log.info("VECTOR_SEARCH END projectId={} matchesCount={}", req.projectId(), matches.size());
         return new VectorSearchResponse(matches);
     }
 }
@@ -2,7 +2,9 @@ package com.baskaaleksander.nuvine.domain.service;
 
 import com.baskaaleksander.nuvine.domain.model.ChunkMetadata;
 import com.baskaaleksander.nuvine.domain.model.EmbeddedChunk;
+import com.baskaaleksander.nuvine.domain.model.SparseVector;
 import com.baskaaleksander.nuvine.infrastructure.config.QdrantConfig;
+import com.baskaaleksander.nuvine.infrastructure.qdrant.QdrantSchemaManager;
 import io.qdrant.client.QdrantClient;
 import io.qdrant.client.grpc.Common;
 import io.qdrant.client.grpc.Points;
@@ -17,7 +19,6 @@ import java.util.UUID;
 import static io.qdrant.client.ConditionFactory.matchKeyword;
 import static io.qdrant.client.PointIdFactory.id;
 import static io.qdrant.client.ValueFactory.value;
-import static io.qdrant.client.VectorsFactory.vectors;
 
 @Service
 @Slf4j
@@ -26,13 +27,16 @@ public class VectorStorageService {
 
     private final QdrantClient qdrantClient;
     private final QdrantConfig.QdrantProperties props;
+    private final SparseVectorEncoder sparseVectorEncoder;
+    private final QdrantSchemaManager schemaManager;
 
 
     public void upsert(List<EmbeddedChunk> chunks, ChunkMetadata metadata) {
 
         log.info("VECTOR_STORAGE UPSERT START projectId={} chunksCount={}", metadata.projectId(), chunks.size());
+        boolean sparse = schemaManager.sparseAvailable();
         List<Points.PointStruct> points = chunks.stream()
-                .map(c -> toPoint(c, metadata))
+                .map(c -> toPoint(c, metadata, sparse))
                 .toList();
 
         try {
@@ -48,7 +52,7 @@ public class VectorStorageService {
             UUID workspaceId,
             UUID projectId,
             List<UUID> documentIds,
-            List<Float> queryVector,
+            float[] queryVector,
             int topK,
             Float scoreThreshold
     ) {
@@ -63,28 +67,16 @@ public class VectorStorageService {
             UUID workspaceId,
             UUID projectId,
             List<UUID> documentIds,
-            List<Float> queryVector,
+            float[] queryVector,
             int topK,
             Float scoreThreshold
     ) throws Exception {
         log.info("VECTOR_STORAGE SEARCH START projectId={} documentIds={} topK={} scoreThreshold={}", projectId, documentIds, topK, scoreThreshold);
 
-        Common.Filter.Builder filterBuilder = Common.Filter.newBuilder()
-                .addMust(matchKeyword("workspaceId", workspaceId.toString()))
-                .addMust(matchKeyword("projectId", projectId.toString()));
-
-        if (documentIds != null && !documentIds.isEmpty()) {
-            log.info("VECTOR_STORAGE SEARCH FILTER documentIds={}", documentIds);
-            for (UUID docId : documentIds) {
-                filterBuilder.addShould(matchKeyword("documentId", docId.toString()));
-            }
-        }
-
-        Common.Filter filter = filterBuilder.build();
+        Common.Filter filter = buildFilter(workspaceId, projectId, documentIds);
 
         Points.SearchPoints.Builder searchBuilder = Points.SearchPoints.newBuilder()
                 .setCollectionName(props.collection())
-                .addAllVector(queryVector)
                 .setLimit(topK)
                 .setFilter(filter)
                 .setWithPayload(
@@ -92,9 +84,15 @@ public class VectorStorageService {
                                 .setEnable(true)
                                 .build()
                 );
+        for (float component : queryVector) {
+            searchBuilder.addVector(component);
+        }
         if (scoreThreshold != null) {
             searchBuilder.setScoreThreshold(scoreThreshold);
         }
+        if (props.quantization() != null && props.quantization() != QdrantConfig.Quantization.NONE) {
+            searchBuilder.setParams(quantizedSearchParams());
+        }
 
         Points.SearchPoints searchRequest = searchBuilder.build();
 
@@ -105,10 +103,117 @@ public class VectorStorageService {
         return results;
     }
 
-    private Points.PointStruct toPoint(EmbeddedChunk c, ChunkMetadata metadata) {
+    public List<Points.ScoredPoint> hybridSearch(
+            UUID workspaceId,
+            UUID projectId,
+            List<UUID> documentIds,
+            float[] queryVector,
+            String queryText,
+            int topK,
+            Float scoreThreshold
+    ) {
+        if (!schemaManager.sparseAvailable()) {
+            log.debug("VECTOR_STORAGE HYBRID_SEARCH SPARSE_UNAVAILABLE projectId={} falling back to dense", projectId);
+            return search(workspaceId, projectId, documentIds, queryVector, topK, scoreThreshold);
+        }
+        try {
+            return hybridSearchWithFilter(workspaceId, projectId, documentIds, queryVector, queryText, topK, scoreThreshold);
+        } catch (Exception e) {
+            throw new RuntimeException("Qdrant hybrid search failed", e);
+        }
+    }
+
+    // Both candidate lists come from one Query API call and are merged server-side with reciprocal rank fusion.
+    // The score threshold only applies to the dense list: fused scores are ranks, not similarities.
+    private List<Points.ScoredPoint> hybridSearchWithFilter(
+            UUID workspaceId,
+            UUID projectId,
+            List<UUID> documentIds,
+            float[] queryVector,
+            String queryText,
+            int topK,
+            Float scoreThreshold
+    ) throws Exception {
+        log.info("VECTOR_STORAGE HYBRID_SEARCH START projectId={} documentIds={} topK={} scoreThreshold={}", projectId, documentIds, topK, scoreThreshold);
+
+        Common.Filter filter = buildFilter(workspaceId, projectId, documentIds);
+        int prefetchLimit = Math.max(topK, props.hybridPrefetchLimit());
+
+        Points.DenseVector.Builder dense = Points.DenseVector.newBuilder();
+        for (float component : queryVector) {
+            dense.addData(component);
+        }
+        Points.PrefetchQuery.Builder densePrefetch = Points.PrefetchQuery.newBuilder()
+                .setQuery(Points.Query.newBuilder()
+                        .setNearest(Points.VectorInput.newBuilder().setDense(dense)))
+                .setFilter(filter)
+                .setLimit(prefetchLimit);
+        if (scoreThreshold != null) {
+            densePrefetch.setScoreThreshold(scoreThreshold);
+        }
+        if (props.quantization() != null && props.quantization() != QdrantConfig.Quantization.NONE) {
+            densePrefetch.setParams(quantizedSearchParams());
+        }
+
+        Points.PrefetchQuery sparsePrefetch = Points.PrefetchQuery.newBuilder()
+                .setQuery(Points.Query.newBuilder()
+                        .setNearest(Points.VectorInput.newBuilder()
+                                .setSparse(toSparseVector(sparseVectorEncoder.encodeQuery(queryText)))))
+                .setUsing(props.sparseVectorName())
+                .setFilter(filter)
+                .setLimit(prefetchLimit)
+                .build();
+
+        Points.QueryPoints query = Points.QueryPoints.newBuilder()
+                .setCollectionName(props.collection())
+                .addPrefetch(densePrefetch)
+                .addPrefetch(sparsePrefetch)
+                .setQuery(Points.Query.newBuilder().setFusion(Points.Fusion.RRF))
+                .setFilter(filter)
+                .setLimit(topK)
+                .setWithPayload(
+                        Points.WithPayloadSelector.newBuilder()
+                                .setEnable(true)
+                                .build()
+                )
+                .build();
+
+        List<Points.ScoredPoint> results = qdrantClient.queryAsync(query).get();
+
+        log.info("VECTOR_STORAGE HYBRID_SEARCH END projectId={} documentIds={} topK={} resultsCount={}", projectId, documentIds, topK, results.size());
+
+        return results;
+    }
+
+    private Common.Filter buildFilter(UUID workspaceId, UUID projectId, List<UUID> documentIds) {
+        Common.Filter.Builder filterBuilder = Common.Filter.newBuilder()
+                .addMust(matchKeyword("workspaceId", workspaceId.toString()))
+                .addMust(matchKeyword("projectId", projectId.toString()));
+
+        if (documentIds != null && !documentIds.isEmpty()) {
+            log.info("VECTOR_STORAGE SEARCH FILTER documentIds={}", documentIds);
+            for (UUID docId : documentIds) {
+                filterBuilder.addShould(matchKeyword("documentId", docId.toString()));
+            }
+        }
+
+        return filterBuilder.build();
+    }
+
+    // Candidates come from the quantized index, oversampled so rescoring with the original vectors can reorder them.
+    private Points.SearchParams quantizedSearchParams() {
+        return Points.SearchParams.newBuilder()
+                .setQuantization(Points.QuantizationSearchParams.newBuilder()
+                        .setRescore(props.rescore())
+                        .setOversampling(props.oversampling())
+                        .build())
+                .build();
+    }
+
+    private Points.PointStruct toPoint(EmbeddedChunk c, ChunkMetadata metadata, boolean sparse) {
         return Points.PointStruct.newBuilder()
                 .setId(id(buildPointId(c)))
-                .setVectors(vectors(c.embedding()))
+                .setVectors(sparse ? toNamedVectors(c) : toVectors(c.embedding()))
                 .putAllPayload(Map.of(
                         "workspaceId", value(metadata.workspaceId().toString()),
                         "projectId", value(metadata.projectId().toString()),
@@ -121,6 +226,35 @@ public class VectorStorageService {
                 .build();
     }
 
+    // Appends straight from the primitive array; VectorsFactory.vectors only takes a List<Float>.
+    private Points.Vectors toVectors(float[] embedding) {
+        Points.Vector.Builder vector = Points.Vector.newBuilder();
+        for (float component : embedding) {
+            vector.addData(component);
+        }
+        return Points.Vectors.newBuilder().setVector(vector).build();
+    }
+
+    // The dense vector keeps the default (empty) name so dense-only searches don't have to name it.
+    private Points.Vectors toNamedVectors(EmbeddedChunk c) {
+        return Points.Vectors.newBuilder()
+                .setVectors(Points.NamedVectors.newBuilder()
+                        .putVectors("", toVectors(c.embedding()).getVector())
+                        .putVectors(props.sparseVectorName(), Points.Vector.newBuilder()
+                                .setSparse(toSparseVector(sparseVectorEncoder.encodeDocument(c.content())))
+                                .build()))
+                .build();
+    }
+
+    private Points.SparseVector toSparseVector(SparseVector sparse) {
+        Points.SparseVector.Builder vector = Points.SparseVector.newBuilder();
+        for (int i = 0; i < sparse.indices().length; i++) {
+            vector.addIndices(sparse.indices()[i]);
+            vector.addValues(sparse.values()[i]);
+        }
+        return vector.build();
+    }
+
     private UUID buildPointId(EmbeddedChunk c) {
         return UUID.nameUUIDFromBytes(
                 (c.documentId() + ":" + c.page() + ":" + c.startOffset()).getBytes()
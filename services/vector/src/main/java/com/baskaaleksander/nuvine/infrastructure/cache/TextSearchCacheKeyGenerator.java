@@ -1,5 +1,6 @@
 package com.baskaaleksander.nuvine.infrastructure.cache;
 
+import com.baskaaleksander.nuvine.application.dto.SearchMode;
 import com.baskaaleksander.nuvine.application.dto.TextVectorSearchRequest;
 import org.springframework.stereotype.Component;
 
@@ -21,13 +22,16 @@ public class TextSearchCacheKeyGenerator {
         String docIdsHash = hashString(String.join(",", sortedDocIds));
         String queryHash = hashString(request.query());
 
-        return String.format("%s:%s:%s:%s:%d:%.4f",
+        SearchMode mode = request.mode() != null ? request.mode() : SearchMode.DENSE;
+
+        return String.format("%s:%s:%s:%s:%d:%.4f:%s",
                 request.workspaceId(),
                 request.projectId(),
                 docIdsHash,
                 queryHash,
                 request.topK(),
-                request.threshold()
+                request.threshold(),
+                mode
         );
     }
 
@@ -9,6 +9,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class QdrantConfig {
 
@@ -42,6 +44,27 @@ public class QdrantConfig {
         private int port;
         private String apiKey;
         private String collection;
+        private boolean manageSchema = true;
+        private int vectorSize = 1536;
+        private String distance = "Cosine";
+        // Searches always filter by workspace, so the global graph is off and each tenant gets its own.
+        private int hnswM = 0;
+        private int hnswPayloadM = 16;
+        private int hnswEfConstruct = 100;
+        private Duration schemaTimeout = Duration.ofSeconds(10);
+        private Quantization quantization = Quantization.NONE;
+        private float scalarQuantile = 0.99f;
+        private boolean quantizationAlwaysRam = true;
+        // With quantized vectors in RAM the originals are only read for rescoring, so they can live on disk.
+        private boolean vectorsOnDisk = false;
+        private double oversampling = 2.0;
+        private boolean rescore = true;
+        private boolean sparseEnabled = true;
+        private String sparseVectorName = "text";
+        private float bm25K1 = 1.2f;
+        private float bm25B = 0.75f;
+        private int bm25AverageLength = 256;
+        private int hybridPrefetchLimit = 50;
 
         public String host() {
             return host;
@@ -74,5 +97,163 @@ public class QdrantConfig {
         public void setCollection(String collection) {
             this.collection = collection;
         }
+
+        public boolean manageSchema() {
+            return manageSchema;
+        }
+
+        public void setManageSchema(boolean manageSchema) {
+            this.manageSchema = manageSchema;
+        }
+
+        public int vectorSize() {
+            return vectorSize;
+        }
+
+        public void setVectorSize(int vectorSize) {
+            this.vectorSize = vectorSize;
+        }
+
+        public String distance() {
+            return distance;
+        }
+
+        public void setDistance(String distance) {
+            this.distance = distance;
+        }
+
+        public int hnswM() {
+            return hnswM;
+        }
+
+        public void setHnswM(int hnswM) {
+            this.hnswM = hnswM;
+        }
+
+        public int hnswPayloadM() {
+            return hnswPayloadM;
+        }
+
+        public void setHnswPayloadM(int hnswPayloadM) {
+            this.hnswPayloadM = hnswPayloadM;
+        }
+
+        public int hnswEfConstruct() {
+            return hnswEfConstruct;
+        }
+
+        public void setHnswEfConstruct(int hnswEfConstruct) {
+            this.hnswEfConstruct = hnswEfConstruct;
+        }
+
+        public Duration schemaTimeout() {
+            return schemaTimeout;
+        }
+
+        public void setSchemaTimeout(Duration schemaTimeout) {
+            this.schemaTimeout = schemaTimeout;
+        }
+
+        public Quantization quantization() {
+            return quantization;
+        }
+
+        public void setQuantization(Quantization quantization) {
+            this.quantization = quantization;
+        }
+
+        public float scalarQuantile() {
+            return scalarQuantile;
+        }
+
+        public void setScalarQuantile(float scalarQuantile) {
+            this.scalarQuantile = scalarQuantile;
+        }
+
+        public boolean quantizationAlwaysRam() {
+            return quantizationAlwaysRam;
+        }
+
+        public void setQuantizationAlwaysRam(boolean quantizationAlwaysRam) {
+            this.quantizationAlwaysRam = quantizationAlwaysRam;
+        }
+
+        public boolean vectorsOnDisk() {
+            return vectorsOnDisk;
+        }
+
+        public void setVectorsOnDisk(boolean vectorsOnDisk) {
+            this.vectorsOnDisk = vectorsOnDisk;
+        }
+
+        public double oversampling() {
+            return oversampling;
+        }
+
+        public void setOversampling(double oversampling) {
+            this.oversampling = oversampling;
+        }
+
+        public boolean rescore() {
+            return rescore;
+        }
+
+        public void setRescore(boolean rescore) {
+            this.rescore = rescore;
+        }
+
+        public boolean sparseEnabled() {
+            return sparseEnabled;
+        }
+
+        public void setSparseEnabled(boolean sparseEnabled) {
+            this.sparseEnabled = sparseEnabled;
+        }
+
+        public String sparseVectorName() {
+            return sparseVectorName;
+        }
+
+        public void setSparseVectorName(String sparseVectorName) {
+            this.sparseVectorName = sparseVectorName;
+        }
+
+        public float bm25K1() {
+            return bm25K1;
+        }
+
+        public void setBm25K1(float bm25K1) {
+            this.bm25K1 = bm25K1;
+        }
+
+        public float bm25B() {
+            return bm25B;
+        }
+
+        public void setBm25B(float bm25B) {
+            this.bm25B = bm25B;
+        }
+
+        public int bm25AverageLength() {
+            return bm25AverageLength;
+        }
+
+        public void setBm25AverageLength(int bm25AverageLength) {
+            this.bm25AverageLength = bm25AverageLength;
+        }
+
+        public int hybridPrefetchLimit() {
+            return hybridPrefetchLimit;
+        }
+
+        public void setHybridPrefetchLimit(int hybridPrefetchLimit) {
+            this.hybridPrefetchLimit = hybridPrefetchLimit;
+        }
+    }
+
+    public enum Quantization {
+        NONE,
+        SCALAR,
+        BINARY
     }
 }
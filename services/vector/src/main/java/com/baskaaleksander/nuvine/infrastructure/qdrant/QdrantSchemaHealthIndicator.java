@@ -0,0 +1,30 @@
+package com.baskaaleksander.nuvine.infrastructure.qdrant;
+
+import com.baskaaleksander.nuvine.infrastructure.config.QdrantConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+@Component("qdrantSchema")
+@RequiredArgsConstructor
+public class QdrantSchemaHealthIndicator extends AbstractHealthIndicator {
+
+    private final QdrantSchemaManager schemaManager;
+    private final QdrantConfig.QdrantProperties props;
+
+    // Drift keeps the service UP: searches still work, just slower or dense-only, and it is visible in the details
+    // to INTERNAL_SERVICE callers.
+    @Override
+    protected void doHealthCheck(Health.Builder builder) throws Exception {
+        QdrantSchemaReport report = schemaManager.inspect();
+
+        builder.withDetail("collection", props.collection())
+                .withDetail("drift", report.drift());
+        if (!report.errors().isEmpty()) {
+            builder.down().withDetail("errors", report.errors());
+        } else {
+            builder.up();
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.baskaaleksander.nuvine.infrastructure.qdrant;
+
+import com.baskaaleksander.nuvine.infrastructure.config.QdrantConfig;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.grpc.Collections;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the layout of the Qdrant collection: dense and BM25 sparse vectors, tenant-aware HNSW, quantization and
+ * the keyword payload indexes every filtered search relies on. On startup it creates whatever is missing and
+ * migrates the quantization of an existing collection, which Qdrant rebuilds in the background; settings that
+ * can't be changed in place (vector size, distance, sparse vectors, HNSW of an existing collection) are only
+ * reported through {@link #inspect()}.
+ * <p>
+ * A collection created before the BM25 sparse vector existed keeps working: {@link #sparseAvailable()} reports
+ * what the live collection has, and storage writes dense-only points and searches dense-only until it is
+ * migrated. Sparse vectors can't be added in place, so the migration is a separate step: create a new
+ * collection with {@code sparseEnabled=true}, re-ingest every document into it (points only get BM25 weights
+ * when they are written), then switch {@code qdrant.collection} over and drop the old one.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class QdrantSchemaManager {
+
+    static final String TENANT_FIELD = "workspaceId";
+    static final List<String> KEYWORD_FIELDS = List.of(TENANT_FIELD, "projectId", "documentId");
+
+    private final QdrantClient qdrantClient;
+    private final QdrantConfig.QdrantProperties props;
+
+    // Whether the live collection has the sparse vector; null until the collection could be read.
+    private volatile Boolean sparseVectorPresent;
+
+    @PostConstruct
+    public void ensureSchema() {
+        if (!props.manageSchema()) {
+            log.info("QDRANT_SCHEMA MANAGEMENT_DISABLED collection={}", props.collection());
+            return;
+        }
+
+        log.info("QDRANT_SCHEMA ENSURE START collection={}", props.collection());
+        try {
+            if (!await(qdrantClient.collectionExistsAsync(props.collection()))) {
+                createCollection();
+            }
+
+            Collections.CollectionInfo info = await(qdrantClient.getCollectionInfoAsync(props.collection()));
+            updateSparseVectorPresent(info);
+            if (quantizationOf(info) != props.quantization() || onDisk(info) != props.vectorsOnDisk()) {
+                migrateQuantization(info);
+            }
+
+            Map<String, Collections.PayloadSchemaInfo> indexes = info.getPayloadSchemaMap();
+            for (String field : KEYWORD_FIELDS) {
+                if (!isExpectedIndex(field, indexes.get(field))) {
+                    createPayloadIndex(field);
+                }
+            }
+
+            QdrantSchemaReport report = inspect();
+            if (report.drift().isEmpty() && report.errors().isEmpty()) {
+                log.info("QDRANT_SCHEMA ENSURE END collection={}", props.collection());
+            } else {
+                log.warn("QDRANT_SCHEMA DRIFT collection={} errors={} drift={}",
+                        props.collection(), report.errors(), report.drift());
+            }
+        } catch (Exception e) {
+            log.error("QDRANT_SCHEMA ENSURE FAILED collection={}", props.collection(), e);
+        }
+    }
+
+    public QdrantSchemaReport inspect() throws Exception {
+        List<String> errors = new ArrayList<>();
+        List<String> drift = new ArrayList<>();
+
+        if (!await(qdrantClient.collectionExistsAsync(props.collection()))) {
+            errors.add("collection " + props.collection() + " does not exist");
+            return new QdrantSchemaReport(errors, drift);
+        }
+
+        Collections.CollectionInfo info = await(qdrantClient.getCollectionInfoAsync(props.collection()));
+        Collections.VectorsConfig vectors = info.getConfig().getParams().getVectorsConfig();
+        if (!vectors.hasParams()) {
+            errors.add("collection uses named vectors, expected a single unnamed vector");
+        } else {
+            Collections.VectorParams params = vectors.getParams();
+            if (params.getSize() != props.vectorSize()) {
+                errors.add("vector size is " + params.getSize() + ", expected " + props.vectorSize());
+            }
+            if (params.getDistance() != distance()) {
+                errors.add("distance is " + params.getDistance() + ", expected " + distance());
+            }
+        }
+        // Sparse vectors can't be added to an existing collection; until it is rebuilt, search stays dense-only.
+        if (props.sparseEnabled() && !updateSparseVectorPresent(info)) {
+            drift.add("sparse vector " + props.sparseVectorName()
+                    + " is missing, hybrid search falls back to dense until the collection is recreated and re-ingested");
+        }
+
+        Collections.HnswConfigDiff hnsw = info.getConfig().getHnswConfig();
+        if (hnsw.getM() != props.hnswM()) {
+            drift.add("hnsw m is " + hnsw.getM() + ", expected " + props.hnswM());
+        }
+        if (hnsw.getPayloadM() != props.hnswPayloadM()) {
+            drift.add("hnsw payload_m is " + hnsw.getPayloadM() + ", expected " + props.hnswPayloadM());
+        }
+        if (quantizationOf(info) != props.quantization()) {
+            drift.add("quantization is " + quantizationOf(info) + ", expected " + props.quantization());
+        }
+        if (onDisk(info) != props.vectorsOnDisk()) {
+            drift.add("vectors on_disk is " + onDisk(info) + ", expected " + props.vectorsOnDisk());
+        }
+
+        Map<String, Collections.PayloadSchemaInfo> indexes = info.getPayloadSchemaMap();
+        for (String field : KEYWORD_FIELDS) {
+            Collections.PayloadSchemaInfo index = indexes.get(field);
+            if (index == null) {
+                drift.add("payload index on " + field + " is missing");
+            } else if (!isExpectedIndex(field, index)) {
+                drift.add("payload index on " + field + " is " + index.getDataType()
+                        + (TENANT_FIELD.equals(field) ? ", expected a keyword tenant index" : ", expected keyword"));
+            }
+        }
+
+        return new QdrantSchemaReport(errors, drift);
+    }
+
+    /**
+     * Whether points should carry the sparse vector and hybrid search may use it: enabled in config and present
+     * in the live collection. Read from Qdrant on first use when startup couldn't, then refreshed by
+     * {@link #inspect()}.
+     */
+    public boolean sparseAvailable() {
+        if (!props.sparseEnabled()) {
+            return false;
+        }
+        Boolean present = sparseVectorPresent;
+        if (present == null) {
+            try {
+                present = updateSparseVectorPresent(await(qdrantClient.getCollectionInfoAsync(props.collection())));
+            } catch (Exception e) {
+                log.warn("QDRANT_SCHEMA SPARSE_CHECK_FAILED collection={}", props.collection(), e);
+                return false;
+            }
+        }
+        return present;
+    }
+
+    private boolean updateSparseVectorPresent(Collections.CollectionInfo info) {
+        boolean present = info.getConfig().getParams().getSparseVectorsConfig().containsMap(props.sparseVectorName());
+        Boolean previous = sparseVectorPresent;
+        sparseVectorPresent = present;
+        if (props.sparseEnabled() && !present && !Boolean.FALSE.equals(previous)) {
+            log.warn("QDRANT_SCHEMA SPARSE_MISSING collection={} vector={} hybrid search falls back to dense",
+                    props.collection(), props.sparseVectorName());
+        }
+        return present;
+    }
+
+    private void createCollection() throws Exception {
+        log.info("QDRANT_SCHEMA CREATE_COLLECTION collection={} vectorSize={} distance={} hnswM={} hnswPayloadM={} quantization={}",
+                props.collection(), props.vectorSize(), props.distance(), props.hnswM(), props.hnswPayloadM(),
+                props.quantization());
+
+        Collections.CreateCollection.Builder request = Collections.CreateCollection.newBuilder()
+                .setCollectionName(props.collection())
+                .setVectorsConfig(Collections.VectorsConfig.newBuilder()
+                        .setParams(Collections.VectorParams.newBuilder()
+                                .setSize(props.vectorSize())
+                                .setDistance(distance())
+                                .setOnDisk(props.vectorsOnDisk())
+                                .build())
+                        .build())
+                .setHnswConfig(Collections.HnswConfigDiff.newBuilder()
+                        .setM(props.hnswM())
+                        .setPayloadM(props.hnswPayloadM())
+                        .setEfConstruct(props.hnswEfConstruct())
+                        .build());
+        if (props.quantization() != QdrantConfig.Quantization.NONE) {
+            request.setQuantizationConfig(quantizationConfig());
+        }
+        if (props.sparseEnabled()) {
+            request.setSparseVectorsConfig(Collections.SparseVectorConfig.newBuilder()
+                    .putMap(props.sparseVectorName(), Collections.SparseVectorParams.newBuilder()
+                            .setModifier(Collections.Modifier.Idf)
+                            .build())
+                    .build());
+        }
+
+        await(qdrantClient.createCollectionAsync(request.build()));
+    }
+
+    private void migrateQuantization(Collections.CollectionInfo info) throws Exception {
+        log.info("QDRANT_SCHEMA MIGRATE_QUANTIZATION collection={} from={} to={} vectorsOnDisk={}",
+                props.collection(), quantizationOf(info), props.quantization(), props.vectorsOnDisk());
+
+        Collections.QuantizationConfigDiff.Builder quantization = Collections.QuantizationConfigDiff.newBuilder();
+        switch (props.quantization()) {
+            case SCALAR -> quantization.setScalar(quantizationConfig().getScalar());
+            case BINARY -> quantization.setBinary(quantizationConfig().getBinary());
+            case NONE -> quantization.setDisabled(Collections.Disabled.getDefaultInstance());
+        }
+
+        await(qdrantClient.updateCollectionAsync(
+                Collections.UpdateCollection.newBuilder()
+                        .setCollectionName(props.collection())
+                        .setQuantizationConfig(quantization.build())
+                        .setVectorsConfig(Collections.VectorsConfigDiff.newBuilder()
+                                .setParams(Collections.VectorParamsDiff.newBuilder()
+                                        .setOnDisk(props.vectorsOnDisk())
+                                        .build())
+                                .build())
+                        .build()
+        ));
+    }
+
+    private Collections.QuantizationConfig quantizationConfig() {
+        return switch (props.quantization()) {
+            case SCALAR -> Collections.QuantizationConfig.newBuilder()
+                    .setScalar(Collections.ScalarQuantization.newBuilder()
+                            .setType(Collections.QuantizationType.Int8)
+                            .setQuantile(props.scalarQuantile())
+                            .setAlwaysRam(props.quantizationAlwaysRam())
+                            .build())
+                    .build();
+            case BINARY -> Collections.QuantizationConfig.newBuilder()
+                    .setBinary(Collections.BinaryQuantization.newBuilder()
+                            .setAlwaysRam(props.quantizationAlwaysRam())
+                            .build())
+                    .build();
+            case NONE -> throw new IllegalStateException("Quantization is disabled");
+        };
+    }
+
+    private QdrantConfig.Quantization quantizationOf(Collections.CollectionInfo info) {
+        Collections.VectorsConfig vectors = info.getConfig().getParams().getVectorsConfig();
+        Collections.QuantizationConfig config = vectors.getParams().hasQuantizationConfig()
+                ? vectors.getParams().getQuantizationConfig()
+                : info.getConfig().getQuantizationConfig();
+        if (config.hasScalar()) {
+            return QdrantConfig.Quantization.SCALAR;
+        }
+        if (config.hasBinary()) {
+            return QdrantConfig.Quantization.BINARY;
+        }
+        return QdrantConfig.Quantization.NONE;
+    }
+
+    private boolean onDisk(Collections.CollectionInfo info) {
+        return info.getConfig().getParams().getVectorsConfig().getParams().getOnDisk();
+    }
+
+    private void createPayloadIndex(String field) throws Exception {
+        boolean tenant = TENANT_FIELD.equals(field);
+        log.info("QDRANT_SCHEMA CREATE_INDEX collection={} field={} tenant={}", props.collection(), field, tenant);
+
+        Collections.PayloadIndexParams params = Collections.PayloadIndexParams.newBuilder()
+                .setKeywordIndexParams(Collections.KeywordIndexParams.newBuilder()
+                        .setIsTenant(tenant)
+                        .build())
+                .build();
+
+        await(qdrantClient.createPayloadIndexAsync(
+                props.collection(),
+                field,
+                Collections.PayloadSchemaType.Keyword,
+                params,
+                true,
+                null,
+                null
+        ));
+    }
+
+    private boolean isExpectedIndex(String field, Collections.PayloadSchemaInfo index) {
+        if (index == null || index.getDataType() != Collections.PayloadSchemaType.Keyword) {
+            return false;
+        }
+        if (!TENANT_FIELD.equals(field)) {
+            return true;
+        }
+        return index.getParams().hasKeywordIndexParams() && index.getParams().getKeywordIndexParams().getIsTenant();
+    }
+
+    private Collections.Distance distance() {
+        return Collections.Distance.valueOf(props.distance());
+    }
+
+    private <T> T await(ListenableFuture<T> future) throws Exception {
+        return future.get(props.schemaTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
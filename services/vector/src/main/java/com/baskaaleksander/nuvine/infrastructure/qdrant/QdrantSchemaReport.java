@@ -0,0 +1,13 @@
+package com.baskaaleksander.nuvine.infrastructure.qdrant;
+
+import java.util.List;
+
+/**
+ * Differences between the live collection and the expected schema. Errors break writes or searches outright;
+ * drift only costs performance, e.g. a missing payload index turning filtered search into a full scan.
+ */
+public record QdrantSchemaReport(
+        List<String> errors,
+        List<String> drift
+) {
+}
@@ -0,0 +1,222 @@
+package com.baskaaleksander.nuvine.infrastructure.serialization;
+
+import com.baskaaleksander.nuvine.domain.model.Chunk;
+import com.baskaaleksander.nuvine.domain.model.EmbeddedChunk;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.EmbeddingCompletedEvent;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.EmbeddingRequestEvent;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.VectorProcessingRequestEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary layout of the embedding pipeline events. A message starts with a zero magic byte, which JSON never
+ * does, and a schema id; the record fields follow in declaration order. Ints are big-endian, strings are
+ * length-prefixed UTF-8 (-1 for null) and vectors are {@link EmbeddingCodec} bytes. The schema ids are shared
+ * with the copies of this class in ingestion and llm-router: a layout change gets a new id, never an edit.
+ */
+public final class EmbeddingEventCodec {
+
+    static final byte MAGIC = 0;
+    static final byte EMBEDDING_REQUEST_V1 = 1;
+    static final byte EMBEDDING_COMPLETED_V1 = 2;
+    static final byte VECTOR_PROCESSING_REQUEST_V1 = 3;
+
+    private EmbeddingEventCodec() {
+    }
+
+    public static boolean supports(Object event) {
+        return event instanceof EmbeddingRequestEvent
+                || event instanceof EmbeddingCompletedEvent
+                || event instanceof VectorProcessingRequestEvent;
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(Object event) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(MAGIC);
+        switch (event) {
+            case EmbeddingRequestEvent e -> {
+                out.writeByte(EMBEDDING_REQUEST_V1);
+                writeString(out, e.embeddingJobId());
+                writeChunks(out, e.chunks());
+                writeString(out, e.model());
+            }
+            case EmbeddingCompletedEvent e -> {
+                out.writeByte(EMBEDDING_COMPLETED_V1);
+                writeString(out, e.ingestionJobId());
+                writeEmbeddedChunks(out, e.embeddedChunks());
+                writeString(out, e.model());
+            }
+            case VectorProcessingRequestEvent e -> {
+                out.writeByte(VECTOR_PROCESSING_REQUEST_V1);
+                writeString(out, e.ingestionJobId());
+                writeString(out, e.documentId());
+                writeString(out, e.projectId());
+                writeString(out, e.workspaceId());
+                writeChunks(out, e.chunks());
+            }
+            default -> throw new IllegalArgumentException("No binary schema for " + event.getClass().getName());
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Object decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readByte() != MAGIC) {
+            throw new IOException("Not a binary embedding event");
+        }
+        byte schemaId = in.readByte();
+        return switch (schemaId) {
+            case EMBEDDING_REQUEST_V1 -> new EmbeddingRequestEvent(
+                    readString(in),
+                    readChunks(in),
+                    readString(in)
+            );
+            case EMBEDDING_COMPLETED_V1 -> new EmbeddingCompletedEvent(
+                    readString(in),
+                    readEmbeddedChunks(in),
+                    readString(in)
+            );
+            case VECTOR_PROCESSING_REQUEST_V1 -> new VectorProcessingRequestEvent(
+                    readString(in),
+                    readString(in),
+                    readString(in),
+                    readString(in),
+                    readChunks(in)
+            );
+            default -> throw new IOException("Unknown embedding event schema id " + schemaId);
+        };
+    }
+
+    private static void writeChunks(DataOutputStream out, List<Chunk> chunks) throws IOException {
+        if (chunks == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(chunks.size());
+        for (Chunk chunk : chunks) {
+            writeUuid(out, chunk.documentId());
+            out.writeInt(chunk.page());
+            out.writeInt(chunk.startOffset());
+            out.writeInt(chunk.endOffset());
+            writeString(out, chunk.content());
+            out.writeInt(chunk.index());
+        }
+    }
+
+    private static List<Chunk> readChunks(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        if (size > in.available()) {
+            throw new IOException("Truncated embedding event");
+        }
+        List<Chunk> chunks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chunks.add(new Chunk(readUuid(in), in.readInt(), in.readInt(), in.readInt(), readString(in), in.readInt()));
+        }
+        return chunks;
+    }
+
+    private static void writeEmbeddedChunks(DataOutputStream out, List<EmbeddedChunk> chunks) throws IOException {
+        if (chunks == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(chunks.size());
+        for (EmbeddedChunk chunk : chunks) {
+            writeUuid(out, chunk.documentId());
+            out.writeInt(chunk.page());
+            out.writeInt(chunk.startOffset());
+            out.writeInt(chunk.endOffset());
+            writeVector(out, chunk.embedding());
+            writeString(out, chunk.content());
+            out.writeInt(chunk.index());
+        }
+    }
+
+    private static List<EmbeddedChunk> readEmbeddedChunks(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        if (size > in.available()) {
+            throw new IOException("Truncated embedding event");
+        }
+        List<EmbeddedChunk> chunks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chunks.add(new EmbeddedChunk(readUuid(in), in.readInt(), in.readInt(), in.readInt(),
+                    readVector(in), readString(in), in.readInt()));
+        }
+        return chunks;
+    }
+
+    private static void writeVector(DataOutputStream out, float[] vector) throws IOException {
+        if (vector == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(vector.length);
+        out.write(EmbeddingCodec.toBytes(vector));
+    }
+
+    private static float[] readVector(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return EmbeddingCodec.fromBytes(readBytes(in, (long) length * Float.BYTES));
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(readBytes(in, length), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream in, long length) throws IOException {
+        if (length > in.available()) {
+            throw new IOException("Truncated embedding event");
+        }
+        byte[] bytes = new byte[(int) length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,62 @@
+package com.baskaaleksander.nuvine.infrastructure.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Kafka value serializer that writes the embedding pipeline events with {@link EmbeddingEventCodec} once
+ * {@value #BINARY_ENABLED} is set in the producer properties; every other payload, and all of them while the
+ * flag is off, goes through the regular {@link JsonSerializer}.
+ */
+public class EmbeddingEventSerializer implements Serializer<Object> {
+
+    public static final String BINARY_ENABLED = "nuvine.serialization.binary.enabled";
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private boolean binaryEnabled;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+        Object enabled = configs.get(BINARY_ENABLED);
+        binaryEnabled = enabled != null && Boolean.parseBoolean(enabled.toString());
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (!useBinary(data)) {
+            return jsonSerializer.serialize(topic, data);
+        }
+        return encode(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (!useBinary(data)) {
+            return jsonSerializer.serialize(topic, headers, data);
+        }
+        return encode(topic, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+
+    private boolean useBinary(Object data) {
+        return binaryEnabled && EmbeddingEventCodec.supports(data);
+    }
+
+    private byte[] encode(String topic, Object data) {
+        try {
+            return EmbeddingEventCodec.encode(data);
+        } catch (IOException e) {
+            throw new SerializationException("Can't serialize " + data.getClass().getSimpleName() + " for topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.baskaaleksander.nuvine.benchmark;
+
+import com.baskaaleksander.nuvine.domain.model.Chunk;
+import com.baskaaleksander.nuvine.domain.model.EmbeddedChunk;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.EmbeddingCompletedEvent;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.EmbeddingRequestEvent;
+import com.baskaaleksander.nuvine.infrastructure.serialization.EmbeddingEventDeserializer;
+import com.baskaaleksander.nuvine.infrastructure.serialization.EmbeddingEventSerializer;
+import com.github.luben.zstd.Zstd;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumer-side cost of the embedding pipeline events as JSON versus {@code EmbeddingEventCodec}: a completed
+ * event with one embedding batch and a request event carrying a whole document. Message sizes, raw and after
+ * zstd (the producers' compression), are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmbeddingEventSerializationBenchmark {
+
+    private static final String TOPIC = "embedding-completed";
+    private static final int DIMENSIONS = 1536;
+    private static final int DOCUMENT_CHUNKS = 400;
+
+    @Param({"10", "64"})
+    private int batchSize;
+
+    private final EmbeddingEventDeserializer deserializer = new EmbeddingEventDeserializer();
+
+    private final RecordHeaders completedHeaders = new RecordHeaders();
+    private final RecordHeaders requestHeaders = new RecordHeaders();
+
+    private byte[] completedJson;
+    private byte[] completedBinary;
+    private byte[] requestJson;
+    private byte[] requestBinary;
+
+    @Setup
+    public void setUp() {
+        deserializer.configure(Map.of("spring.json.trusted.packages", "*"), false);
+
+        Random random = new Random(42);
+        UUID documentId = UUID.randomUUID();
+        List<EmbeddedChunk> embeddedChunks = new ArrayList<>();
+        for (int i = 0; i < batchSize; i++) {
+            float[] embedding = new float[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                embedding[d] = random.nextFloat() * 2 - 1;
+            }
+            embeddedChunks.add(new EmbeddedChunk(documentId, i, i * 1000, (i + 1) * 1000, embedding, chunkText(i), i));
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        for (int i = 0; i < DOCUMENT_CHUNKS; i++) {
+            chunks.add(new Chunk(documentId, i / 4, i * 1000, (i + 1) * 1000, chunkText(i), i));
+        }
+        EmbeddingCompletedEvent completed = new EmbeddingCompletedEvent("job", embeddedChunks, "text-embedding-3-small");
+        EmbeddingRequestEvent request = new EmbeddingRequestEvent("job", chunks, "text-embedding-3-small");
+
+        // JsonSerializer records the type id in the headers; the binary payloads carry their own schema id.
+        completedJson = serializer(false).serialize(TOPIC, completedHeaders, completed);
+        completedBinary = serializer(true).serialize(TOPIC, completed);
+        requestJson = serializer(false).serialize(TOPIC, requestHeaders, request);
+        requestBinary = serializer(true).serialize(TOPIC, request);
+
+        report("EmbeddingCompletedEvent", completedJson, completedBinary);
+        report("EmbeddingRequestEvent", requestJson, requestBinary);
+    }
+
+    @Benchmark
+    public Object completedEventJson() {
+        return deserializer.deserialize(TOPIC, completedHeaders, completedJson);
+    }
+
+    @Benchmark
+    public Object completedEventBinary() {
+        return deserializer.deserialize(TOPIC, completedHeaders, completedBinary);
+    }
+
+    @Benchmark
+    public Object requestEventJson() {
+        return deserializer.deserialize(TOPIC, requestHeaders, requestJson);
+    }
+
+    @Benchmark
+    public Object requestEventBinary() {
+        return deserializer.deserialize(TOPIC, requestHeaders, requestBinary);
+    }
+
+    private static EmbeddingEventSerializer serializer(boolean binaryEnabled) {
+        EmbeddingEventSerializer serializer = new EmbeddingEventSerializer();
+        serializer.configure(Map.of(EmbeddingEventSerializer.BINARY_ENABLED, String.valueOf(binaryEnabled)), false);
+        return serializer;
+    }
+
+    private static void report(String event, byte[] json, byte[] binary) {
+        System.out.printf("%n%s bytes/message: json=%d (zstd %d), binary=%d (zstd %d)%n",
+                event, json.length, Zstd.compress(json).length, binary.length, Zstd.compress(binary).length);
+    }
+
+    private static String chunkText(int index) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            sb.append("Clause ").append(index).append('.').append(i)
+                    .append(": invoices older than seven years are moved to cold storage. ");
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmbeddingEventSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
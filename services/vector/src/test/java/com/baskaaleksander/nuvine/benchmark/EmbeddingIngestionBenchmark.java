@@ -0,0 +1,112 @@
+package com.baskaaleksander.nuvine.benchmark;
+
+import com.baskaaleksander.nuvine.domain.model.EmbeddedChunk;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.EmbeddingCompletedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qdrant.client.grpc.Points;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static io.qdrant.client.VectorsFactory.vectors;
+
+/**
+ * Decoding an EmbeddingCompletedEvent batch and turning it into Qdrant vectors, comparing the old JSON number
+ * arrays + {@code List<Float>} path with base64 + {@code float[]}. Run with the GC profiler so
+ * {@code gc.alloc.rate.norm} shows the per-batch allocation next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmbeddingIngestionBenchmark {
+
+    private static final int DIMENSIONS = 1536;
+
+    @Param({"16", "128"})
+    private int chunks;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private byte[] legacyPayload;
+    private byte[] binaryPayload;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        UUID documentId = UUID.randomUUID();
+        List<EmbeddedChunk> embeddedChunks = new ArrayList<>();
+        List<LegacyEmbeddedChunk> legacyChunks = new ArrayList<>();
+        for (int i = 0; i < chunks; i++) {
+            float[] embedding = new float[DIMENSIONS];
+            List<Float> boxed = new ArrayList<>(DIMENSIONS);
+            for (int d = 0; d < DIMENSIONS; d++) {
+                embedding[d] = random.nextFloat() * 2 - 1;
+                boxed.add(embedding[d]);
+            }
+            embeddedChunks.add(new EmbeddedChunk(documentId, i, i * 1000, (i + 1) * 1000, embedding, "chunk " + i, i));
+            legacyChunks.add(new LegacyEmbeddedChunk(documentId, i, i * 1000, (i + 1) * 1000, boxed, "chunk " + i, i));
+        }
+        binaryPayload = objectMapper.writeValueAsBytes(
+                new EmbeddingCompletedEvent("job", embeddedChunks, "text-embedding-3-small"));
+        legacyPayload = objectMapper.writeValueAsBytes(
+                new LegacyEmbeddingCompletedEvent("job", legacyChunks, "text-embedding-3-small"));
+    }
+
+    @Benchmark
+    public void legacyNumberArrays(Blackhole blackhole) throws Exception {
+        LegacyEmbeddingCompletedEvent event = objectMapper.readValue(legacyPayload, LegacyEmbeddingCompletedEvent.class);
+        for (LegacyEmbeddedChunk chunk : event.embeddedChunks()) {
+            blackhole.consume(vectors(chunk.embedding()));
+        }
+    }
+
+    @Benchmark
+    public void base64FloatArrays(Blackhole blackhole) throws Exception {
+        EmbeddingCompletedEvent event = objectMapper.readValue(binaryPayload, EmbeddingCompletedEvent.class);
+        for (EmbeddedChunk chunk : event.embeddedChunks()) {
+            // Same construction as VectorStorageService.toVectors.
+            Points.Vector.Builder vector = Points.Vector.newBuilder();
+            for (float component : chunk.embedding()) {
+                vector.addData(component);
+            }
+            blackhole.consume(Points.Vectors.newBuilder().setVector(vector).build());
+        }
+    }
+
+    public record LegacyEmbeddedChunk(UUID documentId, int page, int startOffset, int endOffset, List<Float> embedding,
+                                      String content, int index) {
+    }
+
+    public record LegacyEmbeddingCompletedEvent(String ingestionJobId, List<LegacyEmbeddedChunk> embeddedChunks,
+                                                String model) {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmbeddingIngestionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,230 @@
+package com.baskaaleksander.nuvine.benchmark;
+
+import com.baskaaleksander.nuvine.domain.model.ChunkMetadata;
+import com.baskaaleksander.nuvine.domain.model.EmbeddedChunk;
+import com.baskaaleksander.nuvine.domain.service.SparseVectorEncoder;
+import com.baskaaleksander.nuvine.domain.service.VectorStorageService;
+import com.baskaaleksander.nuvine.infrastructure.config.QdrantConfig;
+import com.baskaaleksander.nuvine.infrastructure.qdrant.QdrantSchemaManager;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.grpc.Collections;
+import io.qdrant.client.grpc.Common;
+import io.qdrant.client.grpc.Points;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static io.qdrant.client.ConditionFactory.matchKeyword;
+
+/**
+ * Recall and latency of the quantization settings against a throwaway Qdrant container. Every configuration
+ * gets its own collection created by {@link QdrantSchemaManager} and is queried through
+ * {@link VectorStorageService}, so the numbers include the tenant filter and rescoring exactly as deployed.
+ * Ground truth is an exact search over the unquantized collection. Vectors are synthetic clusters rather than
+ * real embeddings, so compare the settings with each other, not with production recall.
+ * <p>
+ * Sizes come from system properties: {@code -Dharness.points=20000 -Dharness.queries=200 -Dharness.topK=10
+ * -Dharness.dimensions=1536}. Run the largest size you expect per workspace.
+ */
+public class QuantizationRecallHarness {
+
+    private static final int POINTS = Integer.getInteger("harness.points", 20_000);
+    private static final int QUERIES = Integer.getInteger("harness.queries", 200);
+    private static final int TOP_K = Integer.getInteger("harness.topK", 10);
+    private static final int DIMENSIONS = Integer.getInteger("harness.dimensions", 1536);
+    private static final int CLUSTERS = 64;
+    private static final int BATCH_SIZE = 256;
+    private static final double[] OVERSAMPLING = {1.0, 2.0, 3.0, 4.0};
+
+    private final UUID workspaceId = UUID.randomUUID();
+    private final UUID projectId = UUID.randomUUID();
+    private final Random random = new Random(42);
+    private final float[][] centroids = new float[CLUSTERS][];
+
+    public static void main(String[] args) throws Exception {
+        try (GenericContainer<?> qdrant = new GenericContainer<>(DockerImageName.parse("qdrant/qdrant:v1.16.1"))
+                .withExposedPorts(6333, 6334)) {
+            qdrant.start();
+            new QuantizationRecallHarness().run(qdrant.getHost(), qdrant.getMappedPort(6334));
+        }
+    }
+
+    private void run(String host, int port) throws Exception {
+        for (int c = 0; c < CLUSTERS; c++) {
+            centroids[c] = normalize(gaussian(1.0f));
+        }
+        List<EmbeddedChunk> chunks = new ArrayList<>(POINTS);
+        UUID documentId = UUID.randomUUID();
+        for (int i = 0; i < POINTS; i++) {
+            chunks.add(new EmbeddedChunk(documentId, i, 0, 0, sample(), "chunk " + i, i));
+        }
+        List<float[]> queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(sample());
+        }
+
+        QdrantConfig.QdrantProperties baseline = props(host, port, QdrantConfig.Quantization.NONE);
+        QdrantClient client = new QdrantConfig().qdrantClient(baseline);
+        try {
+            List<Set<String>> truth = new ArrayList<>(QUERIES);
+            load(client, baseline, chunks);
+            for (float[] query : queries) {
+                truth.add(exactTopK(client, baseline, query));
+            }
+
+            System.out.printf("%npoints=%d queries=%d topK=%d dimensions=%d%n", POINTS, QUERIES, TOP_K, DIMENSIONS);
+            System.out.printf("%-8s %-12s %-8s %-10s %-10s %-10s %-14s%n",
+                    "mode", "oversampling", "rescore", "recall@k", "p50 ms", "p95 ms", "ram bytes/vec");
+            report(client, baseline, queries, truth);
+
+            for (QdrantConfig.Quantization mode : List.of(QdrantConfig.Quantization.SCALAR, QdrantConfig.Quantization.BINARY)) {
+                QdrantConfig.QdrantProperties props = props(host, port, mode);
+                load(client, props, chunks);
+                props.setRescore(false);
+                props.setOversampling(1.0);
+                report(client, props, queries, truth);
+                props.setRescore(true);
+                for (double oversampling : OVERSAMPLING) {
+                    props.setOversampling(oversampling);
+                    report(client, props, queries, truth);
+                }
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    private void load(QdrantClient client, QdrantConfig.QdrantProperties props, List<EmbeddedChunk> chunks) throws Exception {
+        QdrantSchemaManager schemaManager = new QdrantSchemaManager(client, props);
+        schemaManager.ensureSchema();
+        VectorStorageService storage =
+                new VectorStorageService(client, props, new SparseVectorEncoder(props), schemaManager);
+        ChunkMetadata metadata = new ChunkMetadata(workspaceId, projectId);
+        for (int from = 0; from < chunks.size(); from += BATCH_SIZE) {
+            storage.upsert(chunks.subList(from, Math.min(from + BATCH_SIZE, chunks.size())), metadata);
+        }
+        awaitOptimized(client, props.collection());
+    }
+
+    private void report(QdrantClient client, QdrantConfig.QdrantProperties props, List<float[]> queries,
+                        List<Set<String>> truth) {
+        VectorStorageService storage = new VectorStorageService(
+                client, props, new SparseVectorEncoder(props), new QdrantSchemaManager(client, props));
+        long[] latencies = new long[queries.size()];
+        int hits = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            long start = System.nanoTime();
+            List<Points.ScoredPoint> results = storage.search(workspaceId, projectId, null, queries.get(i), TOP_K, null);
+            latencies[i] = System.nanoTime() - start;
+            for (Points.ScoredPoint point : results) {
+                if (truth.get(i).contains(point.getId().getUuid())) {
+                    hits++;
+                }
+            }
+        }
+        Arrays.sort(latencies);
+        boolean quantized = props.quantization() != QdrantConfig.Quantization.NONE;
+        System.out.printf("%-8s %-12s %-8s %-10.4f %-10.2f %-10.2f %-14d%n",
+                props.quantization(),
+                quantized ? props.oversampling() : "-",
+                quantized ? props.rescore() : "-",
+                (double) hits / ((long) TOP_K * queries.size()),
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.95),
+                ramBytesPerVector(props));
+    }
+
+    private Set<String> exactTopK(QdrantClient client, QdrantConfig.QdrantProperties props, float[] query) throws Exception {
+        Points.SearchPoints.Builder search = Points.SearchPoints.newBuilder()
+                .setCollectionName(props.collection())
+                .setLimit(TOP_K)
+                .setFilter(Common.Filter.newBuilder()
+                        .addMust(matchKeyword("workspaceId", workspaceId.toString()))
+                        .addMust(matchKeyword("projectId", projectId.toString()))
+                        .build())
+                .setParams(Points.SearchParams.newBuilder().setExact(true).build());
+        for (float component : query) {
+            search.addVector(component);
+        }
+        Set<String> ids = new HashSet<>();
+        for (Points.ScoredPoint point : client.searchAsync(search.build()).get()) {
+            ids.add(point.getId().getUuid());
+        }
+        return ids;
+    }
+
+    // Waits until the optimizer has finished building the index and the quantized segments.
+    private void awaitOptimized(QdrantClient client, String collection) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(10);
+        int greenPolls = 0;
+        while (greenPolls < 3) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Collection " + collection + " was not optimized in time");
+            }
+            Thread.sleep(1000);
+            Collections.CollectionStatus status = client.getCollectionInfoAsync(collection).get().getStatus();
+            greenPolls = status == Collections.CollectionStatus.Green ? greenPolls + 1 : 0;
+        }
+    }
+
+    private static long ramBytesPerVector(QdrantConfig.QdrantProperties props) {
+        return switch (props.quantization()) {
+            case NONE -> (long) DIMENSIONS * Float.BYTES;
+            case SCALAR -> DIMENSIONS;
+            case BINARY -> (DIMENSIONS + 7) / 8;
+        };
+    }
+
+    private static QdrantConfig.QdrantProperties props(String host, int port, QdrantConfig.Quantization mode) {
+        QdrantConfig.QdrantProperties props = new QdrantConfig.QdrantProperties();
+        props.setHost(host);
+        props.setPort(port);
+        props.setCollection("recall_" + mode.name().toLowerCase());
+        props.setVectorSize(DIMENSIONS);
+        props.setQuantization(mode);
+        props.setVectorsOnDisk(mode != QdrantConfig.Quantization.NONE);
+        return props;
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private float[] sample() {
+        float[] centroid = centroids[random.nextInt(CLUSTERS)];
+        float[] noise = gaussian((float) (0.5 / Math.sqrt(DIMENSIONS)));
+        for (int d = 0; d < DIMENSIONS; d++) {
+            noise[d] += centroid[d];
+        }
+        return normalize(noise);
+    }
+
+    private float[] gaussian(float scale) {
+        float[] vector = new float[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] = (float) random.nextGaussian() * scale;
+        }
+        return vector;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float component : vector) {
+            norm += component * component;
+        }
+        float inverse = (float) (1 / Math.sqrt(norm));
+        for (int d = 0; d < vector.length; d++) {
+            vector[d] *= inverse;
+        }
+        return vector;
+    }
+}
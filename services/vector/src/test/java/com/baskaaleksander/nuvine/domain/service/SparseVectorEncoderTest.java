@@ -0,0 +1,97 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.domain.model.SparseVector;
+import com.baskaaleksander.nuvine.infrastructure.config.QdrantConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseVectorEncoderTest {
+
+    private SparseVectorEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        QdrantConfig.QdrantProperties props = new QdrantConfig.QdrantProperties();
+        props.setBm25AverageLength(8);
+        encoder = new SparseVectorEncoder(props);
+    }
+
+    @Test
+    void tokenize_lowercasesAndDropsStopWords() {
+        assertEquals(List.of("invoices", "archived", "after", "seven", "years"),
+                encoder.tokenize("Invoices are archived after seven years."));
+    }
+
+    @Test
+    void tokenize_keepsWholeIdentifiersNextToTheirParts() {
+        assertEquals(List.of("error", "err", "4021", "err-4021", "qdrant", "v1", "16", "1", "v1.16.1"),
+                encoder.tokenize("Error ERR-4021 (qdrant v1.16.1)"));
+    }
+
+    @Test
+    void tokenize_nullText_returnsNoTerms() {
+        assertTrue(encoder.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void encodeQuery_weightsEachDistinctTermOnce() {
+        SparseVector vector = encoder.encodeQuery("refund refund policy");
+
+        assertEquals(2, vector.indices().length);
+        for (float value : vector.values()) {
+            assertEquals(1.0f, value);
+        }
+    }
+
+    @Test
+    void encodeDocument_saturatesRepeatedTerms() {
+        SparseVector once = encoder.encodeDocument("refund policy terms apply");
+        SparseVector twice = encoder.encodeDocument("refund refund terms apply");
+
+        float single = weightOf(once, encoder.encodeQuery("refund").indices()[0]);
+        float repeated = weightOf(twice, encoder.encodeQuery("refund").indices()[0]);
+
+        assertTrue(repeated > single);
+        assertTrue(repeated < 2 * single);
+    }
+
+    @Test
+    void encodeDocument_longerDocumentsGetLowerWeights() {
+        int refund = encoder.encodeQuery("refund").indices()[0];
+
+        float shortDoc = weightOf(encoder.encodeDocument("refund policy"), refund);
+        float longDoc = weightOf(encoder.encodeDocument(
+                "refund policy covers invoices payments chargebacks disputes subscriptions upgrades downgrades"), refund);
+
+        assertTrue(longDoc < shortDoc);
+    }
+
+    @Test
+    void encodeDocument_sameTextMatchesQueryIndices() {
+        SparseVector document = encoder.encodeDocument("ERR-4021 card declined");
+        SparseVector query = encoder.encodeQuery("err-4021");
+
+        Set<Integer> documentIndices = new HashSet<>();
+        for (int index : document.indices()) {
+            documentIndices.add(index);
+        }
+        for (int index : query.indices()) {
+            assertTrue(documentIndices.contains(index));
+        }
+    }
+
+    private float weightOf(SparseVector vector, int index) {
+        for (int i = 0; i < vector.indices().length; i++) {
+            if (vector.indices()[i] == index) {
+                return vector.values()[i];
+            }
+        }
+        throw new AssertionError("index " + index + " not in vector");
+    }
+}
@@ -36,7 +36,7 @@ class VectorSearchServiceTest {
     private UUID projectId;
     private UUID documentId;
     private List<UUID> documentIds;
-    private List<Float> queryVector;
+    private float[] queryVector;
     private TextVectorSearchRequest textSearchRequest;
     private VectorSearchRequest vectorSearchRequest;
 
@@ -46,7 +46,7 @@ class VectorSearchServiceTest {
         projectId = UUID.randomUUID();
         documentId = UUID.randomUUID();
         documentIds = List.of(documentId);
-        queryVector = List.of(0.1f, 0.2f, 0.3f);
+        queryVector = new float[]{0.1f, 0.2f, 0.3f};
 
         textSearchRequest = new TextVectorSearchRequest(
                 workspaceId,
@@ -54,7 +54,8 @@ class VectorSearchServiceTest {
                 documentIds,
                 "test query",
                 10,
-                0.5f
+                0.5f,
+                SearchMode.DENSE
         );
 
         vectorSearchRequest = new VectorSearchRequest(
@@ -142,6 +143,31 @@ class VectorSearchServiceTest {
         assertEquals(0.95f, match.score(), 0.001f);
     }
 
+    @Test
+    void searchByText_hybridMode_delegatesToHybridSearchWithQueryText() {
+        TextVectorSearchRequest hybridRequest = new TextVectorSearchRequest(
+                workspaceId, projectId, documentIds, "ERR-4021 on checkout", 10, 0.5f, SearchMode.HYBRID);
+        when(llmRouterInternalClient.embed(any(EmbeddingRequest.class)))
+                .thenReturn(new EmbeddingResponse(List.of(queryVector), "text-embedding-3-small"));
+        Points.ScoredPoint point = createScoredPoint(documentId, 1, 0, 100, "ERR-4021 means the card was declined", 0.03f);
+        when(storageService.hybridSearch(any(), any(), any(), any(), any(), anyInt(), anyFloat())).thenReturn(List.of(point));
+
+        VectorSearchResponse response = vectorSearchService.searchByText(hybridRequest);
+
+        verify(storageService).hybridSearch(
+                eq(workspaceId),
+                eq(projectId),
+                eq(documentIds),
+                eq(queryVector),
+                eq("ERR-4021 on checkout"),
+                eq(10),
+                eq(0.5f)
+        );
+        verify(storageService, never()).search(any(), any(), any(), any(), anyInt(), any());
+        assertEquals(1, response.matches().size());
+        assertEquals("ERR-4021 means the card was declined", response.matches().get(0).content());
+    }
+
     @Test
     void search_validRequest_callsStorageService() {
         when(storageService.search(any(), any(), any(), any(), anyInt(), anyFloat())).thenReturn(List.of());
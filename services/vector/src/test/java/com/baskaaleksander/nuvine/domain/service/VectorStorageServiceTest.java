@@ -2,7 +2,9 @@ package com.baskaaleksander.nuvine.domain.service;
 
 import com.baskaaleksander.nuvine.domain.model.ChunkMetadata;
 import com.baskaaleksander.nuvine.domain.model.EmbeddedChunk;
+import com.baskaaleksander.nuvine.domain.model.SparseVector;
 import com.baskaaleksander.nuvine.infrastructure.config.QdrantConfig;
+import com.baskaaleksander.nuvine.infrastructure.qdrant.QdrantSchemaManager;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.qdrant.client.QdrantClient;
 import io.qdrant.client.grpc.Points;
@@ -21,6 +23,7 @@ import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -33,6 +36,12 @@ class VectorStorageServiceTest {
     @Mock
     private QdrantConfig.QdrantProperties props;
 
+    @Mock
+    private SparseVectorEncoder sparseVectorEncoder;
+
+    @Mock
+    private QdrantSchemaManager schemaManager;
+
     @InjectMocks
     private VectorStorageService vectorStorageService;
 
@@ -62,7 +71,7 @@ class VectorStorageServiceTest {
                     i,
                     i * 100,
                     (i + 1) * 100,
-                    List.of(0.1f, 0.2f, 0.3f),
+                    new float[]{0.1f, 0.2f, 0.3f},
                     "Content " + i,
                     i
             ));
@@ -161,6 +170,7 @@ class VectorStorageServiceTest {
         // The vector is stored in the Vectors wrapper
         assertTrue(point.hasVectors());
         assertNotNull(point.getVectors());
+        assertEquals(List.of(0.1f, 0.2f, 0.3f), point.getVectors().getVector().getDataList());
     }
 
     @SuppressWarnings("unchecked")
@@ -184,7 +194,7 @@ class VectorStorageServiceTest {
                 .thenThrow(new RuntimeException("Qdrant search error"));
 
         List<UUID> documentIds = List.of(documentId);
-        List<Float> queryVector = List.of(0.1f, 0.2f, 0.3f);
+        float[] queryVector = {0.1f, 0.2f, 0.3f};
 
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> vectorStorageService.search(workspaceId, projectId, documentIds, queryVector, 10, 0.5f));
@@ -201,7 +211,7 @@ class VectorStorageServiceTest {
         when(qdrantClient.searchAsync(any(Points.SearchPoints.class))).thenReturn(future);
 
         List<UUID> documentIds = List.of(documentId);
-        List<Float> queryVector = List.of(0.1f, 0.2f, 0.3f);
+        float[] queryVector = {0.1f, 0.2f, 0.3f};
 
         vectorStorageService.search(workspaceId, projectId, documentIds, queryVector, 10, 0.5f);
 
@@ -220,7 +230,7 @@ class VectorStorageServiceTest {
         when(qdrantClient.searchAsync(any(Points.SearchPoints.class))).thenReturn(future);
 
         List<UUID> documentIds = List.of(documentId);
-        List<Float> queryVector = List.of(0.1f, 0.2f, 0.3f);
+        float[] queryVector = {0.1f, 0.2f, 0.3f};
 
         vectorStorageService.search(workspaceId, projectId, documentIds, queryVector, 15, 0.5f);
 
@@ -239,7 +249,7 @@ class VectorStorageServiceTest {
         when(qdrantClient.searchAsync(any(Points.SearchPoints.class))).thenReturn(future);
 
         List<UUID> documentIds = List.of(documentId);
-        List<Float> queryVector = List.of(0.1f, 0.2f, 0.3f);
+        float[] queryVector = {0.1f, 0.2f, 0.3f};
 
         vectorStorageService.search(workspaceId, projectId, documentIds, queryVector, 10, 0.7f);
 
@@ -258,7 +268,7 @@ class VectorStorageServiceTest {
         when(qdrantClient.searchAsync(any(Points.SearchPoints.class))).thenReturn(future);
 
         List<UUID> documentIds = List.of(documentId);
-        List<Float> queryVector = List.of(0.1f, 0.2f, 0.3f);
+        float[] queryVector = {0.1f, 0.2f, 0.3f};
 
         vectorStorageService.search(workspaceId, projectId, documentIds, queryVector, 10, null);
 
@@ -277,7 +287,7 @@ class VectorStorageServiceTest {
         when(qdrantClient.searchAsync(any(Points.SearchPoints.class))).thenReturn(future);
 
         List<UUID> documentIds = List.of(documentId);
-        List<Float> queryVector = List.of(0.1f, 0.2f, 0.3f);
+        float[] queryVector = {0.1f, 0.2f, 0.3f};
 
         vectorStorageService.search(workspaceId, projectId, documentIds, queryVector, 10, 0.5f);
 
@@ -303,7 +313,7 @@ class VectorStorageServiceTest {
         when(qdrantClient.searchAsync(any(Points.SearchPoints.class))).thenReturn(future);
 
         List<UUID> documentIds = List.of(documentId);
-        List<Float> queryVector = List.of(0.1f, 0.2f, 0.3f);
+        float[] queryVector = {0.1f, 0.2f, 0.3f};
 
         List<Points.ScoredPoint> results = vectorStorageService.search(
                 workspaceId, projectId, documentIds, queryVector, 10, 0.5f);
@@ -311,4 +321,121 @@ class VectorStorageServiceTest {
         assertEquals(1, results.size());
         assertEquals(0.95f, results.get(0).getScore(), 0.001f);
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void search_quantizedCollection_requestsOversampledRescoring() throws Exception {
+        when(props.collection()).thenReturn(collectionName);
+        when(props.quantization()).thenReturn(QdrantConfig.Quantization.SCALAR);
+        when(props.rescore()).thenReturn(true);
+        when(props.oversampling()).thenReturn(2.5);
+        ListenableFuture<List<Points.ScoredPoint>> future = mock(ListenableFuture.class);
+        when(future.get()).thenReturn(List.of());
+        when(qdrantClient.searchAsync(any(Points.SearchPoints.class))).thenReturn(future);
+
+        vectorStorageService.search(workspaceId, projectId, List.of(documentId), new float[]{0.1f, 0.2f, 0.3f}, 10, 0.5f);
+
+        ArgumentCaptor<Points.SearchPoints> searchCaptor = ArgumentCaptor.forClass(Points.SearchPoints.class);
+        verify(qdrantClient).searchAsync(searchCaptor.capture());
+
+        Points.QuantizationSearchParams quantization = searchCaptor.getValue().getParams().getQuantization();
+        assertTrue(quantization.getRescore());
+        assertEquals(2.5, quantization.getOversampling(), 0.001);
+        assertEquals(10, searchCaptor.getValue().getLimit());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void search_quantizationDisabled_omitsSearchParams() throws Exception {
+        when(props.collection()).thenReturn(collectionName);
+        when(props.quantization()).thenReturn(QdrantConfig.Quantization.NONE);
+        ListenableFuture<List<Points.ScoredPoint>> future = mock(ListenableFuture.class);
+        when(future.get()).thenReturn(List.of());
+        when(qdrantClient.searchAsync(any(Points.SearchPoints.class))).thenReturn(future);
+
+        vectorStorageService.search(workspaceId, projectId, List.of(documentId), new float[]{0.1f, 0.2f, 0.3f}, 10, 0.5f);
+
+        ArgumentCaptor<Points.SearchPoints> searchCaptor = ArgumentCaptor.forClass(Points.SearchPoints.class);
+        verify(qdrantClient).searchAsync(searchCaptor.capture());
+
+        assertFalse(searchCaptor.getValue().hasParams());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void upsert_sparseEnabled_storesDenseAndSparseNamedVectors() throws Exception {
+        when(props.collection()).thenReturn(collectionName);
+        when(schemaManager.sparseAvailable()).thenReturn(true);
+        when(props.sparseVectorName()).thenReturn("text");
+        when(sparseVectorEncoder.encodeDocument(anyString()))
+                .thenReturn(new SparseVector(new int[]{7, 42}, new float[]{1.2f, 0.8f}));
+        ListenableFuture<Points.UpdateResult> future = mock(ListenableFuture.class);
+        when(future.get()).thenReturn(Points.UpdateResult.getDefaultInstance());
+        when(qdrantClient.upsertAsync(eq(collectionName), any(List.class))).thenReturn(future);
+
+        vectorStorageService.upsert(embeddedChunks.subList(0, 1), metadata);
+
+        ArgumentCaptor<List<Points.PointStruct>> pointsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(qdrantClient).upsertAsync(eq(collectionName), pointsCaptor.capture());
+        Points.NamedVectors vectors = pointsCaptor.getValue().get(0).getVectors().getVectors();
+        assertEquals(3, vectors.getVectorsOrThrow("").getDataCount());
+        Points.SparseVector sparse = vectors.getVectorsOrThrow("text").getSparse();
+        assertEquals(List.of(7, 42), sparse.getIndicesList());
+        assertEquals(List.of(1.2f, 0.8f), sparse.getValuesList());
+        verify(sparseVectorEncoder).encodeDocument("Content 0");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void hybridSearch_sparseEnabled_fusesDenseAndSparsePrefetchesWithRrf() throws Exception {
+        when(props.collection()).thenReturn(collectionName);
+        when(schemaManager.sparseAvailable()).thenReturn(true);
+        when(props.sparseVectorName()).thenReturn("text");
+        when(props.hybridPrefetchLimit()).thenReturn(50);
+        when(sparseVectorEncoder.encodeQuery("ERR-4021")).thenReturn(new SparseVector(new int[]{3}, new float[]{1.0f}));
+        ListenableFuture<List<Points.ScoredPoint>> future = mock(ListenableFuture.class);
+        when(future.get()).thenReturn(List.of());
+        when(qdrantClient.queryAsync(any(Points.QueryPoints.class))).thenReturn(future);
+
+        vectorStorageService.hybridSearch(workspaceId, projectId, List.of(documentId), new float[]{0.1f, 0.2f, 0.3f},
+                "ERR-4021", 10, 0.5f);
+
+        ArgumentCaptor<Points.QueryPoints> queryCaptor = ArgumentCaptor.forClass(Points.QueryPoints.class);
+        verify(qdrantClient).queryAsync(queryCaptor.capture());
+        Points.QueryPoints query = queryCaptor.getValue();
+
+        assertEquals(collectionName, query.getCollectionName());
+        assertEquals(Points.Fusion.RRF, query.getQuery().getFusion());
+        assertEquals(10, query.getLimit());
+        assertEquals(2, query.getPrefetchCount());
+
+        Points.PrefetchQuery dense = query.getPrefetch(0);
+        assertEquals(3, dense.getQuery().getNearest().getDense().getDataCount());
+        assertEquals(0.5f, dense.getScoreThreshold(), 0.001f);
+        assertEquals(50, dense.getLimit());
+        assertTrue(dense.hasFilter());
+
+        Points.PrefetchQuery sparse = query.getPrefetch(1);
+        assertEquals("text", sparse.getUsing());
+        assertEquals(List.of(3), sparse.getQuery().getNearest().getSparse().getIndicesList());
+        assertFalse(sparse.hasScoreThreshold());
+        assertTrue(sparse.hasFilter());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void hybridSearch_sparseDisabled_fallsBackToDenseSearch() throws Exception {
+        when(props.collection()).thenReturn(collectionName);
+        when(schemaManager.sparseAvailable()).thenReturn(false);
+        ListenableFuture<List<Points.ScoredPoint>> future = mock(ListenableFuture.class);
+        when(future.get()).thenReturn(List.of());
+        when(qdrantClient.searchAsync(any(Points.SearchPoints.class))).thenReturn(future);
+
+        vectorStorageService.hybridSearch(workspaceId, projectId, List.of(documentId), new float[]{0.1f, 0.2f, 0.3f},
+                "ERR-4021", 10, 0.5f);
+
+        verify(qdrantClient).searchAsync(any(Points.SearchPoints.class));
+        verify(qdrantClient, never()).queryAsync(any(Points.QueryPoints.class));
+        verifyNoInteractions(sparseVectorEncoder);
+    }
 }
@@ -0,0 +1,60 @@
+package com.baskaaleksander.nuvine.infrastructure.qdrant;
+
+import com.baskaaleksander.nuvine.infrastructure.config.QdrantConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QdrantSchemaHealthIndicatorTest {
+
+    @Mock
+    private QdrantSchemaManager schemaManager;
+
+    private QdrantSchemaHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        QdrantConfig.QdrantProperties props = new QdrantConfig.QdrantProperties();
+        props.setCollection("test-collection");
+        healthIndicator = new QdrantSchemaHealthIndicator(schemaManager, props);
+    }
+
+    @Test
+    void health_driftOnly_staysUpWithDetails() throws Exception {
+        when(schemaManager.inspect()).thenReturn(
+                new QdrantSchemaReport(List.of(), List.of("payload index on projectId is missing")));
+
+        Health health = healthIndicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(List.of("payload index on projectId is missing"), health.getDetails().get("drift"));
+    }
+
+    @Test
+    void health_schemaErrors_isDown() throws Exception {
+        when(schemaManager.inspect()).thenReturn(
+                new QdrantSchemaReport(List.of("vector size is 768, expected 1536"), List.of()));
+
+        Health health = healthIndicator.health();
+
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals(List.of("vector size is 768, expected 1536"), health.getDetails().get("errors"));
+    }
+
+    @Test
+    void health_qdrantUnavailable_isDown() throws Exception {
+        when(schemaManager.inspect()).thenThrow(new IllegalStateException("unavailable"));
+
+        assertEquals(Status.DOWN, healthIndicator.health().getStatus());
+    }
+}
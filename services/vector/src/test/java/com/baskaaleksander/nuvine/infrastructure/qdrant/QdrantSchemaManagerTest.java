@@ -0,0 +1,324 @@
+package com.baskaaleksander.nuvine.infrastructure.qdrant;
+
+import com.baskaaleksander.nuvine.infrastructure.config.QdrantConfig;
+import com.google.common.util.concurrent.Futures;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.grpc.Collections;
+import io.qdrant.client.grpc.Points;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QdrantSchemaManagerTest {
+
+    private static final String COLLECTION = "test-collection";
+
+    @Mock
+    private QdrantClient qdrantClient;
+
+    private QdrantConfig.QdrantProperties props;
+    private QdrantSchemaManager schemaManager;
+
+    @BeforeEach
+    void setUp() {
+        props = new QdrantConfig.QdrantProperties();
+        props.setCollection(COLLECTION);
+        schemaManager = new QdrantSchemaManager(qdrantClient, props);
+    }
+
+    @Test
+    void ensureSchema_missingCollection_createsCollectionWithTenantHnswAndIndexes() {
+        when(qdrantClient.collectionExistsAsync(COLLECTION))
+                .thenReturn(Futures.immediateFuture(false))
+                .thenReturn(Futures.immediateFuture(true));
+        when(qdrantClient.createCollectionAsync(any(Collections.CreateCollection.class)))
+                .thenReturn(Futures.immediateFuture(Collections.CollectionOperationResponse.getDefaultInstance()));
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION))
+                .thenReturn(Futures.immediateFuture(collectionInfo(1536, Collections.Distance.Cosine, 0, 16, false)))
+                .thenReturn(Futures.immediateFuture(collectionInfo(1536, Collections.Distance.Cosine, 0, 16, true)));
+        stubCreatePayloadIndex();
+
+        schemaManager.ensureSchema();
+
+        ArgumentCaptor<Collections.CreateCollection> captor = ArgumentCaptor.forClass(Collections.CreateCollection.class);
+        verify(qdrantClient).createCollectionAsync(captor.capture());
+        Collections.CreateCollection request = captor.getValue();
+        assertEquals(COLLECTION, request.getCollectionName());
+        assertEquals(1536, request.getVectorsConfig().getParams().getSize());
+        assertEquals(Collections.Distance.Cosine, request.getVectorsConfig().getParams().getDistance());
+        assertEquals(0, request.getHnswConfig().getM());
+        assertEquals(16, request.getHnswConfig().getPayloadM());
+        assertEquals(Collections.Modifier.Idf,
+                request.getSparseVectorsConfig().getMapOrThrow("text").getModifier());
+
+        ArgumentCaptor<Collections.PayloadIndexParams> params = ArgumentCaptor.forClass(Collections.PayloadIndexParams.class);
+        verify(qdrantClient).createPayloadIndexAsync(eq(COLLECTION), eq("workspaceId"),
+                eq(Collections.PayloadSchemaType.Keyword), params.capture(), eq(true), isNull(), isNull());
+        assertTrue(params.getValue().getKeywordIndexParams().getIsTenant());
+        verify(qdrantClient).createPayloadIndexAsync(eq(COLLECTION), eq("projectId"),
+                eq(Collections.PayloadSchemaType.Keyword), any(), eq(true), isNull(), isNull());
+        verify(qdrantClient).createPayloadIndexAsync(eq(COLLECTION), eq("documentId"),
+                eq(Collections.PayloadSchemaType.Keyword), any(), eq(true), isNull(), isNull());
+    }
+
+    @Test
+    void ensureSchema_schemaInPlace_changesNothing() {
+        when(qdrantClient.collectionExistsAsync(COLLECTION)).thenReturn(Futures.immediateFuture(true));
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION))
+                .thenReturn(Futures.immediateFuture(collectionInfo(1536, Collections.Distance.Cosine, 0, 16, true)));
+
+        schemaManager.ensureSchema();
+
+        verify(qdrantClient, never()).createCollectionAsync(any(Collections.CreateCollection.class));
+        verify(qdrantClient, never()).createPayloadIndexAsync(anyString(), anyString(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void ensureSchema_managementDisabled_doesNotTouchQdrant() {
+        props.setManageSchema(false);
+
+        schemaManager.ensureSchema();
+
+        verifyNoInteractions(qdrantClient);
+    }
+
+    @Test
+    void ensureSchema_qdrantUnavailable_doesNotThrow() {
+        when(qdrantClient.collectionExistsAsync(COLLECTION))
+                .thenReturn(Futures.immediateFailedFuture(new IllegalStateException("unavailable")));
+
+        assertDoesNotThrow(() -> schemaManager.ensureSchema());
+    }
+
+    @Test
+    void inspect_missingCollection_reportsError() throws Exception {
+        when(qdrantClient.collectionExistsAsync(COLLECTION)).thenReturn(Futures.immediateFuture(false));
+
+        QdrantSchemaReport report = schemaManager.inspect();
+
+        assertEquals(List.of("collection test-collection does not exist"), report.errors());
+        assertTrue(report.drift().isEmpty());
+    }
+
+    @Test
+    void inspect_wrongVectorParams_reportsErrors() throws Exception {
+        when(qdrantClient.collectionExistsAsync(COLLECTION)).thenReturn(Futures.immediateFuture(true));
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION))
+                .thenReturn(Futures.immediateFuture(collectionInfo(768, Collections.Distance.Dot, 0, 16, true)));
+
+        QdrantSchemaReport report = schemaManager.inspect();
+
+        assertEquals(2, report.errors().size());
+        assertTrue(report.drift().isEmpty());
+    }
+
+    @Test
+    void inspect_globalHnswAndPlainWorkspaceIndex_reportsDrift() throws Exception {
+        when(qdrantClient.collectionExistsAsync(COLLECTION)).thenReturn(Futures.immediateFuture(true));
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION))
+                .thenReturn(Futures.immediateFuture(collectionInfo(1536, Collections.Distance.Cosine, 16, 0, false)));
+
+        QdrantSchemaReport report = schemaManager.inspect();
+
+        assertTrue(report.errors().isEmpty());
+        assertEquals(List.of(
+                "hnsw m is 16, expected 0",
+                "hnsw payload_m is 0, expected 16",
+                "payload index on workspaceId is Keyword, expected a keyword tenant index",
+                "payload index on projectId is missing",
+                "payload index on documentId is missing"
+        ), report.drift());
+    }
+
+    @Test
+    void ensureSchema_missingCollection_createsScalarQuantizedCollection() {
+        props.setQuantization(QdrantConfig.Quantization.SCALAR);
+        props.setVectorsOnDisk(true);
+        Collections.CollectionInfo quantized = withQuantization(collectionInfo(1536, Collections.Distance.Cosine, 0, 16, true),
+                Collections.QuantizationConfig.newBuilder()
+                        .setScalar(Collections.ScalarQuantization.newBuilder().setType(Collections.QuantizationType.Int8))
+                        .build());
+        when(qdrantClient.collectionExistsAsync(COLLECTION))
+                .thenReturn(Futures.immediateFuture(false))
+                .thenReturn(Futures.immediateFuture(true));
+        when(qdrantClient.createCollectionAsync(any(Collections.CreateCollection.class)))
+                .thenReturn(Futures.immediateFuture(Collections.CollectionOperationResponse.getDefaultInstance()));
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION)).thenReturn(Futures.immediateFuture(quantized));
+
+        schemaManager.ensureSchema();
+
+        ArgumentCaptor<Collections.CreateCollection> captor = ArgumentCaptor.forClass(Collections.CreateCollection.class);
+        verify(qdrantClient).createCollectionAsync(captor.capture());
+        Collections.ScalarQuantization scalar = captor.getValue().getQuantizationConfig().getScalar();
+        assertEquals(Collections.QuantizationType.Int8, scalar.getType());
+        assertEquals(0.99f, scalar.getQuantile(), 0.0001f);
+        assertTrue(scalar.getAlwaysRam());
+        assertTrue(captor.getValue().getVectorsConfig().getParams().getOnDisk());
+        verify(qdrantClient, never()).updateCollectionAsync(any(Collections.UpdateCollection.class));
+    }
+
+    @Test
+    void ensureSchema_unquantizedCollection_migratesToBinaryQuantization() {
+        props.setQuantization(QdrantConfig.Quantization.BINARY);
+        props.setVectorsOnDisk(true);
+        when(qdrantClient.collectionExistsAsync(COLLECTION)).thenReturn(Futures.immediateFuture(true));
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION))
+                .thenReturn(Futures.immediateFuture(collectionInfo(1536, Collections.Distance.Cosine, 0, 16, true)));
+        when(qdrantClient.updateCollectionAsync(any(Collections.UpdateCollection.class)))
+                .thenReturn(Futures.immediateFuture(Collections.CollectionOperationResponse.getDefaultInstance()));
+
+        schemaManager.ensureSchema();
+
+        ArgumentCaptor<Collections.UpdateCollection> captor = ArgumentCaptor.forClass(Collections.UpdateCollection.class);
+        verify(qdrantClient).updateCollectionAsync(captor.capture());
+        assertEquals(COLLECTION, captor.getValue().getCollectionName());
+        assertTrue(captor.getValue().getQuantizationConfig().hasBinary());
+        assertTrue(captor.getValue().getVectorsConfig().getParams().getOnDisk());
+        verify(qdrantClient, never()).createCollectionAsync(any(Collections.CreateCollection.class));
+    }
+
+    @Test
+    void inspect_quantizationMismatch_reportsDrift() throws Exception {
+        props.setQuantization(QdrantConfig.Quantization.SCALAR);
+        when(qdrantClient.collectionExistsAsync(COLLECTION)).thenReturn(Futures.immediateFuture(true));
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION))
+                .thenReturn(Futures.immediateFuture(collectionInfo(1536, Collections.Distance.Cosine, 0, 16, true)));
+
+        QdrantSchemaReport report = schemaManager.inspect();
+
+        assertTrue(report.errors().isEmpty());
+        assertEquals(List.of("quantization is NONE, expected SCALAR"), report.drift());
+    }
+
+    @Test
+    void inspect_collectionWithoutSparseVector_reportsDriftAndDisablesSparse() throws Exception {
+        when(qdrantClient.collectionExistsAsync(COLLECTION)).thenReturn(Futures.immediateFuture(true));
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION)).thenReturn(Futures.immediateFuture(withoutSparse()));
+
+        QdrantSchemaReport report = schemaManager.inspect();
+
+        assertTrue(report.errors().isEmpty());
+        assertEquals(List.of("sparse vector text is missing, hybrid search falls back to dense until the collection "
+                + "is recreated and re-ingested"), report.drift());
+        assertFalse(schemaManager.sparseAvailable());
+    }
+
+    @Test
+    void ensureSchema_legacyCollection_reportsSparseUnavailable() {
+        when(qdrantClient.collectionExistsAsync(COLLECTION)).thenReturn(Futures.immediateFuture(true));
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION)).thenReturn(Futures.immediateFuture(withoutSparse()));
+
+        schemaManager.ensureSchema();
+
+        assertFalse(schemaManager.sparseAvailable());
+        verify(qdrantClient, never()).createCollectionAsync(any(Collections.CreateCollection.class));
+    }
+
+    @Test
+    void sparseAvailable_notYetChecked_readsLiveCollectionOnce() {
+        props.setManageSchema(false);
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION))
+                .thenReturn(Futures.immediateFuture(collectionInfo(1536, Collections.Distance.Cosine, 0, 16, true)));
+
+        schemaManager.ensureSchema();
+
+        assertTrue(schemaManager.sparseAvailable());
+        assertTrue(schemaManager.sparseAvailable());
+        verify(qdrantClient, times(1)).getCollectionInfoAsync(COLLECTION);
+    }
+
+    @Test
+    void sparseAvailable_qdrantUnavailable_fallsBackToDense() {
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION))
+                .thenReturn(Futures.immediateFailedFuture(new IllegalStateException("unavailable")));
+
+        assertFalse(schemaManager.sparseAvailable());
+    }
+
+    @Test
+    void sparseAvailable_sparseDisabled_skipsQdrant() {
+        props.setSparseEnabled(false);
+
+        assertFalse(schemaManager.sparseAvailable());
+        verifyNoInteractions(qdrantClient);
+    }
+
+    @Test
+    void inspect_sparseDisabled_ignoresMissingSparseVector() throws Exception {
+        props.setSparseEnabled(false);
+        when(qdrantClient.collectionExistsAsync(COLLECTION)).thenReturn(Futures.immediateFuture(true));
+        when(qdrantClient.getCollectionInfoAsync(COLLECTION)).thenReturn(Futures.immediateFuture(withoutSparse()));
+
+        QdrantSchemaReport report = schemaManager.inspect();
+
+        assertTrue(report.errors().isEmpty());
+        assertTrue(report.drift().isEmpty());
+    }
+
+    private void stubCreatePayloadIndex() {
+        when(qdrantClient.createPayloadIndexAsync(eq(COLLECTION), anyString(), eq(Collections.PayloadSchemaType.Keyword),
+                any(), eq(true), isNull(), isNull()))
+                .thenReturn(Futures.immediateFuture(Points.UpdateResult.getDefaultInstance()));
+    }
+
+    // allIndexes=false leaves only a plain keyword index on workspaceId.
+    private Collections.CollectionInfo collectionInfo(long size, Collections.Distance distance, long m, long payloadM,
+                                                      boolean allIndexes) {
+        Collections.CollectionInfo.Builder info = Collections.CollectionInfo.newBuilder()
+                .setConfig(Collections.CollectionConfig.newBuilder()
+                        .setParams(Collections.CollectionParams.newBuilder()
+                                .setVectorsConfig(Collections.VectorsConfig.newBuilder()
+                                        .setParams(Collections.VectorParams.newBuilder()
+                                                .setSize(size)
+                                                .setDistance(distance)))
+                                .setSparseVectorsConfig(Collections.SparseVectorConfig.newBuilder()
+                                        .putMap("text", Collections.SparseVectorParams.newBuilder()
+                                                .setModifier(Collections.Modifier.Idf)
+                                                .build())))
+                        .setHnswConfig(Collections.HnswConfigDiff.newBuilder()
+                                .setM(m)
+                                .setPayloadM(payloadM)));
+        if (allIndexes) {
+            info.putPayloadSchema("workspaceId", keywordIndex(true));
+            info.putPayloadSchema("projectId", keywordIndex(false));
+            info.putPayloadSchema("documentId", keywordIndex(false));
+        } else {
+            info.putPayloadSchema("workspaceId", keywordIndex(false));
+        }
+        return info.build();
+    }
+
+    private Collections.CollectionInfo withoutSparse() {
+        Collections.CollectionInfo.Builder info = collectionInfo(1536, Collections.Distance.Cosine, 0, 16, true).toBuilder();
+        info.getConfigBuilder().getParamsBuilder().clearSparseVectorsConfig();
+        return info.build();
+    }
+
+    private Collections.CollectionInfo withQuantization(Collections.CollectionInfo info,
+                                                        Collections.QuantizationConfig quantization) {
+        Collections.CollectionInfo.Builder builder = info.toBuilder();
+        builder.getConfigBuilder().setQuantizationConfig(quantization);
+        builder.getConfigBuilder().getParamsBuilder().getVectorsConfigBuilder().getParamsBuilder().setOnDisk(true);
+        return builder.build();
+    }
+
+    private Collections.PayloadSchemaInfo keywordIndex(boolean tenant) {
+        return Collections.PayloadSchemaInfo.newBuilder()
+                .setDataType(Collections.PayloadSchemaType.Keyword)
+                .setParams(Collections.PayloadIndexParams.newBuilder()
+                        .setKeywordIndexParams(Collections.KeywordIndexParams.newBuilder().setIsTenant(tenant)))
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.baskaaleksander.nuvine.infrastructure.serialization;
+
+import com.baskaaleksander.nuvine.application.dto.VectorSearchRequest;
+import com.baskaaleksander.nuvine.domain.model.EmbeddedChunk;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.EmbeddingCompletedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void embeddingCompletedEvent_roundTripsThroughBase64() throws Exception {
+        float[] vector = {0.1f, -0.2f, 0.3f};
+        EmbeddingCompletedEvent event = new EmbeddingCompletedEvent("job-1",
+                List.of(new EmbeddedChunk(UUID.randomUUID(), 1, 0, 10, vector, "content", 0)),
+                "text-embedding-3-small");
+
+        String json = objectMapper.writeValueAsString(event);
+        EmbeddingCompletedEvent read = objectMapper.readValue(json, EmbeddingCompletedEvent.class);
+
+        assertTrue(objectMapper.readTree(json).at("/embeddedChunks/0/embedding").isTextual());
+        assertArrayEquals(vector, read.embeddedChunks().getFirst().embedding());
+    }
+
+    @Test
+    void embeddingCompletedEvent_acceptsLegacyNumberArray() throws Exception {
+        String json = """
+                {"ingestionJobId":"job-1","model":"text-embedding-3-small","embeddedChunks":[
+                  {"documentId":"%s","page":1,"startOffset":0,"endOffset":10,
+                   "embedding":[0.1,0.2,0.3],"content":"content","index":0}]}
+                """.formatted(UUID.randomUUID());
+
+        EmbeddingCompletedEvent event = objectMapper.readValue(json, EmbeddingCompletedEvent.class);
+
+        assertArrayEquals(new float[]{0.1f, 0.2f, 0.3f}, event.embeddedChunks().getFirst().embedding());
+    }
+
+    @Test
+    void vectorSearchRequest_acceptsLegacyNumberArrayQuery() throws Exception {
+        String json = """
+                {"workspaceId":"%s","projectId":"%s","documentIds":["%s"],"query":[0.5,0.25],"topK":5,"threshold":0.1}
+                """.formatted(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        VectorSearchRequest request = objectMapper.readValue(json, VectorSearchRequest.class);
+
+        assertArrayEquals(new float[]{0.5f, 0.25f}, request.query());
+    }
+}
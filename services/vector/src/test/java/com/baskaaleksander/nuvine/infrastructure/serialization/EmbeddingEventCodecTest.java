@@ -0,0 +1,133 @@
+package com.baskaaleksander.nuvine.infrastructure.serialization;
+
+import com.baskaaleksander.nuvine.domain.model.Chunk;
+import com.baskaaleksander.nuvine.domain.model.EmbeddedChunk;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.EmbeddingCompletedEvent;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.EmbeddingRequestEvent;
+import com.baskaaleksander.nuvine.infrastructure.messaging.dto.VectorProcessingRequestEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingEventCodecTest {
+
+    private static final String TOPIC = "embedding-completed";
+
+    private EmbeddingEventSerializer serializer;
+    private EmbeddingEventDeserializer deserializer;
+    private UUID documentId;
+
+    @BeforeEach
+    void setUp() {
+        serializer = new EmbeddingEventSerializer();
+        serializer.configure(Map.of(EmbeddingEventSerializer.BINARY_ENABLED, "true"), false);
+        deserializer = new EmbeddingEventDeserializer();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.VALUE_DEFAULT_TYPE, EmbeddingCompletedEvent.class.getName(),
+                JsonDeserializer.USE_TYPE_INFO_HEADERS, false
+        ), false);
+        documentId = UUID.randomUUID();
+    }
+
+    @Test
+    void embeddingCompletedEvent_roundTripsThroughBinary() {
+        float[] first = {0.1f, -0.2f, 0.3f};
+        float[] second = {0.4f, 0.5f, -0.6f};
+        EmbeddingCompletedEvent event = new EmbeddingCompletedEvent("job-1", List.of(
+                new EmbeddedChunk(documentId, 1, 0, 100, first, "first chunk", 0),
+                new EmbeddedChunk(documentId, 2, 100, 200, second, "drugi fragment – zażółć", 1)
+        ), "text-embedding-3-small");
+
+        byte[] bytes = serializer.serialize(TOPIC, new RecordHeaders(), event);
+        EmbeddingCompletedEvent read = (EmbeddingCompletedEvent) deserializer.deserialize(TOPIC, new RecordHeaders(), bytes);
+
+        assertTrue(EmbeddingEventCodec.isBinary(bytes));
+        assertEquals("job-1", read.ingestionJobId());
+        assertEquals("text-embedding-3-small", read.model());
+        assertEquals(2, read.embeddedChunks().size());
+        EmbeddedChunk chunk = read.embeddedChunks().get(1);
+        assertEquals(documentId, chunk.documentId());
+        assertEquals(2, chunk.page());
+        assertEquals(100, chunk.startOffset());
+        assertEquals(200, chunk.endOffset());
+        assertEquals("drugi fragment – zażółć", chunk.content());
+        assertEquals(1, chunk.index());
+        assertArrayEquals(first, read.embeddedChunks().get(0).embedding());
+        assertArrayEquals(second, chunk.embedding());
+    }
+
+    @Test
+    void embeddingRequestEvent_roundTripsThroughBinary() {
+        EmbeddingRequestEvent event = new EmbeddingRequestEvent("job-2",
+                List.of(new Chunk(documentId, 3, 10, 20, "content", 4)), "text-embedding-3-small");
+
+        Object read = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, event));
+
+        assertEquals(event, read);
+    }
+
+    @Test
+    void vectorProcessingRequestEvent_roundTripsNullFields() {
+        VectorProcessingRequestEvent event = new VectorProcessingRequestEvent("job-3", documentId.toString(),
+                null, "workspace", List.of(new Chunk(null, 0, 0, 0, null, 0)));
+
+        Object read = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, event));
+
+        assertEquals(event, read);
+    }
+
+    @Test
+    void serialize_binaryDisabled_writesJson() throws Exception {
+        EmbeddingEventSerializer jsonOnly = new EmbeddingEventSerializer();
+        jsonOnly.configure(Map.of(), false);
+        EmbeddingCompletedEvent event = new EmbeddingCompletedEvent("job-1",
+                List.of(new EmbeddedChunk(documentId, 1, 0, 10, new float[]{0.5f}, "content", 0)), "model");
+
+        byte[] bytes = jsonOnly.serialize(TOPIC, new RecordHeaders(), event);
+
+        assertFalse(EmbeddingEventCodec.isBinary(bytes));
+        assertEquals("job-1", new ObjectMapper().readTree(bytes).get("ingestionJobId").asText());
+    }
+
+    @Test
+    void deserialize_legacyJson_fallsBackToJsonDeserializer() {
+        String json = """
+                {"ingestionJobId":"job-1","model":"model","embeddedChunks":[
+                  {"documentId":"%s","page":1,"startOffset":0,"endOffset":10,
+                   "embedding":[0.25,0.5],"content":"content","index":0}]}
+                """.formatted(documentId);
+
+        EmbeddingCompletedEvent read = (EmbeddingCompletedEvent) deserializer.deserialize(TOPIC, new RecordHeaders(), json.getBytes());
+
+        assertEquals("job-1", read.ingestionJobId());
+        assertArrayEquals(new float[]{0.25f, 0.5f}, read.embeddedChunks().getFirst().embedding());
+    }
+
+    @Test
+    void deserialize_truncatedBinary_throwsSerializationException() {
+        EmbeddingCompletedEvent event = new EmbeddingCompletedEvent("job-1",
+                List.of(new EmbeddedChunk(documentId, 1, 0, 10, new float[]{0.1f, 0.2f}, "content", 0)), "model");
+        byte[] bytes = serializer.serialize(TOPIC, event);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 6);
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, truncated));
+    }
+
+    @Test
+    void deserialize_unknownSchemaId_throwsSerializationException() {
+        byte[] bytes = {EmbeddingEventCodec.MAGIC, 99, 0, 0, 0, 0};
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, bytes));
+    }
+}
@@ -1,5 +1,6 @@
 package com.baskaaleksander.nuvine.integration.controller;
 
+import com.baskaaleksander.nuvine.application.dto.SearchMode;
 import com.baskaaleksander.nuvine.application.dto.TextVectorSearchRequest;
 import com.baskaaleksander.nuvine.application.dto.VectorSearchRequest;
 import com.baskaaleksander.nuvine.application.dto.VectorSearchResponse;
@@ -10,7 +11,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.*;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -35,7 +35,7 @@ class VectorInternalControllerIT extends BaseControllerIntegrationTest {
         UUID projectId = UUID.randomUUID();
         UUID documentId = UUID.randomUUID();
 
-        List<Float> mockEmbedding = generateMockEmbedding(1536);
+        float[] mockEmbedding = generateMockEmbedding(1536);
         wireMockStubs.stubLlmRouterEmbeddings(mockEmbedding);
 
         String jwt = jwtTestUtils.generateJwt(userId, "service@test.com", List.of("ROLE_INTERNAL_SERVICE"));
@@ -46,7 +46,8 @@ class VectorInternalControllerIT extends BaseControllerIntegrationTest {
                 List.of(documentId),
                 "test query",
                 10,
-                0.7f
+                0.7f,
+                SearchMode.DENSE
         );
 
         HttpHeaders headers = authHeaders(jwt);
@@ -72,7 +73,7 @@ class VectorInternalControllerIT extends BaseControllerIntegrationTest {
 
         String jwt = jwtTestUtils.generateJwt(userId, "service@test.com", List.of("ROLE_INTERNAL_SERVICE"));
 
-        List<Float> queryVector = generateMockEmbedding(1536);
+        float[] queryVector = generateMockEmbedding(1536);
 
         VectorSearchRequest request = new VectorSearchRequest(
                 workspaceId,
@@ -112,7 +113,8 @@ class VectorInternalControllerIT extends BaseControllerIntegrationTest {
                 List.of(documentId),
                 "test query",
                 10,
-                0.7f
+                0.7f,
+                SearchMode.DENSE
         );
 
         HttpHeaders headers = authHeaders(jwt);
@@ -170,7 +172,8 @@ class VectorInternalControllerIT extends BaseControllerIntegrationTest {
                 List.of(documentId),
                 "test query",
                 10,
-                0.7f
+                0.7f,
+                SearchMode.DENSE
         );
 
         HttpHeaders headers = authHeaders(expiredJwt);
@@ -186,10 +189,10 @@ class VectorInternalControllerIT extends BaseControllerIntegrationTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
     }
 
-    private List<Float> generateMockEmbedding(int dimensions) {
-        List<Float> embedding = new ArrayList<>();
+    private float[] generateMockEmbedding(int dimensions) {
+        float[] embedding = new float[dimensions];
         for (int i = 0; i < dimensions; i++) {
-            embedding.add((float) Math.random());
+            embedding[i] = (float) Math.random();
         }
         return embedding;
     }
@@ -177,10 +177,10 @@ class VectorKafkaConsumersIT extends BaseKafkaIntegrationTest {
         return chunks;
     }
 
-    private List<Float> generateMockEmbedding(int dimensions) {
-        List<Float> embedding = new ArrayList<>();
+    private float[] generateMockEmbedding(int dimensions) {
+        float[] embedding = new float[dimensions];
         for (int i = 0; i < dimensions; i++) {
-            embedding.add((float) Math.random());
+            embedding[i] = (float) Math.random();
         }
         return embedding;
     }
@@ -82,7 +82,7 @@ class QdrantIntegrationIT extends BaseIntegrationTest {
         vectorStorageService.upsert(chunks, metadata);
         Thread.sleep(500);
 
-        List<Float> queryVector = chunks.get(0).embedding();
+        float[] queryVector = chunks.get(0).embedding();
         List<Points.ScoredPoint> results = vectorStorageService.search(
                 workspaceId, projectId, List.of(documentId),
                 queryVector, 3, null
@@ -99,7 +99,7 @@ class QdrantIntegrationIT extends BaseIntegrationTest {
         vectorStorageService.upsert(chunks, metadata);
         Thread.sleep(500);
 
-        List<Float> queryVector = chunks.get(0).embedding();
+        float[] queryVector = chunks.get(0).embedding();
 
         List<Points.ScoredPoint> resultsWithHighThreshold = vectorStorageService.search(
                 workspaceId, projectId, List.of(documentId),
@@ -117,7 +117,7 @@ class QdrantIntegrationIT extends BaseIntegrationTest {
     @Test
     void shouldReturnEmptyResultsForNonExistentWorkspace() {
         UUID nonExistentWorkspaceId = UUID.randomUUID();
-        List<Float> queryVector = generateMockEmbedding(1536);
+        float[] queryVector = generateMockEmbedding(1536);
 
         List<Points.ScoredPoint> results = vectorStorageService.search(
                 nonExistentWorkspaceId, projectId, List.of(documentId),
@@ -141,7 +141,7 @@ class QdrantIntegrationIT extends BaseIntegrationTest {
         vectorStorageService.upsert(chunks2, metadata);
         Thread.sleep(500);
 
-        List<Float> queryVector = generateMockEmbedding(1536);
+        float[] queryVector = generateMockEmbedding(1536);
 
         List<Points.ScoredPoint> resultsForDoc1 = vectorStorageService.search(
                 workspaceId, projectId, List.of(documentId1),
@@ -154,6 +154,25 @@ class QdrantIntegrationIT extends BaseIntegrationTest {
         }
     }
 
+    @Test
+    void shouldFindExactIdentifierWithHybridSearch() throws Exception {
+        List<EmbeddedChunk> chunks = new ArrayList<>(createTestChunks(4));
+        chunks.add(new EmbeddedChunk(documentId, 9, 900, 1000, generateMockEmbedding(1536),
+                "Payment fails with ERR-4021 when the card issuer declines", 4));
+        ChunkMetadata metadata = new ChunkMetadata(workspaceId, projectId);
+
+        vectorStorageService.upsert(chunks, metadata);
+        Thread.sleep(500);
+
+        List<Points.ScoredPoint> results = vectorStorageService.hybridSearch(
+                workspaceId, projectId, List.of(documentId),
+                generateMockEmbedding(1536), "what does ERR-4021 mean", 3, null
+        );
+
+        assertThat(results).isNotEmpty();
+        assertThat(results.get(0).getPayloadMap().get("content").getStringValue()).contains("ERR-4021");
+    }
+
     private List<EmbeddedChunk> createTestChunks(int count) {
         return createTestChunksForDocument(documentId, count);
     }
@@ -174,18 +193,18 @@ class QdrantIntegrationIT extends BaseIntegrationTest {
         return chunks;
     }
 
-    private List<Float> generateMockEmbedding(int dimensions) {
-        List<Float> embedding = new ArrayList<>();
+    private float[] generateMockEmbedding(int dimensions) {
+        float[] embedding = new float[dimensions];
         for (int i = 0; i < dimensions; i++) {
-            embedding.add((float) Math.random());
+            embedding[i] = (float) Math.random();
         }
         float norm = 0;
-        for (Float f : embedding) {
+        for (float f : embedding) {
             norm += f * f;
         }
         norm = (float) Math.sqrt(norm);
-        for (int i = 0; i < embedding.size(); i++) {
-            embedding.set(i, embedding.get(i) / norm);
+        for (int i = 0; i < embedding.length; i++) {
+            embedding[i] = embedding[i] / norm;
         }
         return embedding;
     }
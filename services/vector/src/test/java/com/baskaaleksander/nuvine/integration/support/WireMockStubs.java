@@ -1,8 +1,10 @@
 package com.baskaaleksander.nuvine.integration.support;
 
+import com.baskaaleksander.nuvine.infrastructure.serialization.EmbeddingCodec;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -14,15 +16,13 @@ public class WireMockStubs {
         this.wireMockServer = wireMockServer;
     }
 
-    public void stubLlmRouterEmbeddings(List<Float> embedding) {
+    public void stubLlmRouterEmbeddings(float[] embedding) {
         stubLlmRouterEmbeddingsBatch(List.of(embedding));
     }
 
-    public void stubLlmRouterEmbeddingsBatch(List<List<Float>> embeddings) {
+    public void stubLlmRouterEmbeddingsBatch(List<float[]> embeddings) {
         String embeddingsJson = embeddings.stream()
-                .map(emb -> emb.stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.joining(",", "[", "]")))
+                .map(emb -> "\"" + Base64.getEncoder().encodeToString(EmbeddingCodec.toBytes(emb)) + "\"")
                 .collect(Collectors.joining(",", "[", "]"));
 
         String responseBody = String.format("""
@@ -1,5 +1,6 @@
 package com.baskaaleksander.nuvine.application.controller;
 
+import com.baskaaleksander.nuvine.application.dto.ProjectChatContextResponse;
 import com.baskaaleksander.nuvine.domain.service.ProjectInternalService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -9,7 +10,9 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -29,4 +32,20 @@ public class ProjectInternalController {
     ) {
         return ResponseEntity.ok(projectInternalService.getDocumentIdsInProject(projectId));
     }
+
+    @PreAuthorize("@workspaceAccess.canViewWorkspace(#workspaceId, #jwt.subject)")
+    @GetMapping("/{projectId}/chat-context")
+    public ResponseEntity<ProjectChatContextResponse> getChatContext(
+            @PathVariable UUID projectId,
+            @RequestParam UUID workspaceId,
+            @AuthenticationPrincipal Jwt jwt,
+            WebRequest webRequest
+    ) {
+        String version = projectInternalService.getChatContextVersion(workspaceId, projectId);
+        // Sets the ETag header and answers 304 when the caller already holds this version.
+        if (webRequest.checkNotModified(version)) {
+            return null;
+        }
+        return ResponseEntity.ok(projectInternalService.getChatContext(workspaceId, projectId, version));
+    }
 }
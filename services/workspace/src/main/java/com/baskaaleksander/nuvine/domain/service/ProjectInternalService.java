@@ -1,10 +1,15 @@
 package com.baskaaleksander.nuvine.domain.service;
 
+import com.baskaaleksander.nuvine.application.dto.ProjectChatContextResponse;
+import com.baskaaleksander.nuvine.domain.exception.ProjectNotFoundException;
+import com.baskaaleksander.nuvine.domain.model.Project;
 import com.baskaaleksander.nuvine.infrastructure.repository.DocumentRepository;
+import com.baskaaleksander.nuvine.infrastructure.repository.ProjectRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,8 +19,29 @@ import java.util.UUID;
 public class ProjectInternalService {
 
     private final DocumentRepository documentRepository;
+    private final ProjectRepository projectRepository;
 
     public List<UUID> getDocumentIdsInProject(UUID projectId) {
         return documentRepository.findDocIdsByProjectId(projectId);
     }
+
+    public String getChatContextVersion(UUID workspaceId, UUID projectId) {
+        Project project = projectRepository.findById(projectId)
+                .filter(p -> !p.isDeleted() && p.getWorkspaceId().equals(workspaceId))
+                .orElseThrow(() -> new ProjectNotFoundException("Project not found"));
+
+        DocumentRepository.DocumentSetVersion documents = documentRepository.getDocumentSetVersion(projectId);
+        Instant lastUpdatedAt = documents.getLastUpdatedAt();
+
+        return project.getVersion()
+                + "-" + documents.getCount()
+                + "-" + documents.getVersionSum()
+                + "-" + (lastUpdatedAt != null ? lastUpdatedAt.toEpochMilli() : 0);
+    }
+
+    public ProjectChatContextResponse getChatContext(UUID workspaceId, UUID projectId, String version) {
+        List<UUID> documentIds = documentRepository.findDocIdsByProjectId(projectId);
+        log.info("PROJECT_CHAT_CONTEXT projectId={} documentsCount={} version={}", projectId, documentIds.size(), version);
+        return new ProjectChatContextResponse(workspaceId, projectId, documentIds, version);
+    }
 }
@@ -24,6 +24,14 @@ public interface DocumentRepository extends JpaRepository<Document, UUID> {
     @Query("select d.id from Document d where d.projectId = :projectId and d.deleted = false")
     List<UUID> findDocIdsByProjectId(UUID projectId);
 
+    // Covers soft-deleted rows too, so any insert, update or delete in the project changes the result.
+    @Query("""
+            select count(d) as count, coalesce(sum(d.version), 0) as versionSum, max(d.updatedAt) as lastUpdatedAt
+            from Document d
+            where d.projectId = :projectId
+            """)
+    DocumentSetVersion getDocumentSetVersion(UUID projectId);
+
     @Query("""
             SELECT d FROM Document d
             WHERE d.projectId = :projectId
@@ -39,4 +47,12 @@ public interface DocumentRepository extends JpaRepository<Document, UUID> {
             @Param("createdAtTo") Instant createdAtTo,
             Pageable pageable
     );
+
+    interface DocumentSetVersion {
+        long getCount();
+
+        long getVersionSum();
+
+        Instant getLastUpdatedAt();
+    }
 }
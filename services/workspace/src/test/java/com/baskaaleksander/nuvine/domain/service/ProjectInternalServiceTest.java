@@ -0,0 +1,138 @@
+package com.baskaaleksander.nuvine.domain.service;
+
+import com.baskaaleksander.nuvine.application.dto.ProjectChatContextResponse;
+import com.baskaaleksander.nuvine.domain.exception.ProjectNotFoundException;
+import com.baskaaleksander.nuvine.domain.model.Project;
+import com.baskaaleksander.nuvine.infrastructure.repository.DocumentRepository;
+import com.baskaaleksander.nuvine.infrastructure.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectInternalServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @InjectMocks
+    private ProjectInternalService projectInternalService;
+
+    private UUID workspaceId;
+    private UUID projectId;
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        workspaceId = UUID.randomUUID();
+        projectId = UUID.randomUUID();
+        project = Project.builder()
+                .id(projectId)
+                .name("Wine notes")
+                .workspaceId(workspaceId)
+                .deleted(false)
+                .version(3L)
+                .build();
+    }
+
+    private DocumentRepository.DocumentSetVersion documentSet(long count, long versionSum, Instant lastUpdatedAt) {
+        return new DocumentRepository.DocumentSetVersion() {
+            @Override
+            public long getCount() {
+                return count;
+            }
+
+            @Override
+            public long getVersionSum() {
+                return versionSum;
+            }
+
+            @Override
+            public Instant getLastUpdatedAt() {
+                return lastUpdatedAt;
+            }
+        };
+    }
+
+    @Test
+    void getChatContextVersion_projectInWorkspace_combinesProjectAndDocumentVersions() {
+        Instant updatedAt = Instant.parse("2026-01-01T10:00:00Z");
+        when(projectRepository.findById(projectId)).thenReturn(Optional.of(project));
+        when(documentRepository.getDocumentSetVersion(projectId)).thenReturn(documentSet(2, 5, updatedAt));
+
+        String version = projectInternalService.getChatContextVersion(workspaceId, projectId);
+
+        assertEquals("3-2-5-" + updatedAt.toEpochMilli(), version);
+    }
+
+    @Test
+    void getChatContextVersion_documentChanged_changesVersion() {
+        Instant updatedAt = Instant.parse("2026-01-01T10:00:00Z");
+        when(projectRepository.findById(projectId)).thenReturn(Optional.of(project));
+        when(documentRepository.getDocumentSetVersion(projectId))
+                .thenReturn(documentSet(2, 5, updatedAt))
+                .thenReturn(documentSet(2, 6, updatedAt.plusSeconds(1)));
+
+        String before = projectInternalService.getChatContextVersion(workspaceId, projectId);
+        String after = projectInternalService.getChatContextVersion(workspaceId, projectId);
+
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void getChatContextVersion_emptyProject_usesZeroTimestamp() {
+        when(projectRepository.findById(projectId)).thenReturn(Optional.of(project));
+        when(documentRepository.getDocumentSetVersion(projectId)).thenReturn(documentSet(0, 0, null));
+
+        String version = projectInternalService.getChatContextVersion(workspaceId, projectId);
+
+        assertEquals("3-0-0-0", version);
+    }
+
+    @Test
+    void getChatContextVersion_projectInOtherWorkspace_throwsProjectNotFoundException() {
+        when(projectRepository.findById(projectId)).thenReturn(Optional.of(project));
+
+        assertThrows(ProjectNotFoundException.class,
+                () -> projectInternalService.getChatContextVersion(UUID.randomUUID(), projectId));
+
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void getChatContextVersion_deletedProject_throwsProjectNotFoundException() {
+        project.setDeleted(true);
+        when(projectRepository.findById(projectId)).thenReturn(Optional.of(project));
+
+        assertThrows(ProjectNotFoundException.class,
+                () -> projectInternalService.getChatContextVersion(workspaceId, projectId));
+    }
+
+    @Test
+    void getChatContext_returnsDocumentIdsWithVersion() {
+        List<UUID> documentIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(documentRepository.findDocIdsByProjectId(projectId)).thenReturn(documentIds);
+
+        ProjectChatContextResponse response = projectInternalService.getChatContext(workspaceId, projectId, "3-2-5-0");
+
+        assertEquals(workspaceId, response.workspaceId());
+        assertEquals(projectId, response.projectId());
+        assertEquals(documentIds, response.documentIds());
+        assertEquals("3-2-5-0", response.version());
+    }
+}
@@ -25,7 +25,6 @@ import java.util.concurrent.TimeUnit;
 @Profile("integrationtest")
 public class TestCacheConfiguration {
 
-    public static final String KEYCLOAK_TOKEN_CACHE = "keycloak-tokens";
 
     @Value("${spring.data.redis.host}")
     private String redisHost;
@@ -61,7 +60,6 @@ public class TestCacheConfiguration {
 
         MutableConfiguration<String, Object> rateBucketConfig = createConfig(TimeUnit.HOURS, 2);
         MutableConfiguration<String, Object> accessConfig = createConfig(TimeUnit.MINUTES, 15);
-        MutableConfiguration<String, Object> keycloakTokenConfig = createConfig(TimeUnit.MINUTES, 4);
 
         createCache(manager, redissonClient, "workspace-service-buckets", rateBucketConfig);
 
@@ -78,7 +76,6 @@ public class TestCacheConfiguration {
         createCache(manager, redissonClient, "entity-document", accessConfig);
         createCache(manager, redissonClient, "entity-document-internal", accessConfig);
 
-        createCache(manager, redissonClient, KEYCLOAK_TOKEN_CACHE, keycloakTokenConfig);
 
         return manager;
     }